@@ -30,6 +30,10 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    // Вызовы android.util.Log в JVM-тестах возвращают значения по умолчанию
+    testOptions {
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
@@ -45,6 +49,7 @@ dependencies {
     
     // Room Database
     implementation(libs.room.runtime)
+    implementation(libs.room.rxjava3)
     annotationProcessor(libs.room.compiler)
 
     // Firebase
@@ -70,6 +75,8 @@ dependencies {
     implementation("com.squareup.retrofit2:adapter-rxjava3:2.9.0")
 
     testImplementation(libs.junit)
+    // В android.jar для JVM-тестов org.json - заглушки
+    testImplementation("org.json:json:20240303")
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }
\ No newline at end of file
@@ -6,7 +6,11 @@ import android.util.Log;
 import com.draker.swipetime.api.ApiDataManager;
 import com.draker.swipetime.api.ApiIntegrationManager;
 import com.draker.swipetime.database.AppDatabase;
+import com.draker.swipetime.database.DatabaseSchedulers;
+import com.draker.swipetime.repository.CatalogRepository;
+import com.draker.swipetime.repository.InteractionBitsets;
 import com.draker.swipetime.utils.DatabaseHelper;
+import com.draker.swipetime.utils.FacetIndex;
 import com.draker.swipetime.database.entities.ContentEntity;
 import com.draker.swipetime.repository.ContentRepository;
 import com.draker.swipetime.utils.ContentManager;
@@ -41,8 +45,39 @@ public class SwipeTimeApplication extends Application {
         FirebaseManager firebaseManager = FirebaseManager.getInstance(this);
         ContentManager contentManager = ContentManager.getInstance();
         contentManager.initialize(this);
+
+        // Очереди карточек из снимка прошлого запуска: первая карточка не ждет БД и API.
+        // Снимок читается в пуле БД, главный поток его не ждет
+        contentManager.restoreQueueSnapshot(this);
         
+        // Работа с базой данных не должна выполняться в главном потоке
+        DatabaseSchedulers.background().execute(() -> initializeDatabase(databaseHelper, firebaseManager));
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+
+        // Приложение ушло в фон или системе не хватает памяти - процесс может быть завершен
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            ContentManager.getInstance().saveQueueSnapshot(this);
+            DatabaseSchedulers.executor().execute(() -> InteractionBitsets.getInstance(this).flush());
+        }
+    }
+
+    /**
+     * Подготовить базу данных при запуске: очистка, базовые данные, избранное.
+     * Выполняется в фоновом пуле с пониженным приоритетом
+     */
+    private void initializeDatabase(DatabaseHelper databaseHelper, FirebaseManager firebaseManager) {
         try {
+            // Каталог открывается первым: его миграция переносит пользовательские таблицы
+            // из общего файла в базу пользовательских данных до первого обращения к ней
+            AppDatabase.getInstance(this).getOpenHelper().getWritableDatabase();
+
+            // Однократный перенос истории и избранного из SharedPreferences в user_interactions
+            databaseHelper.importLegacyInteractions();
+
             // Очистка тестовых данных при первом запуске
             if (isFirstLaunch) {
                 // Очищаем тестовые данные
@@ -57,8 +92,15 @@ public class SwipeTimeApplication extends Application {
             // Заполнить базу данных базовыми данными (только пользователя)
             databaseHelper.populateDatabase();
             
-            // Восстанавливаем состояние избранного
+            // Восстанавливаем состояние избранного и историю показов в каталоге
             databaseHelper.restoreFavoritesState();
+            databaseHelper.restoreSeenContent();
+
+            // Новый случайный порядок карточек на каждую сессию
+            new CatalogRepository(this).reseedShuffleKeys();
+
+            // Индекс фасетов для счетчиков на экране фильтров
+            FacetIndex.getInstance().ensureBuilt(this);
             
             // Проверка авторизации Firebase
             if (firebaseManager.isUserSignedIn()) {
@@ -74,7 +116,7 @@ public class SwipeTimeApplication extends Application {
             if (e.getMessage() != null && e.getMessage().contains("Migration didn't properly handle")) {
                 Log.e(TAG, "Ошибка миграции базы данных: " + e.getMessage());
                 
-                // Очистка базы данных при ошибке миграции
+                // Очистка каталога при ошибке миграции, пользовательские данные хранятся отдельно
                 Log.d(TAG, "Пытаемся удалить и пересоздать базу данных");
                 
                 // Закрываем соединение с базой данных
@@ -87,6 +129,7 @@ public class SwipeTimeApplication extends Application {
                 // Пересоздаем базу данных
                 if (deleted) {
                     databaseHelper.populateDatabase();
+                    databaseHelper.restoreSeenContent();
                     Log.d(TAG, "База данных успешно пересоздана");
                     
                     // Также инициализируем интеграцию внешних API
@@ -167,9 +210,9 @@ public class SwipeTimeApplication extends Application {
         ApiDataManager.getInstance().resetAllLoadedItems();
         ApiDataManager.getInstance().resetAllPageTokens();
         
-        // Сбрасываем историю показа контента
+        // Сбрасываем историю показа контента. Очереди карточек не трогаем:
+        // при запуске в них только карточки из снимка прошлой сессии
         ContentManager contentManager = ContentManager.getInstance();
-        contentManager.resetAllCaches();
         contentManager.resetAllHistory(this);
         
         Log.d(TAG, "Все кеши успешно сброшены");
@@ -180,7 +223,7 @@ public class SwipeTimeApplication extends Application {
      */
     private void initializeApiIntegration() {
         // Загружаем данные асинхронно, чтобы не блокировать запуск приложения
-        new Thread(() -> {
+        DatabaseSchedulers.background().execute(() -> {
             ApiIntegrationManager apiManager = ApiIntegrationManager.getInstance(this);
             apiManager.initializeApiIntegration(new ApiIntegrationManager.ApiInitCallback() {
                 @Override
@@ -193,6 +236,6 @@ public class SwipeTimeApplication extends Application {
                     Log.e(TAG, "Ошибка при инициализации интеграции API: " + errorMessage);
                 }
             });
-        }).start();
+        });
     }
 }
\ No newline at end of file
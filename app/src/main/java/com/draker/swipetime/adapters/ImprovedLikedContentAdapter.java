@@ -17,6 +17,7 @@ import com.draker.swipetime.models.ContentItem;
 import com.draker.swipetime.utils.ImageManager;
 import com.draker.swipetime.utils.ContentManager;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -61,6 +62,21 @@ public class ImprovedLikedContentAdapter extends RecyclerView.Adapter<ImprovedLi
         notifyDataSetChanged();
     }
 
+    /**
+     * Добавляет элементы в конец списка (догрузка следующей страницы)
+     */
+    public void addItems(List<ContentItem> newItems) {
+        if (newItems.isEmpty()) {
+            return;
+        }
+        if (items == null) {
+            items = new ArrayList<>();
+        }
+        int start = items.size();
+        items.addAll(newItems);
+        notifyItemRangeInserted(start, newItems.size());
+    }
+
     static class LikedViewHolder extends RecyclerView.ViewHolder {
         private TextView titleTextView;
         private TextView descriptionTextView;
@@ -4,6 +4,7 @@ import android.app.Application;
 import android.util.Log;
 
 import com.draker.swipetime.adapters.CardStackAdapter;
+import com.draker.swipetime.database.DatabaseSchedulers;
 import com.draker.swipetime.database.entities.AnimeEntity;
 import com.draker.swipetime.database.entities.BookEntity;
 import com.draker.swipetime.database.entities.ContentEntity;
@@ -11,6 +12,7 @@ import com.draker.swipetime.database.entities.GameEntity;
 import com.draker.swipetime.database.entities.MovieEntity;
 import com.draker.swipetime.database.entities.TVShowEntity;
 import com.draker.swipetime.models.ContentItem;
+import com.draker.swipetime.repository.UserPreferencesRepository;
 import com.draker.swipetime.utils.ContentManager;
 
 import java.util.ArrayList;
@@ -18,14 +20,27 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+
 /**
  * Класс для загрузки контента из API и обновления адаптера
  */
 public class ApiContentLoader {
     private static final String TAG = "ApiContentLoader";
+
+    // Пользователь по умолчанию, чья история исключается из выдачи
+    private static final String USER_ID = "user_1";
+
+    // Сколько карточек добавляется в адаптер после загрузки страницы
+    private static final int CARDS_PER_PAGE = 20;
+
     private final ApiManager apiManager;
     private final CardStackAdapter adapter;
     private final Application application;
+    private final UserPreferencesRepository preferencesRepository;
+    private final CompositeDisposable disposables = new CompositeDisposable();
     private String currentCategory;
     private int currentPage = 1;
     private boolean isLoading = false;
@@ -43,6 +58,7 @@ public class ApiContentLoader {
         this.apiManager = new ApiManager(application);
         this.adapter = adapter;
         this.application = application;
+        this.preferencesRepository = new UserPreferencesRepository(application);
     }
 
     /**
@@ -90,10 +106,8 @@ public class ApiContentLoader {
                     }
                 }
                 
-                // Перемешиваем элементы для разнообразия
-                List<ContentItem> shuffledItems = ContentManager.getInstance().shuffleContent(items, category);
-                
-                adapter.addItems(shuffledItems);
+                // Страница уже сохранена в каталог: добавляем следующие карточки перемешанного обхода
+                addNextShuffledItems(category);
                 currentPage++;
                 
                 // Если полученных элементов мало, загружаем еще
@@ -147,10 +161,8 @@ public class ApiContentLoader {
                     return;
                 }
                 
-                // Перемешиваем элементы для разнообразия
-                List<ContentItem> shuffledItems = ContentManager.getInstance().shuffleContent(items, currentCategory);
-                
-                adapter.addItems(shuffledItems);
+                // Страница уже сохранена в каталог: добавляем следующие карточки перемешанного обхода
+                addNextShuffledItems(currentCategory);
                 currentPage++;
                 
                 Log.d(TAG, "Добавлено " + items.size() + " новых элементов контента, текущая страница: " + currentPage);
@@ -420,7 +432,7 @@ public class ApiContentLoader {
     public void markCardAsViewed(String itemId) {
         if (itemId != null && !itemId.isEmpty()) {
             loadedItemIds.add(itemId);
-            ContentManager.getInstance().markContentRated(application, currentCategory, itemId, false);
+            ContentManager.getInstance().markContentViewed(currentCategory, itemId);
         }
     }
     
@@ -433,10 +445,57 @@ public class ApiContentLoader {
         Log.d(TAG, "История просмотра сброшена для категории: " + currentCategory);
     }
 
+    /**
+     * Добавить в адаптер следующие карточки категории из перемешанного обхода каталога,
+     * пропуская уже лежащие в адаптере. Выборка выполняется в пуле БД
+     * @param category тип контента ("movie", "tv_show" и т.д.)
+     */
+    private void addNextShuffledItems(String category) {
+        String categoryName = categoryNameFor(category);
+        if (categoryName == null) {
+            return;
+        }
+
+        Set<String> currentIds = new HashSet<>();
+        for (ContentItem item : adapter.getItems()) {
+            currentIds.add(item.getId());
+        }
+
+        disposables.add(Single.fromCallable(() -> ContentManager.getInstance().nextShuffledItems(
+                        categoryName, USER_ID, preferencesRepository, CARDS_PER_PAGE, currentIds))
+                .subscribeOn(DatabaseSchedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(adapter::addItems,
+                        error -> Log.e(TAG, "Error shuffling content for category " + category + ": " + error.getMessage())));
+    }
+
+    /**
+     * Название категории каталога для типа контента API
+     * @param category тип контента
+     * @return название категории или null, если тип неизвестен
+     */
+    private static String categoryNameFor(String category) {
+        switch (category) {
+            case "movie":
+                return "Фильмы";
+            case "tv_show":
+                return "Сериалы";
+            case "game":
+                return "Игры";
+            case "book":
+                return "Книги";
+            case "anime":
+                return "Аниме";
+            default:
+                return null;
+        }
+    }
+
     /**
      * Очистить ресурсы
      */
     public void clear() {
+        disposables.clear();
         apiManager.clear();
     }
 }
\ No newline at end of file
@@ -3,6 +3,9 @@ package com.draker.swipetime.api;
 import android.app.Application;
 import android.util.Log;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.draker.swipetime.database.entities.AnimeEntity;
@@ -27,6 +30,10 @@ import java.util.List;
  */
 public class ApiIntegrationManager {
     private static final String TAG = "ApiIntegrationManager";
+    // Сколько страниц каждой категории загружается при первой загрузке
+    private static final int FIRST_LOAD_PAGES = 2;
+    // Верхняя граница страниц одного обновления категории (PrefetchScheduler просит до 60 карточек)
+    private static final int MAX_REFRESH_PAGES = 3;
     private static ApiIntegrationManager instance;
     
     private final Application application;
@@ -40,6 +47,9 @@ public class ApiIntegrationManager {
     
     // Добавляем ApiIntegrationHelper
     private final ApiIntegrationHelper apiIntegrationHelper;
+
+    // Callback текущего обновления по категории API ("movie", "book" и т.д.)
+    private final Map<String, ApiInitCallback> activeRefreshes = new ConcurrentHashMap<>();
     
     /**
      * Интерфейс для обратного вызова при инициализации API
@@ -48,6 +58,29 @@ public class ApiIntegrationManager {
         void onComplete(boolean success);
         void onError(String errorMessage);
     }
+
+    /**
+     * Обертка над callback, которая передает только первое завершение загрузки:
+     * ошибки нескольких страниц и поздний успех после ошибки не вызывают его повторно
+     */
+    private static ApiInitCallback once(ApiInitCallback callback) {
+        final AtomicBoolean finished = new AtomicBoolean(false);
+        return new ApiInitCallback() {
+            @Override
+            public void onComplete(boolean success) {
+                if (finished.compareAndSet(false, true)) {
+                    callback.onComplete(success);
+                }
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                if (finished.compareAndSet(false, true)) {
+                    callback.onError(errorMessage);
+                }
+            }
+        };
+    }
     
     /**
      * Получить экземпляр менеджера интеграции API
@@ -450,23 +483,23 @@ public class ApiIntegrationManager {
         switch (categoryName.toLowerCase()) {
             case "фильмы":
             case "movie":
-                loadMoviesData(20, callback);
+                loadMoviesData(FIRST_LOAD_PAGES * ApiConstants.PAGE_SIZE, callback);
                 break;
             case "сериалы":
             case "tv_show":
-                loadTVShowsData(20, callback);
+                loadTVShowsData(FIRST_LOAD_PAGES * ApiConstants.PAGE_SIZE, callback);
                 break;
             case "игры":
             case "game":
-                loadGamesData(20, callback);
+                loadGamesData(FIRST_LOAD_PAGES * ApiConstants.PAGE_SIZE, callback);
                 break;
             case "книги":
             case "book":
-                loadBooksData(20, callback);
+                loadBooksData(FIRST_LOAD_PAGES * ApiConstants.PAGE_SIZE, callback);
                 break;
             case "аниме":
             case "anime":
-                loadAnimeData(20, callback);
+                loadAnimeData(FIRST_LOAD_PAGES * ApiConstants.PAGE_SIZE, callback);
                 break;
             default:
                 callback.onError("Неизвестная категория: " + categoryName);
@@ -484,47 +517,44 @@ public class ApiIntegrationManager {
         Log.d(TAG, "Обновление контента для категории: " + categoryName);
         
         // Определяем тип API в зависимости от категории
-        String apiCategory;
-        switch (categoryName.toLowerCase()) {
-            case "фильмы":
-                apiCategory = "movie";
-                break;
-            case "сериалы":
-                apiCategory = "tv_show";
-                break;
-            case "игры":
-                apiCategory = "game";
-                break;
-            case "книги":
-                apiCategory = "book";
-                break;
-            case "аниме":
-                apiCategory = "anime";
-                break;
-            default:
-                apiCategory = "movie"; // По умолчанию используем фильмы
-                break;
-        }
+        String apiCategory = apiCategoryFor(categoryName);
         
         // Сбрасываем кеш для выбранной категории
         apiManager.resetCategoryCache(apiCategory);
-        
+
+        // Запоминаем callback, чтобы cancelCategoryRefresh мог завершить обновление
+        final ApiInitCallback result = once(callback);
+        activeRefreshes.put(apiCategory, result);
+        ApiInitCallback tracked = new ApiInitCallback() {
+            @Override
+            public void onComplete(boolean success) {
+                activeRefreshes.remove(apiCategory, result);
+                result.onComplete(success);
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                activeRefreshes.remove(apiCategory, result);
+                result.onError(errorMessage);
+            }
+        };
+
         // Загружаем свежие данные для конкретной категории
         switch (apiCategory) {
             case "movie":
-                loadMoviesData(itemsCount, callback);
+                loadMoviesData(itemsCount, tracked);
                 break;
             case "tv_show":
-                loadTVShowsData(itemsCount, callback);
+                loadTVShowsData(itemsCount, tracked);
                 break;
             case "game":
-                loadGamesData(itemsCount, callback);
+                loadGamesData(itemsCount, tracked);
                 break;
             case "book":
-                loadBooksData(itemsCount, callback);
+                loadBooksData(itemsCount, tracked);
                 break;
             case "anime":
-                loadAnimeData(itemsCount, callback);
+                loadAnimeData(itemsCount, tracked);
                 break;
             default:
                 callback.onError("Неизвестная категория: " + categoryName);
@@ -532,27 +562,73 @@ public class ApiIntegrationManager {
         }
     }
     
+    /**
+     * Отменить обновление категории, начатое refreshCategoryContent: запросы к API
+     * прерываются, несохраненные страницы в БД не попадают, а callback обновления
+     * получает onComplete(false)
+     * @param categoryName название категории
+     */
+    public void cancelCategoryRefresh(String categoryName) {
+        String apiCategory = apiCategoryFor(categoryName);
+        apiManager.cancelCategory(apiCategory);
+        ApiInitCallback active = activeRefreshes.remove(apiCategory);
+        if (active != null) {
+            Log.d(TAG, "Обновление категории " + categoryName + " отменено");
+            active.onComplete(false);
+        }
+    }
+
+    /**
+     * Тип API для категории; по умолчанию используем фильмы
+     */
+    private static String apiCategoryFor(String categoryName) {
+        switch (categoryName.toLowerCase()) {
+            case "сериалы":
+                return "tv_show";
+            case "игры":
+                return "game";
+            case "книги":
+                return "book";
+            case "аниме":
+                return "anime";
+            case "фильмы":
+            default:
+                return "movie";
+        }
+    }
+
+    /**
+     * Сколько страниц API нужно для itemsCount элементов
+     */
+    private static int pagesFor(int itemsCount) {
+        int pages = (itemsCount + ApiConstants.PAGE_SIZE - 1) / ApiConstants.PAGE_SIZE;
+        return Math.max(1, Math.min(MAX_REFRESH_PAGES, pages));
+    }
+    
     /**
      * Загрузить данные о фильмах
      * @param itemsCount количество элементов для загрузки
      * @param callback обратный вызов по завершении загрузки
      */
     private void loadMoviesData(int itemsCount, ApiInitCallback callback) {
-        for (int page = 1; page <= 2; page++) {
+        final ApiInitCallback result = once(callback);
+        final int pagesCount = pagesFor(itemsCount);
+        final AtomicInteger loadedPages = new AtomicInteger(0);
+        for (int page = 1; page <= pagesCount; page++) {
             final int currentPage = page;
             apiManager.loadPopularMovies(currentPage, new ApiManager.ApiCallback<MovieEntity>() {
                 @Override
                 public void onSuccess(List<MovieEntity> data) {
                     Log.d(TAG, "Загружено " + data.size() + " фильмов (страница " + currentPage + ")");
-                    if (currentPage == 2) {
-                        callback.onComplete(true);
+                    if (loadedPages.incrementAndGet() == pagesCount) {
+                        result.onComplete(true);
                     }
                 }
 
                 @Override
                 public void onError(Throwable error) {
                     Log.e(TAG, "Ошибка загрузки фильмов: " + error.getMessage());
-                    callback.onError(error.getMessage());
+                    result.onError(error.getMessage());
                 }
             });
         }
@@ -564,21 +640,24 @@ public class ApiIntegrationManager {
      * @param callback обратный вызов по завершении загрузки
      */
     private void loadTVShowsData(int itemsCount, ApiInitCallback callback) {
-        for (int page = 1; page <= 2; page++) {
+        final ApiInitCallback result = once(callback);
+        final int pagesCount = pagesFor(itemsCount);
+        final AtomicInteger loadedPages = new AtomicInteger(0);
+        for (int page = 1; page <= pagesCount; page++) {
             final int currentPage = page;
             apiManager.loadPopularTVShows(currentPage, new ApiManager.ApiCallback<TVShowEntity>() {
                 @Override
                 public void onSuccess(List<TVShowEntity> data) {
                     Log.d(TAG, "Загружено " + data.size() + " сериалов (страница " + currentPage + ")");
-                    if (currentPage == 2) {
-                        callback.onComplete(true);
+                    if (loadedPages.incrementAndGet() == pagesCount) {
+                        result.onComplete(true);
                     }
                 }
 
                 @Override
                 public void onError(Throwable error) {
                     Log.e(TAG, "Ошибка загрузки сериалов: " + error.getMessage());
-                    callback.onError(error.getMessage());
+                    result.onError(error.getMessage());
                 }
             });
         }
@@ -590,21 +669,24 @@ public class ApiIntegrationManager {
      * @param callback обратный вызов по завершении загрузки
      */
     private void loadGamesData(int itemsCount, ApiInitCallback callback) {
-        for (int page = 1; page <= 2; page++) {
+        final ApiInitCallback result = once(callback);
+        final int pagesCount = pagesFor(itemsCount);
+        final AtomicInteger loadedPages = new AtomicInteger(0);
+        for (int page = 1; page <= pagesCount; page++) {
             final int currentPage = page;
             apiManager.loadPopularGames(currentPage, new ApiManager.ApiCallback<GameEntity>() {
                 @Override
                 public void onSuccess(List<GameEntity> data) {
                     Log.d(TAG, "Загружено " + data.size() + " игр (страница " + currentPage + ")");
-                    if (currentPage == 2) {
-                        callback.onComplete(true);
+                    if (loadedPages.incrementAndGet() == pagesCount) {
+                        result.onComplete(true);
                     }
                 }
 
                 @Override
                 public void onError(Throwable error) {
                     Log.e(TAG, "Ошибка загрузки игр: " + error.getMessage());
-                    callback.onError(error.getMessage());
+                    result.onError(error.getMessage());
                 }
             });
         }
@@ -619,21 +701,24 @@ public class ApiIntegrationManager {
         // Для книг используем разные поисковые запросы для получения разнообразного контента
         String[] queries = {"fantasy", "science", "history", "novel", "classic"};
         
-        for (int i = 0; i < Math.min(queries.length, 2); i++) {
+        final ApiInitCallback result = once(callback);
+        final AtomicInteger loadedQueries = new AtomicInteger(0);
+        final int queriesCount = Math.min(queries.length, pagesFor(itemsCount));
+        for (int i = 0; i < queriesCount; i++) {
             final int index = i;
             apiManager.searchBooks(queries[i], 1, new ApiManager.ApiCallback<BookEntity>() {
                 @Override
                 public void onSuccess(List<BookEntity> data) {
                     Log.d(TAG, "Загружено " + data.size() + " книг (запрос: " + queries[index] + ")");
-                    if (index == Math.min(queries.length, 2) - 1) {
-                        callback.onComplete(true);
+                    if (loadedQueries.incrementAndGet() == queriesCount) {
+                        result.onComplete(true);
                     }
                 }
 
                 @Override
                 public void onError(Throwable error) {
                     Log.e(TAG, "Ошибка загрузки книг: " + error.getMessage());
-                    callback.onError(error.getMessage());
+                    result.onError(error.getMessage());
                 }
             });
         }
@@ -645,21 +730,24 @@ public class ApiIntegrationManager {
      * @param callback обратный вызов по завершении загрузки
      */
     private void loadAnimeData(int itemsCount, ApiInitCallback callback) {
-        for (int page = 1; page <= 2; page++) {
+        final ApiInitCallback result = once(callback);
+        final int pagesCount = pagesFor(itemsCount);
+        final AtomicInteger loadedPages = new AtomicInteger(0);
+        for (int page = 1; page <= pagesCount; page++) {
             final int currentPage = page;
             apiManager.loadTopAnime(currentPage, new ApiManager.ApiCallback<AnimeEntity>() {
                 @Override
                 public void onSuccess(List<AnimeEntity> data) {
                     Log.d(TAG, "Загружено " + data.size() + " аниме (страница " + currentPage + ")");
-                    if (currentPage == 2) {
-                        callback.onComplete(true);
+                    if (loadedPages.incrementAndGet() == pagesCount) {
+                        result.onComplete(true);
                     }
                 }
 
                 @Override
                 public void onError(Throwable error) {
                     Log.e(TAG, "Ошибка загрузки аниме: " + error.getMessage());
-                    callback.onError(error.getMessage());
+                    result.onError(error.getMessage());
                 }
             });
         }
@@ -7,6 +7,7 @@ import com.draker.swipetime.api.repositories.GoogleBooksRepository;
 import com.draker.swipetime.api.repositories.JikanRepository;
 import com.draker.swipetime.api.repositories.RawgRepository;
 import com.draker.swipetime.api.repositories.TMDbRepository;
+import com.draker.swipetime.database.DatabaseSchedulers;
 import com.draker.swipetime.database.entities.AnimeEntity;
 import com.draker.swipetime.database.entities.BookEntity;
 import com.draker.swipetime.database.entities.ContentEntity;
@@ -21,10 +22,14 @@ import com.draker.swipetime.repository.TVShowRepository;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
 import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.functions.Consumer;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 
 /**
@@ -45,6 +50,9 @@ public class ApiManager {
     private final AnimeRepository animeRepository;
 
     private final CompositeDisposable disposables = new CompositeDisposable();
+
+    // Загрузки страниц категорий ("movie", "book" и т.д.), отменяемые через cancelCategory
+    private final Map<String, CompositeDisposable> categoryLoads = new ConcurrentHashMap<>();
     
     // Добавляем ApiDataManager для управления уникальными данными
     private final ApiDataManager apiDataManager;
@@ -77,6 +85,49 @@ public class ApiManager {
         apiDataManager = ApiDataManager.getInstance();
     }
 
+    /**
+     * Сохраняет загруженную страницу одной транзакцией в пуле БД
+     * и передает элементы в callback в главном потоке
+     * @param owner набор подписок загрузки: после его отмены сохранение не начнется
+     * @param items элементы для сохранения
+     * @param saver метод репозитория для пакетного сохранения (bulkUpsert)
+     * @param callback обратный вызов с результатом
+     */
+    private <T extends ContentEntity> void saveAndDeliver(CompositeDisposable owner, List<T> items,
+                                                          Consumer<List<T>> saver, ApiCallback<T> callback) {
+        Disposable disposable = Completable.fromAction(() -> saver.accept(items))
+                .subscribeOn(DatabaseSchedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(
+                        () -> callback.onSuccess(items),
+                        error -> {
+                            Log.e(TAG, "Error saving loaded items: " + error.getMessage());
+                            callback.onError(error);
+                        }
+                );
+        owner.add(disposable);
+    }
+
+    /**
+     * Подписки текущих загрузок категории
+     */
+    private CompositeDisposable loadsFor(String category) {
+        return categoryLoads.computeIfAbsent(category, k -> new CompositeDisposable());
+    }
+
+    /**
+     * Отменить загрузки страниц категории: запросы к API прерываются, а страницы,
+     * которые еще не начали сохраняться, в БД не попадут. Callback отмененных загрузок не вызывается
+     * @param category категория ("movie", "tv_show", "game", "book", "anime")
+     */
+    public void cancelCategory(String category) {
+        CompositeDisposable loads = categoryLoads.remove(category);
+        if (loads != null) {
+            loads.dispose();
+            Log.d(TAG, "Отменены загрузки категории: " + category);
+        }
+    }
+
     /**
      * Загрузить популярные фильмы
      * @param page номер страницы
@@ -108,19 +159,15 @@ public class ApiManager {
                                 return;
                             }
                             
-                            // Сохраняем в базу данных
-                            for (MovieEntity movie : uniqueMovies) {
-                                movieRepository.insert(movie);
-                            }
-                            
-                            callback.onSuccess(uniqueMovies);
+                            // Сохраняем в базу данных в пуле БД, результат отдаем в главный поток
+                            saveAndDeliver(loadsFor("movie"), uniqueMovies, movieRepository::bulkUpsert, callback);
                         },
                         error -> {
                             Log.e(TAG, "Error loading popular movies: " + error.getMessage());
                             callback.onError(error);
                         }
                 );
-        disposables.add(disposable);
+        loadsFor("movie").add(disposable);
     }
 
     /**
@@ -154,19 +201,15 @@ public class ApiManager {
                                 return;
                             }
                             
-                            // Сохраняем в базу данных
-                            for (TVShowEntity tvShow : uniqueTVShows) {
-                                tvShowRepository.insert(tvShow);
-                            }
-                            
-                            callback.onSuccess(uniqueTVShows);
+                            // Сохраняем в базу данных в пуле БД, результат отдаем в главный поток
+                            saveAndDeliver(loadsFor("tv_show"), uniqueTVShows, tvShowRepository::bulkUpsert, callback);
                         },
                         error -> {
                             Log.e(TAG, "Error loading popular TV shows: " + error.getMessage());
                             callback.onError(error);
                         }
                 );
-        disposables.add(disposable);
+        loadsFor("tv_show").add(disposable);
     }
 
     /**
@@ -200,19 +243,15 @@ public class ApiManager {
                                 return;
                             }
                             
-                            // Сохраняем в базу данных
-                            for (GameEntity game : uniqueGames) {
-                                gameRepository.insert(game);
-                            }
-                            
-                            callback.onSuccess(uniqueGames);
+                            // Сохраняем в базу данных в пуле БД, результат отдаем в главный поток
+                            saveAndDeliver(loadsFor("game"), uniqueGames, gameRepository::bulkUpsert, callback);
                         },
                         error -> {
                             Log.e(TAG, "Error loading popular games: " + error.getMessage());
                             callback.onError(error);
                         }
                 );
-        disposables.add(disposable);
+        loadsFor("game").add(disposable);
     }
 
     /**
@@ -249,12 +288,8 @@ public class ApiManager {
                                     return;
                                 }
                                 
-                                // Сохраняем в базу данных
-                                for (BookEntity book : uniqueBooks) {
-                                    bookRepository.insert(book);
-                                }
-                                
-                                callback.onSuccess(uniqueBooks);
+                                // Сохраняем в базу данных в пуле БД, результат отдаем в главный поток
+                                saveAndDeliver(loadsFor("book"), uniqueBooks, bookRepository::bulkUpsert, callback);
                             } else {
                                 // Если не получили книги с ключом, пробуем без ключа
                                 Log.d(TAG, "No books found with API key, trying without key");
@@ -267,7 +302,7 @@ public class ApiManager {
                             trySearchBooksWithoutKey(query, pageToLoad, callback);
                         }
                 );
-        disposables.add(disposable);
+        loadsFor("book").add(disposable);
     }
     
     /**
@@ -289,19 +324,15 @@ public class ApiManager {
                                 return;
                             }
                             
-                            // Сохраняем в базу данных
-                            for (BookEntity book : uniqueBooks) {
-                                bookRepository.insert(book);
-                            }
-                            
-                            callback.onSuccess(uniqueBooks);
+                            // Сохраняем в базу данных в пуле БД, результат отдаем в главный поток
+                            saveAndDeliver(loadsFor("book"), uniqueBooks, bookRepository::bulkUpsert, callback);
                         },
                         error -> {
                             Log.e(TAG, "Error searching books without API key: " + error.getMessage());
                             callback.onError(error);
                         }
                 );
-        disposables.add(disposable);
+        loadsFor("book").add(disposable);
     }
 
     /**
@@ -335,19 +366,15 @@ public class ApiManager {
                                 return;
                             }
                             
-                            // Сохраняем в базу данных
-                            for (AnimeEntity anime : uniqueAnime) {
-                                animeRepository.insert(anime);
-                            }
-                            
-                            callback.onSuccess(uniqueAnime);
+                            // Сохраняем в базу данных в пуле БД, результат отдаем в главный поток
+                            saveAndDeliver(loadsFor("anime"), uniqueAnime, animeRepository::bulkUpsert, callback);
                         },
                         error -> {
                             Log.e(TAG, "Error loading top anime: " + error.getMessage());
                             callback.onError(error);
                         }
                 );
-        disposables.add(disposable);
+        loadsFor("anime").add(disposable);
     }
 
     /**
@@ -374,12 +401,8 @@ public class ApiManager {
                                 return;
                             }
                             
-                            // Сохраняем в базу данных
-                            for (MovieEntity movie : uniqueMovies) {
-                                movieRepository.insert(movie);
-                            }
-                            
-                            callback.onSuccess(uniqueMovies);
+                            // Сохраняем в базу данных в пуле БД, результат отдаем в главный поток
+                            saveAndDeliver(disposables, uniqueMovies, movieRepository::bulkUpsert, callback);
                         },
                         error -> {
                             Log.e(TAG, "Error searching movies: " + error.getMessage());
@@ -413,12 +436,8 @@ public class ApiManager {
                                 return;
                             }
                             
-                            // Сохраняем в базу данных
-                            for (TVShowEntity tvShow : uniqueTVShows) {
-                                tvShowRepository.insert(tvShow);
-                            }
-                            
-                            callback.onSuccess(uniqueTVShows);
+                            // Сохраняем в базу данных в пуле БД, результат отдаем в главный поток
+                            saveAndDeliver(disposables, uniqueTVShows, tvShowRepository::bulkUpsert, callback);
                         },
                         error -> {
                             Log.e(TAG, "Error searching TV shows: " + error.getMessage());
@@ -452,12 +471,8 @@ public class ApiManager {
                                 return;
                             }
                             
-                            // Сохраняем в базу данных
-                            for (GameEntity game : uniqueGames) {
-                                gameRepository.insert(game);
-                            }
-                            
-                            callback.onSuccess(uniqueGames);
+                            // Сохраняем в базу данных в пуле БД, результат отдаем в главный поток
+                            saveAndDeliver(disposables, uniqueGames, gameRepository::bulkUpsert, callback);
                         },
                         error -> {
                             Log.e(TAG, "Error searching games: " + error.getMessage());
@@ -491,12 +506,8 @@ public class ApiManager {
                                 return;
                             }
                             
-                            // Сохраняем в базу данных
-                            for (AnimeEntity anime : uniqueAnime) {
-                                animeRepository.insert(anime);
-                            }
-                            
-                            callback.onSuccess(uniqueAnime);
+                            // Сохраняем в базу данных в пуле БД, результат отдаем в главный поток
+                            saveAndDeliver(disposables, uniqueAnime, animeRepository::bulkUpsert, callback);
                         },
                         error -> {
                             Log.e(TAG, "Error searching anime: " + error.getMessage());
@@ -593,5 +604,8 @@ public class ApiManager {
      */
     public void clear() {
         disposables.clear();
+        for (CompositeDisposable loads : categoryLoads.values()) {
+            loads.clear();
+        }
     }
 }
\ No newline at end of file
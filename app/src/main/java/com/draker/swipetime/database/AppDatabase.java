@@ -1,6 +1,7 @@
 package com.draker.swipetime.database;
 
 import android.content.Context;
+import android.database.Cursor;
 
 import androidx.room.Database;
 import androidx.room.Room;
@@ -8,42 +9,41 @@ import androidx.room.RoomDatabase;
 import androidx.room.migration.Migration;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 
-import com.draker.swipetime.database.dao.AchievementDao;
-import com.draker.swipetime.database.dao.AnimeDao;
-import com.draker.swipetime.database.dao.BookDao;
-import com.draker.swipetime.database.dao.AchievementDao;
 import com.draker.swipetime.database.dao.AnimeDao;
 import com.draker.swipetime.database.dao.BookDao;
+import com.draker.swipetime.database.dao.CatalogDao;
+import com.draker.swipetime.database.dao.ContentCounterDao;
 import com.draker.swipetime.database.dao.ContentDao;
 import com.draker.swipetime.database.dao.GameDao;
+import com.draker.swipetime.database.dao.GenreDao;
 import com.draker.swipetime.database.dao.MovieDao;
-import com.draker.swipetime.database.dao.ReviewDao;
+import com.draker.swipetime.database.dao.SearchDao;
 import com.draker.swipetime.database.dao.TVShowDao;
-import com.draker.swipetime.database.dao.UserAchievementDao;
-import com.draker.swipetime.database.dao.UserDao;
-import com.draker.swipetime.database.dao.UserPreferencesDao;
-import com.draker.swipetime.database.dao.UserStatsDao;
-import com.draker.swipetime.database.entities.AchievementEntity;
-import com.draker.swipetime.database.entities.AnimeEntity;
-import com.draker.swipetime.database.entities.BookEntity;
-import com.draker.swipetime.database.entities.AchievementEntity;
-import com.draker.swipetime.database.entities.AnimeEntity;
-import com.draker.swipetime.database.entities.BookEntity;
-import com.draker.swipetime.database.entities.AchievementEntity;
 import com.draker.swipetime.database.entities.AnimeEntity;
+import com.draker.swipetime.database.entities.AnimeFtsEntity;
 import com.draker.swipetime.database.entities.BookEntity;
+import com.draker.swipetime.database.entities.BookFtsEntity;
+import com.draker.swipetime.database.entities.CatalogItemView;
+import com.draker.swipetime.database.entities.ContentCounterEntity;
 import com.draker.swipetime.database.entities.ContentEntity;
+import com.draker.swipetime.database.entities.ContentFtsEntity;
+import com.draker.swipetime.database.entities.ContentGenreCrossRef;
 import com.draker.swipetime.database.entities.GameEntity;
+import com.draker.swipetime.database.entities.GameFtsEntity;
+import com.draker.swipetime.database.entities.GenreEntity;
 import com.draker.swipetime.database.entities.MovieEntity;
-import com.draker.swipetime.database.entities.ReviewEntity;
+import com.draker.swipetime.database.entities.MovieFtsEntity;
+import com.draker.swipetime.database.entities.SeenContentEntity;
+import com.draker.swipetime.database.entities.ShuffleKeyEntity;
 import com.draker.swipetime.database.entities.TVShowEntity;
-import com.draker.swipetime.database.entities.UserAchievementCrossRef;
-import com.draker.swipetime.database.entities.UserEntity;
-import com.draker.swipetime.database.entities.UserPreferencesEntity;
-import com.draker.swipetime.database.entities.UserStatsEntity;
+import com.draker.swipetime.database.entities.TVShowFtsEntity;
+
+import java.util.Map;
 
 /**
- * Главный класс базы данных приложения
+ * База каталога: контент всех категорий, жанры, полнотекстовый поиск и служебные таблицы.
+ * Каталог можно удалить и заново наполнить из внешних API, пользовательские данные
+ * хранятся отдельно в {@link UserDatabase}
  */
 @Database(
     entities = {
@@ -53,19 +53,27 @@ import com.draker.swipetime.database.entities.UserStatsEntity;
         GameEntity.class,
         BookEntity.class,
         AnimeEntity.class,
-        UserEntity.class,
-        AchievementEntity.class,
-        UserAchievementCrossRef.class,
-        ReviewEntity.class,
-        UserStatsEntity.class,
-        UserPreferencesEntity.class
+        GenreEntity.class,
+        ContentGenreCrossRef.class,
+        MovieFtsEntity.class,
+        TVShowFtsEntity.class,
+        GameFtsEntity.class,
+        BookFtsEntity.class,
+        AnimeFtsEntity.class,
+        ContentFtsEntity.class,
+        ContentCounterEntity.class,
+        ShuffleKeyEntity.class,
+        SeenContentEntity.class
     },
-    version = 7,
+    views = {
+        CatalogItemView.class
+    },
+    version = 19,
     exportSchema = false
 )
 public abstract class AppDatabase extends RoomDatabase {
 
-    private static final String DATABASE_NAME = "swipetime-db";
+    public static final String DATABASE_NAME = "swipetime-db";
     private static AppDatabase instance;
     
     // Миграция с версии 1 на версию 2
@@ -485,6 +493,303 @@ public abstract class AppDatabase extends RoomDatabase {
         }
     };
 
+    // Миграция с версии 7 на версию 8 - индексы для SQL-фильтрации по предпочтениям
+    private static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_movies_release_year` ON `movies` (`release_year`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_movies_duration` ON `movies` (`duration`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_tv_shows_start_year` ON `tv_shows` (`start_year`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_games_release_year` ON `games` (`release_year`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_books_publish_year` ON `books` (`publish_year`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_anime_release_year` ON `anime` (`release_year`)");
+        }
+    };
+
+    // Миграция с версии 8 на версию 9 - словарь жанров и таблица связей контент-жанр
+    private static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `genres` (" +
+                    "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`name` TEXT, " +
+                    "`normalized_name` TEXT NOT NULL)");
+            database.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_genres_normalized_name` ON `genres` (`normalized_name`)");
+
+            createContentGenresTable(database);
+
+            // Заполняем связи из строк жанров существующего контента.
+            // Разбор выполняется в Java, чтобы нормализация совпадала с GenreRepository
+            for (String table : new String[]{"movies", "tv_shows", "games", "books", "anime"}) {
+                backfillGenres(database, table);
+            }
+        }
+    };
+
+    private static void createContentGenresTable(SupportSQLiteDatabase database) {
+        database.execSQL("CREATE TABLE IF NOT EXISTS `content_genres` (" +
+                "`source` TEXT NOT NULL, " +
+                "`content_id` TEXT NOT NULL, " +
+                "`genre_id` INTEGER NOT NULL, " +
+                "PRIMARY KEY(`source`, `content_id`, `genre_id`))");
+        database.execSQL("CREATE INDEX IF NOT EXISTS `index_content_genres_genre_id_source_content_id` " +
+                "ON `content_genres` (`genre_id`, `source`, `content_id`)");
+    }
+
+    private static void backfillGenres(SupportSQLiteDatabase database, String table) {
+        try (Cursor cursor = database.query("SELECT `id`, `genres` FROM `" + table + "` WHERE `genres` IS NOT NULL")) {
+            while (cursor.moveToNext()) {
+                String contentId = cursor.getString(0);
+                for (Map.Entry<String, String> genre : GenreUtils.split(cursor.getString(1)).entrySet()) {
+                    database.execSQL("INSERT OR IGNORE INTO `genres` (`name`, `normalized_name`) VALUES (?, ?)",
+                            new Object[]{genre.getValue(), genre.getKey()});
+                    database.execSQL("INSERT OR IGNORE INTO `content_genres` (`source`, `content_id`, `genre_id`) " +
+                                    "SELECT ?, ?, `id` FROM `genres` WHERE `normalized_name` = ?",
+                            new Object[]{table, contentId, genre.getKey()});
+                }
+            }
+        }
+    }
+
+    // Миграция с версии 9 на версию 10 - полнотекстовые индексы для поиска
+    private static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            for (String table : new String[]{"movies", "tv_shows", "games", "books", "anime", "content"}) {
+                createFtsIndex(database, table);
+            }
+        }
+    };
+
+    /**
+     * Создает FTS4-таблицу с внешним содержимым и те же триггеры синхронизации,
+     * что генерирует Room для @Fts4(contentEntity = ...), затем заполняет индекс
+     */
+    private static void createFtsIndex(SupportSQLiteDatabase database, String contentTable) {
+        String ftsTable = contentTable + "_fts";
+        database.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `" + ftsTable + "` USING FTS4(" +
+                "`title` TEXT, `description` TEXT, tokenize=unicode61, prefix=`2,3`, content=`" + contentTable + "`)");
+
+        String prefix = "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_" + ftsTable;
+        String delete = " BEGIN DELETE FROM `" + ftsTable + "` WHERE `docid`=OLD.`rowid`; END";
+        String insert = " BEGIN INSERT INTO `" + ftsTable + "`(`docid`, `title`, `description`) " +
+                "VALUES (NEW.`rowid`, NEW.`title`, NEW.`description`); END";
+        database.execSQL(prefix + "_BEFORE_UPDATE BEFORE UPDATE ON `" + contentTable + "`" + delete);
+        database.execSQL(prefix + "_BEFORE_DELETE BEFORE DELETE ON `" + contentTable + "`" + delete);
+        database.execSQL(prefix + "_AFTER_UPDATE AFTER UPDATE ON `" + contentTable + "`" + insert);
+        database.execSQL(prefix + "_AFTER_INSERT AFTER INSERT ON `" + contentTable + "`" + insert);
+
+        database.execSQL("INSERT INTO `" + ftsTable + "`(`" + ftsTable + "`) VALUES('rebuild')");
+    }
+
+    // Миграция с версии 10 на версию 11 - индексы для постраничной выборки по (created_at, id)
+    private static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            for (String table : new String[]{"movies", "tv_shows", "games", "books", "anime", "content"}) {
+                database.execSQL("CREATE INDEX IF NOT EXISTS `index_" + table + "_created_at_id` ON `" + table + "` (`created_at`, `id`)");
+                database.execSQL("CREATE INDEX IF NOT EXISTS `index_" + table + "_liked_created_at_id` ON `" + table + "` (`liked`, `created_at`, `id`)");
+            }
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_content_category_created_at_id` ON `content` (`category`, `created_at`, `id`)");
+        }
+    };
+
+    // Миграция с версии 11 на версию 12 - журнал взаимодействий пользователя с контентом
+    private static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `user_interactions` (" +
+                    "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`user_id` TEXT NOT NULL, " +
+                    "`content_id` TEXT NOT NULL, " +
+                    "`category` TEXT, " +
+                    "`action` TEXT NOT NULL, " +
+                    "`ts` INTEGER NOT NULL)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_user_interactions_user_id_action_ts` ON `user_interactions` (`user_id`, `action`, `ts`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_user_interactions_content_id` ON `user_interactions` (`content_id`)");
+        }
+    };
+
+    // Миграция с версии 12 на версию 13 - счетчики контента, поддерживаемые триггерами
+    private static final Migration MIGRATION_12_13 = new Migration(12, 13) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `content_counters` (" +
+                    "`table_name` TEXT NOT NULL, " +
+                    "`total` INTEGER NOT NULL, " +
+                    "`liked` INTEGER NOT NULL, " +
+                    "`watched` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`table_name`))");
+            createContentCounters(database);
+        }
+    };
+
+    // Миграция с версии 13 на версию 14 - единое представление контента всех категорий
+    private static final Migration MIGRATION_13_14 = new Migration(13, 14) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("DROP VIEW IF EXISTS `catalog_items`");
+            database.execSQL("CREATE VIEW `catalog_items` AS " + CatalogItemView.VIEW_SQL);
+        }
+    };
+
+    // Миграция с версии 14 на версию 15 - ключи случайного порядка показа карточек
+    private static final Migration MIGRATION_14_15 = new Migration(14, 15) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            createShuffleKeysTable(database);
+            createShuffleKeys(database);
+        }
+    };
+
+    // Миграция с версии 16 на версию 17 - плотные номера элементов в shuffle_keys.
+    // Ключи перевыбираются каждую сессию, поэтому таблица пересоздается вместе с триггерами
+    private static final Migration MIGRATION_16_17 = new Migration(16, 17) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            for (String[] counted : COUNTED_TABLES) {
+                database.execSQL("DROP TRIGGER IF EXISTS shuffle_keys_" + counted[0] + "_AFTER_INSERT");
+                database.execSQL("DROP TRIGGER IF EXISTS shuffle_keys_" + counted[0] + "_AFTER_DELETE");
+            }
+            database.execSQL("DROP TABLE IF EXISTS `shuffle_keys`");
+            createShuffleKeysTable(database);
+            createShuffleKeys(database);
+        }
+    };
+
+    private static void createShuffleKeysTable(SupportSQLiteDatabase database) {
+        database.execSQL("CREATE TABLE IF NOT EXISTS `shuffle_keys` (" +
+                "`source` TEXT NOT NULL, " +
+                "`content_id` TEXT NOT NULL, " +
+                "`shuffle_key` INTEGER NOT NULL, " +
+                "`ordinal` INTEGER NOT NULL, " +
+                "PRIMARY KEY(`source`, `content_id`))");
+        database.execSQL("CREATE INDEX IF NOT EXISTS `index_shuffle_keys_source_shuffle_key_content_id` " +
+                "ON `shuffle_keys` (`source`, `shuffle_key`, `content_id`)");
+        database.execSQL("CREATE INDEX IF NOT EXISTS `index_shuffle_keys_source_ordinal` " +
+                "ON `shuffle_keys` (`source`, `ordinal`)");
+    }
+
+    /**
+     * Заполняет shuffle_keys для существующего контента и создает триггеры,
+     * которые добавляют ключ новым строкам и удаляют его вместе со строкой.
+     * Триггеры сохраняют номера плотными: новая строка получает номер MAX + 1,
+     * а при удалении строка с последним номером занимает номер удаленной
+     */
+    private static void createShuffleKeys(SupportSQLiteDatabase database) {
+        for (String[] counted : COUNTED_TABLES) {
+            String table = counted[0];
+            String source = "`source` = '" + table + "'";
+
+            // Номера выдаются по rowid, который у строк одной вставки идет подряд,
+            // поэтому ключи источника пересоздаются целиком
+            database.execSQL("DELETE FROM `shuffle_keys` WHERE " + source);
+            database.execSQL("INSERT INTO `shuffle_keys` (`source`, `content_id`, `shuffle_key`, `ordinal`) " +
+                    "SELECT '" + table + "', `id`, abs(random() % 2147483647), 0 FROM `" + table + "`");
+            database.execSQL("UPDATE `shuffle_keys` SET `ordinal` = rowid - " +
+                    "(SELECT MIN(rowid) FROM `shuffle_keys` WHERE " + source + ") WHERE " + source);
+
+            String removed = "(SELECT 1 FROM `shuffle_keys` WHERE " + source + " AND `content_id` = OLD.`id`)";
+            String prefix = "CREATE TRIGGER IF NOT EXISTS shuffle_keys_" + table;
+            database.execSQL(prefix + "_AFTER_INSERT AFTER INSERT ON `" + table + "` BEGIN " +
+                    "INSERT OR IGNORE INTO `shuffle_keys` (`source`, `content_id`, `shuffle_key`, `ordinal`) " +
+                    "VALUES ('" + table + "', NEW.`id`, abs(random() % 2147483647), " +
+                    "(SELECT COALESCE(MAX(`ordinal`) + 1, 0) FROM `shuffle_keys` WHERE " + source + ")); END");
+            database.execSQL(prefix + "_AFTER_DELETE AFTER DELETE ON `" + table + "` BEGIN " +
+                    "UPDATE `shuffle_keys` SET `ordinal` = (SELECT `ordinal` FROM `shuffle_keys` " +
+                    "WHERE " + source + " AND `content_id` = OLD.`id`) " +
+                    "WHERE " + source + " AND EXISTS " + removed + " AND `ordinal` = " +
+                    "(SELECT MAX(`ordinal`) FROM `shuffle_keys` WHERE " + source + "); " +
+                    "DELETE FROM `shuffle_keys` WHERE " + source + " AND `content_id` = OLD.`id`; END");
+        }
+    }
+
+    // Миграция с версии 15 на версию 16 - пользовательские таблицы переезжают в {@link UserDatabase}.
+    // Строки переносит сама UserDatabase при создании своего файла и затем удаляет старые таблицы
+    // из каталога; seen_content заполняется из журнала при запуске (syncSeenContent)
+    private static final Migration MIGRATION_15_16 = new Migration(15, 16) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `seen_content` (" +
+                    "`user_id` TEXT NOT NULL, " +
+                    "`content_id` TEXT NOT NULL, " +
+                    "PRIMARY KEY(`user_id`, `content_id`))");
+        }
+    };
+
+    // Миграция с версии 17 на версию 18 - показанные элементы различаются по источнику:
+    // ID фильмов и сериалов из TMDb совпадают. Копия пересоздается пустой и заполняется
+    // из журнала при запуске (syncSeenContent)
+    private static final Migration MIGRATION_17_18 = new Migration(17, 18) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("DROP TABLE IF EXISTS `seen_content`");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `seen_content` (" +
+                    "`user_id` TEXT NOT NULL, " +
+                    "`source` TEXT NOT NULL, " +
+                    "`content_id` TEXT NOT NULL, " +
+                    "PRIMARY KEY(`user_id`, `source`, `content_id`))");
+        }
+    };
+
+    // Миграция с версии 18 на версию 19 - связи жанров различаются по источнику
+    // по той же причине, что и seen_content. Таблица пересоздается и заполняется
+    // заново из строк жанров, словарь genres сохраняется
+    private static final Migration MIGRATION_18_19 = new Migration(18, 19) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("DROP TABLE IF EXISTS `content_genres`");
+            createContentGenresTable(database);
+            for (String table : new String[]{"movies", "tv_shows", "games", "books", "anime"}) {
+                backfillGenres(database, table);
+            }
+        }
+    };
+
+    // Колонка "завершено" в каждой таблице контента
+    private static final String[][] COUNTED_TABLES = {
+            {"movies", "watched"},
+            {"tv_shows", "watched"},
+            {"games", "is_completed"},
+            {"books", "is_read"},
+            {"anime", "watched"},
+            {"content", "watched"}
+    };
+
+    /**
+     * Заполняет content_counters текущими значениями и создает триггеры,
+     * которые поддерживают счетчики при вставке, удалении и изменении liked/watched
+     */
+    private static void createContentCounters(SupportSQLiteDatabase database) {
+        for (String[] counted : COUNTED_TABLES) {
+            String table = counted[0];
+            String watched = counted[1];
+
+            database.execSQL("INSERT OR REPLACE INTO `content_counters` (`table_name`, `total`, `liked`, `watched`) " +
+                    "SELECT '" + table + "', COUNT(*), COALESCE(SUM(`liked`), 0), COALESCE(SUM(`" + watched + "`), 0) " +
+                    "FROM `" + table + "`");
+
+            String prefix = "CREATE TRIGGER IF NOT EXISTS content_counters_" + table;
+            String where = " WHERE `table_name` = '" + table + "'; END";
+            database.execSQL(prefix + "_AFTER_INSERT AFTER INSERT ON `" + table + "` BEGIN " +
+                    "UPDATE `content_counters` SET `total` = `total` + 1, " +
+                    "`liked` = `liked` + NEW.`liked`, `watched` = `watched` + NEW.`" + watched + "`" + where);
+            database.execSQL(prefix + "_AFTER_DELETE AFTER DELETE ON `" + table + "` BEGIN " +
+                    "UPDATE `content_counters` SET `total` = `total` - 1, " +
+                    "`liked` = `liked` - OLD.`liked`, `watched` = `watched` - OLD.`" + watched + "`" + where);
+            database.execSQL(prefix + "_AFTER_UPDATE AFTER UPDATE OF `liked`, `" + watched + "` ON `" + table + "` BEGIN " +
+                    "UPDATE `content_counters` SET `liked` = `liked` - OLD.`liked` + NEW.`liked`, " +
+                    "`watched` = `watched` - OLD.`" + watched + "` + NEW.`" + watched + "`" + where);
+        }
+    }
+
+    private static boolean hasTriggers(SupportSQLiteDatabase database, String prefix, int expected) {
+        try (Cursor cursor = database.query("SELECT COUNT(*) FROM sqlite_master " +
+                "WHERE type = 'trigger' AND name LIKE '" + prefix + "%'")) {
+            return cursor.moveToFirst() && cursor.getInt(0) == expected;
+        }
+    }
+
     // DAOs
     public abstract ContentDao contentDao();
     public abstract MovieDao movieDao();
@@ -492,12 +797,10 @@ public abstract class AppDatabase extends RoomDatabase {
     public abstract GameDao gameDao();
     public abstract BookDao bookDao();
     public abstract AnimeDao animeDao();
-    public abstract UserDao userDao();
-    public abstract AchievementDao achievementDao();
-    public abstract UserAchievementDao userAchievementDao();
-    public abstract ReviewDao reviewDao();
-    public abstract UserStatsDao userStatsDao();
-    public abstract UserPreferencesDao userPreferencesDao();
+    public abstract GenreDao genreDao();
+    public abstract SearchDao searchDao();
+    public abstract ContentCounterDao contentCounterDao();
+    public abstract CatalogDao catalogDao();
 
     // Singleton паттерн для доступа к базе данных
     public static synchronized AppDatabase getInstance(Context context) {
@@ -507,9 +810,26 @@ public abstract class AppDatabase extends RoomDatabase {
                 AppDatabase.class,
                 DATABASE_NAME
             )
-            .fallbackToDestructiveMigration() // При изменении схемы БД удаляем старую и создаем новую
-            .addMigrations(MIGRATION_1_2, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7) // Добавляем миграции
-            .allowMainThreadQueries() // ВНИМАНИЕ: Временное решение для прототипа. В production-версии нужно использовать асинхронные запросы или LiveData
+            .fallbackToDestructiveMigration() // Каталог можно пересоздать: при изменении схемы удаляем старую БД
+            .setJournalMode(JournalMode.WRITE_AHEAD_LOGGING)
+            .addMigrations(MIGRATION_1_2, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7, MIGRATION_7_8, MIGRATION_8_9, MIGRATION_9_10, MIGRATION_10_11, MIGRATION_11_12, MIGRATION_12_13, MIGRATION_13_14, MIGRATION_14_15,
+                    MIGRATION_15_16, MIGRATION_16_17, MIGRATION_17_18, MIGRATION_18_19) // Добавляем миграции
+            .addCallback(new RoomDatabase.Callback() {
+                @Override
+                public void onOpen(SupportSQLiteDatabase db) {
+                    // Без этого замена строки через INSERT OR REPLACE не вызывает триггеры удаления
+                    // и счетчики расходятся. Запись всегда идет через основное соединение, на нем и включаем
+                    db.execSQL("PRAGMA recursive_triggers = ON");
+                    // Таблицы создает Room, а триггеры нужно восстановить после создания или пересоздания БД
+                    if (!hasTriggers(db, "content_counters_", COUNTED_TABLES.length * 3)) {
+                        createContentCounters(db);
+                    }
+                    if (!hasTriggers(db, "shuffle_keys_", COUNTED_TABLES.length * 2)) {
+                        createShuffleKeys(db);
+                    }
+                }
+            })
+            .setQueryExecutor(DatabaseSchedulers.executor()) // Запросы LiveData/Flowable выполняются в общем пуле БД
             .build();
         }
         return instance;
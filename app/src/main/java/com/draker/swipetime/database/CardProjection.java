@@ -0,0 +1,147 @@
+package com.draker.swipetime.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+
+/**
+ * Облегченная строка контента для карточки: только поля, которые видны в стопке карточек.
+ * Описание обрезается на стороне SQLite, полные данные подгружаются на экране деталей
+ */
+public class CardProjection {
+
+    // Длина краткого описания в символах
+    public static final int BLURB_LENGTH = 240;
+
+    // Столбцы catalog_items, которые выбираются для карточки
+    public static final String COLUMNS = "id, title, image_url, category, source, year, liked, created_at, " +
+            "substr(description, 1, " + BLURB_LENGTH + ") AS blurb";
+
+    @NonNull
+    @ColumnInfo(name = "id")
+    private String id;
+
+    @ColumnInfo(name = "title")
+    private String title;
+
+    @ColumnInfo(name = "image_url")
+    private String imageUrl;
+
+    @ColumnInfo(name = "category")
+    private String category;
+
+    @ColumnInfo(name = "source")
+    private String source;
+
+    @ColumnInfo(name = "year")
+    private int year;
+
+    @ColumnInfo(name = "liked")
+    private boolean liked;
+
+    @ColumnInfo(name = "created_at")
+    private long createdAt;
+
+    @ColumnInfo(name = "blurb")
+    private String blurb;
+
+    // Заполняется только при выборке в порядке shuffle_keys
+    @ColumnInfo(name = "shuffle_key")
+    private long shuffleKey;
+
+    // Заполняется только при выборке через shuffle_keys
+    @ColumnInfo(name = "ordinal")
+    private int ordinal;
+
+    public CardProjection() {
+        this.id = "";
+    }
+
+    @NonNull
+    public String getId() {
+        return id;
+    }
+
+    public void setId(@NonNull String id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public void setYear(int year) {
+        this.year = year;
+    }
+
+    public boolean isLiked() {
+        return liked;
+    }
+
+    public void setLiked(boolean liked) {
+        this.liked = liked;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getBlurb() {
+        return blurb;
+    }
+
+    public void setBlurb(String blurb) {
+        this.blurb = blurb;
+    }
+
+    public long getShuffleKey() {
+        return shuffleKey;
+    }
+
+    public void setShuffleKey(long shuffleKey) {
+        this.shuffleKey = shuffleKey;
+    }
+
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    public void setOrdinal(int ordinal) {
+        this.ordinal = ordinal;
+    }
+}
@@ -0,0 +1,42 @@
+package com.draker.swipetime.database;
+
+import androidx.room.ColumnInfo;
+
+/**
+ * Сводка реакций пользователя по категории: сколько карточек он лайкнул и сколько отклонил
+ */
+public class CategoryAffinity {
+
+    @ColumnInfo(name = "category")
+    private String category;
+
+    @ColumnInfo(name = "likes")
+    private int likes;
+
+    @ColumnInfo(name = "dislikes")
+    private int dislikes;
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public int getLikes() {
+        return likes;
+    }
+
+    public void setLikes(int likes) {
+        this.likes = likes;
+    }
+
+    public int getDislikes() {
+        return dislikes;
+    }
+
+    public void setDislikes(int dislikes) {
+        this.dislikes = dislikes;
+    }
+}
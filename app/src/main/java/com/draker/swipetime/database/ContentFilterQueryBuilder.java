@@ -0,0 +1,395 @@
+package com.draker.swipetime.database;
+
+import android.util.Log;
+
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+import com.draker.swipetime.database.entities.CatalogItemView;
+import com.draker.swipetime.database.entities.UserPreferencesEntity;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Построитель SQL-запросов для фильтрации контента по предпочтениям пользователя.
+ * Превращает UserPreferencesEntity в WHERE-условие для конкретной таблицы,
+ * чтобы из SQLite возвращались только подходящие строки
+ */
+public final class ContentFilterQueryBuilder {
+    private static final String TAG = "ContentFilterQuery";
+
+    // Рейтинги, которые считаются контентом 18+
+    private static final String[] ADULT_RATINGS = {"M", "AO", "18+", "NC-17", "R18+"};
+
+    private ContentFilterQueryBuilder() {
+    }
+
+    /**
+     * Запрос для фильмов: год выпуска, длительность, жанры
+     */
+    public static SupportSQLiteQuery forMovies(UserPreferencesEntity preferences) {
+        return build("movies", "release_year", "duration", null, preferences);
+    }
+
+    /**
+     * Запрос для сериалов: год начала показа, жанры
+     */
+    public static SupportSQLiteQuery forTVShows(UserPreferencesEntity preferences) {
+        return build("tv_shows", "start_year", null, null, preferences);
+    }
+
+    /**
+     * Запрос для игр: год выпуска, жанры, возрастной рейтинг
+     */
+    public static SupportSQLiteQuery forGames(UserPreferencesEntity preferences) {
+        return build("games", "release_year", null, "esrb_rating", preferences);
+    }
+
+    /**
+     * Запрос для книг: год публикации, жанры
+     */
+    public static SupportSQLiteQuery forBooks(UserPreferencesEntity preferences) {
+        return build("books", "publish_year", null, null, preferences);
+    }
+
+    /**
+     * Запрос для аниме: год выпуска, жанры
+     */
+    public static SupportSQLiteQuery forAnime(UserPreferencesEntity preferences) {
+        return build("anime", "release_year", null, null, preferences);
+    }
+
+    /**
+     * Проверяет, задают ли предпочтения хоть одно ограничение, выражаемое в SQL.
+     * Повторяет раннюю проверку из ContentManager.filterContent
+     */
+    public static boolean hasSqlFilters(UserPreferencesEntity preferences) {
+        if (preferences == null) {
+            return false;
+        }
+
+        return !parseJsonArray(preferences.getPreferredGenres()).isEmpty() ||
+                !parseJsonArray(preferences.getPreferredCountries()).isEmpty() ||
+                !parseJsonArray(preferences.getPreferredLanguages()).isEmpty() ||
+                !parseJsonArray(preferences.getInterestsTags()).isEmpty() ||
+                preferences.getMinYear() > 1900 || preferences.getMaxYear() < 2100 ||
+                preferences.getMinDuration() > 0 || preferences.getMaxDuration() < Integer.MAX_VALUE;
+    }
+
+    /**
+     * Запрос к представлению catalog_items: одна выборка по нескольким категориям
+     * с фильтрами по предпочтениям и постраничным обходом по (created_at, id)
+     *
+     * @param categories категории; пустой список означает все типизированные категории
+     * @param preferences предпочтения пользователя или null, если фильтры не нужны
+     * @param afterCreatedAt created_at последнего элемента предыдущей страницы
+     * @param afterId ID последнего элемента предыдущей страницы
+     * @param limit размер страницы; 0 - без ограничения и без сортировки
+     */
+    public static SupportSQLiteQuery forCatalog(Collection<String> categories, UserPreferencesEntity preferences,
+                                                long afterCreatedAt, String afterId, int limit) {
+        return forCatalog("*", categories, preferences, afterCreatedAt, afterId, limit);
+    }
+
+    /**
+     * То же, что {@link #forCatalog(Collection, UserPreferencesEntity, long, String, int)},
+     * но выбирает только столбцы карточки (см. {@link CardProjection#COLUMNS})
+     */
+    public static SupportSQLiteQuery forCatalogCards(Collection<String> categories, UserPreferencesEntity preferences,
+                                                     long afterCreatedAt, String afterId, int limit) {
+        return forCatalog(CardProjection.COLUMNS, categories, preferences, afterCreatedAt, afterId, limit);
+    }
+
+    private static SupportSQLiteQuery forCatalog(String columns, Collection<String> categories,
+                                                 UserPreferencesEntity preferences,
+                                                 long afterCreatedAt, String afterId, int limit) {
+        List<Object> args = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+
+        // Категории: типизированные берутся по таблице-источнику, остальные - из общей таблицы
+        if (categories.isEmpty()) {
+            conditions.add("source != ?");
+            args.add(CatalogItemView.SOURCE_CONTENT);
+        } else {
+            StringBuilder categoryCondition = new StringBuilder("(");
+            for (String category : categories) {
+                if (categoryCondition.length() > 1) {
+                    categoryCondition.append(" OR ");
+                }
+                String source = CatalogItemView.sourceFor(category);
+                if (CatalogItemView.SOURCE_CONTENT.equals(source)) {
+                    categoryCondition.append("(source = ? AND category = ?)");
+                    args.add(source);
+                    args.add(category);
+                } else {
+                    categoryCondition.append("source = ?");
+                    args.add(source);
+                }
+            }
+            conditions.add(categoryCondition.append(")").toString());
+        }
+
+        // У общего контента нет года, длительности и рейтинга, такие строки ограничениями не отсекаются
+        if (hasSqlFilters(preferences)) {
+            appendPreferenceConditions(conditions, args, null, "(year IS NULL OR year BETWEEN ? AND ?)",
+                    "(duration IS NULL OR duration BETWEEN ? AND ?)", "age_rating", preferences);
+        }
+
+        if (limit > 0) {
+            conditions.add("created_at >= ? AND (created_at > ? OR id > ?)");
+            args.add(afterCreatedAt);
+            args.add(afterCreatedAt);
+            args.add(afterId);
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(columns).append(" FROM catalog_items");
+        appendWhere(sql, conditions);
+        if (limit > 0) {
+            sql.append(" ORDER BY created_at, id LIMIT ?");
+            args.add(limit);
+        }
+
+        return new SimpleSQLiteQuery(sql.toString(), args.toArray());
+    }
+
+    /**
+     * Следующие карточки категории в порядке shuffle_keys, без уже показанных пользователю.
+     * Обход идет по индексу (source, shuffle_key, content_id), показанные элементы
+     * отсекаются анти-соединением с seen_content (копией истории из журнала взаимодействий)
+     *
+     * @param category категория контента
+     * @param preferences предпочтения пользователя или null, если фильтры не нужны
+     * @param userId ID пользователя, чья история исключается
+     * @param excludeSeen false - не исключать показанные элементы (повторный круг)
+     * @param afterKey shuffle_key последнего элемента предыдущей выборки
+     * @param afterId ID последнего элемента предыдущей выборки
+     * @param limit количество карточек; 0 - без ограничения
+     */
+    public static SupportSQLiteQuery forUnseenCards(String category, UserPreferencesEntity preferences,
+                                                    String userId, boolean excludeSeen,
+                                                    long afterKey, String afterId, int limit) {
+        List<Object> args = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        StringBuilder sql = selectShuffledCards(category, args, conditions);
+
+        conditions.add("(sk.shuffle_key > ? OR (sk.shuffle_key = ? AND sk.content_id > ?))");
+        args.add(afterKey);
+        args.add(afterKey);
+        args.add(afterId != null ? afterId : "");
+
+        appendCardConditions(conditions, args, category, preferences, userId, excludeSeen);
+        appendWhere(sql, conditions);
+        sql.append(" ORDER BY sk.shuffle_key, sk.content_id");
+        if (limit > 0) {
+            sql.append(" LIMIT ?");
+            args.add(limit);
+        }
+
+        return new SimpleSQLiteQuery(sql.toString(), args.toArray());
+    }
+
+    /**
+     * Карточки категории с заданными номерами shuffle_keys.ordinal. Строки выбираются
+     * по индексу (source, ordinal) и возвращаются в произвольном порядке; номера,
+     * не прошедшие фильтры или уже показанные, в результат не попадают
+     *
+     * @param category категория контента
+     * @param preferences предпочтения пользователя или null, если фильтры не нужны
+     * @param userId ID пользователя, чья история исключается
+     * @param excludeSeen false - не исключать показанные элементы (повторный круг)
+     * @param ordinals номера элементов
+     */
+    public static SupportSQLiteQuery forCardsAtOrdinals(String category, UserPreferencesEntity preferences,
+                                                        String userId, boolean excludeSeen, int[] ordinals) {
+        List<Object> args = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        StringBuilder sql = selectShuffledCards(category, args, conditions);
+
+        StringBuilder in = new StringBuilder("sk.ordinal IN (");
+        for (int i = 0; i < ordinals.length; i++) {
+            in.append(i == 0 ? "?" : ", ?");
+            args.add(ordinals[i]);
+        }
+        conditions.add(in.append(")").toString());
+
+        appendCardConditions(conditions, args, category, preferences, userId, excludeSeen);
+        appendWhere(sql, conditions);
+
+        return new SimpleSQLiteQuery(sql.toString(), args.toArray());
+    }
+
+    /**
+     * Начало запроса карточек категории через shuffle_keys: список столбцов, соединение
+     * с таблицей-источником и условие на источник
+     */
+    private static StringBuilder selectShuffledCards(String category, List<Object> args, List<String> conditions) {
+        String table = CatalogItemView.sourceFor(category);
+        boolean general = CatalogItemView.SOURCE_CONTENT.equals(table);
+
+        StringBuilder sql = new StringBuilder("SELECT ")
+                .append(table).append(".id AS id, title, image_url, ");
+        if (general) {
+            sql.append("category, ");
+        } else {
+            sql.append("? AS category, ");
+            args.add(category);
+        }
+        sql.append("? AS source, ");
+        args.add(table);
+        sql.append(general ? "0" : yearColumnFor(table)).append(" AS year, liked, created_at, sk.shuffle_key, ")
+                .append("sk.ordinal, ")
+                .append("substr(description, 1, ").append(CardProjection.BLURB_LENGTH).append(") AS blurb")
+                // CROSS JOIN фиксирует порядок: сначала индекс shuffle_keys, затем строка по id
+                .append(" FROM shuffle_keys sk CROSS JOIN ").append(table)
+                .append(" ON ").append(table).append(".id = sk.content_id");
+
+        conditions.add("sk.source = ?");
+        args.add(table);
+        return sql;
+    }
+
+    /**
+     * Условия на категорию общего контента, фильтры предпочтений и историю показов
+     */
+    private static void appendCardConditions(List<String> conditions, List<Object> args, String category,
+                                             UserPreferencesEntity preferences, String userId,
+                                             boolean excludeSeen) {
+        String table = CatalogItemView.sourceFor(category);
+        if (CatalogItemView.SOURCE_CONTENT.equals(table)) {
+            conditions.add("category = ?");
+            args.add(category);
+        } else if (hasSqlFilters(preferences)) {
+            String durationColumn = "movies".equals(table) ? "duration" : null;
+            String ratingColumn = "games".equals(table) ? "esrb_rating" : null;
+            appendPreferenceConditions(conditions, args, table, yearColumnFor(table) + " BETWEEN ? AND ?",
+                    durationColumn != null ? durationColumn + " BETWEEN ? AND ?" : null,
+                    ratingColumn, preferences);
+        }
+
+        if (excludeSeen) {
+            conditions.add("NOT EXISTS (SELECT 1 FROM seen_content sc " +
+                    "WHERE sc.user_id = ? AND sc.source = sk.source AND sc.content_id = sk.content_id)");
+            args.add(userId);
+        }
+    }
+
+    private static String yearColumnFor(String table) {
+        switch (table) {
+            case "tv_shows":
+                return "start_year";
+            case "books":
+                return "publish_year";
+            default:
+                return "release_year";
+        }
+    }
+
+    private static SupportSQLiteQuery build(String table, String yearColumn, String durationColumn,
+                                            String ratingColumn, UserPreferencesEntity preferences) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM ").append(table);
+
+        if (!hasSqlFilters(preferences)) {
+            return new SimpleSQLiteQuery(sql.toString());
+        }
+
+        List<Object> args = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        appendPreferenceConditions(conditions, args, table, yearColumn + " BETWEEN ? AND ?",
+                durationColumn != null ? durationColumn + " BETWEEN ? AND ?" : null,
+                ratingColumn, preferences);
+        appendWhere(sql, conditions);
+
+        return new SimpleSQLiteQuery(sql.toString(), args.toArray());
+    }
+
+    /**
+     * Добавляет условия по предпочтениям: годы, длительность, жанры и контент 18+
+     * @param source таблица-источник строк или null для запроса к catalog_items,
+     *               где источник берется из строки: ID разных категорий могут совпадать
+     */
+    private static void appendPreferenceConditions(List<String> conditions, List<Object> args,
+                                                   String source, String yearCondition, String durationCondition,
+                                                   String ratingColumn, UserPreferencesEntity preferences) {
+        // Диапазон годов
+        conditions.add(yearCondition);
+        args.add(preferences.getMinYear());
+        args.add(preferences.getMaxYear());
+
+        // Диапазон длительности
+        if (durationCondition != null) {
+            conditions.add(durationCondition);
+            args.add(preferences.getMinDuration());
+            args.add(preferences.getMaxDuration());
+        }
+
+        // Жанры: поиск по индексу таблицы связей content_genres
+        List<String> genres = GenreUtils.normalizeAll(parseJsonArray(preferences.getPreferredGenres()));
+        if (!genres.isEmpty()) {
+            StringBuilder genreCondition = new StringBuilder("id IN (SELECT cg.content_id FROM content_genres cg ")
+                    .append("INNER JOIN genres g ON g.id = cg.genre_id WHERE cg.source = ");
+            if (source != null) {
+                genreCondition.append("?");
+                args.add(source);
+            } else {
+                genreCondition.append("catalog_items.source");
+            }
+            genreCondition.append(" AND g.normalized_name IN (");
+            for (int i = 0; i < genres.size(); i++) {
+                genreCondition.append(i > 0 ? ", ?" : "?");
+                args.add(genres.get(i));
+            }
+            genreCondition.append("))");
+            conditions.add(genreCondition.toString());
+        }
+
+        // Контент 18+
+        if (ratingColumn != null && !preferences.isAdultContentEnabled()) {
+            StringBuilder ratingCondition = new StringBuilder("(")
+                    .append(ratingColumn).append(" IS NULL OR ")
+                    .append(ratingColumn).append(" NOT IN (");
+            for (int i = 0; i < ADULT_RATINGS.length; i++) {
+                ratingCondition.append(i > 0 ? ", ?" : "?");
+                args.add(ADULT_RATINGS[i]);
+            }
+            ratingCondition.append("))");
+            conditions.add(ratingCondition.toString());
+        }
+    }
+
+    private static void appendWhere(StringBuilder sql, List<String> conditions) {
+        if (conditions.isEmpty()) {
+            return;
+        }
+        sql.append(" WHERE ");
+        for (int i = 0; i < conditions.size(); i++) {
+            if (i > 0) {
+                sql.append(" AND ");
+            }
+            sql.append(conditions.get(i));
+        }
+    }
+
+    private static List<String> parseJsonArray(String jsonString) {
+        List<String> result = new ArrayList<>();
+
+        if (jsonString == null || jsonString.isEmpty()) {
+            return result;
+        }
+
+        try {
+            JSONArray jsonArray = new JSONArray(jsonString);
+            for (int i = 0; i < jsonArray.length(); i++) {
+                result.add(jsonArray.getString(i).trim());
+            }
+        } catch (JSONException e) {
+            Log.e(TAG, "Ошибка при парсинге JSON: " + e.getMessage());
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,90 @@
+package com.draker.swipetime.database;
+
+import android.os.Process;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Ограниченный пул потоков для коротких обращений к базе данных.
+ * Его же использует Room для запросов LiveData/Flowable, поэтому
+ * одновременно с SQLite работает не больше POOL_SIZE потоков.
+ * Долгие задачи (начальное заполнение, загрузка из API, обучение моделей,
+ * пересчет индексов) идут в отдельный пул {@link #background()} с пониженным
+ * приоритетом и не занимают потоки, которых ждут запросы экранов
+ */
+public final class DatabaseSchedulers {
+
+    // SQLite в режиме WAL допускает несколько читателей и одного писателя
+    private static final int POOL_SIZE = 4;
+
+    // Фоновых задач немного, и они не должны вытеснять запросы из пула БД
+    private static final int BACKGROUND_POOL_SIZE = 2;
+
+    private static final ExecutorService EXECUTOR =
+            createExecutor("swipetime-db-", POOL_SIZE, Process.THREAD_PRIORITY_DEFAULT);
+    private static final Scheduler SCHEDULER = Schedulers.from(EXECUTOR);
+
+    private static final ExecutorService BACKGROUND_EXECUTOR =
+            createExecutor("swipetime-bg-", BACKGROUND_POOL_SIZE, Process.THREAD_PRIORITY_BACKGROUND);
+    private static final Scheduler BACKGROUND_SCHEDULER = Schedulers.from(BACKGROUND_EXECUTOR);
+
+    private DatabaseSchedulers() {
+    }
+
+    /**
+     * Планировщик RxJava для операций с базой данных
+     */
+    public static Scheduler io() {
+        return SCHEDULER;
+    }
+
+    /**
+     * Пул потоков базы данных для Room и кода без RxJava
+     */
+    public static ExecutorService executor() {
+        return EXECUTOR;
+    }
+
+    /**
+     * Пул потоков с пониженным приоритетом для долгих фоновых задач
+     */
+    public static ExecutorService background() {
+        return BACKGROUND_EXECUTOR;
+    }
+
+    /**
+     * Планировщик RxJava для долгих фоновых задач
+     */
+    public static Scheduler backgroundIo() {
+        return BACKGROUND_SCHEDULER;
+    }
+
+    private static ExecutorService createExecutor(String namePrefix, int poolSize, int priority) {
+        ThreadFactory threadFactory = new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(() -> {
+                    Process.setThreadPriority(priority);
+                    runnable.run();
+                }, namePrefix + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,85 @@
+package com.draker.swipetime.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+
+/**
+ * Строка catalog_items для построения индекса фасетов: только поля, по которым фильтруются карточки
+ */
+public class FacetRow {
+
+    // Столбцы catalog_items, которые выбираются для индекса
+    public static final String COLUMNS = "source, id, genres, year, duration, age_rating";
+
+    @ColumnInfo(name = "source")
+    private String source;
+
+    @NonNull
+    @ColumnInfo(name = "id")
+    private String id;
+
+    @ColumnInfo(name = "genres")
+    private String genres;
+
+    @ColumnInfo(name = "year")
+    private int year;
+
+    @ColumnInfo(name = "duration")
+    private int duration;
+
+    @ColumnInfo(name = "age_rating")
+    private String ageRating;
+
+    public FacetRow() {
+        this.id = "";
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    @NonNull
+    public String getId() {
+        return id;
+    }
+
+    public void setId(@NonNull String id) {
+        this.id = id;
+    }
+
+    public String getGenres() {
+        return genres;
+    }
+
+    public void setGenres(String genres) {
+        this.genres = genres;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public void setYear(int year) {
+        this.year = year;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public void setDuration(int duration) {
+        this.duration = duration;
+    }
+
+    public String getAgeRating() {
+        return ageRating;
+    }
+
+    public void setAgeRating(String ageRating) {
+        this.ageRating = ageRating;
+    }
+}
@@ -0,0 +1,109 @@
+package com.draker.swipetime.database;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Locale;
+
+/**
+ * Вспомогательные методы для полнотекстового поиска по FTS4-таблицам
+ */
+public final class FtsUtils {
+
+    // Формат matchinfo, который ожидает bm25()
+    public static final String MATCH_INFO_FORMAT = "pcnalx";
+
+    // Ограничение на количество слов в запросе
+    private static final int MAX_TERMS = 8;
+
+    // Стандартные параметры BM25
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private FtsUtils() {
+    }
+
+    /**
+     * Преобразует пользовательский ввод в выражение MATCH с префиксным поиском.
+     * Каждое слово очищается от служебных символов и приводится к нижнему регистру,
+     * поэтому операторы FTS (AND, OR, NEAR, кавычки) из ввода не интерпретируются
+     *
+     * @param query строка поиска
+     * @return выражение для MATCH или null, если в запросе нет слов
+     */
+    public static String toMatchQuery(String query) {
+        if (query == null) {
+            return null;
+        }
+
+        StringBuilder match = new StringBuilder();
+        StringBuilder term = new StringBuilder();
+        int terms = 0;
+
+        for (int i = 0; i <= query.length() && terms < MAX_TERMS; i++) {
+            char c = i < query.length() ? query.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                term.append(c);
+            } else if (term.length() > 0) {
+                if (match.length() > 0) {
+                    match.append(' ');
+                }
+                match.append(term.toString().toLowerCase(Locale.ROOT)).append('*');
+                term.setLength(0);
+                terms++;
+            }
+        }
+
+        return match.length() > 0 ? match.toString() : null;
+    }
+
+    /**
+     * Вычисляет BM25-оценку по результату matchinfo(table, 'pcnalx')
+     *
+     * @param matchInfo сырые данные matchinfo
+     * @param columnWeights веса колонок в порядке их объявления в FTS-таблице
+     * @return оценка релевантности (больше - релевантнее)
+     */
+    public static double bm25(byte[] matchInfo, double[] columnWeights) {
+        if (matchInfo == null || matchInfo.length < 12) {
+            return 0.0;
+        }
+
+        IntBuffer info = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder()).asIntBuffer();
+        int phraseCount = info.get(0);
+        int columnCount = info.get(1);
+        long totalDocs = info.get(2) & 0xFFFFFFFFL;
+
+        int avgLengthOffset = 3;
+        int docLengthOffset = avgLengthOffset + columnCount;
+        int hitsOffset = docLengthOffset + columnCount;
+
+        double score = 0.0;
+        for (int phrase = 0; phrase < phraseCount; phrase++) {
+            for (int column = 0; column < columnCount; column++) {
+                double weight = column < columnWeights.length ? columnWeights[column] : 1.0;
+                if (weight == 0.0) {
+                    continue;
+                }
+
+                int base = hitsOffset + 3 * (column + phrase * columnCount);
+                double termFrequency = info.get(base) & 0xFFFFFFFFL;
+                if (termFrequency == 0) {
+                    continue;
+                }
+                double docsWithTerm = info.get(base + 2) & 0xFFFFFFFFL;
+                double avgLength = Math.max(1, info.get(avgLengthOffset + column));
+                double docLength = info.get(docLengthOffset + column);
+
+                double idf = Math.log((totalDocs - docsWithTerm + 0.5) / (docsWithTerm + 0.5));
+                // Для очень частых слов IDF становится отрицательным, оставляем небольшой вклад
+                idf = Math.max(idf, 1e-6);
+
+                double denominator = termFrequency + K1 * (1 - B + B * docLength / avgLength);
+                score += weight * idf * termFrequency * (K1 + 1) / denominator;
+            }
+        }
+
+        return score;
+    }
+}
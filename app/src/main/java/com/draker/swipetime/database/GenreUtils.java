@@ -0,0 +1,96 @@
+package com.draker.swipetime.database;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Вспомогательные методы для работы с жанрами.
+ * Используются и при загрузке контента, и в миграции, чтобы нормализация совпадала
+ */
+public final class GenreUtils {
+
+    private GenreUtils() {
+    }
+
+    /**
+     * Приводит название жанра к каноническому виду
+     * @param genre название жанра
+     * @return нормализованное название или пустая строка
+     */
+    public static String normalize(String genre) {
+        if (genre == null) {
+            return "";
+        }
+        return genre.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Разбивает строку жанров вида "Драма, Комедия" на отдельные жанры
+     * @param genres строка жанров через запятую
+     * @return карта "нормализованное название -> исходное название" без повторов
+     */
+    public static Map<String, String> split(String genres) {
+        Map<String, String> result = new LinkedHashMap<>();
+        if (genres == null || genres.isEmpty()) {
+            return result;
+        }
+
+        for (String genre : genres.split(",")) {
+            String normalized = normalize(genre);
+            if (!normalized.isEmpty() && !result.containsKey(normalized)) {
+                result.put(normalized, genre.trim());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Нормализует список названий жанров
+     * @param genres список названий
+     * @return список нормализованных названий без пустых значений
+     */
+    public static List<String> normalizeAll(List<String> genres) {
+        List<String> result = new ArrayList<>();
+        if (genres == null) {
+            return result;
+        }
+        for (String genre : genres) {
+            String normalized = normalize(genre);
+            if (!normalized.isEmpty()) {
+                result.add(normalized);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Считает количество общих ID в двух отсортированных массивах
+     * @param first отсортированный массив ID жанров
+     * @param second отсортированный массив ID жанров
+     * @return количество совпадений
+     */
+    public static int countCommon(int[] first, int[] second) {
+        if (first == null || second == null) {
+            return 0;
+        }
+
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] == second[j]) {
+                count++;
+                i++;
+                j++;
+            } else if (first[i] < second[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,53 @@
+package com.draker.swipetime.database;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Ignore;
+
+/**
+ * Лайк или отмена лайка из журнала взаимодействий
+ */
+public class LikeEvent {
+
+    @ColumnInfo(name = "user_id")
+    private String userId;
+
+    @ColumnInfo(name = "content_id")
+    private String contentId;
+
+    @ColumnInfo(name = "action")
+    private String action;
+
+    public LikeEvent() {
+    }
+
+    @Ignore
+    public LikeEvent(String userId, String contentId, String action) {
+        this.userId = userId;
+        this.contentId = contentId;
+        this.action = action;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getContentId() {
+        return contentId;
+    }
+
+    public void setContentId(String contentId) {
+        this.contentId = contentId;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+}
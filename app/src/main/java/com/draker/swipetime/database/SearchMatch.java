@@ -0,0 +1,53 @@
+package com.draker.swipetime.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+
+/**
+ * Строка результата полнотекстового запроса: ID элемента, таблица-источник
+ * и сырые статистики matchinfo для ранжирования
+ */
+public class SearchMatch {
+
+    @NonNull
+    @ColumnInfo(name = "id")
+    private String id;
+
+    @NonNull
+    @ColumnInfo(name = "source")
+    private String source;
+
+    @ColumnInfo(name = "match_info")
+    private byte[] matchInfo;
+
+    public SearchMatch() {
+        this.id = "";
+        this.source = "";
+    }
+
+    @NonNull
+    public String getId() {
+        return id;
+    }
+
+    public void setId(@NonNull String id) {
+        this.id = id;
+    }
+
+    @NonNull
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(@NonNull String source) {
+        this.source = source;
+    }
+
+    public byte[] getMatchInfo() {
+        return matchInfo;
+    }
+
+    public void setMatchInfo(byte[] matchInfo) {
+        this.matchInfo = matchInfo;
+    }
+}
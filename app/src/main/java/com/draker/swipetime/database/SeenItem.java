@@ -0,0 +1,31 @@
+package com.draker.swipetime.database;
+
+import androidx.room.ColumnInfo;
+
+/**
+ * Показанный элемент из журнала взаимодействий: категория и ID контента
+ */
+public class SeenItem {
+
+    @ColumnInfo(name = "category")
+    private String category;
+
+    @ColumnInfo(name = "content_id")
+    private String contentId;
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getContentId() {
+        return contentId;
+    }
+
+    public void setContentId(String contentId) {
+        this.contentId = contentId;
+    }
+}
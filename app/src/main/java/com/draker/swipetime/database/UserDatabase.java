@@ -0,0 +1,293 @@
+package com.draker.swipetime.database;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import androidx.room.Database;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.draker.swipetime.database.dao.AchievementDao;
+import com.draker.swipetime.database.dao.ContentOrdinalDao;
+import com.draker.swipetime.database.dao.ItemNeighborDao;
+import com.draker.swipetime.database.dao.LatentFactorDao;
+import com.draker.swipetime.database.dao.ReviewDao;
+import com.draker.swipetime.database.dao.UserAchievementDao;
+import com.draker.swipetime.database.dao.UserDao;
+import com.draker.swipetime.database.dao.UserInteractionDao;
+import com.draker.swipetime.database.dao.UserNeighborDao;
+import com.draker.swipetime.database.dao.UserPreferencesDao;
+import com.draker.swipetime.database.dao.UserStatsDao;
+import com.draker.swipetime.database.entities.AchievementEntity;
+import com.draker.swipetime.database.entities.ContentOrdinalEntity;
+import com.draker.swipetime.database.entities.ItemNeighborEntity;
+import com.draker.swipetime.database.entities.LatentFactorEntity;
+import com.draker.swipetime.database.entities.ReviewEntity;
+import com.draker.swipetime.database.entities.UserAchievementCrossRef;
+import com.draker.swipetime.database.entities.UserEntity;
+import com.draker.swipetime.database.entities.UserInteractionEntity;
+import com.draker.swipetime.database.entities.UserNeighborEntity;
+import com.draker.swipetime.database.entities.UserPreferencesEntity;
+import com.draker.swipetime.database.entities.UserStatsEntity;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * База пользовательских данных: профиль, статистика, достижения, отзывы,
+ * настройки и журнал взаимодействий. Хранится в отдельном от каталога файле
+ * со своим журналом WAL, поэтому запись пользователя не ждет обновления каталога.
+ * Схема меняется только через миграции, без пересоздания.
+ * До версии 16 каталога эти таблицы хранились в его файле: при создании базы строки
+ * переносятся оттуда, а после фиксации переноса старые таблицы удаляются из каталога
+ */
+@Database(
+    entities = {
+        UserEntity.class,
+        AchievementEntity.class,
+        UserAchievementCrossRef.class,
+        ReviewEntity.class,
+        UserStatsEntity.class,
+        UserPreferencesEntity.class,
+        UserInteractionEntity.class,
+        ContentOrdinalEntity.class,
+        UserNeighborEntity.class,
+        ItemNeighborEntity.class,
+        LatentFactorEntity.class
+    },
+    version = 6,
+    exportSchema = false
+)
+public abstract class UserDatabase extends RoomDatabase {
+
+    public static final String DATABASE_NAME = "swipetime-user-db";
+    private static final String TAG = "UserDatabase";
+    private static UserDatabase instance;
+
+    // Версия каталога, начиная с которой его миграции не трогают пользовательские таблицы
+    private static final int CATALOG_VERSION_WITHOUT_USER_MIGRATIONS = 15;
+
+    // Таблицы в порядке зависимостей внешних ключей: сначала родительские
+    static final String[] TABLES = {
+        "users", "achievements", "user_achievements", "user_stats",
+        "user_preferences", "reviews", "user_interactions"
+    };
+
+    // DAOs
+    public abstract UserDao userDao();
+    public abstract AchievementDao achievementDao();
+    public abstract UserAchievementDao userAchievementDao();
+    public abstract ReviewDao reviewDao();
+    public abstract UserStatsDao userStatsDao();
+    public abstract UserPreferencesDao userPreferencesDao();
+    public abstract UserInteractionDao userInteractionDao();
+    public abstract ContentOrdinalDao contentOrdinalDao();
+    public abstract UserNeighborDao userNeighborDao();
+    public abstract ItemNeighborDao itemNeighborDao();
+    public abstract LatentFactorDao latentFactorDao();
+
+    // Миграция 1 -> 2: номера элементов для битовых множеств истории
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `content_ordinals` (" +
+                    "`ordinal` INTEGER NOT NULL, " +
+                    "`content_id` TEXT NOT NULL, " +
+                    "PRIMARY KEY(`ordinal`))");
+            database.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_content_ordinals_content_id` " +
+                    "ON `content_ordinals` (`content_id`)");
+        }
+    };
+
+    // Миграция 2 -> 3: списки ближайших соседей для коллаборативной фильтрации
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `user_neighbors` (" +
+                    "`user_id` TEXT NOT NULL, " +
+                    "`neighbor_id` TEXT NOT NULL, " +
+                    "`similarity` REAL NOT NULL, " +
+                    "PRIMARY KEY(`user_id`, `neighbor_id`))");
+        }
+    };
+
+    // Миграция 3 -> 4: таблица похожих элементов для коллаборативной фильтрации по элементам
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `item_neighbors` (" +
+                    "`item_id` TEXT NOT NULL, " +
+                    "`neighbor_id` TEXT NOT NULL, " +
+                    "`similarity` REAL NOT NULL, " +
+                    "PRIMARY KEY(`item_id`, `neighbor_id`))");
+        }
+    };
+
+    // Миграция 4 -> 5: латентные векторы матричной факторизации
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `latent_factors` (" +
+                    "`kind` INTEGER NOT NULL, " +
+                    "`owner_id` TEXT NOT NULL, " +
+                    "`factors` BLOB NOT NULL, " +
+                    "PRIMARY KEY(`kind`, `owner_id`))");
+        }
+    };
+
+    // Миграция 5 -> 6: номера выдаются паре источник-ID, так как ID фильмов и сериалов совпадают.
+    // Старые номера отбрасываются, InteractionBitsets пересобирает множества по журналу в новом каталоге
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("DROP TABLE IF EXISTS `content_ordinals`");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `content_ordinals` (" +
+                    "`ordinal` INTEGER NOT NULL, " +
+                    "`source` TEXT NOT NULL, " +
+                    "`content_id` TEXT NOT NULL, " +
+                    "PRIMARY KEY(`ordinal`))");
+            database.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_content_ordinals_source_content_id` " +
+                    "ON `content_ordinals` (`source`, `content_id`)");
+        }
+    };
+
+    /**
+     * Переносит пользовательские таблицы из файла каталога при создании базы.
+     * Перенос идет в транзакции создания: если она не завершится, база будет создана
+     * и перенос выполнен заново при следующем открытии. Старые таблицы удаляются
+     * из каталога только после фиксации, в onOpen
+     */
+    private static final class LegacyTablesCallback extends RoomDatabase.Callback {
+        private final Context context;
+        private boolean moved;
+
+        LegacyTablesCallback(Context context) {
+            this.context = context;
+        }
+
+        @Override
+        public void onCreate(@NonNull SupportSQLiteDatabase db) {
+            File catalog = context.getDatabasePath(AppDatabase.DATABASE_NAME);
+            if (!catalog.exists()) {
+                return;
+            }
+            // Отдельное соединение с файлом каталога, экземпляр AppDatabase при этом не открывается
+            try (SQLiteDatabase source = SQLiteDatabase.openDatabase(catalog.getPath(), null,
+                    SQLiteDatabase.OPEN_READWRITE | SQLiteDatabase.ENABLE_WRITE_AHEAD_LOGGING)) {
+                for (String table : TABLES) {
+                    if (hasTable(source, table)) {
+                        copyTable(source, db, table);
+                        moved = true;
+                    }
+                }
+            }
+            if (moved) {
+                Log.d(TAG, "Пользовательские таблицы перенесены из каталога");
+            }
+        }
+
+        @Override
+        public void onOpen(@NonNull SupportSQLiteDatabase db) {
+            if (!moved) {
+                return;
+            }
+            moved = false;
+            File catalog = context.getDatabasePath(AppDatabase.DATABASE_NAME);
+            try (SQLiteDatabase source = SQLiteDatabase.openDatabase(catalog.getPath(), null,
+                    SQLiteDatabase.OPEN_READWRITE | SQLiteDatabase.ENABLE_WRITE_AHEAD_LOGGING)) {
+                // Миграции каталога ниже версии 15 еще изменяют эти таблицы - их не удаляем
+                if (source.getVersion() < CATALOG_VERSION_WITHOUT_USER_MIGRATIONS) {
+                    return;
+                }
+                for (int i = TABLES.length - 1; i >= 0; i--) {
+                    source.execSQL("DROP TABLE IF EXISTS `" + TABLES[i] + "`");
+                }
+            } catch (SQLException e) {
+                Log.e(TAG, "Не удалось удалить перенесенные таблицы из каталога: " + e.getMessage());
+            }
+        }
+    }
+
+    private static boolean hasTable(SQLiteDatabase database, String table) {
+        try (Cursor cursor = database.rawQuery("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?",
+                new String[]{table})) {
+            return cursor.moveToFirst();
+        }
+    }
+
+    /**
+     * Копирует строки таблицы; переносятся только столбцы, которые есть в новой схеме
+     */
+    private static void copyTable(SQLiteDatabase source, SupportSQLiteDatabase target, String table) {
+        Set<String> columns = new HashSet<>();
+        try (Cursor cursor = target.query("PRAGMA table_info(`" + table + "`)")) {
+            while (cursor.moveToNext()) {
+                columns.add(cursor.getString(cursor.getColumnIndexOrThrow("name")));
+            }
+        }
+
+        try (Cursor cursor = source.rawQuery("SELECT * FROM `" + table + "`", null)) {
+            ContentValues values = new ContentValues();
+            while (cursor.moveToNext()) {
+                values.clear();
+                for (int i = 0; i < cursor.getColumnCount(); i++) {
+                    String column = cursor.getColumnName(i);
+                    if (!columns.contains(column)) {
+                        continue;
+                    }
+                    switch (cursor.getType(i)) {
+                        case Cursor.FIELD_TYPE_NULL:
+                            values.putNull(column);
+                            break;
+                        case Cursor.FIELD_TYPE_INTEGER:
+                            values.put(column, cursor.getLong(i));
+                            break;
+                        case Cursor.FIELD_TYPE_FLOAT:
+                            values.put(column, cursor.getDouble(i));
+                            break;
+                        case Cursor.FIELD_TYPE_BLOB:
+                            values.put(column, cursor.getBlob(i));
+                            break;
+                        default:
+                            values.put(column, cursor.getString(i));
+                            break;
+                    }
+                }
+                target.insert(table, SQLiteDatabase.CONFLICT_IGNORE, values);
+            }
+        }
+    }
+
+    // Singleton паттерн для доступа к базе данных
+    public static synchronized UserDatabase getInstance(Context context) {
+        if (instance == null) {
+            instance = Room.databaseBuilder(
+                context.getApplicationContext(),
+                UserDatabase.class,
+                DATABASE_NAME
+            )
+            .setJournalMode(JournalMode.WRITE_AHEAD_LOGGING)
+            .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6)
+            .addCallback(new LegacyTablesCallback(context.getApplicationContext()))
+            .setQueryExecutor(DatabaseSchedulers.executor()) // Запросы LiveData/Flowable выполняются в общем пуле БД
+            .build();
+        }
+        return instance;
+    }
+
+    /**
+     * Очистить синглтон для тестов
+     */
+    public static void destroyInstance() {
+        instance = null;
+    }
+}
@@ -6,12 +6,17 @@ import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.RawQuery;
+import androidx.room.Transaction;
 import androidx.room.Update;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
 import com.draker.swipetime.database.entities.AnimeEntity;
 
 import java.util.List;
 
+import io.reactivex.rxjava3.core.Flowable;
+
 /**
  * DAO для операций с аниме
  */
@@ -24,6 +29,28 @@ public interface AnimeDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertAll(List<AnimeEntity> animes);
 
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long[] insertIfAbsent(List<AnimeEntity> animes);
+
+    @Query("UPDATE anime SET title = :title, description = :description, image_url = :imageUrl, category = :category, content_type = :contentType, studio = :studio, release_year = :releaseYear, episodes = :episodes, genres = :genres, status = :status, type = :type, updated_at = :updatedAt WHERE id = :id")
+    void updateCatalogFields(String id, String title, String description, String imageUrl, String category,
+                             String contentType, String studio, int releaseYear, int episodes, String genres,
+                             String status, String type, long updatedAt);
+
+    @Transaction
+    default void upsertAll(List<AnimeEntity> animes) {
+        long[] rowIds = insertIfAbsent(animes);
+        for (int i = 0; i < rowIds.length; i++) {
+            if (rowIds[i] == -1) {
+                AnimeEntity anime = animes.get(i);
+                updateCatalogFields(anime.getId(), anime.getTitle(), anime.getDescription(), anime.getImageUrl(),
+                        anime.getCategory(), anime.getContentType(), anime.getStudio(), anime.getReleaseYear(),
+                        anime.getEpisodes(), anime.getGenres(), anime.getStatus(), anime.getType(),
+                        anime.getUpdatedAt());
+            }
+        }
+    }
+
     @Update
     void update(AnimeEntity anime);
 
@@ -36,15 +63,27 @@ public interface AnimeDao {
     @Query("SELECT * FROM anime")
     List<AnimeEntity> getAll();
 
+    @Query("SELECT * FROM anime WHERE created_at >= :afterCreatedAt AND (created_at > :afterCreatedAt OR id > :afterId) ORDER BY created_at, id LIMIT :limit")
+    List<AnimeEntity> getPage(long afterCreatedAt, String afterId, int limit);
+
     @Query("SELECT * FROM anime")
     LiveData<List<AnimeEntity>> observeAll();
 
     @Query("SELECT * FROM anime WHERE liked = 1")
     List<AnimeEntity> getLiked();
 
+    @Query("SELECT * FROM anime WHERE liked = 1 AND created_at >= :afterCreatedAt AND (created_at > :afterCreatedAt OR id > :afterId) ORDER BY created_at, id LIMIT :limit")
+    List<AnimeEntity> getLikedPage(long afterCreatedAt, String afterId, int limit);
+
     @Query("SELECT * FROM anime WHERE liked = 1")
     LiveData<List<AnimeEntity>> observeLiked();
 
+    @Query("SELECT * FROM anime WHERE liked = 1")
+    Flowable<List<AnimeEntity>> flowLiked();
+
+    @Query("SELECT COUNT(*) FROM anime WHERE liked = 1")
+    Flowable<Integer> flowLikedCount();
+
     @Query("SELECT * FROM anime WHERE watched = 1")
     List<AnimeEntity> getWatched();
 
@@ -57,8 +96,14 @@ public interface AnimeDao {
     @Query("UPDATE anime SET watched = :watched WHERE id = :id")
     void updateWatchedStatus(String id, boolean watched);
 
-    @Query("SELECT * FROM anime WHERE title LIKE '%' || :query || '%' OR description LIKE '%' || :query || '%'")
-    List<AnimeEntity> search(String query);
+    @Query("SELECT anime.* FROM anime INNER JOIN anime_fts ON anime.rowid = anime_fts.rowid WHERE anime_fts MATCH :match")
+    List<AnimeEntity> search(String match);
+
+    @Query("SELECT * FROM anime WHERE id IN (:ids)")
+    List<AnimeEntity> getByIds(List<String> ids);
+
+    @RawQuery
+    List<AnimeEntity> getFiltered(SupportSQLiteQuery query);
 
     @Query("SELECT COUNT(*) FROM anime")
     int getCount();
@@ -6,12 +6,17 @@ import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.RawQuery;
+import androidx.room.Transaction;
 import androidx.room.Update;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
 import com.draker.swipetime.database.entities.BookEntity;
 
 import java.util.List;
 
+import io.reactivex.rxjava3.core.Flowable;
+
 /**
  * DAO для операций с книгами
  */
@@ -24,6 +29,28 @@ public interface BookDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertAll(List<BookEntity> books);
 
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long[] insertIfAbsent(List<BookEntity> books);
+
+    @Query("UPDATE books SET title = :title, description = :description, image_url = :imageUrl, category = :category, content_type = :contentType, author = :author, publisher = :publisher, publish_year = :publishYear, page_count = :pageCount, genres = :genres, isbn = :isbn, updated_at = :updatedAt WHERE id = :id")
+    void updateCatalogFields(String id, String title, String description, String imageUrl, String category,
+                             String contentType, String author, String publisher, int publishYear, int pageCount,
+                             String genres, String isbn, long updatedAt);
+
+    @Transaction
+    default void upsertAll(List<BookEntity> books) {
+        long[] rowIds = insertIfAbsent(books);
+        for (int i = 0; i < rowIds.length; i++) {
+            if (rowIds[i] == -1) {
+                BookEntity book = books.get(i);
+                updateCatalogFields(book.getId(), book.getTitle(), book.getDescription(), book.getImageUrl(),
+                        book.getCategory(), book.getContentType(), book.getAuthor(), book.getPublisher(),
+                        book.getPublishYear(), book.getPageCount(), book.getGenres(), book.getIsbn(),
+                        book.getUpdatedAt());
+            }
+        }
+    }
+
     @Update
     void update(BookEntity book);
 
@@ -36,15 +63,27 @@ public interface BookDao {
     @Query("SELECT * FROM books")
     List<BookEntity> getAll();
 
+    @Query("SELECT * FROM books WHERE created_at >= :afterCreatedAt AND (created_at > :afterCreatedAt OR id > :afterId) ORDER BY created_at, id LIMIT :limit")
+    List<BookEntity> getPage(long afterCreatedAt, String afterId, int limit);
+
     @Query("SELECT * FROM books")
     LiveData<List<BookEntity>> observeAll();
 
     @Query("SELECT * FROM books WHERE liked = 1")
     List<BookEntity> getLiked();
 
+    @Query("SELECT * FROM books WHERE liked = 1 AND created_at >= :afterCreatedAt AND (created_at > :afterCreatedAt OR id > :afterId) ORDER BY created_at, id LIMIT :limit")
+    List<BookEntity> getLikedPage(long afterCreatedAt, String afterId, int limit);
+
     @Query("SELECT * FROM books WHERE liked = 1")
     LiveData<List<BookEntity>> observeLiked();
 
+    @Query("SELECT * FROM books WHERE liked = 1")
+    Flowable<List<BookEntity>> flowLiked();
+
+    @Query("SELECT COUNT(*) FROM books WHERE liked = 1")
+    Flowable<Integer> flowLikedCount();
+
     @Query("SELECT * FROM books WHERE is_read = 1")
     List<BookEntity> getRead();
 
@@ -57,8 +96,14 @@ public interface BookDao {
     @Query("UPDATE books SET is_read = :read WHERE id = :id")
     void updateReadStatus(String id, boolean read);
 
-    @Query("SELECT * FROM books WHERE title LIKE '%' || :query || '%' OR description LIKE '%' || :query || '%'")
-    List<BookEntity> search(String query);
+    @Query("SELECT books.* FROM books INNER JOIN books_fts ON books.rowid = books_fts.rowid WHERE books_fts MATCH :match")
+    List<BookEntity> search(String match);
+
+    @Query("SELECT * FROM books WHERE id IN (:ids)")
+    List<BookEntity> getByIds(List<String> ids);
+
+    @RawQuery
+    List<BookEntity> getFiltered(SupportSQLiteQuery query);
 
     @Query("SELECT COUNT(*) FROM books")
     int getCount();
@@ -0,0 +1,56 @@
+package com.draker.swipetime.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.RawQuery;
+import androidx.room.Transaction;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+import com.draker.swipetime.database.CardProjection;
+import com.draker.swipetime.database.FacetRow;
+import com.draker.swipetime.database.entities.CatalogItemView;
+import com.draker.swipetime.database.entities.SeenContentEntity;
+
+import java.util.List;
+
+/**
+ * DAO для единого представления контента всех категорий
+ */
+@Dao
+public interface CatalogDao {
+
+    @RawQuery(observedEntities = CatalogItemView.class)
+    List<CatalogItemView> query(SupportSQLiteQuery query);
+
+    @RawQuery(observedEntities = CatalogItemView.class)
+    List<CardProjection> queryCards(SupportSQLiteQuery query);
+
+    @Query("SELECT * FROM catalog_items WHERE source = :source AND id = :id")
+    CatalogItemView getById(String source, String id);
+
+    @Query("SELECT " + FacetRow.COLUMNS + " FROM catalog_items WHERE source != 'content'")
+    List<FacetRow> getFacetRows();
+
+    @Query("UPDATE shuffle_keys SET shuffle_key = abs(random() % 2147483647)")
+    void reseedShuffleKeys();
+
+    @Query("SELECT COALESCE(MAX(ordinal) + 1, 0) FROM shuffle_keys WHERE source = :source")
+    int getOrdinalCount(String source);
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertSeen(List<SeenContentEntity> seen);
+
+    @Query("DELETE FROM seen_content WHERE user_id = :userId")
+    void deleteSeenForUser(String userId);
+
+    @Query("SELECT * FROM seen_content WHERE user_id = :userId")
+    List<SeenContentEntity> getSeen(String userId);
+
+    @Transaction
+    default void replaceSeen(String userId, List<SeenContentEntity> seen) {
+        deleteSeenForUser(userId);
+        insertSeen(seen);
+    }
+}
@@ -0,0 +1,23 @@
+package com.draker.swipetime.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import com.draker.swipetime.database.entities.ContentCounterEntity;
+
+import java.util.List;
+
+import io.reactivex.rxjava3.core.Flowable;
+
+/**
+ * DAO для чтения счетчиков контента, которые поддерживаются триггерами
+ */
+@Dao
+public interface ContentCounterDao {
+
+    @Query("SELECT * FROM content_counters")
+    List<ContentCounterEntity> getAll();
+
+    @Query("SELECT * FROM content_counters")
+    Flowable<List<ContentCounterEntity>> observeAll();
+}
@@ -6,12 +6,16 @@ import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
 import com.draker.swipetime.database.entities.ContentEntity;
 
+import java.util.Collections;
 import java.util.List;
 
+import io.reactivex.rxjava3.core.Flowable;
+
 /**
  * DAO для операций с общим контентом
  */
@@ -24,6 +28,43 @@ public interface ContentDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertAll(List<ContentEntity> contents);
 
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long[] insertIfAbsent(List<ContentEntity> contents);
+
+    @Query("UPDATE content SET title = :title, description = :description, image_url = :imageUrl, category = :category, content_type = :contentType, liked = (liked OR :liked), updated_at = :updatedAt WHERE id = :id")
+    void updateCatalogFields(String id, String title, String description, String imageUrl, String category,
+                             String contentType, boolean liked, long updatedAt);
+
+    @Transaction
+    default void upsertAll(List<ContentEntity> contents) {
+        long[] rowIds = insertIfAbsent(contents);
+        for (int i = 0; i < rowIds.length; i++) {
+            if (rowIds[i] == -1) {
+                ContentEntity content = contents.get(i);
+                updateCatalogFields(content.getId(), content.getTitle(), content.getDescription(), content.getImageUrl(),
+                        content.getCategory(), content.getContentType(), content.isLiked(), content.getUpdatedAt());
+            }
+        }
+    }
+
+    @Query("UPDATE content SET title = :title, description = :description, image_url = :imageUrl, category = :category, content_type = :contentType, liked = (liked OR :liked), watched = :watched, rating = :rating, updated_at = :updatedAt WHERE id = :id")
+    void updateAllFields(String id, String title, String description, String imageUrl, String category,
+                         String contentType, boolean liked, boolean watched, float rating, long updatedAt);
+
+    /**
+     * Добавить или перезаписать строку вместе с пользовательскими полями (watched, rating, updated_at).
+     * Отметка liked существующей строки сохраняется. Для восстановления из облака,
+     * где эти поля - источник истины, в отличие от загрузки каталога через upsertAll
+     */
+    @Transaction
+    default void upsertWithUserFields(ContentEntity content) {
+        if (insertIfAbsent(Collections.singletonList(content))[0] == -1) {
+            updateAllFields(content.getId(), content.getTitle(), content.getDescription(), content.getImageUrl(),
+                    content.getCategory(), content.getContentType(), content.isLiked(), content.isCompleted(),
+                    content.getRating(), content.getUpdatedAt());
+        }
+    }
+
     @Update
     void update(ContentEntity content);
 
@@ -36,18 +77,30 @@ public interface ContentDao {
     @Query("SELECT * FROM content")
     List<ContentEntity> getAll();
 
+    @Query("SELECT * FROM content WHERE created_at >= :afterCreatedAt AND (created_at > :afterCreatedAt OR id > :afterId) ORDER BY created_at, id LIMIT :limit")
+    List<ContentEntity> getPage(long afterCreatedAt, String afterId, int limit);
+
     @Query("SELECT * FROM content")
     LiveData<List<ContentEntity>> observeAll();
 
     @Query("SELECT * FROM content WHERE liked = 1")
     List<ContentEntity> getLiked();
 
+    @Query("SELECT * FROM content WHERE liked = 1 AND created_at >= :afterCreatedAt AND (created_at > :afterCreatedAt OR id > :afterId) ORDER BY created_at, id LIMIT :limit")
+    List<ContentEntity> getLikedPage(long afterCreatedAt, String afterId, int limit);
+
     @Query("SELECT * FROM content WHERE liked = 1 AND category = :category")
     List<ContentEntity> getLikedByCategory(String category);
 
     @Query("SELECT * FROM content WHERE liked = 1")
     LiveData<List<ContentEntity>> observeLiked();
 
+    @Query("SELECT * FROM content WHERE liked = 1")
+    Flowable<List<ContentEntity>> flowLiked();
+
+    @Query("SELECT COUNT(*) FROM content WHERE liked = 1")
+    Flowable<Integer> flowLikedCount();
+
     @Query("SELECT * FROM content WHERE watched = 1")
     List<ContentEntity> getWatched();
 
@@ -63,11 +116,17 @@ public interface ContentDao {
     @Query("SELECT * FROM content WHERE category = :category")
     List<ContentEntity> getByCategory(String category);
 
+    @Query("SELECT * FROM content WHERE category = :category AND created_at >= :afterCreatedAt AND (created_at > :afterCreatedAt OR id > :afterId) ORDER BY created_at, id LIMIT :limit")
+    List<ContentEntity> getByCategoryPage(String category, long afterCreatedAt, String afterId, int limit);
+
     @Query("SELECT * FROM content WHERE category = :category")
     LiveData<List<ContentEntity>> observeByCategory(String category);
 
-    @Query("SELECT * FROM content WHERE title LIKE '%' || :query || '%' OR description LIKE '%' || :query || '%'")
-    List<ContentEntity> search(String query);
+    @Query("SELECT content.* FROM content INNER JOIN content_fts ON content.rowid = content_fts.rowid WHERE content_fts MATCH :match")
+    List<ContentEntity> search(String match);
+
+    @Query("SELECT * FROM content WHERE id IN (:ids)")
+    List<ContentEntity> getByIds(List<String> ids);
 
     @Query("SELECT COUNT(*) FROM content")
     int getCount();
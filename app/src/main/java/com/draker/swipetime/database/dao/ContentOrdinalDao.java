@@ -0,0 +1,23 @@
+package com.draker.swipetime.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.draker.swipetime.database.entities.ContentOrdinalEntity;
+
+import java.util.List;
+
+/**
+ * DAO для номеров элементов контента в битовых множествах истории
+ */
+@Dao
+public interface ContentOrdinalDao {
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insert(ContentOrdinalEntity ordinal);
+
+    @Query("SELECT * FROM content_ordinals ORDER BY ordinal")
+    List<ContentOrdinalEntity> getAll();
+}
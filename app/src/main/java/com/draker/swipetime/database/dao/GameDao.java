@@ -6,12 +6,17 @@ import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.RawQuery;
+import androidx.room.Transaction;
 import androidx.room.Update;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
 import com.draker.swipetime.database.entities.GameEntity;
 
 import java.util.List;
 
+import io.reactivex.rxjava3.core.Flowable;
+
 /**
  * DAO для операций с играми
  */
@@ -24,6 +29,28 @@ public interface GameDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertAll(List<GameEntity> games);
 
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long[] insertIfAbsent(List<GameEntity> games);
+
+    @Query("UPDATE games SET title = :title, description = :description, image_url = :imageUrl, category = :category, content_type = :contentType, developer = :developer, publisher = :publisher, release_year = :releaseYear, platforms = :platforms, genres = :genres, esrb_rating = :esrbRating, updated_at = :updatedAt WHERE id = :id")
+    void updateCatalogFields(String id, String title, String description, String imageUrl, String category,
+                             String contentType, String developer, String publisher, int releaseYear,
+                             String platforms, String genres, String esrbRating, long updatedAt);
+
+    @Transaction
+    default void upsertAll(List<GameEntity> games) {
+        long[] rowIds = insertIfAbsent(games);
+        for (int i = 0; i < rowIds.length; i++) {
+            if (rowIds[i] == -1) {
+                GameEntity game = games.get(i);
+                updateCatalogFields(game.getId(), game.getTitle(), game.getDescription(), game.getImageUrl(),
+                        game.getCategory(), game.getContentType(), game.getDeveloper(), game.getPublisher(),
+                        game.getReleaseYear(), game.getPlatforms(), game.getGenres(), game.getEsrbRating(),
+                        game.getUpdatedAt());
+            }
+        }
+    }
+
     @Update
     void update(GameEntity game);
 
@@ -36,15 +63,27 @@ public interface GameDao {
     @Query("SELECT * FROM games")
     List<GameEntity> getAll();
 
+    @Query("SELECT * FROM games WHERE created_at >= :afterCreatedAt AND (created_at > :afterCreatedAt OR id > :afterId) ORDER BY created_at, id LIMIT :limit")
+    List<GameEntity> getPage(long afterCreatedAt, String afterId, int limit);
+
     @Query("SELECT * FROM games")
     LiveData<List<GameEntity>> observeAll();
 
     @Query("SELECT * FROM games WHERE liked = 1")
     List<GameEntity> getLiked();
 
+    @Query("SELECT * FROM games WHERE liked = 1 AND created_at >= :afterCreatedAt AND (created_at > :afterCreatedAt OR id > :afterId) ORDER BY created_at, id LIMIT :limit")
+    List<GameEntity> getLikedPage(long afterCreatedAt, String afterId, int limit);
+
     @Query("SELECT * FROM games WHERE liked = 1")
     LiveData<List<GameEntity>> observeLiked();
 
+    @Query("SELECT * FROM games WHERE liked = 1")
+    Flowable<List<GameEntity>> flowLiked();
+
+    @Query("SELECT COUNT(*) FROM games WHERE liked = 1")
+    Flowable<Integer> flowLikedCount();
+
     @Query("SELECT * FROM games WHERE is_completed = 1")
     List<GameEntity> getCompleted();
 
@@ -57,8 +96,14 @@ public interface GameDao {
     @Query("UPDATE games SET is_completed = :completed WHERE id = :id")
     void updateCompletedStatus(String id, boolean completed);
 
-    @Query("SELECT * FROM games WHERE title LIKE '%' || :query || '%' OR description LIKE '%' || :query || '%'")
-    List<GameEntity> search(String query);
+    @Query("SELECT games.* FROM games INNER JOIN games_fts ON games.rowid = games_fts.rowid WHERE games_fts MATCH :match")
+    List<GameEntity> search(String match);
+
+    @Query("SELECT * FROM games WHERE id IN (:ids)")
+    List<GameEntity> getByIds(List<String> ids);
+
+    @RawQuery
+    List<GameEntity> getFiltered(SupportSQLiteQuery query);
 
     @Query("SELECT COUNT(*) FROM games")
     int getCount();
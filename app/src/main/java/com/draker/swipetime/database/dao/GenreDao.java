@@ -0,0 +1,48 @@
+package com.draker.swipetime.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.draker.swipetime.database.entities.ContentGenreCrossRef;
+import com.draker.swipetime.database.entities.GenreEntity;
+
+import java.util.List;
+
+/**
+ * DAO для операций со словарем жанров и связями контент-жанр
+ */
+@Dao
+public interface GenreDao {
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insert(GenreEntity genre);
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertLinks(List<ContentGenreCrossRef> links);
+
+    @Query("SELECT * FROM genres")
+    List<GenreEntity> getAll();
+
+    @Query("SELECT id FROM genres WHERE normalized_name = :normalizedName")
+    Integer getIdByNormalizedName(String normalizedName);
+
+    @Query("SELECT id FROM genres WHERE normalized_name IN (:normalizedNames)")
+    List<Integer> getIdsByNormalizedNames(List<String> normalizedNames);
+
+    @Query("SELECT * FROM content_genres WHERE source = :source AND content_id IN (:contentIds)")
+    List<ContentGenreCrossRef> getLinksForContent(String source, List<String> contentIds);
+
+    @Query("SELECT content_id FROM content_genres WHERE genre_id IN (:genreIds) AND source = :source")
+    List<String> getContentIdsByGenreIds(String source, List<Integer> genreIds);
+
+    @Query("DELETE FROM content_genres WHERE source = :source AND content_id = :contentId")
+    void deleteLinksForContent(String source, String contentId);
+
+    @Query("DELETE FROM content_genres WHERE source = :source")
+    void deleteLinksForSource(String source);
+
+    @Query("DELETE FROM content_genres")
+    void deleteAllLinks();
+}
@@ -0,0 +1,33 @@
+package com.draker.swipetime.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.draker.swipetime.database.entities.ItemNeighborEntity;
+
+import java.util.List;
+
+/**
+ * DAO для таблицы похожих элементов
+ */
+@Dao
+public interface ItemNeighborDao {
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertAll(List<ItemNeighborEntity> neighbors);
+
+    @Query("SELECT * FROM item_neighbors")
+    List<ItemNeighborEntity> getAll();
+
+    @Query("DELETE FROM item_neighbors")
+    void deleteAll();
+
+    @Transaction
+    default void replaceAll(List<ItemNeighborEntity> neighbors) {
+        deleteAll();
+        insertAll(neighbors);
+    }
+}
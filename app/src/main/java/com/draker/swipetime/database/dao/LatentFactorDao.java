@@ -0,0 +1,33 @@
+package com.draker.swipetime.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.draker.swipetime.database.entities.LatentFactorEntity;
+
+import java.util.List;
+
+/**
+ * DAO для таблицы латентных векторов матричной факторизации
+ */
+@Dao
+public interface LatentFactorDao {
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertAll(List<LatentFactorEntity> factors);
+
+    @Query("SELECT * FROM latent_factors")
+    List<LatentFactorEntity> getAll();
+
+    @Query("DELETE FROM latent_factors")
+    void deleteAll();
+
+    @Transaction
+    default void replaceAll(List<LatentFactorEntity> factors) {
+        deleteAll();
+        insertAll(factors);
+    }
+}
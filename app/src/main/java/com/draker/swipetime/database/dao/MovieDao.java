@@ -6,12 +6,17 @@ import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.RawQuery;
+import androidx.room.Transaction;
 import androidx.room.Update;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
 import com.draker.swipetime.database.entities.MovieEntity;
 
 import java.util.List;
 
+import io.reactivex.rxjava3.core.Flowable;
+
 /**
  * DAO для операций с фильмами
  */
@@ -24,6 +29,27 @@ public interface MovieDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertAll(List<MovieEntity> movies);
 
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long[] insertIfAbsent(List<MovieEntity> movies);
+
+    @Query("UPDATE movies SET title = :title, description = :description, image_url = :imageUrl, category = :category, content_type = :contentType, director = :director, release_year = :releaseYear, duration = :duration, genres = :genres, updated_at = :updatedAt WHERE id = :id")
+    void updateCatalogFields(String id, String title, String description, String imageUrl, String category,
+                             String contentType, String director, int releaseYear, int duration, String genres,
+                             long updatedAt);
+
+    @Transaction
+    default void upsertAll(List<MovieEntity> movies) {
+        long[] rowIds = insertIfAbsent(movies);
+        for (int i = 0; i < rowIds.length; i++) {
+            if (rowIds[i] == -1) {
+                MovieEntity movie = movies.get(i);
+                updateCatalogFields(movie.getId(), movie.getTitle(), movie.getDescription(), movie.getImageUrl(),
+                        movie.getCategory(), movie.getContentType(), movie.getDirector(), movie.getReleaseYear(),
+                        movie.getDuration(), movie.getGenres(), movie.getUpdatedAt());
+            }
+        }
+    }
+
     @Update
     void update(MovieEntity movie);
 
@@ -36,15 +62,27 @@ public interface MovieDao {
     @Query("SELECT * FROM movies")
     List<MovieEntity> getAll();
 
+    @Query("SELECT * FROM movies WHERE created_at >= :afterCreatedAt AND (created_at > :afterCreatedAt OR id > :afterId) ORDER BY created_at, id LIMIT :limit")
+    List<MovieEntity> getPage(long afterCreatedAt, String afterId, int limit);
+
     @Query("SELECT * FROM movies")
     LiveData<List<MovieEntity>> observeAll();
 
     @Query("SELECT * FROM movies WHERE liked = 1")
     List<MovieEntity> getLiked();
 
+    @Query("SELECT * FROM movies WHERE liked = 1 AND created_at >= :afterCreatedAt AND (created_at > :afterCreatedAt OR id > :afterId) ORDER BY created_at, id LIMIT :limit")
+    List<MovieEntity> getLikedPage(long afterCreatedAt, String afterId, int limit);
+
     @Query("SELECT * FROM movies WHERE liked = 1")
     LiveData<List<MovieEntity>> observeLiked();
 
+    @Query("SELECT * FROM movies WHERE liked = 1")
+    Flowable<List<MovieEntity>> flowLiked();
+
+    @Query("SELECT COUNT(*) FROM movies WHERE liked = 1")
+    Flowable<Integer> flowLikedCount();
+
     @Query("SELECT * FROM movies WHERE watched = 1")
     List<MovieEntity> getWatched();
 
@@ -57,8 +95,14 @@ public interface MovieDao {
     @Query("UPDATE movies SET watched = :watched WHERE id = :id")
     void updateWatchedStatus(String id, boolean watched);
 
-    @Query("SELECT * FROM movies WHERE title LIKE '%' || :query || '%' OR description LIKE '%' || :query || '%'")
-    List<MovieEntity> search(String query);
+    @Query("SELECT movies.* FROM movies INNER JOIN movies_fts ON movies.rowid = movies_fts.rowid WHERE movies_fts MATCH :match")
+    List<MovieEntity> search(String match);
+
+    @Query("SELECT * FROM movies WHERE id IN (:ids)")
+    List<MovieEntity> getByIds(List<String> ids);
+
+    @RawQuery
+    List<MovieEntity> getFiltered(SupportSQLiteQuery query);
 
     @Query("SELECT COUNT(*) FROM movies")
     int getCount();
@@ -0,0 +1,34 @@
+package com.draker.swipetime.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import com.draker.swipetime.database.SearchMatch;
+
+import java.util.List;
+
+/**
+ * DAO для полнотекстового поиска по всем категориям контента
+ */
+@Dao
+public interface SearchDao {
+
+    @Query("SELECT * FROM (SELECT movies.id AS id, 'movies' AS source, matchinfo(movies_fts, 'pcnalx') AS match_info " +
+            "FROM movies_fts INNER JOIN movies ON movies.rowid = movies_fts.rowid WHERE movies_fts MATCH :match LIMIT :perTable) " +
+            "UNION ALL " +
+            "SELECT * FROM (SELECT tv_shows.id AS id, 'tv_shows' AS source, matchinfo(tv_shows_fts, 'pcnalx') AS match_info " +
+            "FROM tv_shows_fts INNER JOIN tv_shows ON tv_shows.rowid = tv_shows_fts.rowid WHERE tv_shows_fts MATCH :match LIMIT :perTable) " +
+            "UNION ALL " +
+            "SELECT * FROM (SELECT games.id AS id, 'games' AS source, matchinfo(games_fts, 'pcnalx') AS match_info " +
+            "FROM games_fts INNER JOIN games ON games.rowid = games_fts.rowid WHERE games_fts MATCH :match LIMIT :perTable) " +
+            "UNION ALL " +
+            "SELECT * FROM (SELECT books.id AS id, 'books' AS source, matchinfo(books_fts, 'pcnalx') AS match_info " +
+            "FROM books_fts INNER JOIN books ON books.rowid = books_fts.rowid WHERE books_fts MATCH :match LIMIT :perTable) " +
+            "UNION ALL " +
+            "SELECT * FROM (SELECT anime.id AS id, 'anime' AS source, matchinfo(anime_fts, 'pcnalx') AS match_info " +
+            "FROM anime_fts INNER JOIN anime ON anime.rowid = anime_fts.rowid WHERE anime_fts MATCH :match LIMIT :perTable) " +
+            "UNION ALL " +
+            "SELECT * FROM (SELECT content.id AS id, 'content' AS source, matchinfo(content_fts, 'pcnalx') AS match_info " +
+            "FROM content_fts INNER JOIN content ON content.rowid = content_fts.rowid WHERE content_fts MATCH :match LIMIT :perTable)")
+    List<SearchMatch> matchAll(String match, int perTable);
+}
@@ -6,12 +6,17 @@ import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.RawQuery;
+import androidx.room.Transaction;
 import androidx.room.Update;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
 import com.draker.swipetime.database.entities.TVShowEntity;
 
 import java.util.List;
 
+import io.reactivex.rxjava3.core.Flowable;
+
 /**
  * DAO для операций с сериалами
  */
@@ -24,6 +29,28 @@ public interface TVShowDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertAll(List<TVShowEntity> tvShows);
 
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long[] insertIfAbsent(List<TVShowEntity> tvShows);
+
+    @Query("UPDATE tv_shows SET title = :title, description = :description, image_url = :imageUrl, category = :category, content_type = :contentType, creator = :creator, start_year = :startYear, end_year = :endYear, seasons = :seasons, episodes = :episodes, genres = :genres, status = :status, updated_at = :updatedAt WHERE id = :id")
+    void updateCatalogFields(String id, String title, String description, String imageUrl, String category,
+                             String contentType, String creator, int startYear, int endYear, int seasons,
+                             int episodes, String genres, String status, long updatedAt);
+
+    @Transaction
+    default void upsertAll(List<TVShowEntity> tvShows) {
+        long[] rowIds = insertIfAbsent(tvShows);
+        for (int i = 0; i < rowIds.length; i++) {
+            if (rowIds[i] == -1) {
+                TVShowEntity tvShow = tvShows.get(i);
+                updateCatalogFields(tvShow.getId(), tvShow.getTitle(), tvShow.getDescription(), tvShow.getImageUrl(),
+                        tvShow.getCategory(), tvShow.getContentType(), tvShow.getCreator(),
+                        tvShow.getStartYear(), tvShow.getEndYear(), tvShow.getSeasons(), tvShow.getEpisodes(),
+                        tvShow.getGenres(), tvShow.getStatus(), tvShow.getUpdatedAt());
+            }
+        }
+    }
+
     @Update
     void update(TVShowEntity tvShow);
 
@@ -36,15 +63,27 @@ public interface TVShowDao {
     @Query("SELECT * FROM tv_shows")
     List<TVShowEntity> getAll();
 
+    @Query("SELECT * FROM tv_shows WHERE created_at >= :afterCreatedAt AND (created_at > :afterCreatedAt OR id > :afterId) ORDER BY created_at, id LIMIT :limit")
+    List<TVShowEntity> getPage(long afterCreatedAt, String afterId, int limit);
+
     @Query("SELECT * FROM tv_shows")
     LiveData<List<TVShowEntity>> observeAll();
 
     @Query("SELECT * FROM tv_shows WHERE liked = 1")
     List<TVShowEntity> getLiked();
 
+    @Query("SELECT * FROM tv_shows WHERE liked = 1 AND created_at >= :afterCreatedAt AND (created_at > :afterCreatedAt OR id > :afterId) ORDER BY created_at, id LIMIT :limit")
+    List<TVShowEntity> getLikedPage(long afterCreatedAt, String afterId, int limit);
+
     @Query("SELECT * FROM tv_shows WHERE liked = 1")
     LiveData<List<TVShowEntity>> observeLiked();
 
+    @Query("SELECT * FROM tv_shows WHERE liked = 1")
+    Flowable<List<TVShowEntity>> flowLiked();
+
+    @Query("SELECT COUNT(*) FROM tv_shows WHERE liked = 1")
+    Flowable<Integer> flowLikedCount();
+
     @Query("SELECT * FROM tv_shows WHERE watched = 1")
     List<TVShowEntity> getWatched();
 
@@ -57,8 +96,14 @@ public interface TVShowDao {
     @Query("UPDATE tv_shows SET watched = :watched WHERE id = :id")
     void updateWatchedStatus(String id, boolean watched);
 
-    @Query("SELECT * FROM tv_shows WHERE title LIKE '%' || :query || '%' OR description LIKE '%' || :query || '%'")
-    List<TVShowEntity> search(String query);
+    @Query("SELECT tv_shows.* FROM tv_shows INNER JOIN tv_shows_fts ON tv_shows.rowid = tv_shows_fts.rowid WHERE tv_shows_fts MATCH :match")
+    List<TVShowEntity> search(String match);
+
+    @Query("SELECT * FROM tv_shows WHERE id IN (:ids)")
+    List<TVShowEntity> getByIds(List<String> ids);
+
+    @RawQuery
+    List<TVShowEntity> getFiltered(SupportSQLiteQuery query);
 
     @Query("SELECT COUNT(*) FROM tv_shows")
     int getCount();
@@ -0,0 +1,64 @@
+package com.draker.swipetime.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import com.draker.swipetime.database.CategoryAffinity;
+import com.draker.swipetime.database.LikeEvent;
+import com.draker.swipetime.database.SeenItem;
+import com.draker.swipetime.database.entities.UserInteractionEntity;
+
+import java.util.List;
+
+/**
+ * DAO для журнала взаимодействий пользователя с контентом
+ */
+@Dao
+public interface UserInteractionDao {
+
+    @Insert
+    long insert(UserInteractionEntity interaction);
+
+    @Insert
+    List<Long> insertAll(List<UserInteractionEntity> interactions);
+
+    @Query("SELECT DISTINCT category, content_id FROM user_interactions WHERE user_id = :userId AND action IN (:actions)")
+    List<SeenItem> getSeenItems(String userId, List<String> actions);
+
+    @Query("SELECT * FROM user_interactions WHERE user_id = :userId ORDER BY id")
+    List<UserInteractionEntity> getAllForUser(String userId);
+
+    @Query("SELECT * FROM user_interactions WHERE user_id = :userId AND id > :afterId ORDER BY id")
+    List<UserInteractionEntity> getForUserAfter(String userId, long afterId);
+
+    @Query("SELECT COALESCE(MAX(id), 0) FROM user_interactions WHERE user_id = :userId")
+    long getLastIdForUser(String userId);
+
+    @Query("SELECT COALESCE(MAX(id), 0) FROM user_interactions")
+    long getLastId();
+
+    @Query("SELECT COUNT(*) FROM user_interactions WHERE id > :afterId AND action IN ('like', 'unlike')")
+    int getLikeEventCountAfter(long afterId);
+
+    @Query("SELECT content_id FROM user_interactions ui WHERE user_id = :userId AND action = 'like' " +
+            "AND NOT EXISTS (SELECT 1 FROM user_interactions later WHERE later.content_id = ui.content_id " +
+            "AND later.user_id = ui.user_id AND later.action IN ('like', 'unlike') AND later.id > ui.id)")
+    List<String> getLikedContentIds(String userId);
+
+    @Query("SELECT user_id, content_id, action FROM user_interactions WHERE action IN ('like', 'unlike') ORDER BY user_id, id")
+    List<LikeEvent> getLikeEvents();
+
+    @Query("SELECT category, SUM(action = 'like') AS likes, SUM(action = 'dislike') AS dislikes " +
+            "FROM user_interactions WHERE user_id = :userId AND category IS NOT NULL GROUP BY category")
+    List<CategoryAffinity> getCategoryAffinity(String userId);
+
+    @Query("SELECT COUNT(*) FROM user_interactions WHERE user_id = :userId")
+    int getCountForUser(String userId);
+
+    @Query("DELETE FROM user_interactions WHERE user_id = :userId AND action IN (:actions)")
+    void deleteByActions(String userId, List<String> actions);
+
+    @Query("DELETE FROM user_interactions WHERE user_id = :userId AND action IN (:actions) AND category = :category")
+    void deleteByActionsInCategory(String userId, List<String> actions, String category);
+}
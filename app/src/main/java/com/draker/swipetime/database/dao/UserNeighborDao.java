@@ -0,0 +1,36 @@
+package com.draker.swipetime.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.draker.swipetime.database.entities.UserNeighborEntity;
+
+import java.util.List;
+
+/**
+ * DAO для списков ближайших соседей пользователей
+ */
+@Dao
+public interface UserNeighborDao {
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertAll(List<UserNeighborEntity> neighbors);
+
+    @Query("SELECT * FROM user_neighbors")
+    List<UserNeighborEntity> getAll();
+
+    @Query("DELETE FROM user_neighbors WHERE user_id = :userId")
+    void deleteForUser(String userId);
+
+    @Query("DELETE FROM user_neighbors")
+    void deleteAll();
+
+    @Transaction
+    default void replaceForUser(String userId, List<UserNeighborEntity> neighbors) {
+        deleteForUser(userId);
+        insertAll(neighbors);
+    }
+}
@@ -3,11 +3,19 @@ package com.draker.swipetime.database.entities;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 
 /**
  * Сущность для аниме
  */
-@Entity(tableName = "anime")
+@Entity(
+    tableName = "anime",
+    indices = {
+        @Index(value = {"release_year"}),
+        @Index(value = {"created_at", "id"}),
+        @Index(value = {"liked", "created_at", "id"})
+    }
+)
 public class AnimeEntity extends ContentEntity {
 
     @ColumnInfo(name = "studio")
@@ -0,0 +1,14 @@
+package com.draker.swipetime.database.entities;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+/**
+ * Полнотекстовый индекс по названию и описанию аниме.
+ * Синхронизируется с таблицей anime триггерами, которые создает Room
+ */
+@Entity(tableName = "anime_fts")
+@Fts4(contentEntity = AnimeEntity.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61, prefix = {2, 3})
+public class AnimeFtsEntity extends SearchTextEntity {
+}
@@ -3,11 +3,19 @@ package com.draker.swipetime.database.entities;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 
 /**
  * Сущность для книг
  */
-@Entity(tableName = "books")
+@Entity(
+    tableName = "books",
+    indices = {
+        @Index(value = {"publish_year"}),
+        @Index(value = {"created_at", "id"}),
+        @Index(value = {"liked", "created_at", "id"})
+    }
+)
 public class BookEntity extends ContentEntity {
 
     @ColumnInfo(name = "author")
@@ -0,0 +1,14 @@
+package com.draker.swipetime.database.entities;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+/**
+ * Полнотекстовый индекс по названию и описанию книг.
+ * Синхронизируется с таблицей books триггерами, которые создает Room
+ */
+@Entity(tableName = "books_fts")
+@Fts4(contentEntity = BookEntity.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61, prefix = {2, 3})
+public class BookFtsEntity extends SearchTextEntity {
+}
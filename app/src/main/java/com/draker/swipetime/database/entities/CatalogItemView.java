@@ -0,0 +1,133 @@
+package com.draker.swipetime.database.entities;
+
+import androidx.room.ColumnInfo;
+import androidx.room.DatabaseView;
+
+/**
+ * Единое представление всех таблиц контента (пять типизированных таблиц и content).
+ * Столбец source хранит имя исходной таблицы, category - название категории,
+ * а год, длительность и возрастной рейтинг приведены к общим столбцам
+ */
+@DatabaseView(viewName = "catalog_items", value = CatalogItemView.VIEW_SQL)
+public class CatalogItemView extends ContentEntity {
+
+    // Запрос представления; используется и в аннотации, и в миграции
+    public static final String VIEW_SQL =
+            "SELECT id, title, description, image_url, 'Фильмы' AS category, content_type, liked, watched, rating, " +
+                    "created_at, updated_at, 'movies' AS source, genres, release_year AS year, duration, " +
+                    "NULL AS age_rating FROM movies " +
+            "UNION ALL SELECT id, title, description, image_url, 'Сериалы', content_type, liked, watched, rating, " +
+                    "created_at, updated_at, 'tv_shows', genres, start_year, NULL, NULL FROM tv_shows " +
+            "UNION ALL SELECT id, title, description, image_url, 'Игры', content_type, liked, is_completed, rating, " +
+                    "created_at, updated_at, 'games', genres, release_year, NULL, esrb_rating FROM games " +
+            "UNION ALL SELECT id, title, description, image_url, 'Книги', content_type, liked, is_read, rating, " +
+                    "created_at, updated_at, 'books', genres, publish_year, NULL, NULL FROM books " +
+            "UNION ALL SELECT id, title, description, image_url, 'Аниме', content_type, liked, watched, rating, " +
+                    "created_at, updated_at, 'anime', genres, release_year, NULL, NULL FROM anime " +
+            "UNION ALL SELECT id, title, description, image_url, category, content_type, liked, watched, rating, " +
+                    "created_at, updated_at, 'content', NULL, NULL, NULL, NULL FROM content";
+
+    // Таблица общего контента, категория берется из ее столбца category
+    public static final String SOURCE_CONTENT = "content";
+
+    private static final String[][] CATEGORY_SOURCES = {
+            {"Фильмы", "movies"},
+            {"Сериалы", "tv_shows"},
+            {"Игры", "games"},
+            {"Книги", "books"},
+            {"Аниме", "anime"}
+    };
+
+    @ColumnInfo(name = "source")
+    private String source;
+
+    @ColumnInfo(name = "genres")
+    private String genres;
+
+    @ColumnInfo(name = "year")
+    private int year;
+
+    @ColumnInfo(name = "duration")
+    private int duration;
+
+    @ColumnInfo(name = "age_rating")
+    private String ageRating;
+
+    public CatalogItemView() {
+        super();
+    }
+
+    /**
+     * Имя исходной таблицы для категории; для неизвестной категории - таблица общего контента
+     * @param category название категории ("Фильмы", "Игры" и т.д.)
+     */
+    public static String sourceFor(String category) {
+        for (String[] mapping : CATEGORY_SOURCES) {
+            if (mapping[0].equals(category)) {
+                return mapping[1];
+            }
+        }
+        return SOURCE_CONTENT;
+    }
+
+    /**
+     * Имя исходной таблицы элемента: по типу сущности, а для общего контента - по категории
+     * @param content элемент контента любой категории
+     */
+    public static String sourceOf(ContentEntity content) {
+        if (content instanceof MovieEntity) {
+            return "movies";
+        } else if (content instanceof TVShowEntity) {
+            return "tv_shows";
+        } else if (content instanceof GameEntity) {
+            return "games";
+        } else if (content instanceof BookEntity) {
+            return "books";
+        } else if (content instanceof AnimeEntity) {
+            return "anime";
+        } else if (content instanceof CatalogItemView) {
+            return ((CatalogItemView) content).getSource();
+        }
+        return sourceFor(content.getCategory());
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public String getGenres() {
+        return genres;
+    }
+
+    public void setGenres(String genres) {
+        this.genres = genres;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public void setYear(int year) {
+        this.year = year;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public void setDuration(int duration) {
+        this.duration = duration;
+    }
+
+    public String getAgeRating() {
+        return ageRating;
+    }
+
+    public void setAgeRating(String ageRating) {
+        this.ageRating = ageRating;
+    }
+}
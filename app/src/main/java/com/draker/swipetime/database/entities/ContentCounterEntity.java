@@ -0,0 +1,74 @@
+package com.draker.swipetime.database.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.PrimaryKey;
+
+/**
+ * Счетчики одной таблицы контента: всего, понравившихся и завершенных элементов.
+ * Строки поддерживаются триггерами SQLite, приложение их только читает
+ */
+@Entity(tableName = "content_counters")
+public class ContentCounterEntity {
+
+    @PrimaryKey
+    @NonNull
+    @ColumnInfo(name = "table_name")
+    private String tableName;
+
+    @ColumnInfo(name = "total")
+    private int total;
+
+    @ColumnInfo(name = "liked")
+    private int liked;
+
+    @ColumnInfo(name = "watched")
+    private int watched; // просмотрено, прочитано или пройдено - в зависимости от таблицы
+
+    public ContentCounterEntity() {
+        this.tableName = "";
+    }
+
+    @Ignore
+    public ContentCounterEntity(@NonNull String tableName, int total, int liked, int watched) {
+        this.tableName = tableName;
+        this.total = total;
+        this.liked = liked;
+        this.watched = watched;
+    }
+
+    @NonNull
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(@NonNull String tableName) {
+        this.tableName = tableName;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getLiked() {
+        return liked;
+    }
+
+    public void setLiked(int liked) {
+        this.liked = liked;
+    }
+
+    public int getWatched() {
+        return watched;
+    }
+
+    public void setWatched(int watched) {
+        this.watched = watched;
+    }
+}
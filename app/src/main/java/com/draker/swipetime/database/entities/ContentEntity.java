@@ -4,12 +4,20 @@ import androidx.annotation.NonNull;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 /**
  * Базовая сущность для всех типов контента в базе данных
  */
-@Entity(tableName = "content")
+@Entity(
+    tableName = "content",
+    indices = {
+        @Index(value = {"created_at", "id"}),
+        @Index(value = {"liked", "created_at", "id"}),
+        @Index(value = {"category", "created_at", "id"})
+    }
+)
 public class ContentEntity {
 
     @PrimaryKey
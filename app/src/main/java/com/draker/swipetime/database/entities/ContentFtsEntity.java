@@ -0,0 +1,14 @@
+package com.draker.swipetime.database.entities;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+/**
+ * Полнотекстовый индекс по названию и описанию общего контента.
+ * Синхронизируется с таблицей content триггерами, которые создает Room
+ */
+@Entity(tableName = "content_fts")
+@Fts4(contentEntity = ContentEntity.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61, prefix = {2, 3})
+public class ContentFtsEntity extends SearchTextEntity {
+}
@@ -0,0 +1,71 @@
+package com.draker.swipetime.database.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+
+/**
+ * Кросс-таблица для связи контента (любой категории) и жанров.
+ * ID разных категорий могут совпадать (tmdb_ у фильмов и сериалов),
+ * поэтому элемент определяется парой таблица-источник и ID
+ */
+@Entity(
+    tableName = "content_genres",
+    primaryKeys = {"source", "content_id", "genre_id"},
+    indices = {
+        @Index(value = {"genre_id", "source", "content_id"})
+    }
+)
+public class ContentGenreCrossRef {
+
+    @NonNull
+    @ColumnInfo(name = "source")
+    private String source;
+
+    @NonNull
+    @ColumnInfo(name = "content_id")
+    private String contentId;
+
+    @ColumnInfo(name = "genre_id")
+    private int genreId;
+
+    public ContentGenreCrossRef() {
+        this.source = "";
+        this.contentId = "";
+    }
+
+    @Ignore
+    public ContentGenreCrossRef(@NonNull String source, @NonNull String contentId, int genreId) {
+        this.source = source;
+        this.contentId = contentId;
+        this.genreId = genreId;
+    }
+
+    @NonNull
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(@NonNull String source) {
+        this.source = source;
+    }
+
+    @NonNull
+    public String getContentId() {
+        return contentId;
+    }
+
+    public void setContentId(@NonNull String contentId) {
+        this.contentId = contentId;
+    }
+
+    public int getGenreId() {
+        return genreId;
+    }
+
+    public void setGenreId(int genreId) {
+        this.genreId = genreId;
+    }
+}
@@ -0,0 +1,72 @@
+package com.draker.swipetime.database.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Плотный целочисленный номер элемента контента для битовых множеств истории.
+ * Номер выдается при первом взаимодействии с элементом и больше не меняется,
+ * поэтому битовые множества переживают пересоздание каталога.
+ * ID разных категорий могут совпадать (tmdb_ у фильмов и сериалов),
+ * поэтому номер выдается паре таблица-источник и ID
+ */
+@Entity(
+    tableName = "content_ordinals",
+    indices = {@Index(value = {"source", "content_id"}, unique = true)}
+)
+public class ContentOrdinalEntity {
+
+    @PrimaryKey
+    @ColumnInfo(name = "ordinal")
+    private int ordinal;
+
+    @NonNull
+    @ColumnInfo(name = "source")
+    private String source;
+
+    @NonNull
+    @ColumnInfo(name = "content_id")
+    private String contentId;
+
+    public ContentOrdinalEntity() {
+        this.source = "";
+        this.contentId = "";
+    }
+
+    @Ignore
+    public ContentOrdinalEntity(int ordinal, @NonNull String source, @NonNull String contentId) {
+        this.ordinal = ordinal;
+        this.source = source;
+        this.contentId = contentId;
+    }
+
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    public void setOrdinal(int ordinal) {
+        this.ordinal = ordinal;
+    }
+
+    @NonNull
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(@NonNull String source) {
+        this.source = source;
+    }
+
+    @NonNull
+    public String getContentId() {
+        return contentId;
+    }
+
+    public void setContentId(@NonNull String contentId) {
+        this.contentId = contentId;
+    }
+}
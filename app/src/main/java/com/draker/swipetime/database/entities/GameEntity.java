@@ -3,11 +3,19 @@ package com.draker.swipetime.database.entities;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 
 /**
  * Сущность для игр
  */
-@Entity(tableName = "games")
+@Entity(
+    tableName = "games",
+    indices = {
+        @Index(value = {"release_year"}),
+        @Index(value = {"created_at", "id"}),
+        @Index(value = {"liked", "created_at", "id"})
+    }
+)
 public class GameEntity extends ContentEntity {
 
     @ColumnInfo(name = "developer")
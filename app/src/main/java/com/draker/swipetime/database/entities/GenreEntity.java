@@ -0,0 +1,67 @@
+package com.draker.swipetime.database.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Сущность словаря жанров.
+ * Каждый жанр хранится один раз, контент ссылается на него через content_genres
+ */
+@Entity(
+    tableName = "genres",
+    indices = {
+        @Index(value = {"normalized_name"}, unique = true)
+    }
+)
+public class GenreEntity {
+
+    @PrimaryKey(autoGenerate = true)
+    @ColumnInfo(name = "id")
+    private int id;
+
+    @ColumnInfo(name = "name")
+    private String name; // Название в том виде, в котором оно впервые пришло из источника
+
+    @NonNull
+    @ColumnInfo(name = "normalized_name")
+    private String normalizedName; // Название в нижнем регистре без пробелов по краям
+
+    public GenreEntity() {
+        this.normalizedName = "";
+    }
+
+    @Ignore
+    public GenreEntity(String name, @NonNull String normalizedName) {
+        this.name = name;
+        this.normalizedName = normalizedName;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @NonNull
+    public String getNormalizedName() {
+        return normalizedName;
+    }
+
+    public void setNormalizedName(@NonNull String normalizedName) {
+        this.normalizedName = normalizedName;
+    }
+}
@@ -0,0 +1,63 @@
+package com.draker.swipetime.database.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+
+/**
+ * Похожий элемент в коллаборативной фильтрации по элементам: элемент, который
+ * нравится тем же пользователям. Для каждого элемента хранится не более N соседей
+ */
+@Entity(tableName = "item_neighbors", primaryKeys = {"item_id", "neighbor_id"})
+public class ItemNeighborEntity {
+
+    @NonNull
+    @ColumnInfo(name = "item_id")
+    private String itemId;
+
+    @NonNull
+    @ColumnInfo(name = "neighbor_id")
+    private String neighborId;
+
+    @ColumnInfo(name = "similarity")
+    private double similarity;
+
+    public ItemNeighborEntity() {
+        this.itemId = "";
+        this.neighborId = "";
+    }
+
+    @Ignore
+    public ItemNeighborEntity(@NonNull String itemId, @NonNull String neighborId, double similarity) {
+        this.itemId = itemId;
+        this.neighborId = neighborId;
+        this.similarity = similarity;
+    }
+
+    @NonNull
+    public String getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(@NonNull String itemId) {
+        this.itemId = itemId;
+    }
+
+    @NonNull
+    public String getNeighborId() {
+        return neighborId;
+    }
+
+    public void setNeighborId(@NonNull String neighborId) {
+        this.neighborId = neighborId;
+    }
+
+    public double getSimilarity() {
+        return similarity;
+    }
+
+    public void setSimilarity(double similarity) {
+        this.similarity = similarity;
+    }
+}
@@ -0,0 +1,72 @@
+package com.draker.swipetime.database.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+
+/**
+ * Латентный вектор пользователя или элемента из матричной факторизации (ALS).
+ * Вектор хранится упакованным массивом float (little-endian, 4 байта на компоненту)
+ */
+@Entity(tableName = "latent_factors", primaryKeys = {"kind", "owner_id"})
+public class LatentFactorEntity {
+
+    // Виды векторов
+    public static final int KIND_USER = 0;
+    public static final int KIND_ITEM = 1;
+
+    // Служебная строка модели: в factors лежит номер последней записи журнала
+    // взаимодействий на момент обучения (long, little-endian)
+    public static final int KIND_MODEL = 2;
+    public static final String MODEL_OWNER_ID = "model";
+
+    @ColumnInfo(name = "kind")
+    private int kind;
+
+    @NonNull
+    @ColumnInfo(name = "owner_id")
+    private String ownerId;
+
+    @NonNull
+    @ColumnInfo(name = "factors", typeAffinity = ColumnInfo.BLOB)
+    private byte[] factors;
+
+    public LatentFactorEntity() {
+        this.ownerId = "";
+        this.factors = new byte[0];
+    }
+
+    @Ignore
+    public LatentFactorEntity(int kind, @NonNull String ownerId, @NonNull byte[] factors) {
+        this.kind = kind;
+        this.ownerId = ownerId;
+        this.factors = factors;
+    }
+
+    public int getKind() {
+        return kind;
+    }
+
+    public void setKind(int kind) {
+        this.kind = kind;
+    }
+
+    @NonNull
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(@NonNull String ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    @NonNull
+    public byte[] getFactors() {
+        return factors;
+    }
+
+    public void setFactors(@NonNull byte[] factors) {
+        this.factors = factors;
+    }
+}
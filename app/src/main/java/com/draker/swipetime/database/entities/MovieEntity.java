@@ -3,11 +3,20 @@ package com.draker.swipetime.database.entities;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 
 /**
  * Сущность для фильмов
  */
-@Entity(tableName = "movies")
+@Entity(
+    tableName = "movies",
+    indices = {
+        @Index(value = {"release_year"}),
+        @Index(value = {"duration"}),
+        @Index(value = {"created_at", "id"}),
+        @Index(value = {"liked", "created_at", "id"})
+    }
+)
 public class MovieEntity extends ContentEntity {
 
     @ColumnInfo(name = "director")
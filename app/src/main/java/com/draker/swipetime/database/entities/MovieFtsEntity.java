@@ -0,0 +1,14 @@
+package com.draker.swipetime.database.entities;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+/**
+ * Полнотекстовый индекс по названию и описанию фильмов.
+ * Синхронизируется с таблицей movies триггерами, которые создает Room
+ */
+@Entity(tableName = "movies_fts")
+@Fts4(contentEntity = MovieEntity.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61, prefix = {2, 3})
+public class MovieFtsEntity extends SearchTextEntity {
+}
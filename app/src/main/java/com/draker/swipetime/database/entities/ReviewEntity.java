@@ -9,7 +9,9 @@ import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 /**
- * Сущность для хранения отзывов пользователей о контенте
+ * Сущность для хранения отзывов пользователей о контенте.
+ * Хранится в базе пользовательских данных, поэтому content_id не связан
+ * внешним ключом с таблицами каталога
  */
 @Entity(
     tableName = "reviews",
@@ -23,12 +25,6 @@ import androidx.room.PrimaryKey;
             parentColumns = "id",
             childColumns = "user_id",
             onDelete = ForeignKey.CASCADE
-        ),
-        @ForeignKey(
-            entity = ContentEntity.class,
-            parentColumns = "id",
-            childColumns = "content_id",
-            onDelete = ForeignKey.CASCADE
         )
     }
 )
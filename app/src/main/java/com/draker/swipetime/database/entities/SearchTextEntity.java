@@ -0,0 +1,33 @@
+package com.draker.swipetime.database.entities;
+
+import androidx.room.ColumnInfo;
+
+/**
+ * Базовый набор индексируемых полей для полнотекстовых таблиц поиска.
+ * Колонки совпадают с колонками ContentEntity, чтобы FTS-таблица могла
+ * ссылаться на таблицу контента как на внешний источник данных
+ */
+public class SearchTextEntity {
+
+    @ColumnInfo(name = "title")
+    private String title;
+
+    @ColumnInfo(name = "description")
+    private String description;
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+}
@@ -0,0 +1,70 @@
+package com.draker.swipetime.database.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+
+/**
+ * Множество показанных пользователю элементов на стороне каталога.
+ * Источник истины - журнал user_interactions в базе пользовательских данных,
+ * эта таблица нужна только для анти-соединения при выборке карточек
+ * и восстанавливается из журнала после пересоздания каталога.
+ * ID разных категорий могут совпадать (tmdb_ у фильмов и сериалов), поэтому
+ * элемент определяется парой источник-ID, как в shuffle_keys
+ */
+@Entity(tableName = "seen_content", primaryKeys = {"user_id", "source", "content_id"})
+public class SeenContentEntity {
+
+    @NonNull
+    @ColumnInfo(name = "user_id")
+    private String userId;
+
+    @NonNull
+    @ColumnInfo(name = "source")
+    private String source;
+
+    @NonNull
+    @ColumnInfo(name = "content_id")
+    private String contentId;
+
+    public SeenContentEntity() {
+        this.userId = "";
+        this.source = "";
+        this.contentId = "";
+    }
+
+    @Ignore
+    public SeenContentEntity(@NonNull String userId, @NonNull String source, @NonNull String contentId) {
+        this.userId = userId;
+        this.source = source;
+        this.contentId = contentId;
+    }
+
+    @NonNull
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(@NonNull String userId) {
+        this.userId = userId;
+    }
+
+    @NonNull
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(@NonNull String source) {
+        this.source = source;
+    }
+
+    @NonNull
+    public String getContentId() {
+        return contentId;
+    }
+
+    public void setContentId(@NonNull String contentId) {
+        this.contentId = contentId;
+    }
+}
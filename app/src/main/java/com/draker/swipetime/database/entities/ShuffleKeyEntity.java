@@ -0,0 +1,88 @@
+package com.draker.swipetime.database.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+
+/**
+ * Случайный ключ порядка показа для каждого элемента контента.
+ * Строки создаются и удаляются триггерами таблиц контента, ключи перевыбираются
+ * в начале каждой сессии, поэтому выборка карточек "в случайном порядке" -
+ * это чтение диапазона индекса (source, shuffle_key).
+ * Номер ordinal плотный внутри источника, [0, число строк): новая строка получает
+ * следующий номер, на место удаленной переносится строка с последним номером.
+ * По номерам обходит каталог перестановка {@link com.draker.swipetime.utils.ShuffleCursor}
+ */
+@Entity(
+    tableName = "shuffle_keys",
+    primaryKeys = {"source", "content_id"},
+    indices = {
+        @Index(value = {"source", "shuffle_key", "content_id"}),
+        @Index(value = {"source", "ordinal"})
+    }
+)
+public class ShuffleKeyEntity {
+
+    @NonNull
+    @ColumnInfo(name = "source")
+    private String source;
+
+    @NonNull
+    @ColumnInfo(name = "content_id")
+    private String contentId;
+
+    @ColumnInfo(name = "shuffle_key")
+    private long shuffleKey;
+
+    @ColumnInfo(name = "ordinal")
+    private int ordinal;
+
+    public ShuffleKeyEntity() {
+        this.source = "";
+        this.contentId = "";
+    }
+
+    @Ignore
+    public ShuffleKeyEntity(@NonNull String source, @NonNull String contentId, long shuffleKey, int ordinal) {
+        this.source = source;
+        this.contentId = contentId;
+        this.shuffleKey = shuffleKey;
+        this.ordinal = ordinal;
+    }
+
+    @NonNull
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(@NonNull String source) {
+        this.source = source;
+    }
+
+    @NonNull
+    public String getContentId() {
+        return contentId;
+    }
+
+    public void setContentId(@NonNull String contentId) {
+        this.contentId = contentId;
+    }
+
+    public long getShuffleKey() {
+        return shuffleKey;
+    }
+
+    public void setShuffleKey(long shuffleKey) {
+        this.shuffleKey = shuffleKey;
+    }
+
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    public void setOrdinal(int ordinal) {
+        this.ordinal = ordinal;
+    }
+}
@@ -3,11 +3,19 @@ package com.draker.swipetime.database.entities;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 
 /**
  * Сущность для сериалов
  */
-@Entity(tableName = "tv_shows")
+@Entity(
+    tableName = "tv_shows",
+    indices = {
+        @Index(value = {"start_year"}),
+        @Index(value = {"created_at", "id"}),
+        @Index(value = {"liked", "created_at", "id"})
+    }
+)
 public class TVShowEntity extends ContentEntity {
 
     @ColumnInfo(name = "creator")
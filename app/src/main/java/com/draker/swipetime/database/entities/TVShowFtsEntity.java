@@ -0,0 +1,14 @@
+package com.draker.swipetime.database.entities;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+/**
+ * Полнотекстовый индекс по названию и описанию сериалов.
+ * Синхронизируется с таблицей tv_shows триггерами, которые создает Room
+ */
+@Entity(tableName = "tv_shows_fts")
+@Fts4(contentEntity = TVShowEntity.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61, prefix = {2, 3})
+public class TVShowFtsEntity extends SearchTextEntity {
+}
@@ -0,0 +1,121 @@
+package com.draker.swipetime.database.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Сущность журнала взаимодействий пользователя с контентом (показ, лайк, дизлайк).
+ * Журнал только дополняется, каждое действие - одна строка
+ */
+@Entity(
+    tableName = "user_interactions",
+    indices = {
+        @Index(value = {"user_id", "action", "ts"}),
+        @Index(value = {"content_id"})
+    }
+)
+public class UserInteractionEntity {
+
+    // Карточка была показана пользователю
+    public static final String ACTION_VIEW = "view";
+    // Свайп вправо или добавление в избранное
+    public static final String ACTION_LIKE = "like";
+    // Свайп влево
+    public static final String ACTION_DISLIKE = "dislike";
+    // Удаление из избранного
+    public static final String ACTION_UNLIKE = "unlike";
+
+    @PrimaryKey(autoGenerate = true)
+    @ColumnInfo(name = "id")
+    private long id;
+
+    @NonNull
+    @ColumnInfo(name = "user_id")
+    private String userId;
+
+    @NonNull
+    @ColumnInfo(name = "content_id")
+    private String contentId;
+
+    @ColumnInfo(name = "category")
+    private String category;
+
+    @NonNull
+    @ColumnInfo(name = "action")
+    private String action;
+
+    @ColumnInfo(name = "ts")
+    private long ts;
+
+    public UserInteractionEntity() {
+        this.userId = "";
+        this.contentId = "";
+        this.action = ACTION_VIEW;
+        this.ts = System.currentTimeMillis();
+    }
+
+    @Ignore
+    public UserInteractionEntity(@NonNull String userId, @NonNull String contentId, String category,
+                                 @NonNull String action, long ts) {
+        this.userId = userId;
+        this.contentId = contentId;
+        this.category = category;
+        this.action = action;
+        this.ts = ts;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    @NonNull
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(@NonNull String userId) {
+        this.userId = userId;
+    }
+
+    @NonNull
+    public String getContentId() {
+        return contentId;
+    }
+
+    public void setContentId(@NonNull String contentId) {
+        this.contentId = contentId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    @NonNull
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(@NonNull String action) {
+        this.action = action;
+    }
+
+    public long getTs() {
+        return ts;
+    }
+
+    public void setTs(long ts) {
+        this.ts = ts;
+    }
+}
@@ -0,0 +1,63 @@
+package com.draker.swipetime.database.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+
+/**
+ * Сосед пользователя в коллаборативной фильтрации: пользователь с похожими лайками.
+ * Для каждого пользователя хранится не более K ближайших соседей
+ */
+@Entity(tableName = "user_neighbors", primaryKeys = {"user_id", "neighbor_id"})
+public class UserNeighborEntity {
+
+    @NonNull
+    @ColumnInfo(name = "user_id")
+    private String userId;
+
+    @NonNull
+    @ColumnInfo(name = "neighbor_id")
+    private String neighborId;
+
+    @ColumnInfo(name = "similarity")
+    private double similarity;
+
+    public UserNeighborEntity() {
+        this.userId = "";
+        this.neighborId = "";
+    }
+
+    @Ignore
+    public UserNeighborEntity(@NonNull String userId, @NonNull String neighborId, double similarity) {
+        this.userId = userId;
+        this.neighborId = neighborId;
+        this.similarity = similarity;
+    }
+
+    @NonNull
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(@NonNull String userId) {
+        this.userId = userId;
+    }
+
+    @NonNull
+    public String getNeighborId() {
+        return neighborId;
+    }
+
+    public void setNeighborId(@NonNull String neighborId) {
+        this.neighborId = neighborId;
+    }
+
+    public double getSimilarity() {
+        return similarity;
+    }
+
+    public void setSimilarity(double similarity) {
+        this.similarity = similarity;
+    }
+}
@@ -20,16 +20,15 @@ import androidx.lifecycle.ViewModelProvider;
 
 import com.draker.swipetime.R;
 import com.draker.swipetime.adapters.CardStackAdapter;
-import com.draker.swipetime.database.entities.AnimeEntity;
-import com.draker.swipetime.database.entities.BookEntity;
+import com.draker.swipetime.database.CardProjection;
+import com.draker.swipetime.database.DatabaseSchedulers;
 import com.draker.swipetime.database.entities.ContentEntity;
-import com.draker.swipetime.database.entities.GameEntity;
-import com.draker.swipetime.database.entities.MovieEntity;
-import com.draker.swipetime.database.entities.TVShowEntity;
 import com.draker.swipetime.database.entities.UserPreferencesEntity;
 import com.draker.swipetime.models.ContentItem;
 import com.draker.swipetime.repository.AnimeRepository;
 import com.draker.swipetime.repository.BookRepository;
+import com.draker.swipetime.repository.CatalogRepository;
+import com.draker.swipetime.repository.ContentPager;
 import com.draker.swipetime.repository.ContentRepository;
 import com.draker.swipetime.repository.GameRepository;
 import com.draker.swipetime.repository.MovieRepository;
@@ -38,8 +37,10 @@ import com.draker.swipetime.repository.UserPreferencesRepository;
 import com.draker.swipetime.utils.ActionLogger;
 import com.draker.swipetime.utils.CardInfoHelper;
 import com.draker.swipetime.utils.ContentManager;
+import com.draker.swipetime.utils.DatabaseHelper;
 import com.draker.swipetime.utils.FirebaseManager;
 import com.draker.swipetime.utils.GamificationManager;
+import com.draker.swipetime.utils.PrefetchScheduler;
 import com.draker.swipetime.viewmodels.FilterViewModel;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
@@ -58,6 +59,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+
 public class CardStackFragment extends Fragment implements CardStackListener, FilterSettingsFragment.OnFilterSettingsClosedListener {
 
     private static final String TAG = "CardStackFragment";
@@ -83,14 +88,19 @@ public class CardStackFragment extends Fragment implements CardStackListener, Fi
     private AnimeRepository animeRepository;
     private ContentRepository contentRepository;
     private UserPreferencesRepository preferencesRepository;
+    private CatalogRepository catalogRepository;
     private GamificationManager gamificationManager;
     private ContentManager contentManager;
+    private final PrefetchScheduler prefetchScheduler = PrefetchScheduler.getInstance();
 
     // ViewModel для фильтров
     private FilterViewModel filterViewModel;
 
     private static final String ARG_CATEGORY = "category";
 
+    // Сколько карточек добавляется в стопку после загрузки из API
+    private static final int FRESH_CARDS_BATCH = 20;
+
     // Флаг для отслеживания применения фильтров
     private boolean filtersApplied = false;
     
@@ -101,6 +111,8 @@ public class CardStackFragment extends Fragment implements CardStackListener, Fi
     private boolean hasBooks = false;
     private boolean hasAnime = false;
 
+    private final CompositeDisposable disposables = new CompositeDisposable();
+
     public static CardStackFragment newInstance(String category) {
         CardStackFragment fragment = new CardStackFragment();
         Bundle args = new Bundle();
@@ -134,6 +146,7 @@ public class CardStackFragment extends Fragment implements CardStackListener, Fi
         animeRepository = new AnimeRepository(requireActivity().getApplication());
         contentRepository = new ContentRepository(requireActivity().getApplication());
         preferencesRepository = new UserPreferencesRepository(requireActivity().getApplication());
+        catalogRepository = new CatalogRepository(requireActivity().getApplication());
 
         // Инициализация менеджера геймификации
         gamificationManager = GamificationManager.getInstance(requireActivity().getApplication());
@@ -144,13 +157,6 @@ public class CardStackFragment extends Fragment implements CardStackListener, Fi
 
         // Инициализация ViewModel
         filterViewModel = new ViewModelProvider(this).get(FilterViewModel.class);
-        
-        // Проверяем наличие данных в категориях
-        hasMovies = movieRepository.getCount() >= 10;
-        hasTVShows = tvShowRepository.getCount() >= 10;
-        hasGames = gameRepository.getCount() >= 10;
-        hasBooks = bookRepository.getCount() >= 10;
-        hasAnime = animeRepository.getCount() >= 10;
     }
 
     @Nullable
@@ -179,35 +185,22 @@ public class CardStackFragment extends Fragment implements CardStackListener, Fi
 
         // Выводим отладочную информацию о количестве элементов в базе данных
         Log.d(TAG, "Категория: " + categoryName);
-        Log.d(TAG, "Количество фильмов в базе: " + movieRepository.getCount());
-        Log.d(TAG, "Количество сериалов в базе: " + tvShowRepository.getCount());
-        Log.d(TAG, "Количество игр в базе: " + gameRepository.getCount());
-        Log.d(TAG, "Количество книг в базе: " + bookRepository.getCount());
-        Log.d(TAG, "Количество аниме в базе: " + animeRepository.getCount());
-        Log.d(TAG, "Общее количество контента в базе: " + contentRepository.getCount());
+        DatabaseSchedulers.executor().execute(this::checkCategoriesData);
 
         // Настройка CardStackLayoutManager
         setupCardStackView();
 
-        // Инициализация адаптера с данными, используя ContentManager
-        String userId = getCurrentUserId();
-        List<ContentItem> items = contentManager.getFilteredContentItems(
-                categoryName,
-                userId,
-                movieRepository,
-                tvShowRepository,
-                gameRepository,
-                bookRepository,
-                animeRepository,
-                contentRepository,
-                preferencesRepository
-        );
-        
-        Log.d(TAG, "Создано элементов для отображения: " + items.size());
-
-        adapter = new CardStackAdapter(getContext(), items);
+        // Адаптер создается пустым, карточки подгружаются из пула БД
+        adapter = new CardStackAdapter(getContext(), new ArrayList<>());
         cardStackView.setAdapter(adapter);
 
+        // Инициализация адаптера с данными, используя ContentManager
+        disposables.add(loadFilteredItems()
+                .subscribe(items -> {
+                    Log.d(TAG, "Создано элементов для отображения: " + items.size());
+                    adapter.setItems(items);
+                }, error -> Log.e(TAG, "Ошибка при загрузке карточек: " + error.getMessage())));
+
         // Настройка кнопки перезагрузки
         reloadButton.setOnClickListener(v -> reloadCards());
 
@@ -215,13 +208,71 @@ public class CardStackFragment extends Fragment implements CardStackListener, Fi
         checkFiltersStatus();
     }
 
+    @Override
+    public void onPause() {
+        super.onPause();
+        // Пользователь ушел из категории - упреждающая подгрузка больше не нужна
+        prefetchScheduler.cancel(categoryName);
+        com.draker.swipetime.api.ApiIntegrationManager.getInstance(requireActivity().getApplication())
+                .cancelCategoryRefresh(categoryName);
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        disposables.clear();
+        isLoading = false;
+    }
+
+    /**
+     * Проверяет наличие данных в категориях и выводит отладочную информацию.
+     * Выполняется в пуле БД
+     */
+    private void checkCategoriesData() {
+        int movies = movieRepository.getCount();
+        int tvShows = tvShowRepository.getCount();
+        int games = gameRepository.getCount();
+        int books = bookRepository.getCount();
+        int anime = animeRepository.getCount();
+
+        hasMovies = movies >= 10;
+        hasTVShows = tvShows >= 10;
+        hasGames = games >= 10;
+        hasBooks = books >= 10;
+        hasAnime = anime >= 10;
+
+        Log.d(TAG, "Количество фильмов в базе: " + movies);
+        Log.d(TAG, "Количество сериалов в базе: " + tvShows);
+        Log.d(TAG, "Количество игр в базе: " + games);
+        Log.d(TAG, "Количество книг в базе: " + books);
+        Log.d(TAG, "Количество аниме в базе: " + anime);
+        Log.d(TAG, "Общее количество контента в базе: " + contentRepository.getCount());
+    }
+
+    /**
+     * Загружает отфильтрованные карточки текущей категории в пуле БД,
+     * результат приходит в главный поток
+     */
+    private Single<List<ContentItem>> loadFilteredItems() {
+        return contentManager.getFilteredContentItemsAsync(categoryName, getCurrentUserId(), preferencesRepository)
+                .observeOn(AndroidSchedulers.mainThread());
+    }
+
     /**
      * Проверяет, были ли применены какие-либо фильтры
      */
     private void checkFiltersStatus() {
         String userId = getCurrentUserId();
-        UserPreferencesEntity preferences = preferencesRepository.getByUserId(userId);
+        disposables.add(preferencesRepository.getByUserIdAsync(userId)
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(this::applyFiltersStatus,
+                        error -> Log.e(TAG, "Ошибка при загрузке предпочтений: " + error.getMessage())));
+    }
 
+    /**
+     * Обновляет индикатор фильтров по загруженным предпочтениям
+     */
+    private void applyFiltersStatus(UserPreferencesEntity preferences) {
         // Проверяем, есть ли какие-либо установленные фильтры
         boolean hasActiveFilters = false;
 
@@ -284,19 +335,15 @@ public class CardStackFragment extends Fragment implements CardStackListener, Fi
      */
     private void reloadCardsWithFilters() {
         // Используем ContentManager для получения отфильтрованного списка
-        String userId = getCurrentUserId();
-        List<ContentItem> filteredItems = contentManager.getFilteredContentItems(
-                categoryName,
-                userId,
-                movieRepository,
-                tvShowRepository,
-                gameRepository,
-                bookRepository,
-                animeRepository,
-                contentRepository,
-                preferencesRepository
-        );
-        
+        disposables.add(loadFilteredItems()
+                .subscribe(this::showFilteredItems,
+                        error -> Log.e(TAG, "Ошибка при загрузке карточек: " + error.getMessage())));
+    }
+
+    /**
+     * Показывает карточки, полученные после применения фильтров
+     */
+    private void showFilteredItems(List<ContentItem> filteredItems) {
         Log.d(TAG, "Отфильтрованных элементов: " + filteredItems.size());
         
         // Если отфильтрованных элементов мало, загружаем дополнительные из API
@@ -348,32 +395,22 @@ public class CardStackFragment extends Fragment implements CardStackListener, Fi
 
     private void reloadCards() {
         // Если установлены фильтры, перезагружаем с их применением
-        String userId = getCurrentUserId();
         if (filtersApplied) {
             reloadCardsWithFilters();
         } else {
             // Иначе загружаем все элементы
-            List<ContentItem> allItems = contentManager.getFilteredContentItems(
-                    categoryName,
-                    userId,
-                    movieRepository,
-                    tvShowRepository,
-                    gameRepository,
-                    bookRepository,
-                    animeRepository,
-                    contentRepository,
-                    preferencesRepository
-            );
-            
-            // Если элементов мало, загружаем дополнительные из API
-            if (allItems.size() < 10) {
-                Toast.makeText(getContext(), "Загрузка дополнительного контента...", Toast.LENGTH_SHORT).show();
-                
-                // Загружаем данные из API
-                loadAdditionalContentFromApi();
-            }
-            
-            adapter.setItems(allItems);
+            disposables.add(loadFilteredItems()
+                    .subscribe(allItems -> {
+                        // Если элементов мало, загружаем дополнительные из API
+                        if (allItems.size() < 10) {
+                            Toast.makeText(getContext(), "Загрузка дополнительного контента...", Toast.LENGTH_SHORT).show();
+
+                            // Загружаем данные из API
+                            loadAdditionalContentFromApi();
+                        }
+
+                        adapter.setItems(allItems);
+                    }, error -> Log.e(TAG, "Ошибка при загрузке карточек: " + error.getMessage())));
         }
 
         cardStackView.setVisibility(View.VISIBLE);
@@ -388,6 +425,12 @@ public class CardStackFragment extends Fragment implements CardStackListener, Fi
         if (isLoading) {
             return;
         }
+
+        long fetchToken = prefetchScheduler.beginFetch(categoryName);
+        if (fetchToken == PrefetchScheduler.NO_FETCH) {
+            return;
+        }
+        long fetchStart = System.nanoTime();
         
         isLoading = true;
         
@@ -401,9 +444,15 @@ public class CardStackFragment extends Fragment implements CardStackListener, Fi
                 );
         
         // Обновляем данные из API для текущей категории
-        apiManager.refreshCategoryContent(categoryName, 15, new com.draker.swipetime.api.ApiIntegrationManager.ApiInitCallback() {
+        int fetchSize = prefetchScheduler.getFetchSize(categoryName, 15);
+        apiManager.refreshCategoryContent(categoryName, fetchSize, new com.draker.swipetime.api.ApiIntegrationManager.ApiInitCallback() {
             @Override
             public void onComplete(boolean success) {
+                // Загрузка отменена при уходе из категории - карточки не обновляем
+                if (!prefetchScheduler.finishFetch(categoryName, fetchToken, fetchStart)) {
+                    isLoading = false;
+                    return;
+                }
                 if (success) {
                     // Обновляем список элементов после загрузки
                     refreshCardsAfterApiLoad();
@@ -417,6 +466,11 @@ public class CardStackFragment extends Fragment implements CardStackListener, Fi
 
             @Override
             public void onError(String errorMessage) {
+                prefetchScheduler.finishFetch(categoryName, fetchToken, fetchStart);
+                if (getActivity() == null) {
+                    isLoading = false;
+                    return;
+                }
                 getActivity().runOnUiThread(() -> {
                     Toast.makeText(getContext(), "Ошибка загрузки контента: " + errorMessage, Toast.LENGTH_SHORT).show();
                     isLoading = false;
@@ -435,106 +489,108 @@ public class CardStackFragment extends Fragment implements CardStackListener, Fi
         if (getActivity() == null) return;
         
         getActivity().runOnUiThread(() -> {
-            // Получаем текущее количество карточек
-            int currentCardCount = adapter.getItemCount();
-            
-            // Получаем свежие данные с применением фильтров
-            String userId = getCurrentUserId();
-            List<ContentItem> freshItems = contentManager.getFilteredContentItems(
-                    categoryName,
-                    userId,
-                    movieRepository,
-                    tvShowRepository,
-                    gameRepository,
-                    bookRepository,
-                    animeRepository,
-                    contentRepository,
-                    preferencesRepository
-            );
-            
-            Log.d(TAG, "Получено свежих элементов после загрузки API: " + freshItems.size());
-            
-            // Фильтруем только новые элементы, которых нет в текущем адаптере
-            List<ContentItem> newItems = new ArrayList<>();
-            Set<String> currentIds = new HashSet<>();
-            
+            if (adapter == null) {
+                isLoading = false;
+                return;
+            }
+
             // Собираем ID текущих элементов
+            Set<String> currentIds = new HashSet<>();
             for (int i = 0; i < adapter.getItemCount(); i++) {
                 currentIds.add(adapter.getItems().get(i).getId());
             }
-            
-            // Добавляем только новые элементы
-            for (ContentItem item : freshItems) {
-                if (!currentIds.contains(item.getId())) {
-                    newItems.add(item);
-                }
-            }
-            
-            Log.d(TAG, "Новых уникальных элементов: " + newItems.size());
-            
-            // Если новых элементов мало, применяем стратегию повторного использования
-            if (newItems.size() < 10) {
-                Log.d(TAG, "Недостаточно новых элементов, применяем стратегию повторного использования");
-                
-                // Сбрасываем историю показанных элементов в ContentManager
-                contentManager.resetHistory(requireContext(), categoryName);
-                
-                // Получаем все элементы заново
-                List<ContentItem> allItems = contentManager.getFilteredContentItems(
-                        categoryName,
-                        userId,
-                        movieRepository,
-                        tvShowRepository,
-                        gameRepository,
-                        bookRepository,
-                        animeRepository,
-                        contentRepository,
-                        preferencesRepository
-                );
-                
-                // Оптимизация: сохраняем текущие элементы первыми, чтобы их не видно было сразу
-                List<ContentItem> remainingItems = new ArrayList<>();
-                
-                for (ContentItem item : allItems) {
-                    if (!currentIds.contains(item.getId())) {
-                        remainingItems.add(item);
-                    }
-                }
-                
-                // Перемешиваем новые элементы
-                Collections.shuffle(remainingItems);
-                
-                // Если и это не помогло - создаем "синтетические" карточки
-                if (remainingItems.size() < 5) {
-                    Log.d(TAG, "Создаем синтетические карточки для продолжения опыта");
-                    remainingItems.addAll(createSyntheticCards(10));
-                }
-                
-                // Обновляем адаптер
-                adapter.addItems(remainingItems);
-                
-                // Отображаем сообщение
-                Toast.makeText(getContext(), "Загружены новые рекомендации", Toast.LENGTH_SHORT).show();
-            } else {
-                // Если достаточно новых элементов, просто перемешиваем и добавляем их
-                List<ContentItem> shuffledNewItems = contentManager.shuffleContent(newItems, categoryName);
-                
-                // Добавляем новые элементы в адаптер
-                adapter.addItems(shuffledNewItems);
-                
-                // Отображаем сообщение
-                Toast.makeText(getContext(), "Добавлено " + shuffledNewItems.size() + " новых элементов", Toast.LENGTH_SHORT).show();
-            }
-            
-            // Показываем карточки, если они были скрыты
-            if (cardStackView.getVisibility() != View.VISIBLE) {
-                cardStackView.setVisibility(View.VISIBLE);
-                emptyCardsContainer.setVisibility(View.GONE);
-            }
-            
-            isLoading = false;
+
+            // Свежие данные читаются в пуле БД
+            String userId = getCurrentUserId();
+            disposables.add(Single.fromCallable(() -> collectFreshCards(userId, currentIds))
+                    .subscribeOn(DatabaseSchedulers.io())
+                    .observeOn(AndroidSchedulers.mainThread())
+                    .subscribe(freshCards -> {
+                        // Обновляем адаптер
+                        adapter.addItems(freshCards.items);
+
+                        // Отображаем сообщение
+                        if (freshCards.reused) {
+                            Toast.makeText(getContext(), "Загружены новые рекомендации", Toast.LENGTH_SHORT).show();
+                        } else {
+                            Toast.makeText(getContext(), "Добавлено " + freshCards.items.size() + " новых элементов", Toast.LENGTH_SHORT).show();
+                        }
+
+                        // Показываем карточки, если они были скрыты
+                        if (cardStackView.getVisibility() != View.VISIBLE) {
+                            cardStackView.setVisibility(View.VISIBLE);
+                            emptyCardsContainer.setVisibility(View.GONE);
+                        }
+
+                        isLoading = false;
+                    }, error -> {
+                        Log.e(TAG, "Ошибка при обновлении карточек: " + error.getMessage());
+                        isLoading = false;
+                    }));
         });
     }
+
+    /**
+     * Новые карточки после загрузки из API
+     */
+    private static class FreshCards {
+        final List<ContentItem> items;
+        // true, если пришлось повторно использовать уже показанные элементы
+        final boolean reused;
+
+        FreshCards(List<ContentItem> items, boolean reused) {
+            this.items = items;
+            this.reused = reused;
+        }
+    }
+
+    /**
+     * Подбирает карточки, которых еще нет в адаптере. Выполняется в пуле БД
+     * @param userId ID пользователя
+     * @param currentIds ID карточек, уже находящихся в адаптере
+     * @return карточки для добавления
+     */
+    private FreshCards collectFreshCards(String userId, Set<String> currentIds) {
+        // Следующие карточки перемешанного обхода каталога с применением фильтров,
+        // которых нет в текущем адаптере
+        List<ContentItem> newItems = contentManager.nextShuffledItems(categoryName, userId,
+                preferencesRepository, FRESH_CARDS_BATCH, currentIds);
+        
+        Log.d(TAG, "Новых уникальных элементов: " + newItems.size());
+        
+        // Если достаточно новых элементов, просто добавляем их
+        if (newItems.size() >= 10) {
+            return new FreshCards(newItems, false);
+        }
+
+        // Если новых элементов мало, применяем стратегию повторного использования
+        Log.d(TAG, "Недостаточно новых элементов, применяем стратегию повторного использования");
+        
+        // Сбрасываем историю показанных элементов в ContentManager
+        contentManager.resetHistory(requireContext(), categoryName);
+        
+        // Получаем все элементы заново
+        List<ContentItem> allItems = contentManager.getFilteredContentItems(categoryName, userId, preferencesRepository);
+        
+        // Оптимизация: сохраняем текущие элементы первыми, чтобы их не видно было сразу
+        List<ContentItem> remainingItems = new ArrayList<>();
+        for (ContentItem item : allItems) {
+            if (!currentIds.contains(item.getId())) {
+                remainingItems.add(item);
+            }
+        }
+        
+        // Перемешиваем новые элементы
+        Collections.shuffle(remainingItems);
+        
+        // Если и это не помогло - создаем "синтетические" карточки
+        if (remainingItems.size() < 5) {
+            Log.d(TAG, "Создаем синтетические карточки для продолжения опыта");
+            remainingItems.addAll(createSyntheticCards(10));
+        }
+        
+        return new FreshCards(remainingItems, true);
+    }
     
     /**
      * Создает синтетические карточки на основе уже существующих
@@ -544,40 +600,13 @@ public class CardStackFragment extends Fragment implements CardStackListener, Fi
     private List<ContentItem> createSyntheticCards(int count) {
         List<ContentItem> syntheticCards = new ArrayList<>();
         
-        // Получаем все существующие карточки этой категории
+        // Берем одно окно существующих карточек этой категории, а не всю таблицу
+        int windowSize = Math.max(count * 3, 30);
+        ContentPager<CardProjection> pager = catalogRepository.pageCards(categoryName, null, windowSize);
+
         List<ContentItem> allExistingItems = new ArrayList<>();
-        
-        switch (categoryName.toLowerCase()) {
-            case "фильмы":
-                for (MovieEntity entity : movieRepository.getAll()) {
-                    allExistingItems.add(convertEntityToContentItem(entity));
-                }
-                break;
-            case "сериалы":
-                for (TVShowEntity entity : tvShowRepository.getAll()) {
-                    allExistingItems.add(convertEntityToContentItem(entity));
-                }
-                break;
-            case "игры":
-                for (GameEntity entity : gameRepository.getAll()) {
-                    allExistingItems.add(convertEntityToContentItem(entity));
-                }
-                break;
-            case "книги":
-                for (BookEntity entity : bookRepository.getAll()) {
-                    allExistingItems.add(convertEntityToContentItem(entity));
-                }
-                break;
-            case "аниме":
-                for (AnimeEntity entity : animeRepository.getAll()) {
-                    allExistingItems.add(convertEntityToContentItem(entity));
-                }
-                break;
-            default:
-                for (ContentEntity entity : contentRepository.getByCategory(categoryName)) {
-                    allExistingItems.add(convertEntityToContentItem(entity));
-                }
-                break;
+        for (CardProjection card : pager.next()) {
+            allExistingItems.add(DatabaseHelper.mapToContentItem(card));
         }
         
         // Если у нас нет исходных данных, создадим шаблонные карточки
@@ -631,27 +660,6 @@ public class CardStackFragment extends Fragment implements CardStackListener, Fi
         return syntheticCards;
     }
     
-    /**
-     * Конвертирует сущность в ContentItem
-     * @param entity сущность
-     * @return элемент контента
-     */
-    private ContentItem convertEntityToContentItem(ContentEntity entity) {
-        ContentItem item = new ContentItem(
-                entity.getId(),
-                entity.getTitle(),
-                entity.getDescription(),
-                entity.getImageUrl(),
-                entity.getCategory()
-        );
-        
-        item.setLiked(entity.isLiked());
-        item.setWatched(entity.isWatched());
-        item.setRating(entity.getRating());
-        
-        return item;
-    }
-
     // Кнопка для свайпа влево программно
     public void swipeLeft() {
         SwipeAnimationSetting setting = new SwipeAnimationSetting.Builder()
@@ -717,11 +725,13 @@ public class CardStackFragment extends Fragment implements CardStackListener, Fi
                 // Логируем действие
                 ActionLogger.logSwipe(true, item.getId(), item.getTitle());
 
-                // Используем ContentManager для добавления элемента в избранное
-                contentManager.addToLiked(item, categoryName,
+                // Используем ContentManager для добавления элемента в избранное (запись в пуле БД)
+                contentManager.addToLikedAsync(item, categoryName,
                         movieRepository, tvShowRepository,
                         gameRepository, bookRepository,
-                        animeRepository, contentRepository);
+                        animeRepository, contentRepository)
+                        .subscribe(() -> { },
+                                error -> Log.e(TAG, "Ошибка при добавлении в избранное: " + error.getMessage()));
                         
                 // Сохраняем в постоянную память избранное
                 FirebaseManager firebaseManager = FirebaseManager.getInstance();
@@ -761,9 +771,9 @@ public class CardStackFragment extends Fragment implements CardStackListener, Fi
             Log.e(TAG, "Ошибка позиции при свайпе: position=" + position + ", размер адаптера=" + adapter.getItemCount());
         }
 
-        // Если карточки заканчиваются, подгружаем еще
-        if (manager.getTopPosition() >= adapter.getItemCount() - 3) {
-            // Подгружаем дополнительные карточки
+        // Подгружаем заранее, чтобы оставшихся карточек хватило на время загрузки
+        prefetchScheduler.recordSwipe(categoryName);
+        if (prefetchScheduler.shouldPrefetch(categoryName, adapter.getItemCount() - manager.getTopPosition())) {
             loadAdditionalContentFromApi();
         }
         
@@ -783,8 +793,8 @@ public class CardStackFragment extends Fragment implements CardStackListener, Fi
             return;
         }
         
-        // Запуск в отдельном потоке для избежания блокировки UI
-        new Thread(() -> {
+        // Запуск в пуле БД для избежания блокировки UI
+        DatabaseSchedulers.executor().execute(() -> {
             try {
                 switch (categoryName.toLowerCase()) {
                     case "фильмы":
@@ -811,7 +821,7 @@ public class CardStackFragment extends Fragment implements CardStackListener, Fi
             } catch (Exception e) {
                 Log.e(TAG, "Ошибка при удалении элемента: " + e.getMessage());
             }
-        }).start();
+        });
     }
     
     /**
@@ -4,6 +4,7 @@ import android.util.Log;
 
 import com.draker.swipetime.api.ApiContentLoader;
 import com.draker.swipetime.api.ApiManager;
+import com.draker.swipetime.database.DatabaseSchedulers;
 import com.draker.swipetime.database.entities.AnimeEntity;
 import com.draker.swipetime.database.entities.BookEntity;
 import com.draker.swipetime.database.entities.ContentEntity;
@@ -20,6 +21,9 @@ import com.draker.swipetime.repository.TVShowRepository;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
+
 /**
  * Вспомогательный класс для работы CardStackFragment с внешними API
  */
@@ -66,22 +70,31 @@ public class CardStackFragmentHelper {
         
         Log.d(TAG, "Начало загрузки данных для категории: " + categoryName + " (тип: " + contentType + ")");
         
-        // Проверяем, есть ли уже данные в базе данных
-        boolean hasData = checkIfDataExistsForCategory(
-                contentType,
-                movieRepository,
-                tvShowRepository,
-                gameRepository,
-                bookRepository,
-                animeRepository
-        );
-        
-        if (hasData) {
-            Log.d(TAG, "Данные для категории " + categoryName + " уже есть в базе данных");
-            callback.onComplete(true);
-            return;
-        }
-        
+        // Проверяем, есть ли уже данные в базе данных (чтение в пуле БД)
+        Single.fromCallable(() -> checkIfDataExistsForCategory(
+                        contentType,
+                        movieRepository,
+                        tvShowRepository,
+                        gameRepository,
+                        bookRepository,
+                        animeRepository))
+                .subscribeOn(DatabaseSchedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(hasData -> {
+                    if (hasData) {
+                        Log.d(TAG, "Данные для категории " + categoryName + " уже есть в базе данных");
+                        callback.onComplete(true);
+                    } else {
+                        loadPagesForCategory(categoryName, contentType, apiManager, callback);
+                    }
+                }, error -> callback.onError("Ошибка чтения базы данных: " + error.getMessage()));
+    }
+
+    /**
+     * Загрузить первые страницы данных категории из API
+     */
+    private static void loadPagesForCategory(String categoryName, String contentType,
+                                             ApiManager apiManager, ApiLoadCallback callback) {
         // Загружаем данные из API
         final AtomicInteger loadedPages = new AtomicInteger(0);
         final int pagesToLoad = 3; // Загружаем первые 3 страницы данных
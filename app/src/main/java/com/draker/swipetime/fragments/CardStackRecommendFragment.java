@@ -1,5 +1,7 @@
 package com.draker.swipetime.fragments;
 
+import android.app.Application;
+import android.content.Context;
 import android.graphics.Color;
 import android.os.Bundle;
 import android.util.Log;
@@ -22,6 +24,7 @@ import androidx.lifecycle.ViewModelProvider;
 
 import com.draker.swipetime.R;
 import com.draker.swipetime.adapters.CardStackAdapter;
+import com.draker.swipetime.database.DatabaseSchedulers;
 import com.draker.swipetime.database.entities.ContentEntity;
 import com.draker.swipetime.models.ContentItem;
 import com.draker.swipetime.recommendations.RecommendationService;
@@ -49,6 +52,10 @@ import com.yuyakaido.android.cardstackview.SwipeableMethod;
 import java.util.ArrayList;
 import java.util.List;
 
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+
 /**
  * Фрагмент для отображения карточек контента с интегрированной системой рекомендаций
  */
@@ -87,6 +94,8 @@ public class CardStackRecommendFragment extends Fragment implements CardStackLis
     // Флаг для отслеживания применения фильтров
     private boolean filtersApplied = false;
 
+    private final CompositeDisposable disposables = new CompositeDisposable();
+
     private static final String ARG_CATEGORY = "category";
 
     public static CardStackRecommendFragment newInstance(String category) {
@@ -197,48 +206,24 @@ public class CardStackRecommendFragment extends Fragment implements CardStackLis
         // Настройка CardStackLayoutManager
         setupCardStackView();
 
-        // Получение рекомендованных элементов
-        String userId = getCurrentUserId();
-        List<ContentItem> recommendedItems = contentManager.getRecommendedContentItems(
-                requireActivity().getApplication(),
-                categoryName,
-                userId,
-                DEFAULT_RECOMMENDATIONS_COUNT
-        );
-
-        Log.d(TAG, "Получено рекомендаций: " + recommendedItems.size());
-
-        // Проверка наличия рекомендаций
-        if (recommendedItems.isEmpty()) {
-            // Если рекомендаций нет, используем обычную фильтрацию
-            recommendedItems = contentManager.getFilteredAndRecommendedContentItems(
-                    requireActivity().getApplication(),
-                    categoryName,
-                    userId,
-                    movieRepository,
-                    tvShowRepository,
-                    gameRepository,
-                    bookRepository,
-                    animeRepository,
-                    contentRepository,
-                    preferencesRepository
-            );
-
-            Log.d(TAG, "Использованы альтернативные рекомендации: " + recommendedItems.size());
-        }
+        // Адаптер создается пустым, рекомендации подгружаются из пула БД
+        adapter = new CardStackAdapter(getContext(), new ArrayList<>());
+        cardStackView.setAdapter(adapter);
 
-        // Если все равно нет элементов, показываем сообщение об отсутствии карточек
-        if (recommendedItems.isEmpty()) {
-            cardStackView.setVisibility(View.GONE);
-            emptyCardsContainer.setVisibility(View.VISIBLE);
-        } else {
-            cardStackView.setVisibility(View.VISIBLE);
-            emptyCardsContainer.setVisibility(View.GONE);
-
-            // Инициализация адаптера с рекомендованными элементами
-            adapter = new CardStackAdapter(getContext(), recommendedItems);
-            cardStackView.setAdapter(adapter);
-        }
+        // Получение рекомендованных элементов
+        disposables.add(loadRecommendations(false)
+                .subscribe(recommendedItems -> {
+                    adapter.setItems(recommendedItems);
+
+                    // Если нет элементов, показываем сообщение об отсутствии карточек
+                    if (recommendedItems.isEmpty()) {
+                        cardStackView.setVisibility(View.GONE);
+                        emptyCardsContainer.setVisibility(View.VISIBLE);
+                    } else {
+                        cardStackView.setVisibility(View.VISIBLE);
+                        emptyCardsContainer.setVisibility(View.GONE);
+                    }
+                }, error -> Log.e(TAG, "Ошибка при загрузке рекомендаций: " + error.getMessage())));
 
         // Настройка кнопки перезагрузки
         reloadButton.setOnClickListener(v -> reloadCards());
@@ -247,13 +232,53 @@ public class CardStackRecommendFragment extends Fragment implements CardStackLis
         checkFiltersStatus();
     }
 
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        disposables.clear();
+    }
+
+    /**
+     * Загружает рекомендации в пуле БД, результат приходит в главный поток
+     * @param withFilters true, чтобы применить фильтры пользователя вместе с рекомендациями
+     */
+    private Single<List<ContentItem>> loadRecommendations(boolean withFilters) {
+        Application application = requireActivity().getApplication();
+        String userId = getCurrentUserId();
+
+        return Single.fromCallable(() -> {
+                    if (withFilters) {
+                        return contentManager.getFilteredAndRecommendedContentItems(
+                                application, categoryName, userId, preferencesRepository);
+                    }
+
+                    List<ContentItem> recommendedItems = contentManager.getRecommendedContentItems(
+                            application, categoryName, userId, DEFAULT_RECOMMENDATIONS_COUNT);
+                    Log.d(TAG, "Получено рекомендаций: " + recommendedItems.size());
+
+                    // Если рекомендаций нет, используем обычную фильтрацию
+                    if (recommendedItems.isEmpty()) {
+                        recommendedItems = contentManager.getFilteredAndRecommendedContentItems(
+                                application, categoryName, userId, preferencesRepository);
+                        Log.d(TAG, "Использованы альтернативные рекомендации: " + recommendedItems.size());
+                    }
+                    return recommendedItems;
+                })
+                .subscribeOn(DatabaseSchedulers.io())
+                .observeOn(AndroidSchedulers.mainThread());
+    }
+
     /**
      * Проверяет, были ли применены какие-либо фильтры
      */
     private void checkFiltersStatus() {
         String userId = getCurrentUserId();
-        filtersApplied = contentManager.hasActiveFilters(preferencesRepository.getByUserId(userId));
-        updateFiltersIndicator();
+        disposables.add(preferencesRepository.getByUserIdAsync(userId)
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(preferences -> {
+                    filtersApplied = contentManager.hasActiveFilters(preferences);
+                    updateFiltersIndicator();
+                }, error -> Log.e(TAG, "Ошибка при загрузке предпочтений: " + error.getMessage())));
     }
 
     /**
@@ -309,22 +334,16 @@ public class CardStackRecommendFragment extends Fragment implements CardStackLis
      * Перезагружает карточки с применением фильтров и рекомендаций
      */
     private void reloadCardsWithFilters() {
-        String userId = getCurrentUserId();
-
         // Получаем отфильтрованные и рекомендованные элементы
-        List<ContentItem> filteredItems = contentManager.getFilteredAndRecommendedContentItems(
-                requireActivity().getApplication(),
-                categoryName,
-                userId,
-                movieRepository,
-                tvShowRepository,
-                gameRepository,
-                bookRepository,
-                animeRepository,
-                contentRepository,
-                preferencesRepository
-        );
+        disposables.add(loadRecommendations(true)
+                .subscribe(this::showFilteredItems,
+                        error -> Log.e(TAG, "Ошибка при загрузке рекомендаций: " + error.getMessage())));
+    }
 
+    /**
+     * Показывает карточки, полученные после применения фильтров
+     */
+    private void showFilteredItems(List<ContentItem> filteredItems) {
         // Обновляем адаптер с отфильтрованным списком
         adapter.setItems(filteredItems);
 
@@ -365,61 +384,30 @@ public class CardStackRecommendFragment extends Fragment implements CardStackLis
     }
 
     private void reloadCards() {
-        // Обновляем предпочтения пользователя на основе его лайков
-        recommendationService.updateCurrentUserPreferences(requireContext());
+        // Обновляем предпочтения пользователя на основе его лайков (в пуле БД)
+        Context context = requireContext().getApplicationContext();
+        DatabaseSchedulers.executor().execute(() -> recommendationService.updateCurrentUserPreferences(context));
 
         // Запустим тестирование рекомендаций для демонстрации работы системы
-        new Thread(() -> {
-            double quality = recommendationService.testRecommendationQuality();
-            getActivity().runOnUiThread(() -> {
-                Toast.makeText(getContext(),
-                        "Качество рекомендаций: " + String.format("%.2f", quality * 100) + "%",
-                        Toast.LENGTH_LONG).show();
-            });
-        }).start();
-
-        String userId = getCurrentUserId();
-        List<ContentItem> recommendedItems;
+        disposables.add(Single.fromCallable(recommendationService::testRecommendationQuality)
+                .subscribeOn(DatabaseSchedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(quality -> Toast.makeText(getContext(),
+                                "Качество рекомендаций: " + String.format("%.2f", quality * 100) + "%",
+                                Toast.LENGTH_LONG).show(),
+                        error -> Log.e(TAG, "Ошибка при тестировании рекомендаций: " + error.getMessage())));
 
         // Если установлены фильтры, применяем их вместе с рекомендациями
-        if (filtersApplied) {
-            recommendedItems = contentManager.getFilteredAndRecommendedContentItems(
-                    requireActivity().getApplication(),
-                    categoryName,
-                    userId,
-                    movieRepository,
-                    tvShowRepository,
-                    gameRepository,
-                    bookRepository,
-                    animeRepository,
-                    contentRepository,
-                    preferencesRepository
-            );
-        } else {
-            // Иначе используем только рекомендации
-            recommendedItems = contentManager.getRecommendedContentItems(
-                    requireActivity().getApplication(),
-                    categoryName,
-                    userId,
-                    DEFAULT_RECOMMENDATIONS_COUNT
-            );
+        disposables.add(loadRecommendations(filtersApplied)
+                .subscribe(this::showRecommendations,
+                        error -> Log.e(TAG, "Ошибка при загрузке рекомендаций: " + error.getMessage())));
+    }
 
-            // Если рекомендаций нет, используем обычную фильтрацию
-            if (recommendedItems.isEmpty()) {
-                recommendedItems = contentManager.getFilteredAndRecommendedContentItems(
-                        requireActivity().getApplication(),
-                        categoryName,
-                        userId,
-                        movieRepository,
-                        tvShowRepository,
-                        gameRepository,
-                        bookRepository,
-                        animeRepository,
-                        contentRepository,
-                        preferencesRepository
-                );
-            }
-        }
+    /**
+     * Показывает перезагруженные рекомендации
+     */
+    private void showRecommendations(List<ContentItem> recommendedItems) {
+        String userId = getCurrentUserId();
 
         // Выводим информацию о полученных рекомендациях
         Log.d(TAG, "\n=== СИСТЕМА РЕКОМЕНДАЦИЙ ===\n" +
@@ -500,6 +488,7 @@ public class CardStackRecommendFragment extends Fragment implements CardStackLis
             // Обрабатываем свайп в рекомендательной системе
             contentManager.handleSwipeEvent(
                     requireActivity().getApplication(),
+                    categoryName,
                     item.getId(),
                     isRightSwipe
             );
@@ -521,11 +510,13 @@ public class CardStackRecommendFragment extends Fragment implements CardStackLis
                 // Логируем действие
                 ActionLogger.logSwipe(true, item.getId(), item.getTitle());
 
-                // Используем ContentManager для добавления элемента в избранное
-                contentManager.addToLiked(item, categoryName,
+                // Используем ContentManager для добавления элемента в избранное (запись в пуле БД)
+                contentManager.addToLikedAsync(item, categoryName,
                         movieRepository, tvShowRepository,
                         gameRepository, bookRepository,
-                        animeRepository, contentRepository);
+                        animeRepository, contentRepository)
+                        .subscribe(() -> { },
+                                error -> Log.e(TAG, "Ошибка при добавлении в избранное: " + error.getMessage()));
 
                 // Начисляем опыт за свайп вправо (временно отключено)
                 // boolean levelUp = GamificationIntegrator.registerSwipe(getContext(), true);
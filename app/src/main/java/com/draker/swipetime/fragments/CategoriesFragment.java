@@ -15,6 +15,7 @@ import com.draker.swipetime.R;
 import com.draker.swipetime.adapters.CategoryAdapter;
 import com.draker.swipetime.models.Category;
 import com.draker.swipetime.utils.FirebaseManager;
+import com.draker.swipetime.utils.MixedFeed;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -53,6 +54,7 @@ public class CategoriesFragment extends Fragment implements CategoryAdapter.OnCa
         categories.add(new Category("Игры", R.drawable.ic_category_games));
         categories.add(new Category("Книги", R.drawable.ic_category_books));
         categories.add(new Category("Аниме", R.drawable.ic_category_anime));
+        categories.add(new Category(MixedFeed.CATEGORY, R.drawable.ic_category_default));
         
         return categories;
     }
@@ -64,7 +66,10 @@ public class CategoriesFragment extends Fragment implements CategoryAdapter.OnCa
         
         // Создаем соответствующий фрагмент
         Fragment cardStackFragment;
-        if (useInfiniteFragments) {
+        if (MixedFeed.isMixed(category.getName())) {
+            // Смешанная лента собирается из очередей категорий, которые есть только у бесконечной ленты
+            cardStackFragment = InfiniteCardStackFragment.newInstance(category.getName());
+        } else if (useInfiniteFragments) {
             // Используем новый фрагмент с бесконечной лентой
             cardStackFragment = InfiniteCardStackFragment.newInstance(category.getName());
             Toast.makeText(getContext(), "Используется бесконечная лента", Toast.LENGTH_SHORT).show();
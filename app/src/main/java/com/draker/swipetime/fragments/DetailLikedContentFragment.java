@@ -17,12 +17,15 @@ import androidx.appcompat.widget.Toolbar;
 import androidx.fragment.app.Fragment;
 
 import com.draker.swipetime.R;
+import com.draker.swipetime.database.DatabaseSchedulers;
+import com.draker.swipetime.database.entities.CatalogItemView;
 import com.draker.swipetime.database.entities.ContentEntity;
 import com.draker.swipetime.database.entities.ReviewEntity;
 import com.draker.swipetime.database.entities.UserEntity;
 import com.draker.swipetime.models.ContentItem;
 import com.draker.swipetime.repository.AnimeRepository;
 import com.draker.swipetime.repository.BookRepository;
+import com.draker.swipetime.repository.CatalogRepository;
 import com.draker.swipetime.repository.ContentRepository;
 import com.draker.swipetime.repository.GameRepository;
 import com.draker.swipetime.repository.MovieRepository;
@@ -36,6 +39,10 @@ import com.draker.swipetime.utils.ContentManager;
 import com.draker.swipetime.utils.ImageManager;
 import com.google.android.material.textfield.TextInputEditText;
 
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+
 /**
  * Фрагмент для детального просмотра понравившегося контента,
  * с возможностью отметки "просмотрено" и добавления рецензии
@@ -71,6 +78,7 @@ public class DetailLikedContentFragment extends Fragment {
     private GameRepository gameRepository;
     private BookRepository bookRepository;
     private AnimeRepository animeRepository;
+    private CatalogRepository catalogRepository;
     
     // Менеджер геймификации
     private GamificationManager gamificationManager;
@@ -78,6 +86,8 @@ public class DetailLikedContentFragment extends Fragment {
     // Менеджер контента
     private ContentManager contentManager;
 
+    private final CompositeDisposable disposables = new CompositeDisposable();
+
     // ID текущего пользователя
     private String currentUserId;
 
@@ -112,6 +122,7 @@ public class DetailLikedContentFragment extends Fragment {
         gameRepository = new GameRepository(requireActivity().getApplication());
         bookRepository = new BookRepository(requireActivity().getApplication());
         animeRepository = new AnimeRepository(requireActivity().getApplication());
+        catalogRepository = new CatalogRepository(requireActivity().getApplication());
         
         // Инициализация менеджера геймификации
         gamificationManager = GamificationManager.getInstance(requireActivity().getApplication());
@@ -121,11 +132,21 @@ public class DetailLikedContentFragment extends Fragment {
         contentManager.initialize(requireContext());
 
         // Проверяем, существует ли текущий пользователь, если нет - создаем демо пользователя
-        UserEntity currentUser = userRepository.getUserById(currentUserId);
-        if (currentUser == null) {
-            currentUser = new UserEntity(currentUserId, "Demo User", "demo@example.com", null);
-            userRepository.insert(currentUser);
-        }
+        final String userId = currentUserId;
+        Completable.fromAction(() -> {
+                    if (userRepository.getUserById(userId) == null) {
+                        userRepository.insert(new UserEntity(userId, "Demo User", "demo@example.com", null));
+                    }
+                })
+                .subscribeOn(DatabaseSchedulers.io())
+                .subscribe(() -> { },
+                        error -> Log.e(TAG, "Ошибка при проверке пользователя: " + error.getMessage()));
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        disposables.clear();
     }
 
     @Nullable
@@ -148,6 +169,9 @@ public class DetailLikedContentFragment extends Fragment {
         if (contentItem != null) {
             populateContentData();
             
+            // Карточка содержит только краткие поля, полные данные подгружаются из БД
+            loadContentDetails();
+            
             // Загрузка существующего отзыва для этого контента, если есть
             loadReviewData();
         }
@@ -268,14 +292,57 @@ public class DetailLikedContentFragment extends Fragment {
         }
     }
 
+    /**
+     * Подгрузка полного описания и деталей элемента из базы
+     */
+    private void loadContentDetails() {
+        disposables.add(catalogRepository.getByIdAsync(contentItem.getCategory(), contentItem.getId())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(this::showContentDetails,
+                        e -> Log.e(TAG, "Ошибка при загрузке деталей контента: " + e.getMessage())));
+    }
+
+    /**
+     * Заполнение UI полными данными элемента
+     */
+    private void showContentDetails(CatalogItemView details) {
+        if (details.getDescription() != null) {
+            contentItem.setDescription(details.getDescription());
+            descriptionTextView.setText(details.getDescription());
+        }
+        if (details.getGenres() != null && !details.getGenres().isEmpty()) {
+            contentItem.setGenre(details.getGenres());
+        }
+        if (details.getYear() > 0) {
+            contentItem.setYear(details.getYear());
+        }
+
+        // Статус в базе актуальнее переданного в аргументах; отзыв, если он есть, отметит переключатель сам
+        contentItem.setWatched(details.isWatched());
+        if (currentReview == null) {
+            watchedSwitch.setChecked(details.isWatched());
+        }
+    }
+
     /**
      * Загрузка данных отзыва, если он уже существует
      */
     private void loadReviewData() {
+        // Пытаемся найти существующий отзыв для данного пользователя и контента
+        disposables.add(reviewRepository.getByContentAndUserIdAsync(contentItem.getId(), currentUserId)
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(this::showReview, e -> {
+                    Log.e(TAG, "Ошибка при загрузке отзыва: " + e.getMessage());
+                    Toast.makeText(getContext(), "Не удалось загрузить отзыв", Toast.LENGTH_SHORT).show();
+                }));
+    }
+
+    /**
+     * Заполнение UI данными найденного отзыва
+     */
+    private void showReview(ReviewEntity review) {
+        currentReview = review;
         try {
-            // Пытаемся найти существующий отзыв для данного пользователя и контента
-            currentReview = reviewRepository.getByContentAndUserId(contentItem.getId(), currentUserId);
-            
             if (currentReview != null) {
                 // Если отзыв найден, заполняем UI
                 // Преобразуем рейтинг из 10-балльной шкалы в 5-балльную, если он больше 5
@@ -362,26 +429,36 @@ public class DetailLikedContentFragment extends Fragment {
             }
             
             // Создаем новый отзыв или обновляем существующий
-            if (currentReview == null) {
-                currentReview = new ReviewEntity(
+            final ReviewEntity review;
+            final boolean isNewReview = currentReview == null;
+            if (isNewReview) {
+                review = new ReviewEntity(
                     currentUserId,
                     contentItem.getId(),
                     databaseRating,
                     reviewText,
                     contentItem.getCategory()
                 );
-                // Сохраняем новый отзыв
-                long reviewId = reviewRepository.insert(currentReview);
-                currentReview.setId(reviewId);
             } else {
-                // Обновляем существующий отзыв
-                currentReview.setRating(databaseRating);
-                currentReview.setText(reviewText);
-                reviewRepository.update(currentReview);
+                review = currentReview;
+                review.setRating(databaseRating);
+                review.setText(reviewText);
             }
+            currentReview = review;
             
-            // Обновляем статус "просмотрено/прочитано" в соответствующем репозитории
-            updateWatchedStatus(isWatched);
+            // Запись отзыва и статуса "просмотрено/прочитано" выполняется в пуле БД
+            // и не прерывается при закрытии экрана
+            Completable.fromAction(() -> {
+                        if (isNewReview) {
+                            review.setId(reviewRepository.insert(review));
+                        } else {
+                            reviewRepository.update(review);
+                        }
+                        updateWatchedStatus(isWatched);
+                    })
+                    .subscribeOn(DatabaseSchedulers.io())
+                    .subscribe(() -> { },
+                            error -> Log.e(TAG, "Ошибка при сохранении отзыва: " + error.getMessage()));
             
             // Начисляем опыт за просмотр/прочтение, если переключатель включен
             if (isWatched) {
@@ -400,7 +477,8 @@ public class DetailLikedContentFragment extends Fragment {
     }
 
     /**
-     * Обновление статуса "просмотрено/прочитано" в соответствующем репозитории
+     * Обновление статуса "просмотрено/прочитано" в соответствующем репозитории.
+     * Вызывается в пуле БД
      */
     private void updateWatchedStatus(boolean isWatched) {
         try {
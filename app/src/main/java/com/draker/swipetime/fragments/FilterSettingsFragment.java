@@ -2,6 +2,8 @@ package com.draker.swipetime.fragments;
 
 import android.content.Context;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -120,6 +122,9 @@ public class FilterSettingsFragment extends Fragment {
         
         // Наблюдаем за изменениями в настройках
         observeSettings();
+
+        // Показываем количество подходящих карточек
+        observeFacetCounts();
     }
 
     /**
@@ -206,6 +211,7 @@ public class FilterSettingsFragment extends Fragment {
     private Chip createFilterChip(String text) {
         Chip chip = new Chip(requireContext());
         chip.setText(text);
+        chip.setTag(text);
         chip.setCheckable(true);
         chip.setClickable(true);
         chip.setChipBackgroundColorResource(R.color.chip_background_color_selector);
@@ -223,32 +229,36 @@ public class FilterSettingsFragment extends Fragment {
         filterViewModel.getSelectedGenres().observe(getViewLifecycleOwner(), genres -> {
             for (int i = 0; i < genresChipGroup.getChildCount(); i++) {
                 Chip chip = (Chip) genresChipGroup.getChildAt(i);
-                chip.setChecked(genres.contains(chip.getText().toString()));
+                chip.setChecked(genres.contains((String) chip.getTag()));
             }
+            requestFacetCounts();
         });
         
         // Загружаем выбранные страны
         filterViewModel.getSelectedCountries().observe(getViewLifecycleOwner(), countries -> {
             for (int i = 0; i < countriesChipGroup.getChildCount(); i++) {
                 Chip chip = (Chip) countriesChipGroup.getChildAt(i);
-                chip.setChecked(countries.contains(chip.getText().toString()));
+                chip.setChecked(countries.contains((String) chip.getTag()));
             }
+            requestFacetCounts();
         });
         
         // Загружаем выбранные языки
         filterViewModel.getSelectedLanguages().observe(getViewLifecycleOwner(), languages -> {
             for (int i = 0; i < languagesChipGroup.getChildCount(); i++) {
                 Chip chip = (Chip) languagesChipGroup.getChildAt(i);
-                chip.setChecked(languages.contains(chip.getText().toString()));
+                chip.setChecked(languages.contains((String) chip.getTag()));
             }
+            requestFacetCounts();
         });
         
         // Загружаем выбранные теги
         filterViewModel.getSelectedTags().observe(getViewLifecycleOwner(), tags -> {
             for (int i = 0; i < tagsChipGroup.getChildCount(); i++) {
                 Chip chip = (Chip) tagsChipGroup.getChildAt(i);
-                chip.setChecked(tags.contains(chip.getText().toString()));
+                chip.setChecked(tags.contains((String) chip.getTag()));
             }
+            requestFacetCounts();
         });
         
         // Загружаем диапазон лет
@@ -279,7 +289,64 @@ public class FilterSettingsFragment extends Fragment {
      * Наблюдает за изменениями в настройках
      */
     private void observeSettings() {
-        // Здесь можно добавить дополнительную логику для отслеживания изменений
+        // Любая правка диапазонов или переключателя 18+ обновляет счетчики
+        TextWatcher rangeWatcher = new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                requestFacetCounts();
+            }
+        };
+        minYearEdit.addTextChangedListener(rangeWatcher);
+        maxYearEdit.addTextChangedListener(rangeWatcher);
+        minDurationEdit.addTextChangedListener(rangeWatcher);
+        maxDurationEdit.addTextChangedListener(rangeWatcher);
+        adultContentSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> requestFacetCounts());
+    }
+
+    /**
+     * Обновляет счетчики на чипах жанров и на кнопке применения
+     */
+    private void observeFacetCounts() {
+        filterViewModel.getFacetCounts().observe(getViewLifecycleOwner(), counts -> {
+            for (int i = 0; i < genresChipGroup.getChildCount(); i++) {
+                Chip chip = (Chip) genresChipGroup.getChildAt(i);
+                String genre = (String) chip.getTag();
+                chip.setText(getString(R.string.filters_chip_count, genre, counts.getGenreCount(genre)));
+            }
+            btnApply.setText(getString(R.string.filters_apply_count, counts.getTotal()));
+        });
+    }
+
+    /**
+     * Запрашивает пересчет подходящих карточек для текущего состояния экрана.
+     * Пока поле ввода заполнено не до конца, используется значение из ViewModel
+     */
+    private void requestFacetCounts() {
+        if (minYearEdit == null) {
+            return;
+        }
+        filterViewModel.refreshFacetCounts(
+                parseOr(minYearEdit, filterViewModel.getMinYear().getValue()),
+                parseOr(maxYearEdit, filterViewModel.getMaxYear().getValue()),
+                parseOr(minDurationEdit, filterViewModel.getMinDuration().getValue()),
+                parseOr(maxDurationEdit, filterViewModel.getMaxDuration().getValue()),
+                adultContentSwitch.isChecked());
+    }
+
+    private static int parseOr(EditText edit, Integer fallback) {
+        try {
+            return Integer.parseInt(edit.getText().toString());
+        } catch (NumberFormatException e) {
+            return fallback != null ? fallback : 0;
+        }
     }
 
     /**
@@ -328,17 +395,26 @@ public class FilterSettingsFragment extends Fragment {
             // Устанавливаем настройку контента 18+
             filterViewModel.setAdultContentEnabled(adultContentSwitch.isChecked());
             
-            // Сохраняем все настройки
-            filterViewModel.saveUserPreferences();
-            
-            // Устанавливаем флаг применения фильтров
-            filtersApplied = true;
-            
-            // Отображаем сообщение
-            Toast.makeText(requireContext(), "Фильтры применены", Toast.LENGTH_SHORT).show();
-            
-            // Закрываем экран настроек
-            closeSettings();
+            // Сохраняем все настройки, экран закрывается после записи,
+            // чтобы перезагрузка карточек уже видела новые фильтры
+            filterViewModel.saveUserPreferences().subscribe(() -> {
+                if (!isAdded()) {
+                    return;
+                }
+                
+                // Устанавливаем флаг применения фильтров
+                filtersApplied = true;
+                
+                // Отображаем сообщение
+                Toast.makeText(requireContext(), "Фильтры применены", Toast.LENGTH_SHORT).show();
+                
+                // Закрываем экран настроек
+                closeSettings();
+            }, error -> {
+                if (isAdded()) {
+                    Toast.makeText(requireContext(), "Не удалось сохранить фильтры", Toast.LENGTH_SHORT).show();
+                }
+            });
             
         } catch (NumberFormatException e) {
             // Обработка ошибки при парсинге чисел
@@ -20,6 +20,7 @@ import androidx.lifecycle.ViewModelProvider;
 
 import com.draker.swipetime.R;
 import com.draker.swipetime.adapters.CardStackAdapter;
+import com.draker.swipetime.api.ApiIntegrationManager;
 import com.draker.swipetime.database.entities.ContentEntity;
 import com.draker.swipetime.database.entities.UserPreferencesEntity;
 import com.draker.swipetime.models.ContentItem;
@@ -32,10 +33,13 @@ import com.draker.swipetime.repository.TVShowRepository;
 import com.draker.swipetime.repository.UserPreferencesRepository;
 import com.draker.swipetime.utils.ActionLogger;
 import com.draker.swipetime.utils.CardInfoHelper;
+import com.draker.swipetime.utils.ContentCallback;
 import com.draker.swipetime.utils.FirebaseManager;
 import com.draker.swipetime.utils.AnalyticsTracker;
 import com.draker.swipetime.utils.GamificationManager;
 import com.draker.swipetime.utils.ContentManager;
+import com.draker.swipetime.utils.MixedFeed;
+import com.draker.swipetime.utils.PrefetchScheduler;
 import com.draker.swipetime.viewmodels.FilterViewModel;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
@@ -51,6 +55,9 @@ import com.yuyakaido.android.cardstackview.SwipeableMethod;
 import java.util.ArrayList;
 import java.util.List;
 
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+
 /**
  * Фрагмент для отображения бесконечной ленты карточек с контентом
  */
@@ -86,18 +93,18 @@ public class InfiniteCardStackFragment extends Fragment implements CardStackList
 
     // Менеджер бесконечного контента
     private ContentManager contentManager;
+    private final PrefetchScheduler prefetchScheduler = PrefetchScheduler.getInstance();
 
     private static final String ARG_CATEGORY = "category";
 
     // Флаг для отслеживания применения фильтров
     private boolean filtersApplied = false;
     
-    // Минимальное количество карточек, при котором запрашиваем дополнительные
-    private static final int CARDS_THRESHOLD = 5;
-    
     // Количество карточек для предварительной загрузки
     private static final int PRELOAD_BATCH_SIZE = 10;
 
+    private final CompositeDisposable disposables = new CompositeDisposable();
+
     public static InfiniteCardStackFragment newInstance(String category) {
         InfiniteCardStackFragment fragment = new InfiniteCardStackFragment();
         Bundle args = new Bundle();
@@ -183,15 +190,79 @@ public class InfiniteCardStackFragment extends Fragment implements CardStackList
         checkFiltersStatus();
     }
 
+    @Override
+    public void onPause() {
+        super.onPause();
+        // Пользователь ушел из категории - упреждающая подгрузка больше не нужна
+        if (isMixedFeed()) {
+            for (String category : MixedFeed.CATEGORIES) {
+                cancelPrefetch(category);
+            }
+        } else {
+            cancelPrefetch(categoryName);
+        }
+    }
+
+    /**
+     * Отменить упреждающую подгрузку категории вместе с уже идущими запросами к API
+     */
+    private void cancelPrefetch(String category) {
+        prefetchScheduler.cancel(category);
+        ApiIntegrationManager.getInstance(requireActivity().getApplication()).cancelCategoryRefresh(category);
+    }
+
+    /**
+     * Лента чередует карточки всех категорий
+     */
+    private boolean isMixedFeed() {
+        return MixedFeed.isMixed(categoryName);
+    }
+
+    /**
+     * Категория карточки: в смешанной ленте берется из самой карточки
+     */
+    private String categoryOf(ContentItem item) {
+        return isMixedFeed() && item.getCategory() != null ? item.getCategory() : categoryName;
+    }
+
+    /**
+     * Запросить партию карточек у менеджера контента
+     */
+    private void requestBatch(ContentCallback callback) {
+        String userId = getCurrentUserId();
+        if (isMixedFeed()) {
+            contentManager.getNextMixedBatch(userId, PRELOAD_BATCH_SIZE, requireContext(), callback);
+        } else {
+            contentManager.getNextBatch(categoryName, userId, PRELOAD_BATCH_SIZE, requireContext(), callback);
+        }
+    }
+
+    /**
+     * Сбросить очереди карточек ленты
+     */
+    private void resetQueues() {
+        if (isMixedFeed()) {
+            for (String category : MixedFeed.CATEGORIES) {
+                contentManager.resetCache(category);
+            }
+        } else {
+            contentManager.resetCache(categoryName);
+        }
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        disposables.clear();
+    }
+
     /**
      * Загружает первую партию карточек
      */
     private void loadInitialBatch() {
         showLoading(true);
         
-        String userId = getCurrentUserId();
-        contentManager.getNextBatch(categoryName, userId, PRELOAD_BATCH_SIZE, 
-                requireContext(), items -> {
+        requestBatch(items -> {
             if (getActivity() == null) return;
             
             getActivity().runOnUiThread(() -> {
@@ -247,8 +318,16 @@ public class InfiniteCardStackFragment extends Fragment implements CardStackList
      */
     private void checkFiltersStatus() {
         String userId = getCurrentUserId();
-        UserPreferencesEntity preferences = preferencesRepository.getByUserId(userId);
+        disposables.add(preferencesRepository.getByUserIdAsync(userId)
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(this::applyFiltersStatus,
+                        error -> Log.e(TAG, "Ошибка при загрузке предпочтений: " + error.getMessage())));
+    }
 
+    /**
+     * Обновляет индикатор фильтров по загруженным предпочтениям
+     */
+    private void applyFiltersStatus(UserPreferencesEntity preferences) {
         // Проверяем, есть ли какие-либо установленные фильтры
         boolean hasActiveFilters = false;
 
@@ -311,7 +390,7 @@ public class InfiniteCardStackFragment extends Fragment implements CardStackList
      */
     private void reloadCardsWithFilters() {
         // Сбрасываем кэш в менеджере бесконечного контента
-        contentManager.resetCache(categoryName);
+        resetQueues();
         
         // Загружаем новую партию карточек
         loadInitialBatch();
@@ -344,7 +423,7 @@ public class InfiniteCardStackFragment extends Fragment implements CardStackList
 
     private void reloadCards() {
         // Сбрасываем кэш в менеджере бесконечного контента
-        contentManager.resetCache(categoryName);
+        resetQueues();
         
         // Загружаем новую партию карточек
         loadInitialBatch();
@@ -358,9 +437,7 @@ public class InfiniteCardStackFragment extends Fragment implements CardStackList
         
         showLoading(true);
         
-        String userId = getCurrentUserId();
-        contentManager.getNextBatch(categoryName, userId, PRELOAD_BATCH_SIZE, 
-                requireContext(), items -> {
+        requestBatch(items -> {
             if (getActivity() == null) return;
             
             getActivity().runOnUiThread(() -> {
@@ -434,12 +511,17 @@ public class InfiniteCardStackFragment extends Fragment implements CardStackList
     public void onCardSwiped(Direction direction) {
         // Обработка свайпа карточки
         int position = manager.getTopPosition() - 1;
+        String swipedCategory = categoryName;
         if (position >= 0 && position < adapter.getItems().size()) {
             ContentItem item = adapter.getItems().get(position);
-            Log.d(TAG, "Выполнен свайп карточки: " + item.getTitle() + " (ID: " + item.getId() + ", категория: " + categoryName + ")");
+            swipedCategory = categoryOf(item);
+            Log.d(TAG, "Выполнен свайп карточки: " + item.getTitle() + " (ID: " + item.getId() + ", категория: " + swipedCategory + ")");
 
             String userId = getCurrentUserId();
             
+            // Записываем свайп в журнал взаимодействий
+            contentManager.markContentRated(requireContext(), swipedCategory, item.getId(), direction == Direction.Right);
+            
             if (direction == Direction.Right) {
                 // Пользователю понравился элемент
                 item.setLiked(true);
@@ -449,13 +531,15 @@ public class InfiniteCardStackFragment extends Fragment implements CardStackList
                 ActionLogger.logSwipe(true, item.getId(), item.getTitle());
                 
                 // Отслеживаем свайп в аналитике
-                AnalyticsTracker.trackSwipe(requireContext(), categoryName, true);
+                AnalyticsTracker.trackSwipe(requireContext(), swipedCategory, true);
 
-                // Используем ContentManager для добавления элемента в избранное
-                contentManager.addToLiked(item, categoryName,
+                // Используем ContentManager для добавления элемента в избранное (запись в пуле БД)
+                contentManager.addToLikedAsync(item, swipedCategory,
                         movieRepository, tvShowRepository,
                         gameRepository, bookRepository,
-                        animeRepository, contentRepository);
+                        animeRepository, contentRepository)
+                        .subscribe(() -> { },
+                                error -> Log.e(TAG, "Ошибка при добавлении в избранное: " + error.getMessage()));
 
                 // Начисляем опыт за свайп вправо (временно отключено)
                 // boolean levelUp = GamificationIntegrator.registerSwipe(getContext(), true);
@@ -474,7 +558,7 @@ public class InfiniteCardStackFragment extends Fragment implements CardStackList
                 ActionLogger.logSwipe(false, item.getId(), item.getTitle());
                 
                 // Отслеживаем свайп в аналитике
-                AnalyticsTracker.trackSwipe(requireContext(), categoryName, false);
+                AnalyticsTracker.trackSwipe(requireContext(), swipedCategory, false);
 
                 // Начисляем опыт за свайп влево (временно отключено)
                 // boolean levelUp = GamificationIntegrator.registerSwipe(getContext(), false);
@@ -490,8 +574,13 @@ public class InfiniteCardStackFragment extends Fragment implements CardStackList
             Log.e(TAG, "Ошибка позиции при свайпе: position=" + position + ", размер адаптера=" + adapter.getItemCount());
         }
 
-        // Если карточки заканчиваются, подгружаем еще
-        if (manager.getTopPosition() >= adapter.getItemCount() - CARDS_THRESHOLD) {
+        // Забираем партию заранее, чтобы оставшихся карточек хватило на время загрузки;
+        // очередь ContentManager при этом сама решает, пора ли обращаться к API
+        prefetchScheduler.recordSwipe(swipedCategory);
+        int targetBuffer = isMixedFeed()
+                ? contentManager.getMixedTargetBuffer()
+                : prefetchScheduler.getTargetBuffer(categoryName);
+        if (adapter.getItemCount() - manager.getTopPosition() < targetBuffer) {
             // Подгружаем дополнительные карточки
             loadNextBatch();
         }
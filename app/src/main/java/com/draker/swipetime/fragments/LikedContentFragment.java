@@ -17,6 +17,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.draker.swipetime.R;
 import com.draker.swipetime.adapters.ImprovedLikedContentAdapter;
+import com.draker.swipetime.database.DatabaseSchedulers;
 import com.draker.swipetime.database.entities.AnimeEntity;
 import com.draker.swipetime.database.entities.BookEntity;
 import com.draker.swipetime.database.entities.ContentEntity;
@@ -27,6 +28,9 @@ import com.draker.swipetime.database.entities.TVShowEntity;
 import com.draker.swipetime.models.ContentItem;
 import com.draker.swipetime.repository.AnimeRepository;
 import com.draker.swipetime.repository.BookRepository;
+import com.draker.swipetime.repository.ContentCounters;
+import com.draker.swipetime.repository.ContentCountersRepository;
+import com.draker.swipetime.repository.ContentPager;
 import com.draker.swipetime.repository.ContentRepository;
 import com.draker.swipetime.repository.GameRepository;
 import com.draker.swipetime.repository.MovieRepository;
@@ -36,6 +40,10 @@ import com.draker.swipetime.repository.TVShowRepository;
 import java.util.ArrayList;
 import java.util.List;
 
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+
 public class LikedContentFragment extends Fragment implements ImprovedLikedContentAdapter.OnItemClickListener {
 
     private static final String TAG = "LikedContentFragment";
@@ -43,6 +51,7 @@ public class LikedContentFragment extends Fragment implements ImprovedLikedConte
 
     private RecyclerView recyclerView;
     private TextView emptyMessageTextView;
+    private TextView titleTextView;
     private ImprovedLikedContentAdapter adapter;
     
     // Репозитории для получения данных
@@ -53,6 +62,16 @@ public class LikedContentFragment extends Fragment implements ImprovedLikedConte
     private AnimeRepository animeRepository;
     private ContentRepository contentRepository;
     private ReviewRepository reviewRepository;
+    private ContentCountersRepository countersRepository;
+
+    // Постраничная загрузка избранного
+    private static final int PAGE_SIZE = 20;
+    private static final int LOAD_MORE_THRESHOLD = 5;
+    private LikedPagers likedPagers;
+    private final List<ContentItem> likedItems = new ArrayList<>();
+    private boolean isLoadingPage = false;
+
+    private final CompositeDisposable disposables = new CompositeDisposable();
 
     @Nullable
     @Override
@@ -72,33 +91,44 @@ public class LikedContentFragment extends Fragment implements ImprovedLikedConte
         animeRepository = new AnimeRepository(requireActivity().getApplication());
         contentRepository = new ContentRepository(requireActivity().getApplication());
         reviewRepository = new ReviewRepository(requireActivity().getApplication());
+        countersRepository = new ContentCountersRepository(requireActivity().getApplication());
         
         // Инициализация UI компонентов
         recyclerView = view.findViewById(R.id.liked_content_recycler_view);
         emptyMessageTextView = view.findViewById(R.id.message_empty_liked);
-        
-        // Вывод отладочной информации
-        Log.d(TAG, "Проверка данных в базе:");
-        Log.d(TAG, "Количество фильмов: " + movieRepository.getCount() + ", понравившихся: " + movieRepository.getLikedCount());
-        Log.d(TAG, "Количество сериалов: " + tvShowRepository.getCount() + ", понравившихся: " + tvShowRepository.getLikedCount());
-        Log.d(TAG, "Количество игр: " + gameRepository.getCount() + ", понравившихся: " + gameRepository.getLikedCount());
-        Log.d(TAG, "Количество книг: " + bookRepository.getCount() + ", понравившихся: " + bookRepository.getLikedCount());
-        Log.d(TAG, "Количество аниме: " + animeRepository.getCount() + ", понравившихся: " + animeRepository.getLikedCount());
-        Log.d(TAG, "Общее количество контента: " + contentRepository.getCount() + ", понравившегося: " + contentRepository.getLikedCount());
-        
-        // Проверка на любимое содержимое и добавление тестовых данных если ничего нет
-        if (contentRepository.getLikedCount() == 0) {
-            Log.d(TAG, "В базе нет избранных элементов, добавляем тестовые данные для отладки");
-            addTestLikedData();
-        }
+        titleTextView = view.findViewById(R.id.title_liked);
         
         // Настройка RecyclerView
         recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
         adapter = new ImprovedLikedContentAdapter(getContext(), new ArrayList<>(), this);
         recyclerView.setAdapter(adapter);
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView view, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) view.getLayoutManager();
+                if (dy > 0 && layoutManager != null &&
+                        layoutManager.findLastVisibleItemPosition() >= adapter.getItemCount() - LOAD_MORE_THRESHOLD) {
+                    loadNextLikedPage();
+                }
+            }
+        });
         
-        // Загрузка избранного контента
-        loadLikedContent();
+        // Отладочная информация и тестовые данные читаются и пишутся в пуле БД,
+        // после добавления тестовых данных список перезагружается
+        disposables.add(Single.fromCallable(this::checkDatabaseState)
+                .subscribeOn(DatabaseSchedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(seeded -> {
+                    if (seeded) {
+                        loadLikedContent();
+                    }
+                }, error -> Log.e(TAG, "Ошибка при проверке данных в базе: " + error.getMessage())));
+
+        // Количество избранного в заголовке обновляется при каждом изменении счетчиков
+        disposables.add(countersRepository.observeCounters()
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(counters -> titleTextView.setText(getString(R.string.liked_title_count, counters.getLikedTotal())),
+                        error -> Log.e(TAG, "Ошибка при чтении счетчиков: " + error.getMessage())));
     }
     
     @Override
@@ -107,491 +137,591 @@ public class LikedContentFragment extends Fragment implements ImprovedLikedConte
         // Обновляем список при возвращении на экран
         loadLikedContent();
     }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        disposables.clear();
+        likedPagers = null;
+        isLoadingPage = false;
+    }
+
+    /**
+     * Выводит отладочную информацию о содержимом базы и при необходимости добавляет тестовые данные.
+     * Выполняется в пуле БД
+     * @return true, если были добавлены тестовые данные
+     */
+    private boolean checkDatabaseState() {
+        ContentCounters counters = countersRepository.getCounters();
+        Log.d(TAG, "Проверка данных в базе:");
+        for (String category : new String[]{"Фильмы", "Сериалы", "Игры", "Книги", "Аниме"}) {
+            Log.d(TAG, category + ": всего " + counters.getTotal(category) + ", понравившихся: " + counters.getLiked(category));
+        }
+        Log.d(TAG, "Общее количество контента: " + counters.getTotal(ContentCounters.GENERAL_TABLE) +
+                ", понравившегося: " + counters.getLiked(ContentCounters.GENERAL_TABLE));
+        
+        // Проверка на любимое содержимое и добавление тестовых данных если ничего нет
+        if (counters.getLiked(ContentCounters.GENERAL_TABLE) == 0) {
+            Log.d(TAG, "В базе нет избранных элементов, добавляем тестовые данные для отладки");
+            addTestLikedData();
+            return true;
+        }
+        return false;
+    }
     
     /**
      * Загрузка избранного контента из всех репозиториев
      */
     private void loadLikedContent() {
-        try {
-            List<ContentItem> likedItems = new ArrayList<>();
-            
-            // Вывод отладочной информации для проверки
-            Log.d(TAG, "Начинаем загрузку избранного. Проверяем статус по категориям:");
-            Log.d(TAG, "Фильмы: в базе " + movieRepository.getCount() + ", из них понравились: " + movieRepository.getLikedCount());
-            Log.d(TAG, "Сериалы: в базе " + tvShowRepository.getCount() + ", из них понравились: " + tvShowRepository.getLikedCount());
-            Log.d(TAG, "Игры: в базе " + gameRepository.getCount() + ", из них понравились: " + gameRepository.getLikedCount());
-            Log.d(TAG, "Книги: в базе " + bookRepository.getCount() + ", из них понравились: " + bookRepository.getLikedCount());
-            Log.d(TAG, "Аниме: в базе " + animeRepository.getCount() + ", из них понравились: " + animeRepository.getLikedCount());
-            
-            // Проверяем контент по категориям
-            List<ContentEntity> musicContent = contentRepository.getByCategory("Музыка");
-            Log.d(TAG, "Музыка: найдено элементов: " + (musicContent != null ? musicContent.size() : 0));
-            if (musicContent != null) {
-                for (ContentEntity entity : musicContent) {
-                    Log.d(TAG, "Музыка в базе: " + entity.getTitle() + ", liked=" + entity.isLiked());
-                }
+        if (adapter == null) {
+            return;
+        }
+
+        // Начинаем обход избранного заново, результаты незавершенной загрузки будут отброшены
+        likedPagers = new LikedPagers();
+        isLoadingPage = false;
+        likedItems.clear();
+        adapter.setItems(new ArrayList<>());
+
+        loadNextLikedPage();
+    }
+
+    /**
+     * Догружает следующую страницу избранного.
+     * Категории читаются по очереди окнами по PAGE_SIZE элементов,
+     * поэтому в памяти не оказывается вся таблица целиком
+     */
+    private void loadNextLikedPage() {
+        final LikedPagers pagers = likedPagers;
+        if (isLoadingPage || pagers == null || !pagers.hasNext()) {
+            updateEmptyState();
+            return;
+        }
+        isLoadingPage = true;
+
+        // Окно читается в пуле БД, проверка дубликатов идет по копии уже загруженного списка
+        final List<ContentItem> loaded = new ArrayList<>(likedItems);
+        disposables.add(Single.fromCallable(() -> readNextLikedPage(pagers, loaded))
+                .subscribeOn(DatabaseSchedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(page -> {
+                    if (pagers != likedPagers) {
+                        return;
+                    }
+                    isLoadingPage = false;
+                    likedItems.addAll(page);
+                    adapter.addItems(page);
+                    Log.d(TAG, "Всего загружено элементов избранного: " + likedItems.size());
+                    updateEmptyState();
+                }, error -> {
+                    if (pagers == likedPagers) {
+                        isLoadingPage = false;
+                    }
+                    Log.e(TAG, "Ошибка при загрузке избранного: " + error.getMessage());
+                    if (getContext() != null) {
+                        Toast.makeText(getContext(), "Ошибка при загрузке избранного", Toast.LENGTH_SHORT).show();
+                    }
+                }));
+    }
+
+    /**
+     * Читает очередное окно избранного, выполняется в пуле БД
+     * @param pagers курсоры текущей загрузки
+     * @param loaded уже загруженные элементы, новые добавляются в конец
+     * @return элементы, добавленные в этом окне
+     */
+    private List<ContentItem> readNextLikedPage(LikedPagers pagers, List<ContentItem> loaded) {
+        int before = loaded.size();
+        while (loaded.size() - before < PAGE_SIZE && pagers.hasNext()) {
+            if (pagers.movies.hasNext()) {
+                addLikedMovies(pagers.movies.next(), loaded);
+            } else if (pagers.tvShows.hasNext()) {
+                addLikedTVShows(pagers.tvShows.next(), loaded);
+            } else if (pagers.games.hasNext()) {
+                addLikedGames(pagers.games.next(), loaded);
+            } else if (pagers.books.hasNext()) {
+                addLikedBooks(pagers.books.next(), loaded);
+            } else if (pagers.anime.hasNext()) {
+                addLikedAnime(pagers.anime.next(), loaded);
+            } else {
+                addLikedContent(pagers.content.next(), loaded);
+            }
+        }
+        return new ArrayList<>(loaded.subList(before, loaded.size()));
+    }
+
+    /**
+     * Показывает сообщение, если список пуст
+     */
+    private void updateEmptyState() {
+        if (recyclerView == null) {
+            return;
+        }
+        if (likedItems.isEmpty() && !isLoadingPage) {
+            recyclerView.setVisibility(View.GONE);
+            emptyMessageTextView.setVisibility(View.VISIBLE);
+            Log.d(TAG, "Список избранного пуст");
+        } else {
+            recyclerView.setVisibility(View.VISIBLE);
+            emptyMessageTextView.setVisibility(View.GONE);
+        }
+    }
+
+    /**
+     * Курсоры по избранному во всех категориях, создаются заново при каждой перезагрузке списка
+     */
+    private class LikedPagers {
+        final ContentPager<MovieEntity> movies = movieRepository.pageLiked(PAGE_SIZE);
+        final ContentPager<TVShowEntity> tvShows = tvShowRepository.pageLiked(PAGE_SIZE);
+        final ContentPager<GameEntity> games = gameRepository.pageLiked(PAGE_SIZE);
+        final ContentPager<BookEntity> books = bookRepository.pageLiked(PAGE_SIZE);
+        final ContentPager<AnimeEntity> anime = animeRepository.pageLiked(PAGE_SIZE);
+        final ContentPager<ContentEntity> content = contentRepository.pageLiked(PAGE_SIZE);
+
+        boolean hasNext() {
+            return movies.hasNext() || tvShows.hasNext() || games.hasNext() ||
+                    books.hasNext() || anime.hasNext() || content.hasNext();
+        }
+    }
+
+    /**
+     * Добавляет избранные фильмы из очередного окна
+     */
+    private void addLikedMovies(List<MovieEntity> likedMovies, List<ContentItem> target) {
+        Log.d(TAG, "Загружено избранных фильмов: " + likedMovies.size());
+        for (MovieEntity movie : likedMovies) {
+            // Пропускаем тестовые элементы
+            if (movie.getId().startsWith("test_")) {
+                Log.d(TAG, "Пропускаем тестовый фильм: " + movie.getTitle());
+                continue;
             }
             
-            // Проверяем лайкнутый контент по категориям 
-            List<ContentEntity> likedMusicContent = contentRepository.getLikedByCategory("Музыка");
-            Log.d(TAG, "Понравившаяся музыка: " + (likedMusicContent != null ? likedMusicContent.size() : 0));
+            ContentItem item = new ContentItem(
+                movie.getId(),
+                movie.getTitle(),
+                movie.getDescription(),
+                movie.getImageUrl(),
+                movie.getCategory()
+            );
+            item.setWatched(movie.isWatched());
+            item.setLiked(true); // Устанавливаем статус "избранное"
             
-            List<ContentEntity> likedMoviesContent = contentRepository.getLikedByCategory("Фильмы");
-            Log.d(TAG, "Понравившиеся фильмы: " + (likedMoviesContent != null ? likedMoviesContent.size() : 0));
+            // Добавляем дополнительные данные, если они есть
+            try {
+                if (movie.getClass().getMethod("getGenres") != null) {
+                    item.setGenre((String) movie.getClass().getMethod("getGenres").invoke(movie));
+                } else if (movie.getClass().getMethod("getGenre") != null) {
+                    item.setGenre((String) movie.getClass().getMethod("getGenre").invoke(movie));
+                }
+            } catch (Exception e) {
+                // Игнорируем ошибки при рефлексии
+            }
             
-            List<ContentEntity> likedTVShowsContent = contentRepository.getLikedByCategory("Сериалы");
-            Log.d(TAG, "Понравившиеся сериалы: " + (likedTVShowsContent != null ? likedTVShowsContent.size() : 0));
+            try {
+                if (movie.getClass().getMethod("getReleaseYear") != null) {
+                    item.setYear((int) movie.getClass().getMethod("getReleaseYear").invoke(movie));
+                } else if (movie.getClass().getMethod("getYear") != null) {
+                    item.setYear((int) movie.getClass().getMethod("getYear").invoke(movie));
+                }
+            } catch (Exception e) {
+                // Игнорируем ошибки при рефлексии
+            }
             
-            List<ContentEntity> likedGamesContent = contentRepository.getLikedByCategory("Игры");
-            Log.d(TAG, "Понравившиеся игры: " + (likedGamesContent != null ? likedGamesContent.size() : 0));
+            try {
+                if (movie.getClass().getMethod("getDirector") != null) {
+                    item.setDirector((String) movie.getClass().getMethod("getDirector").invoke(movie));
+                }
+            } catch (Exception e) {
+                // Игнорируем ошибки при рефлексии
+            }
             
-            List<ContentEntity> likedBooksContent = contentRepository.getLikedByCategory("Книги");
-            Log.d(TAG, "Понравившиеся книги: " + (likedBooksContent != null ? likedBooksContent.size() : 0));
+            // Проверяем наличие отзыва и рейтинга
+            ReviewEntity review = reviewRepository.getByContentAndUserId(movie.getId(), CURRENT_USER_ID);
+            if (review != null) {
+                item.setRating(review.getRating());
+                item.setReview(review.getText());
+            } else {
+                // Если нет отзыва, устанавливаем базовый рейтинг для демонстрации
+                item.setRating(4.0f);
+            }
             
-            List<ContentEntity> likedAnimeContent = contentRepository.getLikedByCategory("Аниме");
-            Log.d(TAG, "Понравившееся аниме: " + (likedAnimeContent != null ? likedAnimeContent.size() : 0));
+            target.add(item);
+            Log.d(TAG, "Добавлен фильм в избранное: " + movie.getTitle() + " с изображением: " + movie.getImageUrl());
+        }
+    }
+
+    /**
+     * Добавляет избранные сериалы из очередного окна
+     */
+    private void addLikedTVShows(List<TVShowEntity> likedTVShows, List<ContentItem> target) {
+        Log.d(TAG, "Загружено избранных сериалов: " + likedTVShows.size());
+        for (TVShowEntity tvShow : likedTVShows) {
+            // Пропускаем тестовые элементы
+            if (tvShow.getId().startsWith("test_")) {
+                Log.d(TAG, "Пропускаем тестовый сериал: " + tvShow.getTitle());
+                continue;
+            }
             
-            // Добавляем избранные фильмы
-            List<MovieEntity> likedMovies = movieRepository.getLiked();
-            Log.d(TAG, "Загружено избранных фильмов: " + likedMovies.size());
-            for (MovieEntity movie : likedMovies) {
-                // Пропускаем тестовые элементы
-                if (movie.getId().startsWith("test_")) {
-                    Log.d(TAG, "Пропускаем тестовый фильм: " + movie.getTitle());
-                    continue;
-                }
-                
-                ContentItem item = new ContentItem(
-                    movie.getId(),
-                    movie.getTitle(),
-                    movie.getDescription(),
-                    movie.getImageUrl(),
-                    movie.getCategory()
-                );
-                item.setWatched(movie.isWatched());
-                item.setLiked(true); // Устанавливаем статус "избранное"
-                
-                // Добавляем дополнительные данные, если они есть
-                try {
-                    if (movie.getClass().getMethod("getGenres") != null) {
-                        item.setGenre((String) movie.getClass().getMethod("getGenres").invoke(movie));
-                    } else if (movie.getClass().getMethod("getGenre") != null) {
-                        item.setGenre((String) movie.getClass().getMethod("getGenre").invoke(movie));
-                    }
-                } catch (Exception e) {
-                    // Игнорируем ошибки при рефлексии
-                }
-                
-                try {
-                    if (movie.getClass().getMethod("getReleaseYear") != null) {
-                        item.setYear((int) movie.getClass().getMethod("getReleaseYear").invoke(movie));
-                    } else if (movie.getClass().getMethod("getYear") != null) {
-                        item.setYear((int) movie.getClass().getMethod("getYear").invoke(movie));
-                    }
-                } catch (Exception e) {
-                    // Игнорируем ошибки при рефлексии
-                }
-                
-                try {
-                    if (movie.getClass().getMethod("getDirector") != null) {
-                        item.setDirector((String) movie.getClass().getMethod("getDirector").invoke(movie));
-                    }
-                } catch (Exception e) {
-                    // Игнорируем ошибки при рефлексии
-                }
-                
-                // Проверяем наличие отзыва и рейтинга
-                ReviewEntity review = reviewRepository.getByContentAndUserId(movie.getId(), CURRENT_USER_ID);
-                if (review != null) {
-                    item.setRating(review.getRating());
-                    item.setReview(review.getText());
-                } else {
-                    // Если нет отзыва, устанавливаем базовый рейтинг для демонстрации
-                    item.setRating(4.0f);
-                }
-                
-                likedItems.add(item);
-                Log.d(TAG, "Добавлен фильм в избранное: " + movie.getTitle() + " с изображением: " + movie.getImageUrl());
-            }
-            
-            // Добавляем избранные сериалы
-            List<TVShowEntity> likedTVShows = tvShowRepository.getLiked();
-            Log.d(TAG, "Загружено избранных сериалов: " + likedTVShows.size());
-            for (TVShowEntity tvShow : likedTVShows) {
-                // Пропускаем тестовые элементы
-                if (tvShow.getId().startsWith("test_")) {
-                    Log.d(TAG, "Пропускаем тестовый сериал: " + tvShow.getTitle());
-                    continue;
-                }
-                
-                ContentItem item = new ContentItem(
-                    tvShow.getId(),
-                    tvShow.getTitle(),
-                    tvShow.getDescription(),
-                    tvShow.getImageUrl(),
-                    tvShow.getCategory()
-                );
-                item.setWatched(tvShow.isWatched());
-                item.setLiked(true); // Устанавливаем статус "избранное"
-                
-                // Добавляем дополнительные данные, если они есть
-                try {
-                    if (tvShow.getClass().getMethod("getGenres") != null) {
-                        item.setGenre((String) tvShow.getClass().getMethod("getGenres").invoke(tvShow));
-                    } else if (tvShow.getClass().getMethod("getGenre") != null) {
-                        item.setGenre((String) tvShow.getClass().getMethod("getGenre").invoke(tvShow));
-                    }
-                } catch (Exception e) {
-                    // Игнорируем ошибки при рефлексии
-                }
-                
-                try {
-                    if (tvShow.getClass().getMethod("getReleaseYear") != null) {
-                        item.setYear((int) tvShow.getClass().getMethod("getReleaseYear").invoke(tvShow));
-                    } else if (tvShow.getClass().getMethod("getYear") != null) {
-                        item.setYear((int) tvShow.getClass().getMethod("getYear").invoke(tvShow));
-                    }
-                } catch (Exception e) {
-                    // Игнорируем ошибки при рефлексии
-                }
-                
-                try {
-                    if (tvShow.getClass().getMethod("getSeasons") != null) {
-                        item.setSeasons((int) tvShow.getClass().getMethod("getSeasons").invoke(tvShow));
-                    }
-                } catch (Exception e) {
-                    // Игнорируем ошибки при рефлексии
-                }
-                
-                try {
-                    if (tvShow.getClass().getMethod("getEpisodes") != null) {
-                        item.setEpisodes((int) tvShow.getClass().getMethod("getEpisodes").invoke(tvShow));
-                    }
-                } catch (Exception e) {
-                    // Игнорируем ошибки при рефлексии
-                }
-                
-                // Проверяем наличие отзыва и рейтинга
-                ReviewEntity review = reviewRepository.getByContentAndUserId(tvShow.getId(), CURRENT_USER_ID);
-                if (review != null) {
-                    item.setRating(review.getRating());
-                    item.setReview(review.getText());
-                } else {
-                    // Если нет отзыва, устанавливаем базовый рейтинг для демонстрации
-                    item.setRating(4.5f);
-                }
-                
-                likedItems.add(item);
-                Log.d(TAG, "Добавлен сериал в избранное: " + tvShow.getTitle() + " с изображением: " + tvShow.getImageUrl());
-            }
-            
-            // Добавляем избранные игры
-            List<GameEntity> likedGames = gameRepository.getLiked();
-            Log.d(TAG, "Загружено избранных игр: " + likedGames.size());
-            for (GameEntity game : likedGames) {
-                // Пропускаем тестовые элементы
-                if (game.getId().startsWith("test_")) {
-                    Log.d(TAG, "Пропускаем тестовую игру: " + game.getTitle());
-                    continue;
-                }
-                
-                ContentItem item = new ContentItem(
-                    game.getId(),
-                    game.getTitle(),
-                    game.getDescription(),
-                    game.getImageUrl(),
-                    game.getCategory()
-                );
-                item.setWatched(game.isCompleted());
-                item.setLiked(true); // Устанавливаем статус "избранное"
-                
-                // Добавляем дополнительные данные, если они есть
-                try {
-                    if (game.getClass().getMethod("getGenres") != null) {
-                        item.setGenre((String) game.getClass().getMethod("getGenres").invoke(game));
-                    } else if (game.getClass().getMethod("getGenre") != null) {
-                        item.setGenre((String) game.getClass().getMethod("getGenre").invoke(game));
-                    }
-                } catch (Exception e) {
-                    // Игнорируем ошибки при рефлексии
-                }
-                
-                try {
-                    if (game.getClass().getMethod("getReleaseYear") != null) {
-                        item.setYear((int) game.getClass().getMethod("getReleaseYear").invoke(game));
-                    } else if (game.getClass().getMethod("getYear") != null) {
-                        item.setYear((int) game.getClass().getMethod("getYear").invoke(game));
-                    }
-                } catch (Exception e) {
-                    // Игнорируем ошибки при рефлексии
-                }
-                
-                try {
-                    if (game.getClass().getMethod("getDeveloper") != null) {
-                        item.setDeveloper((String) game.getClass().getMethod("getDeveloper").invoke(game));
-                    }
-                } catch (Exception e) {
-                    // Игнорируем ошибки при рефлексии
-                }
-                
-                try {
-                    if (game.getClass().getMethod("getPlatforms") != null) {
-                        item.setPlatforms((String) game.getClass().getMethod("getPlatforms").invoke(game));
-                    } else if (game.getClass().getMethod("getPlatform") != null) {
-                        item.setPlatforms((String) game.getClass().getMethod("getPlatform").invoke(game));
-                    }
-                } catch (Exception e) {
-                    // Игнорируем ошибки при рефлексии
-                }
-                
-                // Проверяем наличие отзыва и рейтинга
-                ReviewEntity review = reviewRepository.getByContentAndUserId(game.getId(), CURRENT_USER_ID);
-                if (review != null) {
-                    item.setRating(review.getRating());
-                    item.setReview(review.getText());
-                } else {
-                    // Если нет отзыва, устанавливаем базовый рейтинг для демонстрации
-                    item.setRating(4.8f);
-                }
-                
-                likedItems.add(item);
-                Log.d(TAG, "Добавлена игра в избранное: " + game.getTitle() + " с изображением: " + game.getImageUrl());
-            }
-            
-            // Добавляем избранные книги
-            List<BookEntity> likedBooks = bookRepository.getLiked();
-            Log.d(TAG, "Загружено избранных книг: " + likedBooks.size());
-            for (BookEntity book : likedBooks) {
-                // Пропускаем тестовые элементы
-                if (book.getId().startsWith("test_")) {
-                    Log.d(TAG, "Пропускаем тестовую книгу: " + book.getTitle());
-                    continue;
-                }
-                
-                ContentItem item = new ContentItem(
-                    book.getId(),
-                    book.getTitle(),
-                    book.getDescription(),
-                    book.getImageUrl(),
-                    book.getCategory()
-                );
-                item.setWatched(book.isRead());
-                item.setLiked(true); // Устанавливаем статус "избранное"
-                
-                // Добавляем дополнительные данные, если они есть
-                try {
-                    if (book.getClass().getMethod("getGenres") != null) {
-                        item.setGenre((String) book.getClass().getMethod("getGenres").invoke(book));
-                    } else if (book.getClass().getMethod("getGenre") != null) {
-                        item.setGenre((String) book.getClass().getMethod("getGenre").invoke(book));
-                    }
-                } catch (Exception e) {
-                    // Игнорируем ошибки при рефлексии
+            ContentItem item = new ContentItem(
+                tvShow.getId(),
+                tvShow.getTitle(),
+                tvShow.getDescription(),
+                tvShow.getImageUrl(),
+                tvShow.getCategory()
+            );
+            item.setWatched(tvShow.isWatched());
+            item.setLiked(true); // Устанавливаем статус "избранное"
+            
+            // Добавляем дополнительные данные, если они есть
+            try {
+                if (tvShow.getClass().getMethod("getGenres") != null) {
+                    item.setGenre((String) tvShow.getClass().getMethod("getGenres").invoke(tvShow));
+                } else if (tvShow.getClass().getMethod("getGenre") != null) {
+                    item.setGenre((String) tvShow.getClass().getMethod("getGenre").invoke(tvShow));
+                }
+            } catch (Exception e) {
+                // Игнорируем ошибки при рефлексии
+            }
+            
+            try {
+                if (tvShow.getClass().getMethod("getReleaseYear") != null) {
+                    item.setYear((int) tvShow.getClass().getMethod("getReleaseYear").invoke(tvShow));
+                } else if (tvShow.getClass().getMethod("getYear") != null) {
+                    item.setYear((int) tvShow.getClass().getMethod("getYear").invoke(tvShow));
+                }
+            } catch (Exception e) {
+                // Игнорируем ошибки при рефлексии
+            }
+            
+            try {
+                if (tvShow.getClass().getMethod("getSeasons") != null) {
+                    item.setSeasons((int) tvShow.getClass().getMethod("getSeasons").invoke(tvShow));
                 }
-                
-                try {
-                    if (book.getClass().getMethod("getReleaseYear") != null) {
-                        item.setYear((int) book.getClass().getMethod("getReleaseYear").invoke(book));
-                    } else if (book.getClass().getMethod("getYear") != null) {
-                        item.setYear((int) book.getClass().getMethod("getYear").invoke(book));
-                    } else if (book.getClass().getMethod("getPublicationYear") != null) {
-                        item.setYear((int) book.getClass().getMethod("getPublicationYear").invoke(book));
-                    }
-                } catch (Exception e) {
-                    // Игнорируем ошибки при рефлексии
+            } catch (Exception e) {
+                // Игнорируем ошибки при рефлексии
+            }
+            
+            try {
+                if (tvShow.getClass().getMethod("getEpisodes") != null) {
+                    item.setEpisodes((int) tvShow.getClass().getMethod("getEpisodes").invoke(tvShow));
                 }
-                
-                try {
-                    if (book.getClass().getMethod("getAuthor") != null) {
-                        item.setAuthor((String) book.getClass().getMethod("getAuthor").invoke(book));
-                    }
-                } catch (Exception e) {
-                    // Игнорируем ошибки при рефлексии
+            } catch (Exception e) {
+                // Игнорируем ошибки при рефлексии
+            }
+            
+            // Проверяем наличие отзыва и рейтинга
+            ReviewEntity review = reviewRepository.getByContentAndUserId(tvShow.getId(), CURRENT_USER_ID);
+            if (review != null) {
+                item.setRating(review.getRating());
+                item.setReview(review.getText());
+            } else {
+                // Если нет отзыва, устанавливаем базовый рейтинг для демонстрации
+                item.setRating(4.5f);
+            }
+            
+            target.add(item);
+            Log.d(TAG, "Добавлен сериал в избранное: " + tvShow.getTitle() + " с изображением: " + tvShow.getImageUrl());
+        }
+    }
+
+    /**
+     * Добавляет избранные игры из очередного окна
+     */
+    private void addLikedGames(List<GameEntity> likedGames, List<ContentItem> target) {
+        Log.d(TAG, "Загружено избранных игр: " + likedGames.size());
+        for (GameEntity game : likedGames) {
+            // Пропускаем тестовые элементы
+            if (game.getId().startsWith("test_")) {
+                Log.d(TAG, "Пропускаем тестовую игру: " + game.getTitle());
+                continue;
+            }
+            
+            ContentItem item = new ContentItem(
+                game.getId(),
+                game.getTitle(),
+                game.getDescription(),
+                game.getImageUrl(),
+                game.getCategory()
+            );
+            item.setWatched(game.isCompleted());
+            item.setLiked(true); // Устанавливаем статус "избранное"
+            
+            // Добавляем дополнительные данные, если они есть
+            try {
+                if (game.getClass().getMethod("getGenres") != null) {
+                    item.setGenre((String) game.getClass().getMethod("getGenres").invoke(game));
+                } else if (game.getClass().getMethod("getGenre") != null) {
+                    item.setGenre((String) game.getClass().getMethod("getGenre").invoke(game));
+                }
+            } catch (Exception e) {
+                // Игнорируем ошибки при рефлексии
+            }
+            
+            try {
+                if (game.getClass().getMethod("getReleaseYear") != null) {
+                    item.setYear((int) game.getClass().getMethod("getReleaseYear").invoke(game));
+                } else if (game.getClass().getMethod("getYear") != null) {
+                    item.setYear((int) game.getClass().getMethod("getYear").invoke(game));
+                }
+            } catch (Exception e) {
+                // Игнорируем ошибки при рефлексии
+            }
+            
+            try {
+                if (game.getClass().getMethod("getDeveloper") != null) {
+                    item.setDeveloper((String) game.getClass().getMethod("getDeveloper").invoke(game));
                 }
-                
-                try {
-                    if (book.getClass().getMethod("getPublisher") != null) {
-                        item.setPublisher((String) book.getClass().getMethod("getPublisher").invoke(book));
-                    }
-                } catch (Exception e) {
-                    // Игнорируем ошибки при рефлексии
+            } catch (Exception e) {
+                // Игнорируем ошибки при рефлексии
+            }
+            
+            try {
+                if (game.getClass().getMethod("getPlatforms") != null) {
+                    item.setPlatforms((String) game.getClass().getMethod("getPlatforms").invoke(game));
+                } else if (game.getClass().getMethod("getPlatform") != null) {
+                    item.setPlatforms((String) game.getClass().getMethod("getPlatform").invoke(game));
+                }
+            } catch (Exception e) {
+                // Игнорируем ошибки при рефлексии
+            }
+            
+            // Проверяем наличие отзыва и рейтинга
+            ReviewEntity review = reviewRepository.getByContentAndUserId(game.getId(), CURRENT_USER_ID);
+            if (review != null) {
+                item.setRating(review.getRating());
+                item.setReview(review.getText());
+            } else {
+                // Если нет отзыва, устанавливаем базовый рейтинг для демонстрации
+                item.setRating(4.8f);
+            }
+            
+            target.add(item);
+            Log.d(TAG, "Добавлена игра в избранное: " + game.getTitle() + " с изображением: " + game.getImageUrl());
+        }
+    }
+
+    /**
+     * Добавляет избранные книги из очередного окна
+     */
+    private void addLikedBooks(List<BookEntity> likedBooks, List<ContentItem> target) {
+        Log.d(TAG, "Загружено избранных книг: " + likedBooks.size());
+        for (BookEntity book : likedBooks) {
+            // Пропускаем тестовые элементы
+            if (book.getId().startsWith("test_")) {
+                Log.d(TAG, "Пропускаем тестовую книгу: " + book.getTitle());
+                continue;
+            }
+            
+            ContentItem item = new ContentItem(
+                book.getId(),
+                book.getTitle(),
+                book.getDescription(),
+                book.getImageUrl(),
+                book.getCategory()
+            );
+            item.setWatched(book.isRead());
+            item.setLiked(true); // Устанавливаем статус "избранное"
+            
+            // Добавляем дополнительные данные, если они есть
+            try {
+                if (book.getClass().getMethod("getGenres") != null) {
+                    item.setGenre((String) book.getClass().getMethod("getGenres").invoke(book));
+                } else if (book.getClass().getMethod("getGenre") != null) {
+                    item.setGenre((String) book.getClass().getMethod("getGenre").invoke(book));
+                }
+            } catch (Exception e) {
+                // Игнорируем ошибки при рефлексии
+            }
+            
+            try {
+                if (book.getClass().getMethod("getReleaseYear") != null) {
+                    item.setYear((int) book.getClass().getMethod("getReleaseYear").invoke(book));
+                } else if (book.getClass().getMethod("getYear") != null) {
+                    item.setYear((int) book.getClass().getMethod("getYear").invoke(book));
+                } else if (book.getClass().getMethod("getPublicationYear") != null) {
+                    item.setYear((int) book.getClass().getMethod("getPublicationYear").invoke(book));
+                }
+            } catch (Exception e) {
+                // Игнорируем ошибки при рефлексии
+            }
+            
+            try {
+                if (book.getClass().getMethod("getAuthor") != null) {
+                    item.setAuthor((String) book.getClass().getMethod("getAuthor").invoke(book));
                 }
-                
-                try {
-                    if (book.getClass().getMethod("getPages") != null) {
-                        item.setPages((int) book.getClass().getMethod("getPages").invoke(book));
-                    } else if (book.getClass().getMethod("getPageCount") != null) {
-                        item.setPages((int) book.getClass().getMethod("getPageCount").invoke(book));
-                    }
-                } catch (Exception e) {
-                    // Игнорируем ошибки при рефлексии
+            } catch (Exception e) {
+                // Игнорируем ошибки при рефлексии
+            }
+            
+            try {
+                if (book.getClass().getMethod("getPublisher") != null) {
+                    item.setPublisher((String) book.getClass().getMethod("getPublisher").invoke(book));
                 }
-                
-                // Проверяем наличие отзыва и рейтинга
-                ReviewEntity review = reviewRepository.getByContentAndUserId(book.getId(), CURRENT_USER_ID);
-                if (review != null) {
-                    item.setRating(review.getRating());
-                    item.setReview(review.getText());
-                } else {
-                    // Если нет отзыва, устанавливаем базовый рейтинг для демонстрации
-                    item.setRating(4.2f);
+            } catch (Exception e) {
+                // Игнорируем ошибки при рефлексии
+            }
+            
+            try {
+                if (book.getClass().getMethod("getPages") != null) {
+                    item.setPages((int) book.getClass().getMethod("getPages").invoke(book));
+                } else if (book.getClass().getMethod("getPageCount") != null) {
+                    item.setPages((int) book.getClass().getMethod("getPageCount").invoke(book));
+                }
+            } catch (Exception e) {
+                // Игнорируем ошибки при рефлексии
+            }
+            
+            // Проверяем наличие отзыва и рейтинга
+            ReviewEntity review = reviewRepository.getByContentAndUserId(book.getId(), CURRENT_USER_ID);
+            if (review != null) {
+                item.setRating(review.getRating());
+                item.setReview(review.getText());
+            } else {
+                // Если нет отзыва, устанавливаем базовый рейтинг для демонстрации
+                item.setRating(4.2f);
+            }
+            
+            target.add(item);
+            Log.d(TAG, "Добавлена книга в избранное: " + book.getTitle() + " с изображением: " + book.getImageUrl());
+        }
+    }
+
+    /**
+     * Добавляет избранное аниме из очередного окна
+     */
+    private void addLikedAnime(List<AnimeEntity> likedAnimes, List<ContentItem> target) {
+        Log.d(TAG, "Загружено избранных аниме: " + likedAnimes.size());
+        for (AnimeEntity anime : likedAnimes) {
+            // Пропускаем тестовые элементы
+            if (anime.getId().startsWith("test_")) {
+                Log.d(TAG, "Пропускаем тестовое аниме: " + anime.getTitle());
+                continue;
+            }
+            
+            ContentItem item = new ContentItem(
+                anime.getId(),
+                anime.getTitle(),
+                anime.getDescription(),
+                anime.getImageUrl(),
+                anime.getCategory()
+            );
+            item.setWatched(anime.isWatched());
+            item.setLiked(true); // Устанавливаем статус "избранное"
+            
+            // Добавляем дополнительные данные, если они есть
+            try {
+                if (anime.getClass().getMethod("getGenres") != null) {
+                    item.setGenre((String) anime.getClass().getMethod("getGenres").invoke(anime));
+                } else if (anime.getClass().getMethod("getGenre") != null) {
+                    item.setGenre((String) anime.getClass().getMethod("getGenre").invoke(anime));
+                }
+            } catch (Exception e) {
+                // Игнорируем ошибки при рефлексии
+            }
+            
+            try {
+                if (anime.getClass().getMethod("getReleaseYear") != null) {
+                    item.setYear((int) anime.getClass().getMethod("getReleaseYear").invoke(anime));
+                } else if (anime.getClass().getMethod("getYear") != null) {
+                    item.setYear((int) anime.getClass().getMethod("getYear").invoke(anime));
+                }
+            } catch (Exception e) {
+                // Игнорируем ошибки при рефлексии
+            }
+            
+            try {
+                if (anime.getClass().getMethod("getStudio") != null) {
+                    item.setStudio((String) anime.getClass().getMethod("getStudio").invoke(anime));
                 }
-                
-                likedItems.add(item);
-                Log.d(TAG, "Добавлена книга в избранное: " + book.getTitle() + " с изображением: " + book.getImageUrl());
-            }
-            
-            // Добавляем избранное аниме
-            List<AnimeEntity> likedAnimes = animeRepository.getLiked();
-            Log.d(TAG, "Загружено избранных аниме: " + likedAnimes.size());
-            for (AnimeEntity anime : likedAnimes) {
-                // Пропускаем тестовые элементы
-                if (anime.getId().startsWith("test_")) {
-                    Log.d(TAG, "Пропускаем тестовое аниме: " + anime.getTitle());
-                    continue;
+            } catch (Exception e) {
+                // Игнорируем ошибки при рефлексии
+            }
+            
+            try {
+                if (anime.getClass().getMethod("getEpisodes") != null) {
+                    item.setEpisodes((int) anime.getClass().getMethod("getEpisodes").invoke(anime));
+                } else if (anime.getClass().getMethod("getEpisodeCount") != null) {
+                    item.setEpisodes((int) anime.getClass().getMethod("getEpisodeCount").invoke(anime));
+                }
+            } catch (Exception e) {
+                // Игнорируем ошибки при рефлексии
+            }
+            
+            // Проверяем наличие отзыва и рейтинга
+            ReviewEntity review = reviewRepository.getByContentAndUserId(anime.getId(), CURRENT_USER_ID);
+            if (review != null) {
+                item.setRating(review.getRating());
+                item.setReview(review.getText());
+            } else {
+                // Если нет отзыва, устанавливаем базовый рейтинг для демонстрации
+                item.setRating(4.4f);
+            }
+            
+            target.add(item);
+            Log.d(TAG, "Добавлено аниме в избранное: " + anime.getTitle() + " с изображением: " + anime.getImageUrl());
+        }
+    }
+
+    /**
+     * Добавляет прочий избранный контент из очередного окна
+     */
+    private void addLikedContent(List<ContentEntity> likedContent, List<ContentItem> target) {
+        Log.d(TAG, "Загружено прочего избранного контента: " + likedContent.size());
+        if (likedContent.size() > 0) {
+            for (ContentEntity content : likedContent) {
+                Log.d(TAG, "Найден избранный контент: " + content.getTitle() + " (категория: " + content.getCategory() + ")");
+            }
+        }
+        
+        for (ContentEntity content : likedContent) {
+            // Пропускаем тестовые элементы
+            if (content.getId().startsWith("test_")) {
+                Log.d(TAG, "Пропускаем тестовый контент: " + content.getTitle());
+                continue;
+            }
+            
+            // Проверка на дубликат должна учитывать ID и категорию контента
+            boolean alreadyAdded = false;
+            for (ContentItem item : target) {
+                if (item.getId().equals(content.getId()) && 
+                    (item.getCategory() == null || content.getCategory() == null || 
+                    item.getCategory().equals(content.getCategory()))) {
+                    alreadyAdded = true;
+                    Log.d(TAG, "Пропуск дубликата: " + content.getTitle() + " (уже добавлен в список)");
+                    break;
                 }
-                
+            }
+            
+            // Если этого контента еще нет в списке, добавляем его
+            if (!alreadyAdded) {
                 ContentItem item = new ContentItem(
-                    anime.getId(),
-                    anime.getTitle(),
-                    anime.getDescription(),
-                    anime.getImageUrl(),
-                    anime.getCategory()
+                    content.getId(),
+                    content.getTitle(),
+                    content.getDescription(),
+                    content.getImageUrl(),
+                    content.getCategory()
                 );
-                item.setWatched(anime.isWatched());
+                item.setWatched(content.isWatched());
                 item.setLiked(true); // Устанавливаем статус "избранное"
                 
-                // Добавляем дополнительные данные, если они есть
-                try {
-                    if (anime.getClass().getMethod("getGenres") != null) {
-                        item.setGenre((String) anime.getClass().getMethod("getGenres").invoke(anime));
-                    } else if (anime.getClass().getMethod("getGenre") != null) {
-                        item.setGenre((String) anime.getClass().getMethod("getGenre").invoke(anime));
-                    }
-                } catch (Exception e) {
-                    // Игнорируем ошибки при рефлексии
-                }
-                
-                try {
-                    if (anime.getClass().getMethod("getReleaseYear") != null) {
-                        item.setYear((int) anime.getClass().getMethod("getReleaseYear").invoke(anime));
-                    } else if (anime.getClass().getMethod("getYear") != null) {
-                        item.setYear((int) anime.getClass().getMethod("getYear").invoke(anime));
-                    }
-                } catch (Exception e) {
-                    // Игнорируем ошибки при рефлексии
-                }
-                
-                try {
-                    if (anime.getClass().getMethod("getStudio") != null) {
-                        item.setStudio((String) anime.getClass().getMethod("getStudio").invoke(anime));
-                    }
-                } catch (Exception e) {
-                    // Игнорируем ошибки при рефлексии
-                }
-                
-                try {
-                    if (anime.getClass().getMethod("getEpisodes") != null) {
-                        item.setEpisodes((int) anime.getClass().getMethod("getEpisodes").invoke(anime));
-                    } else if (anime.getClass().getMethod("getEpisodeCount") != null) {
-                        item.setEpisodes((int) anime.getClass().getMethod("getEpisodeCount").invoke(anime));
-                    }
-                } catch (Exception e) {
-                    // Игнорируем ошибки при рефлексии
-                }
-                
                 // Проверяем наличие отзыва и рейтинга
-                ReviewEntity review = reviewRepository.getByContentAndUserId(anime.getId(), CURRENT_USER_ID);
+                ReviewEntity review = reviewRepository.getByContentAndUserId(content.getId(), CURRENT_USER_ID);
                 if (review != null) {
                     item.setRating(review.getRating());
                     item.setReview(review.getText());
                 } else {
-                    // Если нет отзыва, устанавливаем базовый рейтинг для демонстрации
-                    item.setRating(4.4f);
-                }
-                
-                likedItems.add(item);
-                Log.d(TAG, "Добавлено аниме в избранное: " + anime.getTitle() + " с изображением: " + anime.getImageUrl());
-            }
-            
-            // Добавляем прочий избранный контент (включая музыку и другие категории)
-            List<ContentEntity> likedContent = contentRepository.getLiked();
-            Log.d(TAG, "Загружено прочего избранного контента: " + likedContent.size());
-            if (likedContent.size() > 0) {
-                for (ContentEntity content : likedContent) {
-                    Log.d(TAG, "Найден избранный контент: " + content.getTitle() + " (категория: " + content.getCategory() + ")");
-                }
-            }
-            
-            for (ContentEntity content : likedContent) {
-                // Пропускаем тестовые элементы
-                if (content.getId().startsWith("test_")) {
-                    Log.d(TAG, "Пропускаем тестовый контент: " + content.getTitle());
-                    continue;
-                }
-                
-                // Проверка на дубликат должна учитывать ID и категорию контента
-                boolean alreadyAdded = false;
-                for (ContentItem item : likedItems) {
-                    if (item.getId().equals(content.getId()) && 
-                        (item.getCategory() == null || content.getCategory() == null || 
-                        item.getCategory().equals(content.getCategory()))) {
-                        alreadyAdded = true;
-                        Log.d(TAG, "Пропуск дубликата: " + content.getTitle() + " (уже добавлен в список)");
-                        break;
-                    }
-                }
-                
-                // Если этого контента еще нет в списке, добавляем его
-                if (!alreadyAdded) {
-                    ContentItem item = new ContentItem(
-                        content.getId(),
-                        content.getTitle(),
-                        content.getDescription(),
-                        content.getImageUrl(),
-                        content.getCategory()
-                    );
-                    item.setWatched(content.isWatched());
-                    item.setLiked(true); // Устанавливаем статус "избранное"
-                    
-                    // Проверяем наличие отзыва и рейтинга
-                    ReviewEntity review = reviewRepository.getByContentAndUserId(content.getId(), CURRENT_USER_ID);
-                    if (review != null) {
-                        item.setRating(review.getRating());
-                        item.setReview(review.getText());
+                    // Если отзыва нет, используем рейтинг из самой ContentEntity или устанавливаем по умолчанию
+                    if (content.getRating() > 0) {
+                        item.setRating(content.getRating());
                     } else {
-                        // Если отзыва нет, используем рейтинг из самой ContentEntity или устанавливаем по умолчанию
-                        if (content.getRating() > 0) {
-                            item.setRating(content.getRating());
-                        } else {
-                            item.setRating(4.0f); // Базовый рейтинг для демонстрации
-                        }
+                        item.setRating(4.0f); // Базовый рейтинг для демонстрации
                     }
-                    
-                    likedItems.add(item);
-                    Log.d(TAG, "Добавлен прочий контент в избранное: " + content.getTitle() + 
-                            " (категория: " + content.getCategory() + ") с изображением: " + content.getImageUrl());
                 }
+                
+                target.add(item);
+                Log.d(TAG, "Добавлен прочий контент в избранное: " + content.getTitle() + 
+                        " (категория: " + content.getCategory() + ") с изображением: " + content.getImageUrl());
             }
-            
-            // Обновляем адаптер
-            adapter.setItems(likedItems);
-            
-            // Показываем сообщение, если список пуст
-            if (likedItems.isEmpty()) {
-                recyclerView.setVisibility(View.GONE);
-                emptyMessageTextView.setVisibility(View.VISIBLE);
-                Log.d(TAG, "Список избранного пуст");
-                // Больше не добавляем тестовые данные, просто показываем сообщение
-            } else {
-                recyclerView.setVisibility(View.VISIBLE);
-                emptyMessageTextView.setVisibility(View.GONE);
-                Log.d(TAG, "Всего загружено элементов избранного: " + likedItems.size());
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Ошибка при загрузке избранного: " + e.getMessage());
-            e.printStackTrace();
-            Toast.makeText(getContext(), "Ошибка при загрузке избранного", Toast.LENGTH_SHORT).show();
         }
     }
 
@@ -1,6 +1,7 @@
 package com.draker.swipetime.fragments;
 
 import android.os.Bundle;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -19,6 +20,8 @@ import com.draker.swipetime.R;
 import com.draker.swipetime.database.entities.UserEntity;
 import com.draker.swipetime.database.entities.UserStatsEntity;
 import com.draker.swipetime.fragments.AchievementsFragment;
+import com.draker.swipetime.repository.ContentCounters;
+import com.draker.swipetime.repository.ContentCountersRepository;
 import com.draker.swipetime.utils.GamificationManager;
 // import com.draker.swipetime.utils.AchievementInitializer; // Класс удален в рамках рефакторинга
 // import com.draker.swipetime.utils.AchievementDiagnostics; // Класс удален в рамках рефакторинга
@@ -28,11 +31,16 @@ import android.app.AlertDialog;
 import com.draker.swipetime.viewmodels.GamificationViewModel;
 import com.draker.swipetime.viewmodels.ProfileViewModel;
 
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+
 /**
  * Фрагмент профиля пользователя с отображением статистики и достижений
  */
 public class ProfileFragment extends Fragment {
 
+    private static final String TAG = "ProfileFragment";
+
     private ProfileViewModel profileViewModel;
     private GamificationViewModel gamificationViewModel;
     
@@ -47,6 +55,8 @@ public class ProfileFragment extends Fragment {
     private TextView ratingsCount;
     private TextView reviewsCount;
     private TextView achievementsCount;
+    private TextView likedCount;
+    private TextView completedCount;
     private Button viewAchievementsButton;
     private Button testSwipeButton;
     private Button testRatingButton;
@@ -58,6 +68,8 @@ public class ProfileFragment extends Fragment {
     
     // Текущий ID пользователя (в реальном приложении должен быть получен из аутентификации)
     private static final String CURRENT_USER_ID = "user_1";
+
+    private final CompositeDisposable disposables = new CompositeDisposable();
     
     @Nullable
     @Override
@@ -81,6 +93,12 @@ public class ProfileFragment extends Fragment {
         
         // Загрузка данных пользователя
         loadUserData();
+        
+        // Счетчики избранного и завершенного поддерживаются триггерами БД и приходят при каждом изменении
+        disposables.add(new ContentCountersRepository(requireActivity().getApplication()).observeCounters()
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(this::updateCountersUI,
+                        e -> Log.e(TAG, "Ошибка при чтении счетчиков: " + e.getMessage())));
     }
     
     /**
@@ -98,6 +116,8 @@ public class ProfileFragment extends Fragment {
         ratingsCount = view.findViewById(R.id.ratings_count);
         reviewsCount = view.findViewById(R.id.reviews_count);
         achievementsCount = view.findViewById(R.id.achievements_count);
+        likedCount = view.findViewById(R.id.liked_count);
+        completedCount = view.findViewById(R.id.completed_count);
         
         viewAchievementsButton = view.findViewById(R.id.view_achievements_button);
         testSwipeButton = view.findViewById(R.id.test_swipe_button);
@@ -126,34 +146,30 @@ public class ProfileFragment extends Fragment {
         // Обработчики тестовых кнопок для имитации действий
         testSwipeButton.setOnClickListener(v -> {
             // Имитируем свайп вправо
-            boolean levelUp = gamificationViewModel.registerSwipe(true, "test_content_id", "Тестовый контент");
-            
-            // Обновляем UI
-            showActionResult("Свайп", levelUp);
+            disposables.add(gamificationViewModel.registerSwipe(true, "test_content_id", "Тестовый контент")
+                    .subscribe(levelUp -> showActionResult("Свайп", levelUp),
+                            e -> Log.e(TAG, "Ошибка при обработке действия: " + e.getMessage())));
         });
         
         testRatingButton.setOnClickListener(v -> {
             // Имитируем оценку
-            boolean levelUp = gamificationViewModel.registerRating("test_content_id", "Тестовый контент", 4.5f);
-            
-            // Обновляем UI
-            showActionResult("Оценка", levelUp);
+            disposables.add(gamificationViewModel.registerRating("test_content_id", "Тестовый контент", 4.5f)
+                    .subscribe(levelUp -> showActionResult("Оценка", levelUp),
+                            e -> Log.e(TAG, "Ошибка при обработке действия: " + e.getMessage())));
         });
         
         testReviewButton.setOnClickListener(v -> {
             // Имитируем написание рецензии
-            boolean levelUp = gamificationViewModel.registerReview("test_content_id", "Тестовый контент");
-            
-            // Обновляем UI
-            showActionResult("Рецензия", levelUp);
+            disposables.add(gamificationViewModel.registerReview("test_content_id", "Тестовый контент")
+                    .subscribe(levelUp -> showActionResult("Рецензия", levelUp),
+                            e -> Log.e(TAG, "Ошибка при обработке действия: " + e.getMessage())));
         });
         
         testCompleteButton.setOnClickListener(v -> {
             // Имитируем просмотр/прочтение
-            boolean levelUp = gamificationViewModel.registerCompletion("test_content_id", "Тестовый контент", "Фильмы");
-            
-            // Обновляем UI
-            showActionResult("Просмотр", levelUp);
+            disposables.add(gamificationViewModel.registerCompletion("test_content_id", "Тестовый контент", "Фильмы")
+                    .subscribe(levelUp -> showActionResult("Просмотр", levelUp),
+                            e -> Log.e(TAG, "Ошибка при обработке действия: " + e.getMessage())));
         });
         
         initializeAchievementsButton.setOnClickListener(v -> {
@@ -239,6 +255,14 @@ public class ProfileFragment extends Fragment {
         }
     }
     
+    /**
+     * Обновление счетчиков контента
+     */
+    private void updateCountersUI(ContentCounters counters) {
+        likedCount.setText(String.valueOf(counters.getLikedTotal()));
+        completedCount.setText(String.valueOf(counters.getWatchedTotal()));
+    }
+    
     /**
      * Обновление прогресс-бара уровня
      */
@@ -254,6 +278,12 @@ public class ProfileFragment extends Fragment {
         }
     }
     
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        disposables.clear();
+    }
+
     /**
      * Отображение результата действия
      */
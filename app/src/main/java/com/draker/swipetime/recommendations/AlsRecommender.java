@@ -0,0 +1,492 @@
+package com.draker.swipetime.recommendations;
+
+import android.app.Application;
+import android.util.Log;
+
+import com.draker.swipetime.database.DatabaseSchedulers;
+import com.draker.swipetime.database.UserDatabase;
+import com.draker.swipetime.database.dao.LatentFactorDao;
+import com.draker.swipetime.database.dao.UserInteractionDao;
+import com.draker.swipetime.database.entities.LatentFactorEntity;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+
+/**
+ * Рекомендации матричной факторизацией по неявным откликам (implicit ALS, Hu-Koren-Volinsky).
+ * Лайк - положительный отклик с уверенностью 1 + ALPHA, остальные элементы - нулевой
+ * с уверенностью 1. Векторы пользователей и элементов обучаются попеременно в фоновом
+ * пуле с пониженным приоритетом и хранятся в latent_factors упакованными массивами float.
+ * Оценка элемента - скалярное произведение векторов в плоских массивах float.
+ * Пока модель не обучена, рекомендации пусты, а оценки недоступны
+ */
+public final class AlsRecommender {
+    private static final String TAG = "AlsRecommender";
+
+    // Размерность латентных векторов
+    public static final int FACTORS = 16;
+
+    // Количество итераций попеременной оптимизации
+    private static final int ITERATIONS = 10;
+
+    // Коэффициент регуляризации
+    private static final double REGULARIZATION = 0.1;
+
+    // Прибавка к уверенности для лайкнутых элементов
+    private static final double ALPHA = 20.0;
+
+    // После скольких изменений лайков модель переобучается
+    private static final int RETRAIN_AFTER_CHANGES = 200;
+
+    // Сколько пользователей оценивается при замере скорости
+    private static final int BENCHMARK_USERS = 100;
+
+    private static AlsRecommender instance;
+
+    private final LikeMatrix likeMatrix;
+    private final LatentFactorDao factorDao;
+    private final UserInteractionDao interactionDao;
+    private final AtomicBoolean training = new AtomicBoolean();
+
+    private volatile Model model;
+    private boolean loadAttempted;
+
+    private AlsRecommender(Application application) {
+        this.likeMatrix = LikeMatrix.getInstance(application);
+        this.factorDao = UserDatabase.getInstance(application).latentFactorDao();
+        this.interactionDao = UserDatabase.getInstance(application).userInteractionDao();
+    }
+
+    public static synchronized AlsRecommender getInstance(Application application) {
+        if (instance == null) {
+            instance = new AlsRecommender(application);
+        }
+        return instance;
+    }
+
+    /**
+     * Элементы с наибольшей оценкой, кроме уже лайкнутых. Выполняется в пуле БД
+     *
+     * @param userId ID пользователя
+     * @param limit максимальное количество рекомендаций
+     * @return список ID рекомендуемых элементов
+     */
+    public List<String> getRecommendations(String userId, int limit) {
+        Model current = getModel();
+        Integer user = current != null ? current.userIndex.get(userId) : null;
+        if (user == null || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        // Лайкнутые элементы пользователя в нумерации модели
+        boolean[] liked = new boolean[current.itemIds.length];
+        int matrixUser = likeMatrix.getUserOrdinal(userId);
+        if (matrixUser >= 0) {
+            likeMatrix.forEachItem(matrixUser, item -> {
+                Integer index = current.itemIndex.get(likeMatrix.getItemId(item));
+                if (index != null) {
+                    liked[index] = true;
+                }
+            });
+        }
+
+        int[] top = new int[limit];
+        float[] topScores = new float[limit];
+        int size = 0;
+        for (int item = 0; item < current.itemIds.length; item++) {
+            if (liked[item]) {
+                continue;
+            }
+            float score = current.score(user, item);
+            if (size == limit && score <= topScores[limit - 1]) {
+                continue;
+            }
+            int position = Math.min(size, limit - 1);
+            while (position > 0 && topScores[position - 1] < score) {
+                top[position] = top[position - 1];
+                topScores[position] = topScores[position - 1];
+                position--;
+            }
+            top[position] = item;
+            topScores[position] = score;
+            if (size < limit) {
+                size++;
+            }
+        }
+
+        List<String> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(current.itemIds[top[i]]);
+        }
+        return result;
+    }
+
+    /**
+     * Оценки элементов для пользователя. Выполняется в пуле БД
+     *
+     * @param userId ID пользователя
+     * @param contentIds ID элементов
+     * @return оценки в порядке contentIds (0 для неизвестных модели элементов)
+     *         или null, если для пользователя еще нет вектора
+     */
+    public double[] score(String userId, List<String> contentIds) {
+        Model current = getModel();
+        Integer user = current != null ? current.userIndex.get(userId) : null;
+        if (user == null) {
+            return null;
+        }
+        double[] scores = new double[contentIds.size()];
+        for (int i = 0; i < scores.length; i++) {
+            Integer item = current.itemIndex.get(contentIds.get(i));
+            if (item != null) {
+                scores[i] = current.score(user, item);
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Обучить модель заново по текущим лайкам и сохранить векторы в БД
+     */
+    public void train() {
+        likeMatrix.ensureLoaded();
+        Runtime runtime = Runtime.getRuntime();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        long start = System.currentTimeMillis();
+        long version = likeMatrix.getVersion();
+        // Отметка журнала сохраняется с векторами: по ней после перезапуска видно, насколько модель устарела
+        long journalMark = interactionDao.getLastId();
+
+        // Снимок строк и столбцов, чтобы итерации не брали блокировку матрицы
+        int userCount = likeMatrix.getUserCount();
+        int itemCount = likeMatrix.getItemCount();
+        int[][] userItems = new int[userCount][];
+        for (int user = 0; user < userCount; user++) {
+            userItems[user] = members(user, true, itemCount);
+        }
+        int[][] itemUsers = new int[itemCount][];
+        for (int item = 0; item < itemCount; item++) {
+            itemUsers[item] = members(item, false, userCount);
+        }
+
+        double[] userFactors = new double[userCount * FACTORS];
+        double[] itemFactors = new double[itemCount * FACTORS];
+        Random random = new Random(42);
+        for (int i = 0; i < itemFactors.length; i++) {
+            itemFactors[i] = random.nextGaussian() * 0.01;
+        }
+
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            solve(userFactors, itemFactors, userItems, itemCount);
+            solve(itemFactors, userFactors, itemUsers, userCount);
+        }
+
+        String[] userIds = new String[userCount];
+        for (int user = 0; user < userCount; user++) {
+            userIds[user] = likeMatrix.getUserId(user);
+        }
+        String[] itemIds = new String[itemCount];
+        for (int item = 0; item < itemCount; item++) {
+            itemIds[item] = likeMatrix.getItemId(item);
+        }
+        Model trained = new Model(version, userIds, toFloats(userFactors), itemIds, toFloats(itemFactors));
+        long trainingTime = System.currentTimeMillis() - start;
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        model = trained;
+
+        persist(trained, journalMark);
+
+        long factorBytes = (long) (userCount + itemCount) * FACTORS * 4;
+        Log.d(TAG, "Модель ALS обучена за " + trainingTime + " мс: пользователей " + userCount +
+                ", элементов " + itemCount + ", размерность " + FACTORS + ", итераций " + ITERATIONS);
+        Log.d(TAG, "Память: векторы " + factorBytes / 1024 + " КБ, прирост кучи при обучении " +
+                Math.max(0, heapAfter - heapBefore) / 1024 + " КБ");
+        Log.d(TAG, "Скорость оценки: " + String.format("%.0f", benchmark(trained)) + " оценок/с");
+    }
+
+    private Model getModel() {
+        Model current = model;
+        if (current == null) {
+            current = load();
+        }
+        if ((current == null || likeMatrix.getVersion() - current.version > RETRAIN_AFTER_CHANGES)
+                && training.compareAndSet(false, true)) {
+            DatabaseSchedulers.background().execute(() -> {
+                try {
+                    train();
+                } catch (Exception e) {
+                    Log.e(TAG, "Ошибка при обучении модели ALS: " + e.getMessage());
+                } finally {
+                    training.set(false);
+                }
+            });
+        }
+        return current;
+    }
+
+    private synchronized Model load() {
+        if (model != null || loadAttempted) {
+            return model;
+        }
+        loadAttempted = true;
+        likeMatrix.ensureLoaded();
+
+        List<String> userIds = new ArrayList<>();
+        List<String> itemIds = new ArrayList<>();
+        List<byte[]> userBlobs = new ArrayList<>();
+        List<byte[]> itemBlobs = new ArrayList<>();
+        long journalMark = -1;
+        for (LatentFactorEntity row : factorDao.getAll()) {
+            if (row.getKind() == LatentFactorEntity.KIND_MODEL) {
+                journalMark = unpackMark(row.getFactors());
+                continue;
+            }
+            // Векторы другой размерности остались от прежней версии модели
+            if (row.getFactors().length != FACTORS * 4) {
+                continue;
+            }
+            if (row.getKind() == LatentFactorEntity.KIND_USER) {
+                userIds.add(row.getOwnerId());
+                userBlobs.add(row.getFactors());
+            } else {
+                itemIds.add(row.getOwnerId());
+                itemBlobs.add(row.getFactors());
+            }
+        }
+        if (userIds.isEmpty() || itemIds.isEmpty()) {
+            return null;
+        }
+
+        // Версия модели в счетчике изменений матрицы: текущая версия минус лайки, записанные
+        // в журнал после обучения. Без отметки или после очистки журнала модель считается устаревшей
+        long changes = journalMark >= 0 && journalMark <= interactionDao.getLastId()
+                ? interactionDao.getLikeEventCountAfter(journalMark)
+                : RETRAIN_AFTER_CHANGES + 1;
+        model = new Model(likeMatrix.getVersion() - changes, userIds.toArray(new String[0]), unpack(userBlobs),
+                itemIds.toArray(new String[0]), unpack(itemBlobs));
+        Log.d(TAG, "Модель ALS загружена: пользователей " + userIds.size() + ", элементов " + itemIds.size() +
+                ", изменений лайков после обучения " + changes);
+        return model;
+    }
+
+    private void persist(Model trained, long journalMark) {
+        List<LatentFactorEntity> rows = new ArrayList<>(trained.userIds.length + trained.itemIds.length);
+        for (int user = 0; user < trained.userIds.length; user++) {
+            rows.add(new LatentFactorEntity(LatentFactorEntity.KIND_USER, trained.userIds[user],
+                    pack(trained.userFactors, user)));
+        }
+        for (int item = 0; item < trained.itemIds.length; item++) {
+            rows.add(new LatentFactorEntity(LatentFactorEntity.KIND_ITEM, trained.itemIds[item],
+                    pack(trained.itemFactors, item)));
+        }
+        rows.add(new LatentFactorEntity(LatentFactorEntity.KIND_MODEL, LatentFactorEntity.MODEL_OWNER_ID,
+                packMark(journalMark)));
+        factorDao.replaceAll(rows);
+    }
+
+    // Номера элементов строки (rows = true) или пользователей столбца матрицы
+    private int[] members(int owner, boolean rows, int limit) {
+        int[][] buffer = {new int[8]};
+        int[] size = {0};
+        IntConsumer collect = member -> {
+            if (member >= limit) {
+                return;
+            }
+            if (size[0] == buffer[0].length) {
+                buffer[0] = Arrays.copyOf(buffer[0], size[0] * 2);
+            }
+            buffer[0][size[0]++] = member;
+        };
+        if (rows) {
+            likeMatrix.forEachItem(owner, collect);
+        } else {
+            likeMatrix.forEachUser(owner, collect);
+        }
+        return Arrays.copyOf(buffer[0], size[0]);
+    }
+
+    /**
+     * Один шаг ALS: векторы target при фиксированных fixed.
+     * Для каждого x решается (FᵀF + ALPHA·Σ f·fᵀ + λI) x = (1 + ALPHA)·Σ f,
+     * где суммы берутся только по положительным откликам
+     */
+    static void solve(double[] target, double[] fixed, int[][] positives, int fixedCount) {
+        double[] gram = new double[FACTORS * FACTORS];
+        for (int j = 0; j < fixedCount; j++) {
+            int offset = j * FACTORS;
+            for (int p = 0; p < FACTORS; p++) {
+                double value = fixed[offset + p];
+                for (int q = p; q < FACTORS; q++) {
+                    gram[p * FACTORS + q] += value * fixed[offset + q];
+                }
+            }
+        }
+        for (int p = 0; p < FACTORS; p++) {
+            for (int q = 0; q < p; q++) {
+                gram[p * FACTORS + q] = gram[q * FACTORS + p];
+            }
+        }
+
+        double[] a = new double[FACTORS * FACTORS];
+        double[] b = new double[FACTORS];
+        for (int t = 0; t < positives.length; t++) {
+            int targetOffset = t * FACTORS;
+            if (positives[t].length == 0) {
+                Arrays.fill(target, targetOffset, targetOffset + FACTORS, 0.0);
+                continue;
+            }
+            System.arraycopy(gram, 0, a, 0, a.length);
+            Arrays.fill(b, 0.0);
+            for (int p = 0; p < FACTORS; p++) {
+                a[p * FACTORS + p] += REGULARIZATION;
+            }
+            for (int j : positives[t]) {
+                int offset = j * FACTORS;
+                for (int p = 0; p < FACTORS; p++) {
+                    double value = fixed[offset + p];
+                    b[p] += (1 + ALPHA) * value;
+                    for (int q = 0; q < FACTORS; q++) {
+                        a[p * FACTORS + q] += ALPHA * value * fixed[offset + q];
+                    }
+                }
+            }
+            choleskySolve(a, b);
+            System.arraycopy(b, 0, target, targetOffset, FACTORS);
+        }
+    }
+
+    // Решение системы с симметричной положительно определенной матрицей; результат в b
+    static void choleskySolve(double[] a, double[] b) {
+        for (int i = 0; i < FACTORS; i++) {
+            for (int j = 0; j <= i; j++) {
+                double sum = a[i * FACTORS + j];
+                for (int k = 0; k < j; k++) {
+                    sum -= a[i * FACTORS + k] * a[j * FACTORS + k];
+                }
+                if (i == j) {
+                    a[i * FACTORS + i] = Math.sqrt(Math.max(sum, 1e-12));
+                } else {
+                    a[i * FACTORS + j] = sum / a[j * FACTORS + j];
+                }
+            }
+        }
+        for (int i = 0; i < FACTORS; i++) {
+            double sum = b[i];
+            for (int k = 0; k < i; k++) {
+                sum -= a[i * FACTORS + k] * b[k];
+            }
+            b[i] = sum / a[i * FACTORS + i];
+        }
+        for (int i = FACTORS - 1; i >= 0; i--) {
+            double sum = b[i];
+            for (int k = i + 1; k < FACTORS; k++) {
+                sum -= a[k * FACTORS + i] * b[k];
+            }
+            b[i] = sum / a[i * FACTORS + i];
+        }
+    }
+
+    // Оценки всех элементов для первых пользователей; оценок в секунду
+    private static double benchmark(Model trained) {
+        int users = Math.min(BENCHMARK_USERS, trained.userIds.length);
+        int items = trained.itemIds.length;
+        if (users == 0 || items == 0) {
+            return 0.0;
+        }
+        long start = System.nanoTime();
+        float checksum = 0;
+        for (int user = 0; user < users; user++) {
+            for (int item = 0; item < items; item++) {
+                checksum += trained.score(user, item);
+            }
+        }
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        if (Float.isNaN(checksum)) {
+            Log.w(TAG, "Векторы модели содержат NaN");
+        }
+        return (double) users * items * 1_000_000_000L / elapsed;
+    }
+
+    private static float[] toFloats(double[] values) {
+        float[] result = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (float) values[i];
+        }
+        return result;
+    }
+
+    static byte[] pack(float[] factors, int owner) {
+        ByteBuffer buffer = ByteBuffer.allocate(FACTORS * 4).order(ByteOrder.LITTLE_ENDIAN);
+        for (int p = 0; p < FACTORS; p++) {
+            buffer.putFloat(factors[owner * FACTORS + p]);
+        }
+        return buffer.array();
+    }
+
+    static byte[] packMark(long journalMark) {
+        return ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(journalMark).array();
+    }
+
+    // Отметка журнала из служебной строки; -1, если строка повреждена
+    static long unpackMark(byte[] blob) {
+        return blob.length == 8 ? ByteBuffer.wrap(blob).order(ByteOrder.LITTLE_ENDIAN).getLong() : -1;
+    }
+
+    static float[] unpack(List<byte[]> blobs) {
+        float[] factors = new float[blobs.size() * FACTORS];
+        for (int owner = 0; owner < blobs.size(); owner++) {
+            ByteBuffer.wrap(blobs.get(owner)).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer()
+                    .get(factors, owner * FACTORS, FACTORS);
+        }
+        return factors;
+    }
+
+    /**
+     * Неизменяемая обученная модель: векторы подряд в плоских массивах, FACTORS компонент на владельца
+     */
+    private static final class Model {
+        final long version;
+        final String[] userIds;
+        final String[] itemIds;
+        final Map<String, Integer> userIndex;
+        final Map<String, Integer> itemIndex;
+        final float[] userFactors;
+        final float[] itemFactors;
+
+        Model(long version, String[] userIds, float[] userFactors, String[] itemIds, float[] itemFactors) {
+            this.version = version;
+            this.userIds = userIds;
+            this.itemIds = itemIds;
+            this.userFactors = userFactors;
+            this.itemFactors = itemFactors;
+            this.userIndex = index(userIds);
+            this.itemIndex = index(itemIds);
+        }
+
+        float score(int user, int item) {
+            int userOffset = user * FACTORS;
+            int itemOffset = item * FACTORS;
+            float sum = 0;
+            for (int p = 0; p < FACTORS; p++) {
+                sum += userFactors[userOffset + p] * itemFactors[itemOffset + p];
+            }
+            return sum;
+        }
+
+        private static Map<String, Integer> index(String[] ids) {
+            Map<String, Integer> index = new HashMap<>(ids.length * 2);
+            for (int i = 0; i < ids.length; i++) {
+                index.put(ids[i], i);
+            }
+            return index;
+        }
+    }
+}
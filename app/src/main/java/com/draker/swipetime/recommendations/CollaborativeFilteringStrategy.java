@@ -33,4 +33,12 @@ public interface CollaborativeFilteringStrategy {
      * @return список ID рекомендуемых элементов
      */
     List<String> getRecommendations(String userId, int limit);
+
+    /**
+     * Переключает приближенный режим: схожесть оценивается по MinHash-сигнатурам,
+     * а кандидаты в соседи берутся из LSH-корзин {@link MinHashIndex}
+     *
+     * @param signatureSize размер сигнатуры (кратен MinHashSignatures.ROWS_PER_BAND); 0 - точный режим
+     */
+    void setApproximateMode(int signatureSize);
 }
\ No newline at end of file
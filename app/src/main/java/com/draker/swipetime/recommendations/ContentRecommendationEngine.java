@@ -2,6 +2,7 @@ package com.draker.swipetime.recommendations;
 
 import android.util.Log;
 
+import com.draker.swipetime.database.GenreUtils;
 import com.draker.swipetime.database.entities.AnimeEntity;
 import com.draker.swipetime.database.entities.BookEntity;
 import com.draker.swipetime.database.entities.ContentEntity;
@@ -45,12 +46,16 @@ public class ContentRecommendationEngine {
      * @param allContent весь доступный контент
      * @param likedContent лайкнутый пользователем контент
      * @param preferences предпочтения пользователя
+     * @param contentGenreIds отсортированные ID жанров для каждого элемента контента
+     * @param preferredGenreIds отсортированные ID предпочитаемых жанров
      * @return отсортированный по релевантности список контента
      */
     public static List<ContentEntity> generateRecommendations(
             List<ContentEntity> allContent,
             List<ContentEntity> likedContent,
-            UserPreferencesEntity preferences) {
+            UserPreferencesEntity preferences,
+            Map<ContentEntity, int[]> contentGenreIds,
+            int[] preferredGenreIds) {
 
         if (allContent == null || allContent.isEmpty()) {
             Log.w(TAG, "Нет доступного контента для рекомендаций");
@@ -60,7 +65,6 @@ public class ContentRecommendationEngine {
         Log.d(TAG, "Генерация рекомендаций для " + allContent.size() + " элементов контента");
 
         // Извлекаем предпочтения для использования в расчетах
-        List<String> preferredGenres = parseJsonPreference(preferences.getPreferredGenres());
         List<String> interestTags = parseJsonPreference(preferences.getInterestsTags());
         int minYear = preferences.getMinYear();
         int maxYear = preferences.getMaxYear();
@@ -90,7 +94,7 @@ public class ContentRecommendationEngine {
             double relevance = calculateBaseRelevance(content);
 
             // Релевантность по жанрам
-            relevance += calculateGenreRelevance(content, preferredGenres) * GENRE_MATCH_WEIGHT;
+            relevance += calculateGenreRelevance(contentGenreIds.get(content), preferredGenreIds) * GENRE_MATCH_WEIGHT;
 
             // Релевантность по году выпуска
             relevance += calculateYearRelevance(content, minYear, maxYear) * YEAR_MATCH_WEIGHT;
@@ -216,25 +220,16 @@ public class ContentRecommendationEngine {
     /**
      * Вычисляет релевантность на основе соответствия жанров
      */
-    private static double calculateGenreRelevance(ContentEntity content, List<String> preferredGenres) {
-        if (preferredGenres.isEmpty()) {
+    private static double calculateGenreRelevance(int[] contentGenreIds, int[] preferredGenreIds) {
+        if (preferredGenreIds == null || preferredGenreIds.length == 0) {
             return 0.5; // Нейтральное значение, если нет предпочтений
         }
 
-        String contentGenres = getContentGenres(content);
-        if (contentGenres == null || contentGenres.isEmpty()) {
+        if (contentGenreIds == null || contentGenreIds.length == 0) {
             return 0.0;
         }
 
-        String[] genres = contentGenres.toLowerCase().split(",");
-        int matchCount = 0;
-
-        for (String genre : genres) {
-            String trimmedGenre = genre.trim();
-            if (preferredGenres.contains(trimmedGenre)) {
-                matchCount++;
-            }
-        }
+        int matchCount = GenreUtils.countCommon(contentGenreIds, preferredGenreIds);
 
         // Нормализуем результат от 0 до 1
         return matchCount > 0 ? Math.min(1.0, matchCount / 3.0) : 0.0;
@@ -377,27 +372,6 @@ public class ContentRecommendationEngine {
         return 0;
     }
 
-    /**
-     * Извлекает жанры из контента в зависимости от его типа
-     */
-    private static String getContentGenres(ContentEntity content) {
-        // Проверяем тип контента и извлекаем жанры
-        if (content instanceof MovieEntity) {
-            return ((MovieEntity) content).getGenres();
-        } else if (content instanceof TVShowEntity) {
-            return ((TVShowEntity) content).getGenres();
-        } else if (content instanceof GameEntity) {
-            return ((GameEntity) content).getGenres();
-        } else if (content instanceof BookEntity) {
-            return ((BookEntity) content).getGenres();
-        } else if (content instanceof AnimeEntity) {
-            return ((AnimeEntity) content).getGenres();
-        }
-
-        // Для остальных типов возвращаем null (неизвестно)
-        return null;
-    }
-
     /**
      * Парсит JSON-строку предпочтений в список строк
      */
@@ -0,0 +1,158 @@
+package com.draker.swipetime.recommendations;
+
+import android.app.Application;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Реализация коллаборативной фильтрации на основе элементов
+ * (Item-based Collaborative Filtering).
+ * Схожесть элементов берется из предвычисленной таблицы {@link ItemSimilarityIndex},
+ * поэтому оценка пользователя просматривает только соседей понравившихся ему элементов.
+ * В приближенном режиме соседи элементов берутся из LSH-корзин {@link MinHashIndex}
+ */
+public class ItemBasedCollaborativeFilter implements CollaborativeFilteringStrategy {
+
+    private static final String TAG = "ItemBasedFilter";
+
+    // Лайки всех пользователей в виде разреженной матрицы
+    private final LikeMatrix likeMatrix;
+
+    // Таблица N самых похожих элементов для каждого элемента
+    private final ItemSimilarityIndex similarityIndex;
+
+    private final Application application;
+
+    // MinHash-сигнатуры в приближенном режиме, null - точный режим
+    private volatile MinHashIndex minHash;
+
+    public ItemBasedCollaborativeFilter(Application application) {
+        this.application = application;
+        this.likeMatrix = LikeMatrix.getInstance(application);
+        this.similarityIndex = ItemSimilarityIndex.getInstance(application);
+    }
+
+    @Override
+    public void setApproximateMode(int signatureSize) {
+        minHash = signatureSize > 0 ? MinHashIndex.getInstance(application, signatureSize) : null;
+    }
+
+    @Override
+    public double calculateUserSimilarity(String userIdA, String userIdB) {
+        likeMatrix.ensureLoaded();
+        int userA = likeMatrix.getUserOrdinal(userIdA);
+        int userB = likeMatrix.getUserOrdinal(userIdB);
+        if (userA < 0 || userB < 0) {
+            return 0.0;
+        }
+
+        // Оценка коэффициента Жаккара по сигнатурам
+        MinHashIndex approximate = minHash;
+        if (approximate != null) {
+            return approximate.estimateUserSimilarity(userA, userB);
+        }
+
+        // Косинусная мера по лайкам: |A ∩ B| / sqrt(|A| * |B|)
+        int intersection = likeMatrix.intersectionSize(userA, userB);
+        if (intersection == 0) {
+            return 0.0;
+        }
+        return intersection / Math.sqrt((double) likeMatrix.getRowSize(userA) * likeMatrix.getRowSize(userB));
+    }
+
+    @Override
+    public double predictLikelihood(String userId, String contentId) {
+        MinHashIndex approximate = minHash;
+        ItemSimilarityIndex.Table table = approximate == null ? similarityIndex.getTable() : null;
+        likeMatrix.ensureLoaded();
+        int user = likeMatrix.getUserOrdinal(userId);
+        int item = likeMatrix.getItemOrdinal(contentId);
+
+        // Рассчитываем лайкнул ли пользователь уже этот контент
+        if (likeMatrix.contains(user, item)) {
+            return 1.0; // Уже лайкнуто
+        }
+
+        if (user < 0 || item < 0) {
+            return 0.5;
+        }
+
+        // Доля схожести с соседями элемента, которые понравились пользователю
+        MinHashSignatures.Nearest neighbors = neighborsOf(approximate, table, item);
+        double weightedLikes = 0.0;
+        double totalWeight = 0.0;
+
+        for (int i = 0; i < neighbors.size(); i++) {
+            if (likeMatrix.contains(user, neighbors.getOrdinal(i))) {
+                weightedLikes += neighbors.getSimilarity(i);
+            }
+            totalWeight += neighbors.getSimilarity(i);
+        }
+
+        // Если у элемента нет похожих, возвращаем нейтральное значение
+        if (totalWeight == 0.0) {
+            return 0.5;
+        }
+
+        return weightedLikes / totalWeight;
+    }
+
+    @Override
+    public List<String> getRecommendations(String userId, int limit) {
+        MinHashIndex approximate = minHash;
+        ItemSimilarityIndex.Table table = approximate == null ? similarityIndex.getTable() : null;
+        likeMatrix.ensureLoaded();
+        int user = likeMatrix.getUserOrdinal(userId);
+
+        // Если у пользователя нет лайков, возвращаем пустой список
+        if (user < 0 || likeMatrix.getRowSize(user) == 0) {
+            Log.w(TAG, "Нет лайков для пользователя: " + userId);
+            return new ArrayList<>();
+        }
+
+        // Суммируем схожесть соседей по понравившимся пользователю элементам
+        double[] scores = new double[likeMatrix.getItemCount()];
+        List<Integer> candidates = new ArrayList<>();
+
+        likeMatrix.forEachItem(user, liked -> {
+            MinHashSignatures.Nearest neighbors = neighborsOf(approximate, table, liked);
+            for (int i = 0; i < neighbors.size(); i++) {
+                int item = neighbors.getOrdinal(i);
+                // Пропускаем уже лайкнутые текущим пользователем
+                if (item >= scores.length || likeMatrix.contains(user, item)) {
+                    continue;
+                }
+                if (scores[item] == 0.0) {
+                    candidates.add(item);
+                }
+                scores[item] += neighbors.getSimilarity(i);
+            }
+        });
+
+        // Сортируем контент по убыванию рекомендательного рейтинга
+        Collections.sort(candidates, (a, b) -> Double.compare(scores[b], scores[a]));
+
+        // Извлекаем только ID, ограничиваем результат
+        List<String> result = new ArrayList<>();
+        int resultCount = Math.min(limit, candidates.size());
+
+        for (int i = 0; i < resultCount; i++) {
+            result.add(likeMatrix.getItemId(candidates.get(i)));
+        }
+
+        return result;
+    }
+
+    /**
+     * Соседи элемента: из предвычисленной таблицы или, в приближенном режиме, из LSH-корзин
+     */
+    private MinHashSignatures.Nearest neighborsOf(MinHashIndex approximate, ItemSimilarityIndex.Table table, int item) {
+        if (approximate != null) {
+            return approximate.nearestItems(item, ItemSimilarityIndex.N);
+        }
+        return new MinHashSignatures.Nearest(table.getNeighbors(item), table.getSimilarities(item));
+    }
+}
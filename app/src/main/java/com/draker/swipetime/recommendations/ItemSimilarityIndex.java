@@ -0,0 +1,270 @@
+package com.draker.swipetime.recommendations;
+
+import android.app.Application;
+import android.util.Log;
+
+import com.draker.swipetime.database.DatabaseSchedulers;
+import com.draker.swipetime.database.UserDatabase;
+import com.draker.swipetime.database.dao.ItemNeighborDao;
+import com.draker.swipetime.database.entities.ItemNeighborEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Предвычисленная таблица схожести элементов для коллаборативной фильтрации по элементам.
+ * Схожесть - косинусная мера по множествам лайкнувших пользователей, для каждого элемента
+ * хранятся только N самых похожих. Таблица строится задачей fork-join, которая делит
+ * элементы на диапазоны между ядрами, и сохраняется в item_neighbors. Когда лайков
+ * изменилось достаточно много, таблица пересчитывается в фоне, а запросы до конца
+ * пересчета обслуживает прежняя
+ */
+public final class ItemSimilarityIndex {
+    private static final String TAG = "ItemSimilarityIndex";
+
+    // Сколько похожих элементов хранить для каждого элемента
+    public static final int N = 20;
+
+    // Элементов на одну задачу fork-join
+    private static final int ITEMS_PER_TASK = 64;
+
+    // После скольких изменений лайков таблица пересчитывается
+    private static final int REBUILD_AFTER_CHANGES = 50;
+
+    private static ItemSimilarityIndex instance;
+
+    private final LikeMatrix likeMatrix;
+    private final ItemNeighborDao neighborDao;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private volatile Table table;
+
+    private ItemSimilarityIndex(Application application) {
+        this.likeMatrix = LikeMatrix.getInstance(application);
+        this.neighborDao = UserDatabase.getInstance(application).itemNeighborDao();
+    }
+
+    public static synchronized ItemSimilarityIndex getInstance(Application application) {
+        if (instance == null) {
+            instance = new ItemSimilarityIndex(application);
+        }
+        return instance;
+    }
+
+    /**
+     * Текущая таблица схожести. При первом обращении загружается из БД или строится;
+     * если таблица устарела, запускается фоновый пересчет. Выполняется в пуле БД
+     */
+    public Table getTable() {
+        Table current = table;
+        if (current == null) {
+            current = load();
+        }
+        if (likeMatrix.getVersion() - current.version > REBUILD_AFTER_CHANGES
+                && rebuilding.compareAndSet(false, true)) {
+            DatabaseSchedulers.background().execute(() -> {
+                try {
+                    build();
+                } catch (Exception e) {
+                    Log.e(TAG, "Ошибка при пересчете таблицы схожести: " + e.getMessage());
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        }
+        return current;
+    }
+
+    /**
+     * Построить таблицу заново и сохранить ее в БД
+     */
+    public Table build() {
+        likeMatrix.ensureLoaded();
+        long start = System.currentTimeMillis();
+        long version = likeMatrix.getVersion();
+        int itemCount = likeMatrix.getItemCount();
+
+        int[][] neighbors = new int[itemCount][];
+        float[][] similarities = new float[itemCount][];
+        ForkJoinPool.commonPool().invoke(new BuildTask(0, itemCount, neighbors, similarities));
+
+        Table built = new Table(version, neighbors, similarities);
+        table = built;
+        long computed = System.currentTimeMillis();
+
+        persist(built);
+        Log.d(TAG, "Таблица схожести построена для " + itemCount + " элементов за " + (computed - start) +
+                " мс (" + ForkJoinPool.commonPool().getParallelism() + " потоков), сохранена за " +
+                (System.currentTimeMillis() - computed) + " мс");
+        return built;
+    }
+
+    private synchronized Table load() {
+        if (table != null) {
+            return table;
+        }
+        likeMatrix.ensureLoaded();
+
+        List<ItemNeighborEntity> rows = neighborDao.getAll();
+        if (rows.isEmpty()) {
+            return build();
+        }
+
+        Map<Integer, List<ItemNeighborEntity>> byItem = new HashMap<>();
+        for (ItemNeighborEntity row : rows) {
+            int item = likeMatrix.getItemOrdinal(row.getItemId());
+            if (item >= 0 && likeMatrix.getItemOrdinal(row.getNeighborId()) >= 0) {
+                List<ItemNeighborEntity> list = byItem.get(item);
+                if (list == null) {
+                    list = new ArrayList<>();
+                    byItem.put(item, list);
+                }
+                list.add(row);
+            }
+        }
+
+        int itemCount = likeMatrix.getItemCount();
+        int[][] neighbors = new int[itemCount][];
+        float[][] similarities = new float[itemCount][];
+        for (Map.Entry<Integer, List<ItemNeighborEntity>> entry : byItem.entrySet()) {
+            List<ItemNeighborEntity> list = entry.getValue();
+            list.sort((a, b) -> Double.compare(b.getSimilarity(), a.getSimilarity()));
+            int[] itemNeighbors = new int[list.size()];
+            float[] itemSimilarities = new float[list.size()];
+            for (int i = 0; i < list.size(); i++) {
+                itemNeighbors[i] = likeMatrix.getItemOrdinal(list.get(i).getNeighborId());
+                itemSimilarities[i] = (float) list.get(i).getSimilarity();
+            }
+            neighbors[entry.getKey()] = itemNeighbors;
+            similarities[entry.getKey()] = itemSimilarities;
+        }
+
+        table = new Table(likeMatrix.getVersion(), neighbors, similarities);
+        Log.d(TAG, "Таблица схожести загружена: элементов " + byItem.size() + ", пар " + rows.size());
+        return table;
+    }
+
+    private void persist(Table built) {
+        List<ItemNeighborEntity> rows = new ArrayList<>();
+        for (int item = 0; item < built.neighbors.length; item++) {
+            int[] itemNeighbors = built.neighbors[item];
+            if (itemNeighbors == null) {
+                continue;
+            }
+            String itemId = likeMatrix.getItemId(item);
+            for (int i = 0; i < itemNeighbors.length; i++) {
+                rows.add(new ItemNeighborEntity(itemId, likeMatrix.getItemId(itemNeighbors[i]),
+                        built.similarities[item][i]));
+            }
+        }
+        neighborDao.replaceAll(rows);
+    }
+
+    /**
+     * Неизменяемая таблица схожести: соседи элемента по убыванию схожести
+     */
+    public static final class Table {
+        private static final int[] NO_NEIGHBORS = new int[0];
+        private static final float[] NO_SIMILARITIES = new float[0];
+
+        final long version;
+        private final int[][] neighbors;
+        private final float[][] similarities;
+
+        Table(long version, int[][] neighbors, float[][] similarities) {
+            this.version = version;
+            this.neighbors = neighbors;
+            this.similarities = similarities;
+        }
+
+        public int[] getNeighbors(int item) {
+            return item >= 0 && item < neighbors.length && neighbors[item] != null ? neighbors[item] : NO_NEIGHBORS;
+        }
+
+        public float[] getSimilarities(int item) {
+            return item >= 0 && item < similarities.length && similarities[item] != null
+                    ? similarities[item] : NO_SIMILARITIES;
+        }
+    }
+
+    /**
+     * Расчет соседей для диапазона элементов; большие диапазоны делятся пополам
+     */
+    private final class BuildTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int[][] neighbors;
+        private final float[][] similarities;
+
+        BuildTask(int from, int to, int[][] neighbors, float[][] similarities) {
+            this.from = from;
+            this.to = to;
+            this.neighbors = neighbors;
+            this.similarities = similarities;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > ITEMS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BuildTask(from, middle, neighbors, similarities),
+                        new BuildTask(middle, to, neighbors, similarities));
+                return;
+            }
+
+            // Счетчики совместных лайков и список затронутых элементов переиспользуются в диапазоне
+            int[] counts = new int[neighbors.length];
+            int[][] touched = {new int[64]};
+            int[] touchedSize = {0};
+
+            for (int item = from; item < to; item++) {
+                int current = item;
+                likeMatrix.forEachUser(current, user -> likeMatrix.forEachItem(user, other -> {
+                    if (other == current || other >= counts.length) {
+                        return;
+                    }
+                    if (counts[other]++ == 0) {
+                        if (touchedSize[0] == touched[0].length) {
+                            touched[0] = Arrays.copyOf(touched[0], touchedSize[0] * 2);
+                        }
+                        touched[0][touchedSize[0]++] = other;
+                    }
+                }));
+
+                int[] top = new int[N];
+                float[] topSimilarities = new float[N];
+                int size = 0;
+                double itemNorm = Math.sqrt(likeMatrix.getColumnSize(current));
+                for (int i = 0; i < touchedSize[0]; i++) {
+                    int other = touched[0][i];
+                    float similarity = (float) (counts[other] / (itemNorm * Math.sqrt(likeMatrix.getColumnSize(other))));
+                    counts[other] = 0;
+                    if (size == N && similarity <= topSimilarities[N - 1]) {
+                        continue;
+                    }
+                    int position = Math.min(size, N - 1);
+                    while (position > 0 && topSimilarities[position - 1] < similarity) {
+                        top[position] = top[position - 1];
+                        topSimilarities[position] = topSimilarities[position - 1];
+                        position--;
+                    }
+                    top[position] = other;
+                    topSimilarities[position] = similarity;
+                    if (size < N) {
+                        size++;
+                    }
+                }
+                touchedSize[0] = 0;
+
+                neighbors[current] = Arrays.copyOf(top, size);
+                similarities[current] = Arrays.copyOf(topSimilarities, size);
+            }
+        }
+    }
+}
@@ -0,0 +1,523 @@
+package com.draker.swipetime.recommendations;
+
+import android.app.Application;
+import android.util.Log;
+
+import com.draker.swipetime.database.LikeEvent;
+import com.draker.swipetime.database.entities.UserInteractionEntity;
+import com.draker.swipetime.repository.UserInteractionRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Разреженная матрица лайков пользователь x элемент.
+ * Пользователи и элементы получают плотные номера, строка пользователя - отсортированный
+ * массив номеров понравившихся элементов. Строки хранятся в формате CSR (общий массив
+ * столбцов и смещения строк), измененные после загрузки строки - отдельными массивами,
+ * которые сливаются в CSR при накоплении. Для каждого элемента хранится и обратный
+ * отсортированный список лайкнувших его пользователей. Матрица загружается из журнала
+ * одним запросом и обновляется при каждом лайке и отмене лайка
+ */
+public final class LikeMatrix {
+    private static final String TAG = "LikeMatrix";
+
+    // Сколько измененных строк держать отдельно до пересборки CSR
+    private static final int MAX_UPDATED_ROWS = 64;
+
+    private static final int[] EMPTY_ROW = new int[0];
+
+    private static LikeMatrix instance;
+
+    // Лайки и отмены лайков журнала, упорядоченные по (user_id, id)
+    private final Supplier<List<LikeEvent>> likeEvents;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> userOrdinals = new HashMap<>();
+    private final List<String> userIds = new ArrayList<>();
+    private final Map<String, Integer> itemOrdinals = new HashMap<>();
+    private final List<String> itemIds = new ArrayList<>();
+
+    // CSR: строка u занимает columns[offsets[u]..offsets[u + 1])
+    private int[] offsets = {0};
+    private int[] columns = EMPTY_ROW;
+
+    // Строки, измененные после последней сборки CSR
+    private final Map<Integer, int[]> updatedRows = new HashMap<>();
+
+    // Столбцы: отсортированные номера пользователей, лайкнувших элемент
+    private final List<int[]> itemUsers = new ArrayList<>();
+
+    private boolean loaded;
+
+    // Счетчик изменений матрицы: по нему производные структуры понимают, что устарели
+    private long version;
+
+    private LikeMatrix(Application application) {
+        this(new UserInteractionRepository(application)::getLikeEvents);
+    }
+
+    LikeMatrix(Supplier<List<LikeEvent>> likeEvents) {
+        this.likeEvents = likeEvents;
+    }
+
+    public static synchronized LikeMatrix getInstance(Application application) {
+        if (instance == null) {
+            instance = new LikeMatrix(application);
+        }
+        return instance;
+    }
+
+    /**
+     * Загрузить матрицу из журнала, если она еще не загружена. Выполняется в пуле БД
+     */
+    public void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            // Последнее действие по элементу решает, нравится ли он пользователю
+            List<int[]> rows = new ArrayList<>();
+            Map<String, Boolean> liked = new LinkedHashMap<>();
+            String currentUser = null;
+            for (LikeEvent event : likeEvents.get()) {
+                if (!event.getUserId().equals(currentUser)) {
+                    addRow(rows, currentUser, liked);
+                    currentUser = event.getUserId();
+                    liked.clear();
+                }
+                liked.put(event.getContentId(), UserInteractionEntity.ACTION_LIKE.equals(event.getAction()));
+            }
+            addRow(rows, currentUser, liked);
+            buildCsr(rows);
+            buildItemUsers(rows);
+            loaded = true;
+            Log.d(TAG, "Матрица лайков загружена: пользователей " + userIds.size() + ", элементов " +
+                    itemIds.size() + ", лайков " + columns.length + " за " +
+                    (System.currentTimeMillis() - start) + " мс");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Учесть действие пользователя. До загрузки матрицы ничего не делает:
+     * действие уже записано в журнал и попадет в матрицу при загрузке
+     * @param action действие (UserInteractionEntity.ACTION_*)
+     */
+    public void apply(String userId, String contentId, String action) {
+        boolean like = UserInteractionEntity.ACTION_LIKE.equals(action);
+        if (!like && !UserInteractionEntity.ACTION_UNLIKE.equals(action)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            int user = userOrdinal(userId, true);
+            int item = itemOrdinal(contentId, like);
+            if (item < 0) {
+                return;
+            }
+            int[] row = copyRow(user);
+            int position = Arrays.binarySearch(row, item);
+            if (like == (position >= 0)) {
+                return;
+            }
+            updatedRows.put(user, like ? insert(row, -position - 1, item) : remove(row, position));
+            while (itemUsers.size() <= item) {
+                itemUsers.add(EMPTY_ROW);
+            }
+            int[] users = itemUsers.get(item);
+            int userPosition = Arrays.binarySearch(users, user);
+            itemUsers.set(item, like ? insert(users, -userPosition - 1, user) : remove(users, userPosition));
+            version++;
+            if (updatedRows.size() > MAX_UPDATED_ROWS) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Номер пользователя или -1, если у пользователя нет строки
+     */
+    public int getUserOrdinal(String userId) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = userOrdinals.get(userId);
+            return ordinal != null ? ordinal : -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Номер элемента или -1, если элемент никому не нравился
+     */
+    public int getItemOrdinal(String contentId) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = itemOrdinals.get(contentId);
+            return ordinal != null ? ordinal : -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String getItemId(int item) {
+        lock.readLock().lock();
+        try {
+            return itemIds.get(item);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String getUserId(int user) {
+        lock.readLock().lock();
+        try {
+            return userIds.get(user);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getUserCount() {
+        lock.readLock().lock();
+        try {
+            return userIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getItemCount() {
+        lock.readLock().lock();
+        try {
+            return itemIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Номер версии матрицы: увеличивается при каждом изменении лайков
+     */
+    public long getVersion() {
+        lock.readLock().lock();
+        try {
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Количество пользователей, которым нравится элемент
+     */
+    public int getColumnSize(int item) {
+        lock.readLock().lock();
+        try {
+            return item >= 0 && item < itemUsers.size() ? itemUsers.get(item).length : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Количество лайков пользователя
+     */
+    public int getRowSize(int user) {
+        lock.readLock().lock();
+        try {
+            int[] updated = updatedRows.get(user);
+            if (updated != null) {
+                return updated.length;
+            }
+            return user + 1 < offsets.length ? offsets[user + 1] - offsets[user] : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Нравится ли элемент пользователю: двоичный поиск в строке
+     */
+    public boolean contains(int user, int item) {
+        if (user < 0 || item < 0) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            int[] updated = updatedRows.get(user);
+            if (updated != null) {
+                return Arrays.binarySearch(updated, item) >= 0;
+            }
+            if (user + 1 >= offsets.length) {
+                return false;
+            }
+            return Arrays.binarySearch(columns, offsets[user], offsets[user + 1], item) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Количество общих лайков двух пользователей: слияние двух отсортированных строк
+     */
+    public int intersectionSize(int userA, int userB) {
+        lock.readLock().lock();
+        try {
+            int[] rowA = updatedRows.get(userA);
+            int[] rowB = updatedRows.get(userB);
+            int fromA = 0;
+            int toA;
+            int fromB = 0;
+            int toB;
+            if (rowA == null) {
+                rowA = columns;
+                fromA = rowStart(userA);
+                toA = rowEnd(userA);
+            } else {
+                toA = rowA.length;
+            }
+            if (rowB == null) {
+                rowB = columns;
+                fromB = rowStart(userB);
+                toB = rowEnd(userB);
+            } else {
+                toB = rowB.length;
+            }
+
+            int count = 0;
+            while (fromA < toA && fromB < toB) {
+                int a = rowA[fromA];
+                int b = rowB[fromB];
+                if (a == b) {
+                    count++;
+                    fromA++;
+                    fromB++;
+                } else if (a < b) {
+                    fromA++;
+                } else {
+                    fromB++;
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Обойти понравившиеся пользователю элементы в порядке номеров
+     */
+    public void forEachItem(int user, IntConsumer action) {
+        lock.readLock().lock();
+        try {
+            int[] updated = updatedRows.get(user);
+            if (updated != null) {
+                for (int item : updated) {
+                    action.accept(item);
+                }
+                return;
+            }
+            for (int i = rowStart(user); i < rowEnd(user); i++) {
+                action.accept(columns[i]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Обойти пользователей, которым нравится элемент, в порядке номеров
+     */
+    public void forEachUser(int item, IntConsumer action) {
+        lock.readLock().lock();
+        try {
+            if (item < 0 || item >= itemUsers.size()) {
+                return;
+            }
+            for (int user : itemUsers.get(item)) {
+                action.accept(user);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Сбросить матрицу: следующее обращение загрузит ее заново
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            userOrdinals.clear();
+            userIds.clear();
+            itemOrdinals.clear();
+            itemIds.clear();
+            updatedRows.clear();
+            itemUsers.clear();
+            offsets = new int[]{0};
+            columns = EMPTY_ROW;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Добавить строку пользователя по итоговому состоянию его лайков. Вызывается под блокировкой записи
+    private void addRow(List<int[]> rows, String userId, Map<String, Boolean> liked) {
+        if (userId == null) {
+            return;
+        }
+        int userOrdinal = userOrdinal(userId, true);
+        int[] row = new int[liked.size()];
+        int size = 0;
+        for (Map.Entry<String, Boolean> entry : liked.entrySet()) {
+            if (entry.getValue()) {
+                row[size++] = itemOrdinal(entry.getKey(), true);
+            }
+        }
+        while (rows.size() <= userOrdinal) {
+            rows.add(EMPTY_ROW);
+        }
+        rows.set(userOrdinal, sortedUnique(Arrays.copyOf(row, size)));
+    }
+
+    private int rowStart(int user) {
+        return user >= 0 && user + 1 < offsets.length ? offsets[user] : 0;
+    }
+
+    private int rowEnd(int user) {
+        return user >= 0 && user + 1 < offsets.length ? offsets[user + 1] : 0;
+    }
+
+    private int[] copyRow(int user) {
+        int[] updated = updatedRows.get(user);
+        if (updated != null) {
+            return updated;
+        }
+        return Arrays.copyOfRange(columns, rowStart(user), rowEnd(user));
+    }
+
+    // Слить измененные строки обратно в CSR. Вызывается под блокировкой записи
+    private void compact() {
+        List<int[]> rows = new ArrayList<>(userIds.size());
+        for (int user = 0; user < userIds.size(); user++) {
+            rows.add(copyRow(user));
+        }
+        buildCsr(rows);
+    }
+
+    private void buildCsr(List<int[]> rows) {
+        int total = 0;
+        for (int[] row : rows) {
+            total += row.length;
+        }
+        int[] newOffsets = new int[userIds.size() + 1];
+        int[] newColumns = new int[total];
+        int position = 0;
+        for (int user = 0; user < userIds.size(); user++) {
+            newOffsets[user] = position;
+            int[] row = user < rows.size() ? rows.get(user) : EMPTY_ROW;
+            System.arraycopy(row, 0, newColumns, position, row.length);
+            position += row.length;
+        }
+        newOffsets[userIds.size()] = position;
+        offsets = newOffsets;
+        columns = newColumns;
+        updatedRows.clear();
+    }
+
+    private void buildItemUsers(List<int[]> rows) {
+        int[] counts = new int[itemIds.size()];
+        for (int[] row : rows) {
+            for (int item : row) {
+                counts[item]++;
+            }
+        }
+        itemUsers.clear();
+        for (int count : counts) {
+            itemUsers.add(new int[count]);
+        }
+        // Пользователи обходятся по возрастанию номеров, поэтому столбцы получаются отсортированными
+        int[] filled = new int[itemIds.size()];
+        for (int user = 0; user < rows.size(); user++) {
+            for (int item : rows.get(user)) {
+                itemUsers.get(item)[filled[item]++] = user;
+            }
+        }
+    }
+
+    private static int[] insert(int[] array, int index, int value) {
+        int[] result = new int[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+
+    private static int[] remove(int[] array, int index) {
+        int[] result = new int[array.length - 1];
+        System.arraycopy(array, 0, result, 0, index);
+        System.arraycopy(array, index + 1, result, index, array.length - index - 1);
+        return result;
+    }
+
+    private int userOrdinal(String userId, boolean create) {
+        Integer ordinal = userOrdinals.get(userId);
+        if (ordinal != null || !create) {
+            return ordinal != null ? ordinal : -1;
+        }
+        int next = userIds.size();
+        userIds.add(userId);
+        userOrdinals.put(userId, next);
+        return next;
+    }
+
+    private int itemOrdinal(String contentId, boolean create) {
+        Integer ordinal = itemOrdinals.get(contentId);
+        if (ordinal != null || !create) {
+            return ordinal != null ? ordinal : -1;
+        }
+        int next = itemIds.size();
+        itemIds.add(contentId);
+        itemOrdinals.put(contentId, next);
+        return next;
+    }
+
+    private static int[] sortedUnique(int[] row) {
+        Arrays.sort(row);
+        int size = 0;
+        for (int i = 0; i < row.length; i++) {
+            if (size == 0 || row[size - 1] != row[i]) {
+                row[size++] = row[i];
+            }
+        }
+        return size == row.length ? row : Arrays.copyOf(row, size);
+    }
+}
@@ -0,0 +1,159 @@
+package com.draker.swipetime.recommendations;
+
+import android.app.Application;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MinHash-сигнатуры пользователей (по лайкнутым элементам) и элементов (по лайкнувшим
+ * пользователям) с LSH-корзинами {@link MinHashSignatures}: кандидаты в соседи берутся
+ * только из общих корзин, без перебора всех пользователей или элементов.
+ * Сигнатуры не хранятся в БД: строятся по матрице лайков при первом обращении
+ * и обновляются при каждом лайке
+ */
+public final class MinHashIndex {
+    private static final String TAG = "MinHashIndex";
+
+    // Размер сигнатуры по умолчанию
+    public static final int DEFAULT_SIGNATURE_SIZE = 64;
+
+    // Индексы по размеру сигнатуры
+    private static final Map<Integer, MinHashIndex> instances = new HashMap<>();
+
+    private final LikeMatrix likeMatrix;
+    private final int signatureSize;
+
+    private final MinHashSignatures users;
+    private final MinHashSignatures items;
+    private boolean loaded;
+
+    private MinHashIndex(Application application, int signatureSize) {
+        this.likeMatrix = LikeMatrix.getInstance(application);
+        this.signatureSize = signatureSize;
+        this.users = new MinHashSignatures(signatureSize);
+        this.items = new MinHashSignatures(signatureSize);
+    }
+
+    /**
+     * Индекс с заданным размером сигнатуры
+     * @param signatureSize число хеш-функций, кратно MinHashSignatures.ROWS_PER_BAND
+     */
+    public static synchronized MinHashIndex getInstance(Application application, int signatureSize) {
+        MinHashIndex index = instances.get(signatureSize);
+        if (index == null) {
+            index = new MinHashIndex(application, signatureSize);
+            instances.put(signatureSize, index);
+        }
+        return index;
+    }
+
+    /**
+     * Обновить сигнатуры всех созданных индексов после лайка или отмены лайка.
+     * Матрица к этому моменту уже обновлена
+     * @param userId ID пользователя
+     * @param contentId ID элемента
+     */
+    public static void onLikeChanged(String userId, String contentId) {
+        List<MinHashIndex> indexes;
+        synchronized (MinHashIndex.class) {
+            indexes = new ArrayList<>(instances.values());
+        }
+        for (MinHashIndex index : indexes) {
+            index.update(userId, contentId);
+        }
+    }
+
+    public int getSignatureSize() {
+        return signatureSize;
+    }
+
+    /**
+     * Оценка коэффициента Жаккара двух пользователей
+     * @param userA номер пользователя в матрице
+     * @param userB номер пользователя в матрице
+     */
+    public synchronized double estimateUserSimilarity(int userA, int userB) {
+        ensureLoaded();
+        return users.estimate(userA, userB);
+    }
+
+    /**
+     * Оценка коэффициента Жаккара двух элементов
+     * @param itemA номер элемента в матрице
+     * @param itemB номер элемента в матрице
+     */
+    public synchronized double estimateItemSimilarity(int itemA, int itemB) {
+        ensureLoaded();
+        return items.estimate(itemA, itemB);
+    }
+
+    /**
+     * Пользователи из общих корзин с наибольшей оценкой схожести
+     * @param user номер пользователя в матрице
+     * @param limit максимальное количество
+     */
+    public synchronized MinHashSignatures.Nearest nearestUsers(int user, int limit) {
+        ensureLoaded();
+        return users.nearest(user, limit);
+    }
+
+    /**
+     * Элементы из общих корзин с наибольшей оценкой схожести
+     * @param item номер элемента в матрице
+     * @param limit максимальное количество
+     */
+    public synchronized MinHashSignatures.Nearest nearestItems(int item, int limit) {
+        ensureLoaded();
+        return items.nearest(item, limit);
+    }
+
+    private synchronized void update(String userId, String contentId) {
+        if (!loaded) {
+            return; // Построится по актуальной матрице при первом обращении
+        }
+        int user = likeMatrix.getUserOrdinal(userId);
+        int item = likeMatrix.getItemOrdinal(contentId);
+        if (user < 0 || item < 0) {
+            return;
+        }
+        if (likeMatrix.contains(user, item)) {
+            // Новый элемент множества может только уменьшить минимумы
+            users.add(user, item);
+            items.add(item, user);
+        } else {
+            rebuildUser(user);
+            rebuildItem(item);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        likeMatrix.ensureLoaded();
+        long start = System.currentTimeMillis();
+        int userCount = likeMatrix.getUserCount();
+        for (int user = 0; user < userCount; user++) {
+            rebuildUser(user);
+        }
+        int itemCount = likeMatrix.getItemCount();
+        for (int item = 0; item < itemCount; item++) {
+            rebuildItem(item);
+        }
+        loaded = true;
+        Log.d(TAG, "Сигнатуры из " + signatureSize + " позиций построены для " + userCount +
+                " пользователей и " + itemCount + " элементов за " + (System.currentTimeMillis() - start) + " мс");
+    }
+
+    private void rebuildUser(int user) {
+        users.rebuild(user, action -> likeMatrix.forEachItem(user, action));
+    }
+
+    private void rebuildItem(int item) {
+        items.rebuild(item, action -> likeMatrix.forEachUser(item, action));
+    }
+}
@@ -0,0 +1,238 @@
+package com.draker.swipetime.recommendations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * MinHash-сигнатуры множеств целых чисел с LSH-корзинами. Владельцы и члены множеств -
+ * плотные номера (например, пользователи и элементы матрицы лайков).
+ * Доля совпавших позиций двух сигнатур оценивает коэффициент Жаккара множеств.
+ * Сигнатура делится на полосы по ROWS_PER_BAND позиций, каждая полоса - ключ корзины,
+ * и кандидаты в соседи берутся только из общих корзин.
+ * Класс не потокобезопасен
+ */
+public final class MinHashSignatures {
+
+    // Позиций сигнатуры в одной полосе; при 2 позициях порог попадания в общую корзину
+    // для сигнатуры из 64 позиций ~ (1/32)^(1/2) = 0.18
+    public static final int ROWS_PER_BAND = 2;
+
+    private final int signatureSize;
+    private final long[] seeds;
+
+    private final List<int[]> signatures = new ArrayList<>();
+    // Ключи корзин, в которых сейчас лежит владелец; null - пустое множество
+    private final List<long[]> bandKeys = new ArrayList<>();
+    private final Map<Long, Set<Integer>> buckets = new HashMap<>();
+
+    /**
+     * Перебор членов множества
+     */
+    public interface Members {
+        void forEach(IntConsumer action);
+    }
+
+    /**
+     * @param signatureSize число хеш-функций, кратно ROWS_PER_BAND
+     */
+    public MinHashSignatures(int signatureSize) {
+        if (signatureSize <= 0 || signatureSize % ROWS_PER_BAND != 0) {
+            throw new IllegalArgumentException("Размер сигнатуры должен быть положительным и кратным "
+                    + ROWS_PER_BAND + ": " + signatureSize);
+        }
+        this.signatureSize = signatureSize;
+        this.seeds = new long[signatureSize];
+        long seed = 0x5DEECE66DL;
+        for (int i = 0; i < signatureSize; i++) {
+            seed = mix(seed + 0x9E3779B97F4A7C15L);
+            seeds[i] = seed;
+        }
+    }
+
+    public int getSignatureSize() {
+        return signatureSize;
+    }
+
+    /**
+     * Добавить член в множество владельца: минимумы могут только уменьшиться
+     */
+    public void add(int owner, int member) {
+        int[] signature = signature(owner);
+        boolean changed = false;
+        for (int i = 0; i < signatureSize; i++) {
+            int value = hash(i, member);
+            if (value < signature[i]) {
+                signature[i] = value;
+                changed = true;
+            }
+        }
+        if (changed) {
+            rebucket(owner);
+        }
+    }
+
+    /**
+     * Пересчитать сигнатуру владельца по всему множеству. Нужно после удаления члена
+     */
+    public void rebuild(int owner, Members members) {
+        int[] signature = signature(owner);
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        members.forEach(member -> {
+            for (int i = 0; i < signatureSize; i++) {
+                int value = hash(i, member);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        });
+        rebucket(owner);
+    }
+
+    /**
+     * Оценка коэффициента Жаккара множеств двух владельцев
+     */
+    public double estimate(int a, int b) {
+        if (a < 0 || b < 0 || a >= signatures.size() || b >= signatures.size()
+                || bandKeys.get(a) == null || bandKeys.get(b) == null) {
+            return 0.0;
+        }
+        int[] signatureA = signatures.get(a);
+        int[] signatureB = signatures.get(b);
+        int equal = 0;
+        for (int i = 0; i < signatureSize; i++) {
+            if (signatureA[i] == signatureB[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / signatureSize;
+    }
+
+    /**
+     * Владельцы из общих корзин с наибольшей оценкой схожести
+     * @param owner номер владельца
+     * @param limit максимальное количество
+     */
+    public Nearest nearest(int owner, int limit) {
+        if (owner < 0 || owner >= bandKeys.size() || bandKeys.get(owner) == null) {
+            return new Nearest(new int[0], new float[0]);
+        }
+        Set<Integer> candidates = new HashSet<>();
+        for (long key : bandKeys.get(owner)) {
+            candidates.addAll(buckets.get(key));
+        }
+        candidates.remove(owner);
+
+        int[] top = new int[limit];
+        float[] topSimilarities = new float[limit];
+        int size = 0;
+        for (int candidate : candidates) {
+            float similarity = (float) estimate(owner, candidate);
+            if (size == limit && similarity <= topSimilarities[limit - 1]) {
+                continue;
+            }
+            int position = Math.min(size, limit - 1);
+            while (position > 0 && topSimilarities[position - 1] < similarity) {
+                top[position] = top[position - 1];
+                topSimilarities[position] = topSimilarities[position - 1];
+                position--;
+            }
+            top[position] = candidate;
+            topSimilarities[position] = similarity;
+            if (size < limit) {
+                size++;
+            }
+        }
+        return new Nearest(Arrays.copyOf(top, size), Arrays.copyOf(topSimilarities, size));
+    }
+
+    /**
+     * Соседи по убыванию оценки схожести
+     */
+    public static final class Nearest {
+        private final int[] ordinals;
+        private final float[] similarities;
+
+        Nearest(int[] ordinals, float[] similarities) {
+            this.ordinals = ordinals;
+            this.similarities = similarities;
+        }
+
+        public int size() {
+            return ordinals.length;
+        }
+
+        public int getOrdinal(int index) {
+            return ordinals[index];
+        }
+
+        public float getSimilarity(int index) {
+            return similarities[index];
+        }
+    }
+
+    private int[] signature(int owner) {
+        while (signatures.size() <= owner) {
+            int[] empty = new int[signatureSize];
+            Arrays.fill(empty, Integer.MAX_VALUE);
+            signatures.add(empty);
+            bandKeys.add(null);
+        }
+        return signatures.get(owner);
+    }
+
+    private void rebucket(int owner) {
+        long[] oldKeys = bandKeys.get(owner);
+        if (oldKeys != null) {
+            for (long key : oldKeys) {
+                Set<Integer> bucket = buckets.get(key);
+                if (bucket == null) {
+                    continue;
+                }
+                bucket.remove(owner);
+                if (bucket.isEmpty()) {
+                    buckets.remove(key);
+                }
+            }
+        }
+
+        int[] signature = signatures.get(owner);
+        // Пустое множество не кладем в корзины: все его позиции совпадали бы
+        if (signature[0] == Integer.MAX_VALUE) {
+            bandKeys.set(owner, null);
+            return;
+        }
+
+        long[] keys = new long[signatureSize / ROWS_PER_BAND];
+        for (int band = 0; band < keys.length; band++) {
+            long key = band;
+            for (int row = 0; row < ROWS_PER_BAND; row++) {
+                key = key * 0x100000001B3L + signature[band * ROWS_PER_BAND + row];
+            }
+            keys[band] = mix(key);
+            Set<Integer> bucket = buckets.get(keys[band]);
+            if (bucket == null) {
+                bucket = new HashSet<>();
+                buckets.put(keys[band], bucket);
+            }
+            bucket.add(owner);
+        }
+        bandKeys.set(owner, keys);
+    }
+
+    private int hash(int function, int member) {
+        return (int) (mix(seeds[function] ^ member) >>> 33);
+    }
+
+    // Финализатор SplitMix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
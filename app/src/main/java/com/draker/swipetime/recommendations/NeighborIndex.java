@@ -0,0 +1,289 @@
+package com.draker.swipetime.recommendations;
+
+import android.app.Application;
+import android.util.Log;
+
+import com.draker.swipetime.database.UserDatabase;
+import com.draker.swipetime.database.dao.UserNeighborDao;
+import com.draker.swipetime.database.entities.UserNeighborEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Индекс K ближайших соседей каждого пользователя по схожести лайков.
+ * Списки хранятся в таблице user_neighbors и обновляются инкрементально: лайк или отмена
+ * лайка пересчитывает схожесть только с пользователями, которым нравится тот же элемент,
+ * и с текущими соседями. Поэтому ни обновление, ни выдача соседей не зависят
+ * от общего числа пользователей. Соседи вне списка, схожесть с которыми изменилась
+ * только из-за размера объединения, догоняют при следующем общем элементе
+ */
+public final class NeighborIndex {
+    private static final String TAG = "NeighborIndex";
+
+    // Размер списка соседей
+    public static final int K = 10;
+
+    // Минимальное количество общих лайков для учета схожести
+    private static final int MIN_COMMON_ITEMS = 3;
+
+    private static NeighborIndex instance;
+
+    private final LikeMatrix likeMatrix;
+    private final UserNeighborDao neighborDao;
+
+    // Списки соседей по номеру пользователя в матрице
+    private final Map<Integer, Neighbors> lists = new HashMap<>();
+    private boolean loaded;
+
+    private NeighborIndex(Application application) {
+        this.likeMatrix = LikeMatrix.getInstance(application);
+        this.neighborDao = UserDatabase.getInstance(application).userNeighborDao();
+    }
+
+    public static synchronized NeighborIndex getInstance(Application application) {
+        if (instance == null) {
+            instance = new NeighborIndex(application);
+        }
+        return instance;
+    }
+
+    /**
+     * Загрузить списки из БД; если их еще нет, построить по матрице лайков. Выполняется в пуле БД
+     */
+    public synchronized void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        likeMatrix.ensureLoaded();
+
+        List<UserNeighborEntity> rows = neighborDao.getAll();
+        if (rows.isEmpty()) {
+            rebuildAll();
+        } else {
+            for (UserNeighborEntity row : rows) {
+                int user = likeMatrix.getUserOrdinal(row.getUserId());
+                int neighbor = likeMatrix.getUserOrdinal(row.getNeighborId());
+                if (user >= 0 && neighbor >= 0) {
+                    list(user).put(neighbor, row.getSimilarity());
+                }
+            }
+            Log.d(TAG, "Загружено списков соседей: " + lists.size());
+        }
+        loaded = true;
+    }
+
+    /**
+     * Соседи пользователя по убыванию схожести
+     * @param user номер пользователя в матрице
+     */
+    public synchronized Neighbors getNeighbors(int user) {
+        ensureLoaded();
+        Neighbors neighbors = lists.get(user);
+        return neighbors != null ? neighbors.copy() : new Neighbors();
+    }
+
+    /**
+     * Обновить списки после лайка или отмены лайка. Матрица к этому моменту уже обновлена
+     * @param userId ID пользователя
+     * @param contentId ID элемента
+     */
+    public synchronized void onLikeChanged(String userId, String contentId) {
+        ensureLoaded();
+        int user = likeMatrix.getUserOrdinal(userId);
+        if (user < 0) {
+            return;
+        }
+
+        Set<Integer> changed = new HashSet<>();
+        changed.add(user);
+        boolean[] shrunk = {false};
+        Neighbors own = list(user);
+
+        // Размер строки изменился - пересчитываем схожесть с текущими соседями
+        for (int neighbor : own.copy().users()) {
+            shrunk[0] |= update(user, neighbor, changed);
+        }
+
+        // Схожесть меняется по пересечению только с теми, кому нравится тот же элемент
+        likeMatrix.forEachUser(likeMatrix.getItemOrdinal(contentId), other -> {
+            if (other != user) {
+                shrunk[0] |= update(user, other, changed);
+            }
+        });
+
+        // Сосед выпал из неполного списка - добираем кандидатов среди пользователей с общими лайками
+        if (shrunk[0] && own.size() < K) {
+            rebuildUser(user);
+        }
+
+        persist(changed);
+    }
+
+    /**
+     * Схожесть двух пользователей: коэффициент Жаккара по лайкам,
+     * при малом числе общих лайков - заниженная оценка
+     */
+    public double similarity(int userA, int userB) {
+        if (userA < 0 || userB < 0) {
+            return 0.0;
+        }
+
+        // Находим пересечение (общие лайки) слиянием отсортированных строк
+        int intersection = likeMatrix.intersectionSize(userA, userB);
+
+        // Если общих лайков слишком мало, схожесть низкая
+        if (intersection < MIN_COMMON_ITEMS) {
+            return intersection > 0 ? 0.1 : 0.0;
+        }
+
+        // |A ∩ B| / |A ∪ B|
+        int union = likeMatrix.getRowSize(userA) + likeMatrix.getRowSize(userB) - intersection;
+        return (double) intersection / union;
+    }
+
+    // Пересчитать пару в обоих списках; true, если сосед выпал из списка пользователя
+    private boolean update(int user, int other, Set<Integer> changed) {
+        double value = similarity(user, other);
+        list(other).put(user, value);
+        changed.add(other);
+        return list(user).put(other, value) && value <= 0;
+    }
+
+    private void rebuildAll() {
+        long start = System.currentTimeMillis();
+        lists.clear();
+        neighborDao.deleteAll();
+        Set<Integer> all = new HashSet<>();
+        int userCount = likeMatrix.getUserCount();
+        for (int user = 0; user < userCount; user++) {
+            rebuildUser(user);
+            all.add(user);
+        }
+        persist(all);
+        Log.d(TAG, "Списки соседей построены для " + userCount + " пользователей за " +
+                (System.currentTimeMillis() - start) + " мс");
+    }
+
+    // Построить список пользователя по всем, с кем у него есть общие лайки
+    private void rebuildUser(int user) {
+        Set<Integer> candidates = new HashSet<>();
+        likeMatrix.forEachItem(user, item -> likeMatrix.forEachUser(item, candidates::add));
+        candidates.remove(user);
+
+        Neighbors neighbors = new Neighbors();
+        for (int candidate : candidates) {
+            neighbors.put(candidate, similarity(user, candidate));
+        }
+        lists.put(user, neighbors);
+    }
+
+    private void persist(Set<Integer> users) {
+        for (int user : users) {
+            String userId = likeMatrix.getUserId(user);
+            Neighbors neighbors = list(user);
+            List<UserNeighborEntity> rows = new ArrayList<>(neighbors.size());
+            for (int i = 0; i < neighbors.size(); i++) {
+                rows.add(new UserNeighborEntity(userId, likeMatrix.getUserId(neighbors.getUser(i)),
+                        neighbors.getSimilarity(i)));
+            }
+            neighborDao.replaceForUser(userId, rows);
+        }
+    }
+
+    private Neighbors list(int user) {
+        Neighbors neighbors = lists.get(user);
+        if (neighbors == null) {
+            neighbors = new Neighbors();
+            lists.put(user, neighbors);
+        }
+        return neighbors;
+    }
+
+    /**
+     * Список не более K соседей по убыванию схожести
+     */
+    public static final class Neighbors {
+        private final int[] users = new int[K];
+        private final double[] similarities = new double[K];
+        private int size;
+
+        public int size() {
+            return size;
+        }
+
+        public int getUser(int index) {
+            return users[index];
+        }
+
+        public double getSimilarity(int index) {
+            return similarities[index];
+        }
+
+        int[] users() {
+            int[] result = new int[size];
+            System.arraycopy(users, 0, result, 0, size);
+            return result;
+        }
+
+        /**
+         * Учесть схожесть с пользователем: обновить, вставить или вытеснить последнего.
+         * Нулевая схожесть удаляет пользователя из списка
+         * @return true, если список изменился
+         */
+        boolean put(int user, double similarity) {
+            int index = indexOf(user);
+            if (index >= 0) {
+                if (similarities[index] == similarity) {
+                    return false;
+                }
+                removeAt(index);
+            }
+            if (similarity <= 0) {
+                return index >= 0;
+            }
+            if (size == K && similarity <= similarities[K - 1]) {
+                return index >= 0;
+            }
+            int position = Math.min(size, K - 1);
+            while (position > 0 && similarities[position - 1] < similarity) {
+                users[position] = users[position - 1];
+                similarities[position] = similarities[position - 1];
+                position--;
+            }
+            users[position] = user;
+            similarities[position] = similarity;
+            if (size < K) {
+                size++;
+            }
+            return true;
+        }
+
+        Neighbors copy() {
+            Neighbors copy = new Neighbors();
+            System.arraycopy(users, 0, copy.users, 0, size);
+            System.arraycopy(similarities, 0, copy.similarities, 0, size);
+            copy.size = size;
+            return copy;
+        }
+
+        private int indexOf(int user) {
+            for (int i = 0; i < size; i++) {
+                if (users[i] == user) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void removeAt(int index) {
+            System.arraycopy(users, index + 1, users, index, size - index - 1);
+            System.arraycopy(similarities, index + 1, similarities, index, size - index - 1);
+            size--;
+        }
+    }
+}
@@ -7,11 +7,15 @@ import com.draker.swipetime.database.entities.ContentEntity;
 import com.draker.swipetime.database.entities.UserPreferencesEntity;
 import com.draker.swipetime.models.ContentItem;
 import com.draker.swipetime.repository.ContentRepository;
+import com.draker.swipetime.repository.GenreRepository;
 import com.draker.swipetime.repository.UserPreferencesRepository;
 import com.draker.swipetime.repository.UserRepository;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Основной менеджер рекомендаций, объединяющий различные алгоритмы
@@ -23,17 +27,24 @@ public class RecommendationManager {
     private static final double CONTENT_BASED_WEIGHT = 0.6;
     private static final double COLLABORATIVE_WEIGHT = 0.4;
 
+    // Доля оценки ALS при смешивании с контентной оценкой
+    private static final double FACTOR_WEIGHT = 0.3;
+
     // Максимальное количество рекомендаций от каждого алгоритма
     private static final int MAX_CONTENT_BASED_RECOMMENDATIONS = 30;
     private static final int MAX_COLLABORATIVE_RECOMMENDATIONS = 20;
+    private static final int MAX_FACTOR_RECOMMENDATIONS = 20;
 
     private final Application application;
     private final ContentRepository contentRepository;
     private final UserRepository userRepository;
     private final UserPreferencesRepository preferencesRepository;
+    private final GenreRepository genreRepository;
 
     // Реализации алгоритмов
     private final CollaborativeFilteringStrategy collaborativeFilter;
+    private final CollaborativeFilteringStrategy itemBasedFilter;
+    private final AlsRecommender factorRecommender;
 
     /**
      * Создает менеджер рекомендаций
@@ -44,9 +55,12 @@ public class RecommendationManager {
         this.contentRepository = new ContentRepository(application);
         this.userRepository = new UserRepository(application);
         this.preferencesRepository = new UserPreferencesRepository(application);
+        this.genreRepository = new GenreRepository(application);
 
         // Инициализация алгоритмов
         this.collaborativeFilter = new UserBasedCollaborativeFilter(application);
+        this.itemBasedFilter = new ItemBasedCollaborativeFilter(application);
+        this.factorRecommender = AlsRecommender.getInstance(application);
     }
 
     /**
@@ -79,7 +93,9 @@ public class RecommendationManager {
         // Шаг 1: Получаем рекомендации на основе контента (Content-based Filtering)
         List<ContentEntity> contentBasedRecommendations =
                 ContentRecommendationEngine.generateRecommendations(
-                        allContent, likedContent, preferences);
+                        allContent, likedContent, preferences,
+                        genreRepository.getGenreIdsFor(allContent),
+                        genreRepository.getIdsForPreferences(preferences.getPreferredGenres()));
 
         // Ограничиваем количество
         if (contentBasedRecommendations.size() > MAX_CONTENT_BASED_RECOMMENDATIONS) {
@@ -88,24 +104,28 @@ public class RecommendationManager {
         }
 
         // Шаг 2: Получаем рекомендации на основе коллаборативной фильтрации
-        List<String> collaborativeRecommendationsIds =
-                collaborativeFilter.getRecommendations(userId, MAX_COLLABORATIVE_RECOMMENDATIONS);
+        // Сначала похожие на понравившиеся элементы, затем выбор похожих пользователей
+        Set<String> mergedIds = new LinkedHashSet<>(
+                itemBasedFilter.getRecommendations(userId, MAX_COLLABORATIVE_RECOMMENDATIONS));
+        mergedIds.addAll(collaborativeFilter.getRecommendations(userId, MAX_COLLABORATIVE_RECOMMENDATIONS));
+        List<String> collaborativeRecommendationsIds = new ArrayList<>(mergedIds);
+        if (collaborativeRecommendationsIds.size() > MAX_COLLABORATIVE_RECOMMENDATIONS) {
+            collaborativeRecommendationsIds = collaborativeRecommendationsIds.subList(
+                    0, MAX_COLLABORATIVE_RECOMMENDATIONS);
+        }
 
         // Преобразуем ID в реальные объекты контента
-        List<ContentEntity> collaborativeRecommendations = new ArrayList<>();
-        for (String contentId : collaborativeRecommendationsIds) {
-            ContentEntity content = contentRepository.getById(contentId);
-            if (content != null) {
-                // Фильтруем по категории, если указана
-                if (category == null || content.getCategory().equals(category)) {
-                    collaborativeRecommendations.add(content);
-                }
-            }
-        }
+        List<ContentEntity> collaborativeRecommendations = toContent(collaborativeRecommendationsIds, category);
+
+        // Шаг 2б: Кандидаты матричной факторизации (ALS)
+        List<ContentEntity> factorRecommendations = toContent(
+                factorRecommender.getRecommendations(userId, MAX_FACTOR_RECOMMENDATIONS), category);
 
         // Шаг 3: Объединяем результаты с учетом весов
         List<ContentEntity> combinedRecommendations = combineRecommendations(
+                userId,
                 contentBasedRecommendations,
+                factorRecommendations,
                 collaborativeRecommendations,
                 limit);
 
@@ -118,16 +138,38 @@ public class RecommendationManager {
         return recommendationItems;
     }
 
+    /**
+     * Преобразует ID в объекты контента, отбрасывая элементы других категорий
+     */
+    private List<ContentEntity> toContent(List<String> contentIds, String category) {
+        List<ContentEntity> contents = new ArrayList<>();
+        for (String contentId : contentIds) {
+            ContentEntity content = contentRepository.getById(contentId);
+            if (content != null) {
+                // Фильтруем по категории, если указана
+                if (category == null || content.getCategory().equals(category)) {
+                    contents.add(content);
+                }
+            }
+        }
+        return contents;
+    }
+
     /**
      * Объединяет рекомендации от разных алгоритмов с учетом весов
      */
     private List<ContentEntity> combineRecommendations(
+            String userId,
             List<ContentEntity> contentBasedRecs,
+            List<ContentEntity> factorRecs,
             List<ContentEntity> collaborativeRecs,
             int limit) {
 
         List<ContentEntity> result = new ArrayList<>();
 
+        // Смешиваем контентную оценку с оценкой ALS
+        contentBasedRecs = blendWithFactors(userId, contentBasedRecs, factorRecs);
+
         // Рассчитываем, сколько элементов брать из каждого источника
         int contentBasedCount = (int) Math.ceil(limit * CONTENT_BASED_WEIGHT);
         int collaborativeCount = (int) Math.ceil(limit * COLLABORATIVE_WEIGHT);
@@ -179,6 +221,55 @@ public class RecommendationManager {
         return result;
     }
 
+    /**
+     * Смешивает контентную оценку с оценкой ALS и пересортировывает кандидатов.
+     * Контентная оценка берется по позиции в списке (от 1 у первого к 0), оценка ALS
+     * нормируется на максимальную среди кандидатов. Кандидаты ALS, которых нет
+     * в контентном списке, участвуют только своей оценкой
+     */
+    private List<ContentEntity> blendWithFactors(String userId,
+                                                 List<ContentEntity> contentBasedRecs,
+                                                 List<ContentEntity> factorRecs) {
+        List<ContentEntity> candidates = new ArrayList<>(contentBasedRecs);
+        Set<String> candidateIds = new LinkedHashSet<>();
+        for (ContentEntity entity : contentBasedRecs) {
+            candidateIds.add(entity.getId());
+        }
+        for (ContentEntity entity : factorRecs) {
+            if (candidateIds.add(entity.getId())) {
+                candidates.add(entity);
+            }
+        }
+
+        // Модель еще не обучена или у пользователя нет вектора
+        double[] factorScores = factorRecommender.score(userId, new ArrayList<>(candidateIds));
+        if (factorScores == null) {
+            return contentBasedRecs;
+        }
+
+        double maxFactorScore = 0.0;
+        for (double score : factorScores) {
+            maxFactorScore = Math.max(maxFactorScore, score);
+        }
+
+        double[] blended = new double[candidates.size()];
+        List<Integer> order = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            double contentScore = i < contentBasedRecs.size()
+                    ? 1.0 - (double) i / contentBasedRecs.size() : 0.0;
+            double factorScore = maxFactorScore > 0 ? Math.max(0.0, factorScores[i]) / maxFactorScore : 0.0;
+            blended[i] = (1 - FACTOR_WEIGHT) * contentScore + FACTOR_WEIGHT * factorScore;
+            order.add(i);
+        }
+        Collections.sort(order, (a, b) -> Double.compare(blended[b], blended[a]));
+
+        List<ContentEntity> result = new ArrayList<>(candidates.size());
+        for (int index : order) {
+            result.add(candidates.get(index));
+        }
+        return result;
+    }
+
     /**
      * Проверяет, содержится ли уже контент с данным ID в списке
      */
@@ -204,7 +295,8 @@ public class RecommendationManager {
 
         // Анализируем и обновляем предпочтения
         UserPreferencesEntity updatedPreferences =
-                UserPreferenceAnalyzer.analyzeUserPreferences(userId, likedContent, preferences);
+                UserPreferenceAnalyzer.analyzeUserPreferences(userId, likedContent, preferences,
+                        genreRepository.getGenreIdsFor(likedContent), genreRepository.getGenreNames());
 
         // Сохраняем обновленные предпочтения
         preferencesRepository.update(updatedPreferences);
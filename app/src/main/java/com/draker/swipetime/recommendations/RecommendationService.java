@@ -4,9 +4,14 @@ import android.app.Application;
 import android.content.Context;
 import android.util.Log;
 
+import com.draker.swipetime.database.DatabaseSchedulers;
 import com.draker.swipetime.database.entities.ContentEntity;
+import com.draker.swipetime.database.entities.UserInteractionEntity;
+import com.draker.swipetime.database.entities.UserPreferencesEntity;
 import com.draker.swipetime.models.ContentItem;
 import com.draker.swipetime.repository.ContentRepository;
+import com.draker.swipetime.repository.GenreRepository;
+import com.draker.swipetime.repository.UserInteractionRepository;
 import com.draker.swipetime.repository.UserPreferencesRepository;
 import com.draker.swipetime.repository.UserRepository;
 // import com.draker.swipetime.utils.GamificationIntegrator; // Класс удален в рамках рефакторинга
@@ -80,32 +85,34 @@ public class RecommendationService {
      * Обрабатывает событие свайпа (лайка/дизлайка) для обновления рекомендаций
      *
      * @param context контекст
+     * @param category категория контента
      * @param contentId ID контента
      * @param liked true, если контент понравился (свайп вправо)
      */
-    public void handleSwipeEvent(Context context, String contentId, boolean liked) {
+    public void handleSwipeEvent(Context context, String category, String contentId, boolean liked) {
         // Получаем ID текущего пользователя
         String userId = "user_1"; // Заглушка вместо удаленного GamificationIntegrator.getCurrentUserId(context);
 
-        // Если это лайк, обновляем предпочтения пользователя
-        if (liked) {
-            // Выполняем асинхронное обновление предпочтений
-            new Thread(() -> {
+        if (!liked) {
+            // Дизлайк только записывается в журнал взаимодействий
+            new UserInteractionRepository(application).recordAsync(userId, contentId, category,
+                    UserInteractionEntity.ACTION_DISLIKE).subscribe(() -> { },
+                    error -> Log.e(TAG, "Ошибка при записи дизлайка: " + error.getMessage()));
+        } else {
+            // Выполняем асинхронное обновление предпочтений в пуле БД
+            DatabaseSchedulers.executor().execute(() -> {
                 ContentRepository contentRepository = new ContentRepository(application);
 
-                // Обновляем статус "нравится" для элемента
+                // Обновляем статус "нравится" для элемента и записываем лайк в журнал
                 contentRepository.updateLikedStatus(contentId, true);
+                new UserInteractionRepository(application).record(userId, contentId, category,
+                        UserInteractionEntity.ACTION_LIKE);
 
-                // Анализируем и обновляем предпочтения пользователя
-                try {
-                    Thread.sleep(500); // Небольшая задержка для уверенности, что лайк сохранен
-                    recommendationManager.analyzeAndUpdateUserPreferences(userId);
+                // Лайк уже записан синхронно выше, поэтому анализ сразу видит его
+                recommendationManager.analyzeAndUpdateUserPreferences(userId);
 
-                    Log.d(TAG, "Предпочтения пользователя " + userId + " обновлены после лайка контента " + contentId);
-                } catch (InterruptedException e) {
-                    Log.e(TAG, "Ошибка при обновлении предпочтений: " + e.getMessage());
-                }
-            }).start();
+                Log.d(TAG, "Предпочтения пользователя " + userId + " обновлены после лайка контента " + contentId);
+            });
         }
     }
 
@@ -127,6 +134,7 @@ public class RecommendationService {
         String userId = "user_1"; // Заглушка вместо удаленного GamificationIntegrator.getCurrentUserId(context);
         UserPreferencesRepository preferencesRepository = new UserPreferencesRepository(application);
         ContentRepository contentRepository = new ContentRepository(application);
+        GenreRepository genreRepository = new GenreRepository(application);
 
         // Преобразуем контент в ContentEntity
         List<ContentEntity> contentEntities = new ArrayList<>();
@@ -141,10 +149,13 @@ public class RecommendationService {
         List<ContentEntity> likedContent = contentRepository.getLikedContentForUser(userId);
 
         // Генерируем рекомендации (сортируем по релевантности)
+        UserPreferencesEntity preferences = preferencesRepository.getByUserId(userId);
         List<ContentEntity> sortedEntities = ContentRecommendationEngine.generateRecommendations(
                 contentEntities,
                 likedContent,
-                preferencesRepository.getByUserId(userId));
+                preferences,
+                genreRepository.getGenreIdsFor(contentEntities),
+                genreRepository.getIdsForPreferences(preferences.getPreferredGenres()));
 
         // Преобразуем обратно в ContentItem
         return ContentRecommendationEngine.convertToContentItems(sortedEntities);
@@ -3,156 +3,87 @@ package com.draker.swipetime.recommendations;
 import android.app.Application;
 import android.util.Log;
 
-import com.draker.swipetime.database.entities.ContentEntity;
-import com.draker.swipetime.database.entities.UserEntity;
-import com.draker.swipetime.repository.ContentRepository;
-import com.draker.swipetime.repository.UserRepository;
-
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 /**
  * Реализация коллаборативной фильтрации на основе пользователей
- * (User-based Collaborative Filtering)
+ * (User-based Collaborative Filtering).
+ * Лайки берутся из {@link LikeMatrix}: схожесть считается слиянием отсортированных строк,
+ * а в приближенном режиме оценивается по MinHash-сигнатурам
  */
 public class UserBasedCollaborativeFilter implements CollaborativeFilteringStrategy {
 
     private static final String TAG = "UserBasedFilter";
 
     // Настройки алгоритма
-    private static final int MIN_COMMON_ITEMS = 3; // Минимальное количество общих лайков для учета схожести
     private static final double SIMILARITY_THRESHOLD = 0.2; // Минимальный порог схожести
-    private static final int NEAREST_NEIGHBORS_COUNT = 10; // Количество "соседей" для рекомендаций
 
-    private UserRepository userRepository;
-    private ContentRepository contentRepository;
+    // Лайки всех пользователей в виде разреженной матрицы
+    private final LikeMatrix likeMatrix;
+
+    // Ближайшие соседи каждого пользователя (NeighborIndex.K)
+    private final NeighborIndex neighborIndex;
+
+    private final Application application;
 
-    // Кэш для схожести пользователей (userIdA:userIdB -> similarity)
-    private Map<String, Double> similarityCache = new HashMap<>();
+    // MinHash-сигнатуры в приближенном режиме, null - точный режим
+    private volatile MinHashIndex minHash;
 
     public UserBasedCollaborativeFilter(Application application) {
-        this.userRepository = new UserRepository(application);
-        this.contentRepository = new ContentRepository(application);
+        this.application = application;
+        this.likeMatrix = LikeMatrix.getInstance(application);
+        this.neighborIndex = NeighborIndex.getInstance(application);
     }
 
     @Override
-    public double calculateUserSimilarity(String userIdA, String userIdB) {
-        // Проверяем кэш
-        String cacheKey = userIdA + ":" + userIdB;
-        String reverseCacheKey = userIdB + ":" + userIdA;
-
-        if (similarityCache.containsKey(cacheKey)) {
-            return similarityCache.get(cacheKey);
-        }
-
-        if (similarityCache.containsKey(reverseCacheKey)) {
-            return similarityCache.get(reverseCacheKey);
-        }
-
-        // Получаем лайкнутый контент обоих пользователей
-        List<ContentEntity> userALikes = contentRepository.getLikedContentForUser(userIdA);
-        List<ContentEntity> userBLikes = contentRepository.getLikedContentForUser(userIdB);
-
-        // Создаем множества ID для быстрой проверки пересечений
-        Set<String> userALikeIds = new HashSet<>();
-        for (ContentEntity content : userALikes) {
-            userALikeIds.add(content.getId());
-        }
-
-        Set<String> userBLikeIds = new HashSet<>();
-        for (ContentEntity content : userBLikes) {
-            userBLikeIds.add(content.getId());
-        }
-
-        // Находим пересечение (общие лайки)
-        Set<String> intersection = new HashSet<>(userALikeIds);
-        intersection.retainAll(userBLikeIds);
-
-        // Если общих лайков слишком мало, схожесть низкая
-        if (intersection.size() < MIN_COMMON_ITEMS) {
-            double lowSimilarity = intersection.size() > 0 ? 0.1 : 0.0;
-            similarityCache.put(cacheKey, lowSimilarity);
-            return lowSimilarity;
-        }
-
-        // Используем коэффициент Жаккара для оценки схожести
-        // |A ∩ B| / |A ∪ B|
-        Set<String> union = new HashSet<>(userALikeIds);
-        union.addAll(userBLikeIds);
-
-        double similarity = (double) intersection.size() / union.size();
-
-        // Сохраняем результат в кэш
-        similarityCache.put(cacheKey, similarity);
+    public void setApproximateMode(int signatureSize) {
+        minHash = signatureSize > 0 ? MinHashIndex.getInstance(application, signatureSize) : null;
+    }
 
-        return similarity;
+    @Override
+    public double calculateUserSimilarity(String userIdA, String userIdB) {
+        likeMatrix.ensureLoaded();
+        int userA = likeMatrix.getUserOrdinal(userIdA);
+        int userB = likeMatrix.getUserOrdinal(userIdB);
+        MinHashIndex approximate = minHash;
+        if (approximate != null) {
+            return approximate.estimateUserSimilarity(userA, userB);
+        }
+        return neighborIndex.similarity(userA, userB);
     }
 
     @Override
     public double predictLikelihood(String userId, String contentId) {
-        // Получаем всех пользователей системы
-        List<UserEntity> allUsers = userRepository.getAllUsers();
+        ensureLoaded();
+        int user = likeMatrix.getUserOrdinal(userId);
+        int item = likeMatrix.getItemOrdinal(contentId);
 
         // Рассчитываем лайкнул ли пользователь уже этот контент
-        ContentEntity content = contentRepository.getById(contentId);
-        if (content != null && content.isLiked()) {
+        if (likeMatrix.contains(user, item)) {
             return 1.0; // Уже лайкнуто
         }
 
-        // Список схожих пользователей
-        List<UserSimilarity> similarUsers = new ArrayList<>();
-
-        // Находим всех похожих пользователей
-        for (UserEntity otherUser : allUsers) {
-            String otherUserId = otherUser.getId();
-
-            // Пропускаем самого пользователя
-            if (otherUserId.equals(userId)) {
-                continue;
-            }
-
-            // Вычисляем схожесть между пользователями
-            double similarity = calculateUserSimilarity(userId, otherUserId);
-
-            // Если схожесть выше порога, добавляем в список
-            if (similarity >= SIMILARITY_THRESHOLD) {
-                similarUsers.add(new UserSimilarity(otherUserId, similarity));
-            }
+        // Элемент никому не понравился - соседям нечего подсказать
+        if (user < 0 || item < 0) {
+            return 0.5;
         }
 
+        List<UserSimilarity> neighbors = findNeighbors(user);
+
         // Если нет похожих пользователей, возвращаем нейтральное значение
-        if (similarUsers.isEmpty()) {
+        if (neighbors.isEmpty()) {
             return 0.5;
         }
 
-        // Сортируем по убыванию схожести
-        Collections.sort(similarUsers, new Comparator<UserSimilarity>() {
-            @Override
-            public int compare(UserSimilarity u1, UserSimilarity u2) {
-                return Double.compare(u2.similarity, u1.similarity);
-            }
-        });
-
-        // Ограничиваем количество "соседей" для предсказания
-        List<UserSimilarity> neighbors = similarUsers.subList(
-                0, Math.min(NEAREST_NEIGHBORS_COUNT, similarUsers.size()));
-
         // Подсчитываем вес лайков и дизлайков
         double weightedLikes = 0.0;
         double totalWeight = 0.0;
 
         for (UserSimilarity neighbor : neighbors) {
             // Проверяем, лайкнул ли сосед данный контент
-            boolean liked = hasUserLikedContent(neighbor.userId, contentId);
-
-            // Добавляем к взвешенной сумме
-            if (liked) {
+            if (likeMatrix.contains(neighbor.user, item)) {
                 weightedLikes += neighbor.similarity;
             }
 
@@ -165,146 +96,110 @@ public class UserBasedCollaborativeFilter implements CollaborativeFilteringStrat
         }
 
         // Нормализуем и возвращаем вероятность
-        double likelihood = weightedLikes / totalWeight;
-
-        return likelihood;
+        return weightedLikes / totalWeight;
     }
 
     @Override
     public List<String> getRecommendations(String userId, int limit) {
-        // Получаем всех пользователей системы
-        List<UserEntity> allUsers = userRepository.getAllUsers();
-
-        // Получаем все элементы, которые уже лайкнул пользователь
-        List<ContentEntity> userLikes = contentRepository.getLikedContentForUser(userId);
-        Set<String> userLikedIds = new HashSet<>();
-        for (ContentEntity content : userLikes) {
-            userLikedIds.add(content.getId());
-        }
-
-        // Находим схожих пользователей
-        List<UserSimilarity> similarUsers = new ArrayList<>();
-
-        for (UserEntity otherUser : allUsers) {
-            String otherUserId = otherUser.getId();
-
-            // Пропускаем самого пользователя
-            if (otherUserId.equals(userId)) {
-                continue;
-            }
-
-            // Вычисляем схожесть между пользователями
-            double similarity = calculateUserSimilarity(userId, otherUserId);
-
-            // Если схожесть выше порога, добавляем в список
-            if (similarity >= SIMILARITY_THRESHOLD) {
-                similarUsers.add(new UserSimilarity(otherUserId, similarity));
-            }
-        }
+        ensureLoaded();
+        int user = likeMatrix.getUserOrdinal(userId);
+        List<UserSimilarity> neighbors = user >= 0 ? findNeighbors(user) : new ArrayList<>();
 
         // Если нет похожих пользователей, возвращаем пустой список
-        if (similarUsers.isEmpty()) {
+        if (neighbors.isEmpty()) {
             Log.w(TAG, "Нет похожих пользователей для пользователя: " + userId);
             return new ArrayList<>();
         }
 
-        // Сортируем по убыванию схожести
-        Collections.sort(similarUsers, new Comparator<UserSimilarity>() {
-            @Override
-            public int compare(UserSimilarity u1, UserSimilarity u2) {
-                return Double.compare(u2.similarity, u1.similarity);
-            }
-        });
-
-        // Ограничиваем количество "соседей" для предсказания
-        List<UserSimilarity> neighbors = similarUsers.subList(
-                0, Math.min(NEAREST_NEIGHBORS_COUNT, similarUsers.size()));
-
-        // Собираем все контенты, которые лайкнули соседи
-        Map<String, Double> recommendationScores = new HashMap<>();
+        // Суммируем схожесть соседей по понравившимся им элементам
+        double[] scores = new double[likeMatrix.getItemCount()];
+        List<Integer> candidates = new ArrayList<>();
 
         for (UserSimilarity neighbor : neighbors) {
-            // Получаем лайки соседа
-            List<ContentEntity> neighborLikes = contentRepository.getLikedContentForUser(neighbor.userId);
-
-            // Для каждого лайкнутого элемента
-            for (ContentEntity content : neighborLikes) {
-                String contentId = content.getId();
-
+            likeMatrix.forEachItem(neighbor.user, item -> {
                 // Пропускаем уже лайкнутые текущим пользователем
-                if (userLikedIds.contains(contentId)) {
-                    continue;
+                if (item >= scores.length || likeMatrix.contains(user, item)) {
+                    return;
                 }
-
-                // Добавляем к рейтингу рекомендации с учетом схожести пользователей
-                Double currentScore = recommendationScores.getOrDefault(contentId, 0.0);
-                recommendationScores.put(contentId, currentScore + neighbor.similarity);
-            }
+                if (scores[item] == 0.0) {
+                    candidates.add(item);
+                }
+                scores[item] += neighbor.similarity;
+            });
         }
 
         // Сортируем контент по убыванию рекомендательного рейтинга
-        List<ContentRecommendation> rankedRecommendations = new ArrayList<>();
-
-        for (Map.Entry<String, Double> entry : recommendationScores.entrySet()) {
-            rankedRecommendations.add(new ContentRecommendation(entry.getKey(), entry.getValue()));
-        }
-
-        Collections.sort(rankedRecommendations, new Comparator<ContentRecommendation>() {
-            @Override
-            public int compare(ContentRecommendation r1, ContentRecommendation r2) {
-                return Double.compare(r2.score, r1.score);
-            }
-        });
+        Collections.sort(candidates, (a, b) -> Double.compare(scores[b], scores[a]));
 
         // Извлекаем только ID, ограничиваем результат
         List<String> result = new ArrayList<>();
-        int resultCount = Math.min(limit, rankedRecommendations.size());
+        int resultCount = Math.min(limit, candidates.size());
 
         for (int i = 0; i < resultCount; i++) {
-            result.add(rankedRecommendations.get(i).contentId);
+            result.add(likeMatrix.getItemId(candidates.get(i)));
         }
 
         return result;
     }
 
+    // В приближенном режиме индекс соседей не нужен, достаточно матрицы
+    private void ensureLoaded() {
+        if (minHash != null) {
+            likeMatrix.ensureLoaded();
+        } else {
+            neighborIndex.ensureLoaded();
+        }
+    }
+
     /**
-     * Проверяет, лайкнул ли пользователь данный контент
+     * Ближайшие соседи пользователя из индекса: схожесть не ниже порога, по убыванию схожести
      */
-    private boolean hasUserLikedContent(String userId, String contentId) {
-        List<ContentEntity> userLikes = contentRepository.getLikedContentForUser(userId);
-
-        for (ContentEntity content : userLikes) {
-            if (content.getId().equals(contentId)) {
-                return true;
+    private List<UserSimilarity> findNeighbors(int user) {
+        MinHashIndex approximate = minHash;
+        if (approximate != null) {
+            return findApproximateNeighbors(approximate, user);
+        }
+        NeighborIndex.Neighbors neighbors = neighborIndex.getNeighbors(user);
+        List<UserSimilarity> similarUsers = new ArrayList<>(neighbors.size());
+
+        for (int i = 0; i < neighbors.size(); i++) {
+            // Список отсортирован, дальше схожесть только ниже
+            if (neighbors.getSimilarity(i) < SIMILARITY_THRESHOLD) {
+                break;
             }
+            similarUsers.add(new UserSimilarity(neighbors.getUser(i), neighbors.getSimilarity(i)));
         }
 
-        return false;
+        return similarUsers;
     }
 
     /**
-     * Вспомогательный класс для хранения схожести пользователей
+     * Соседи из общих LSH-корзин по оценке схожести сигнатур
      */
-    private static class UserSimilarity {
-        String userId;
-        double similarity;
+    private List<UserSimilarity> findApproximateNeighbors(MinHashIndex approximate, int user) {
+        MinHashSignatures.Nearest nearest = approximate.nearestUsers(user, NeighborIndex.K);
+        List<UserSimilarity> similarUsers = new ArrayList<>(nearest.size());
 
-        UserSimilarity(String userId, double similarity) {
-            this.userId = userId;
-            this.similarity = similarity;
+        for (int i = 0; i < nearest.size(); i++) {
+            if (nearest.getSimilarity(i) < SIMILARITY_THRESHOLD) {
+                break;
+            }
+            similarUsers.add(new UserSimilarity(nearest.getOrdinal(i), nearest.getSimilarity(i)));
         }
+
+        return similarUsers;
     }
 
     /**
-     * Вспомогательный класс для хранения рейтинга рекомендации
+     * Вспомогательный класс для хранения схожести пользователей
      */
-    private static class ContentRecommendation {
-        String contentId;
-        double score;
+    private static class UserSimilarity {
+        int user;
+        double similarity;
 
-        ContentRecommendation(String contentId, double score) {
-            this.contentId = contentId;
-            this.score = score;
+        UserSimilarity(int user, double similarity) {
+            this.user = user;
+            this.similarity = similarity;
         }
     }
-}
\ No newline at end of file
+}
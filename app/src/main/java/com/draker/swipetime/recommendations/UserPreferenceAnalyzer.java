@@ -29,12 +29,16 @@ public class UserPreferenceAnalyzer {
      * @param userId ID пользователя
      * @param likedContent список лайкнутого контента
      * @param userPreferences текущие предпочтения пользователя
+     * @param contentGenreIds ID жанров для каждого лайкнутого элемента
+     * @param genreNames словарь "ID жанра -> название"
      * @return обновленные предпочтения пользователя
      */
     public static UserPreferencesEntity analyzeUserPreferences(
             String userId,
             List<ContentEntity> likedContent,
-            UserPreferencesEntity userPreferences) {
+            UserPreferencesEntity userPreferences,
+            Map<ContentEntity, int[]> contentGenreIds,
+            Map<Integer, String> genreNames) {
         
         if (likedContent == null || likedContent.isEmpty() || userPreferences == null) {
             Log.d(TAG, "Недостаточно данных для анализа предпочтений пользователя");
@@ -45,7 +49,7 @@ public class UserPreferenceAnalyzer {
         Log.d(TAG, "Количество лайкнутых элементов: " + likedContent.size());
 
         // Анализ жанров
-        Map<String, Integer> genreCount = new HashMap<>();
+        Map<Integer, Integer> genreCount = new HashMap<>();
         
         // Анализ годов выпуска
         int minYear = Integer.MAX_VALUE;
@@ -65,7 +69,7 @@ public class UserPreferenceAnalyzer {
         // Перебираем лайкнутый контент и собираем статистику
         for (ContentEntity content : likedContent) {
             // Анализ жанров
-            analyzeGenres(content, genreCount);
+            analyzeGenres(contentGenreIds.get(content), genreCount);
             
             // Анализ годов
             int contentYear = getContentYear(content);
@@ -92,7 +96,7 @@ public class UserPreferenceAnalyzer {
         // Формируем обновленные предпочтения
         
         // Жанры - берем топ-5 самых частых
-        List<String> topGenres = getTopGenres(genreCount, 5);
+        List<String> topGenres = getTopGenres(genreCount, genreNames, 5);
         try {
             if (!topGenres.isEmpty()) {
                 JSONArray genresJson = new JSONArray();
@@ -142,19 +146,15 @@ public class UserPreferenceAnalyzer {
     /**
      * Анализирует жанры контента и обновляет счетчик жанров
      *
-     * @param content элемент контента
+     * @param genreIds ID жанров элемента контента
      * @param genreCount карта для подсчета частоты жанров
      */
-    private static void analyzeGenres(ContentEntity content, Map<String, Integer> genreCount) {
-        String genresString = getContentGenres(content);
-        if (genresString != null && !genresString.isEmpty()) {
-            String[] genres = genresString.split(",");
-            for (String genre : genres) {
-                String trimmedGenre = genre.trim();
-                if (!trimmedGenre.isEmpty()) {
-                    genreCount.put(trimmedGenre, genreCount.getOrDefault(trimmedGenre, 0) + 1);
-                }
-            }
+    private static void analyzeGenres(int[] genreIds, Map<Integer, Integer> genreCount) {
+        if (genreIds == null) {
+            return;
+        }
+        for (int genreId : genreIds) {
+            genreCount.put(genreId, genreCount.getOrDefault(genreId, 0) + 1);
         }
     }
 
@@ -190,16 +190,21 @@ public class UserPreferenceAnalyzer {
      * Получает топ-N самых частых жанров
      *
      * @param genreCount карта с подсчетом жанров
+     * @param genreNames словарь "ID жанра -> название"
      * @param n количество жанров для возврата
-     * @return список топ-N жанров
+     * @return список названий топ-N жанров
      */
-    private static List<String> getTopGenres(Map<String, Integer> genreCount, int n) {
-        List<Map.Entry<String, Integer>> entries = new ArrayList<>(genreCount.entrySet());
+    private static List<String> getTopGenres(Map<Integer, Integer> genreCount,
+                                             Map<Integer, String> genreNames, int n) {
+        List<Map.Entry<Integer, Integer>> entries = new ArrayList<>(genreCount.entrySet());
         entries.sort((a, b) -> b.getValue().compareTo(a.getValue()));
         
         List<String> topGenres = new ArrayList<>();
-        for (int i = 0; i < Math.min(n, entries.size()); i++) {
-            topGenres.add(entries.get(i).getKey());
+        for (int i = 0; i < entries.size() && topGenres.size() < n; i++) {
+            String name = genreNames.get(entries.get(i).getKey());
+            if (name != null) {
+                topGenres.add(name);
+            }
         }
         
         return topGenres;
@@ -232,18 +237,4 @@ public class UserPreferenceAnalyzer {
         // Пример реализации:
         return 120; // Возвращаем фиксированное значение для тестирования
     }
-
-    /**
-     * Получает строку с жанрами контента в зависимости от его типа
-     *
-     * @param content элемент контента
-     * @return строка с жанрами или null, если не удалось определить
-     */
-    private static String getContentGenres(ContentEntity content) {
-        // Это метод-заглушка, в реальном приложении требуется проверка типа объекта
-        // и извлечение жанров из соответствующего поля
-        
-        // Пример реализации:
-        return "Боевик, Фантастика, Триллер"; // Возвращаем фиксированное значение для тестирования
-    }
 }
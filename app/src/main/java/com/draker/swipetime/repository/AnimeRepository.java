@@ -5,21 +5,34 @@ import android.app.Application;
 import androidx.lifecycle.LiveData;
 
 import com.draker.swipetime.database.AppDatabase;
+import com.draker.swipetime.database.ContentFilterQueryBuilder;
+import com.draker.swipetime.database.DatabaseSchedulers;
+import com.draker.swipetime.database.FtsUtils;
 import com.draker.swipetime.database.dao.AnimeDao;
 import com.draker.swipetime.database.entities.AnimeEntity;
+import com.draker.swipetime.database.entities.UserPreferencesEntity;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+
 /**
  * Репозиторий для работы с аниме
  */
 public class AnimeRepository {
 
+    private AppDatabase db;
     private AnimeDao animeDao;
+    private GenreRepository genreRepository;
 
     public AnimeRepository(Application application) {
-        AppDatabase db = AppDatabase.getInstance(application);
+        db = AppDatabase.getInstance(application);
         animeDao = db.animeDao();
+        genreRepository = new GenreRepository(application);
     }
 
     /**
@@ -27,7 +40,10 @@ public class AnimeRepository {
      * @param anime аниме
      */
     public void insert(AnimeEntity anime) {
-        animeDao.insert(anime);
+        db.runInTransaction(() -> {
+            animeDao.insert(anime);
+            genreRepository.index(anime);
+        });
     }
 
     /**
@@ -35,7 +51,26 @@ public class AnimeRepository {
      * @param animes список аниме
      */
     public void insertAll(List<AnimeEntity> animes) {
-        animeDao.insertAll(animes);
+        db.runInTransaction(() -> {
+            animeDao.insertAll(animes);
+            genreRepository.indexAll(animes);
+        });
+    }
+
+    /**
+     * Добавить или обновить пачку аниме одной транзакцией.
+     * У существующих строк обновляются только данные каталога,
+     * пользовательские поля (liked, watched, rating) сохраняются на стороне SQLite
+     * @param animes список аниме
+     */
+    public void bulkUpsert(List<AnimeEntity> animes) {
+        if (animes == null || animes.isEmpty()) {
+            return;
+        }
+        db.runInTransaction(() -> {
+            animeDao.upsertAll(animes);
+            genreRepository.indexAll(animes);
+        });
     }
 
     /**
@@ -43,7 +78,10 @@ public class AnimeRepository {
      * @param anime аниме
      */
     public void update(AnimeEntity anime) {
-        animeDao.update(anime);
+        db.runInTransaction(() -> {
+            animeDao.update(anime);
+            genreRepository.index(anime);
+        });
     }
 
     /**
@@ -51,10 +89,13 @@ public class AnimeRepository {
      * @param id ID аниме
      */
     public void deleteById(String id) {
-        AnimeEntity anime = animeDao.getById(id);
-        if (anime != null) {
-            animeDao.delete(anime);
-        }
+        db.runInTransaction(() -> {
+            AnimeEntity anime = animeDao.getById(id);
+            if (anime != null) {
+                animeDao.delete(anime);
+                genreRepository.removeLinks("anime", id);
+            }
+        });
     }
 
     /**
@@ -74,6 +115,16 @@ public class AnimeRepository {
         return animeDao.getAll();
     }
 
+    /**
+     * Получить аниме, подходящие под предпочтения пользователя.
+     * Фильтрация выполняется в SQLite, в память попадают только подходящие строки
+     * @param preferences предпочтения пользователя
+     * @return список отфильтрованных аниме
+     */
+    public List<AnimeEntity> getFiltered(UserPreferencesEntity preferences) {
+        return animeDao.getFiltered(ContentFilterQueryBuilder.forAnime(preferences));
+    }
+
     /**
      * Получить список понравившихся аниме
      * @return список аниме с отметкой liked=true
@@ -82,6 +133,42 @@ public class AnimeRepository {
         return animeDao.getLiked();
     }
 
+    /**
+     * Получить страницу аниме в порядке добавления
+     * @param after ключ предыдущей страницы или ContentPage.Key.FIRST
+     * @param pageSize размер страницы
+     * @return страница аниме
+     */
+    public ContentPage<AnimeEntity> getPage(ContentPage.Key after, int pageSize) {
+        return ContentPage.of(animeDao.getPage(after.getCreatedAt(), after.getId(), pageSize), pageSize);
+    }
+
+    /**
+     * Получить страницу понравившихся аниме в порядке добавления
+     * @param after ключ предыдущей страницы или ContentPage.Key.FIRST
+     * @param pageSize размер страницы
+     * @return страница аниме с отметкой liked=true
+     */
+    public ContentPage<AnimeEntity> getLikedPage(ContentPage.Key after, int pageSize) {
+        return ContentPage.of(animeDao.getLikedPage(after.getCreatedAt(), after.getId(), pageSize), pageSize);
+    }
+
+    /**
+     * Постраничный обход всех аниме
+     * @param pageSize размер окна
+     */
+    public ContentPager<AnimeEntity> pageAll(int pageSize) {
+        return new ContentPager<>(this::getPage, pageSize);
+    }
+
+    /**
+     * Постраничный обход понравившихся аниме
+     * @param pageSize размер окна
+     */
+    public ContentPager<AnimeEntity> pageLiked(int pageSize) {
+        return new ContentPager<>(this::getLikedPage, pageSize);
+    }
+
     /**
      * Обновить статус "понравилось" для аниме
      * @param id ID аниме
@@ -138,7 +225,11 @@ public class AnimeRepository {
      * @return список аниме, соответствующих запросу
      */
     public List<AnimeEntity> search(String query) {
-        return animeDao.search(query);
+        String match = FtsUtils.toMatchQuery(query);
+        if (match == null) {
+            return new ArrayList<>();
+        }
+        return animeDao.search(match);
     }
     
     /**
@@ -164,4 +255,132 @@ public class AnimeRepository {
     public int getWatchedCount() {
         return animeDao.getWatchedCount();
     }
-}
\ No newline at end of file
+
+    // ==================== Асинхронные варианты (RxJava) ====================
+    /**
+     * Асинхронный вариант {@link #insert(AnimeEntity)}
+     */
+    public Completable insertAsync(AnimeEntity anime) {
+        return Completable.fromAction(() -> insert(anime)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #insertAll(List)}
+     */
+    public Completable insertAllAsync(List<AnimeEntity> animes) {
+        return Completable.fromAction(() -> insertAll(animes)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #bulkUpsert(List)}
+     */
+    public Completable bulkUpsertAsync(List<AnimeEntity> animes) {
+        return Completable.fromAction(() -> bulkUpsert(animes)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #update(AnimeEntity)}
+     */
+    public Completable updateAsync(AnimeEntity anime) {
+        return Completable.fromAction(() -> update(anime)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #deleteById(String)}
+     */
+    public Completable deleteByIdAsync(String id) {
+        return Completable.fromAction(() -> deleteById(id)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getById(String)}
+     */
+    public Maybe<AnimeEntity> getByIdAsync(String id) {
+        return Maybe.fromCallable(() -> getById(id)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getAll()}
+     */
+    public Single<List<AnimeEntity>> getAllAsync() {
+        return Single.fromCallable(this::getAll).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getFiltered(UserPreferencesEntity)}
+     */
+    public Single<List<AnimeEntity>> getFilteredAsync(UserPreferencesEntity preferences) {
+        return Single.fromCallable(() -> getFiltered(preferences)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getLiked()}
+     */
+    public Single<List<AnimeEntity>> getLikedAsync() {
+        return Single.fromCallable(this::getLiked).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getPage(ContentPage.Key, int)}
+     */
+    public Single<ContentPage<AnimeEntity>> getPageAsync(ContentPage.Key after, int pageSize) {
+        return Single.fromCallable(() -> getPage(after, pageSize)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getLikedPage(ContentPage.Key, int)}
+     */
+    public Single<ContentPage<AnimeEntity>> getLikedPageAsync(ContentPage.Key after, int pageSize) {
+        return Single.fromCallable(() -> getLikedPage(after, pageSize)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #updateLikedStatus(String, boolean)}
+     */
+    public Completable updateLikedStatusAsync(String id, boolean liked) {
+        return Completable.fromAction(() -> updateLikedStatus(id, liked)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #updateWatchedStatus(String, boolean)}
+     */
+    public Completable updateWatchedStatusAsync(String id, boolean watched) {
+        return Completable.fromAction(() -> updateWatchedStatus(id, watched)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #search(String)}
+     */
+    public Single<List<AnimeEntity>> searchAsync(String query) {
+        return Single.fromCallable(() -> search(query)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getCount()}
+     */
+    public Single<Integer> getCountAsync() {
+        return Single.fromCallable(this::getCount).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getLikedCount()}
+     */
+    public Single<Integer> getLikedCountAsync() {
+        return Single.fromCallable(this::getLikedCount).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Наблюдать за понравившимися элементами (Flowable).
+     * Room перезапускает запрос в пуле БД при каждом изменении таблицы
+     */
+    public Flowable<List<AnimeEntity>> flowLiked() {
+        return animeDao.flowLiked();
+    }
+
+    /**
+     * Наблюдать за количеством понравившихся элементов (Flowable)
+     */
+    public Flowable<Integer> flowLikedCount() {
+        return animeDao.flowLikedCount();
+    }
+}
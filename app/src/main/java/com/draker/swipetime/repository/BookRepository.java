@@ -5,21 +5,34 @@ import android.app.Application;
 import androidx.lifecycle.LiveData;
 
 import com.draker.swipetime.database.AppDatabase;
+import com.draker.swipetime.database.ContentFilterQueryBuilder;
+import com.draker.swipetime.database.DatabaseSchedulers;
+import com.draker.swipetime.database.FtsUtils;
 import com.draker.swipetime.database.dao.BookDao;
 import com.draker.swipetime.database.entities.BookEntity;
+import com.draker.swipetime.database.entities.UserPreferencesEntity;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+
 /**
  * Репозиторий для работы с книгами
  */
 public class BookRepository {
 
+    private AppDatabase db;
     private BookDao bookDao;
+    private GenreRepository genreRepository;
 
     public BookRepository(Application application) {
-        AppDatabase db = AppDatabase.getInstance(application);
+        db = AppDatabase.getInstance(application);
         bookDao = db.bookDao();
+        genreRepository = new GenreRepository(application);
     }
 
     /**
@@ -27,7 +40,10 @@ public class BookRepository {
      * @param book книга
      */
     public void insert(BookEntity book) {
-        bookDao.insert(book);
+        db.runInTransaction(() -> {
+            bookDao.insert(book);
+            genreRepository.index(book);
+        });
     }
 
     /**
@@ -35,7 +51,26 @@ public class BookRepository {
      * @param books список книг
      */
     public void insertAll(List<BookEntity> books) {
-        bookDao.insertAll(books);
+        db.runInTransaction(() -> {
+            bookDao.insertAll(books);
+            genreRepository.indexAll(books);
+        });
+    }
+
+    /**
+     * Добавить или обновить пачку книг одной транзакцией.
+     * У существующих строк обновляются только данные каталога,
+     * пользовательские поля (liked, watched, rating) сохраняются на стороне SQLite
+     * @param books список книг
+     */
+    public void bulkUpsert(List<BookEntity> books) {
+        if (books == null || books.isEmpty()) {
+            return;
+        }
+        db.runInTransaction(() -> {
+            bookDao.upsertAll(books);
+            genreRepository.indexAll(books);
+        });
     }
 
     /**
@@ -43,7 +78,10 @@ public class BookRepository {
      * @param book книга
      */
     public void update(BookEntity book) {
-        bookDao.update(book);
+        db.runInTransaction(() -> {
+            bookDao.update(book);
+            genreRepository.index(book);
+        });
     }
 
     /**
@@ -51,7 +89,10 @@ public class BookRepository {
      * @param book книга
      */
     public void delete(BookEntity book) {
-        bookDao.delete(book);
+        db.runInTransaction(() -> {
+            bookDao.delete(book);
+            genreRepository.removeLinks("books", book.getId());
+        });
     }
     
     /**
@@ -59,14 +100,20 @@ public class BookRepository {
      * @param id ID книги
      */
     public void deleteById(String id) {
-        bookDao.deleteById(id);
+        db.runInTransaction(() -> {
+            bookDao.deleteById(id);
+            genreRepository.removeLinks("books", id);
+        });
     }
     
     /**
      * Удалить все книги
      */
     public void deleteAll() {
-        bookDao.deleteAll();
+        db.runInTransaction(() -> {
+            bookDao.deleteAll();
+            genreRepository.removeSource("books");
+        });
     }
 
     /**
@@ -86,6 +133,16 @@ public class BookRepository {
         return bookDao.getAll();
     }
 
+    /**
+     * Получить книги, подходящие под предпочтения пользователя.
+     * Фильтрация выполняется в SQLite, в память попадают только подходящие строки
+     * @param preferences предпочтения пользователя
+     * @return список отфильтрованных книг
+     */
+    public List<BookEntity> getFiltered(UserPreferencesEntity preferences) {
+        return bookDao.getFiltered(ContentFilterQueryBuilder.forBooks(preferences));
+    }
+
     /**
      * Получить список понравившихся книг
      * @return список книг с отметкой liked=true
@@ -94,6 +151,42 @@ public class BookRepository {
         return bookDao.getLiked();
     }
 
+    /**
+     * Получить страницу книг в порядке добавления
+     * @param after ключ предыдущей страницы или ContentPage.Key.FIRST
+     * @param pageSize размер страницы
+     * @return страница книг
+     */
+    public ContentPage<BookEntity> getPage(ContentPage.Key after, int pageSize) {
+        return ContentPage.of(bookDao.getPage(after.getCreatedAt(), after.getId(), pageSize), pageSize);
+    }
+
+    /**
+     * Получить страницу понравившихся книг в порядке добавления
+     * @param after ключ предыдущей страницы или ContentPage.Key.FIRST
+     * @param pageSize размер страницы
+     * @return страница книг с отметкой liked=true
+     */
+    public ContentPage<BookEntity> getLikedPage(ContentPage.Key after, int pageSize) {
+        return ContentPage.of(bookDao.getLikedPage(after.getCreatedAt(), after.getId(), pageSize), pageSize);
+    }
+
+    /**
+     * Постраничный обход всех книг
+     * @param pageSize размер окна
+     */
+    public ContentPager<BookEntity> pageAll(int pageSize) {
+        return new ContentPager<>(this::getPage, pageSize);
+    }
+
+    /**
+     * Постраничный обход понравившихся книг
+     * @param pageSize размер окна
+     */
+    public ContentPager<BookEntity> pageLiked(int pageSize) {
+        return new ContentPager<>(this::getLikedPage, pageSize);
+    }
+
     /**
      * Обновить статус "понравилось" для книги
      * @param id ID книги
@@ -204,7 +297,11 @@ public class BookRepository {
      * @return список книг, соответствующих запросу
      */
     public List<BookEntity> search(String query) {
-        return bookDao.search(query);
+        String match = FtsUtils.toMatchQuery(query);
+        if (match == null) {
+            return new ArrayList<>();
+        }
+        return bookDao.search(match);
     }
     
     /**
@@ -266,4 +363,132 @@ public class BookRepository {
     public LiveData<List<BookEntity>> observeByAuthor(String author) {
         return bookDao.observeByAuthor(author);
     }
-}
\ No newline at end of file
+
+    // ==================== Асинхронные варианты (RxJava) ====================
+    /**
+     * Асинхронный вариант {@link #insert(BookEntity)}
+     */
+    public Completable insertAsync(BookEntity book) {
+        return Completable.fromAction(() -> insert(book)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #insertAll(List)}
+     */
+    public Completable insertAllAsync(List<BookEntity> books) {
+        return Completable.fromAction(() -> insertAll(books)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #bulkUpsert(List)}
+     */
+    public Completable bulkUpsertAsync(List<BookEntity> books) {
+        return Completable.fromAction(() -> bulkUpsert(books)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #update(BookEntity)}
+     */
+    public Completable updateAsync(BookEntity book) {
+        return Completable.fromAction(() -> update(book)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #deleteById(String)}
+     */
+    public Completable deleteByIdAsync(String id) {
+        return Completable.fromAction(() -> deleteById(id)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getById(String)}
+     */
+    public Maybe<BookEntity> getByIdAsync(String id) {
+        return Maybe.fromCallable(() -> getById(id)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getAll()}
+     */
+    public Single<List<BookEntity>> getAllAsync() {
+        return Single.fromCallable(this::getAll).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getFiltered(UserPreferencesEntity)}
+     */
+    public Single<List<BookEntity>> getFilteredAsync(UserPreferencesEntity preferences) {
+        return Single.fromCallable(() -> getFiltered(preferences)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getLiked()}
+     */
+    public Single<List<BookEntity>> getLikedAsync() {
+        return Single.fromCallable(this::getLiked).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getPage(ContentPage.Key, int)}
+     */
+    public Single<ContentPage<BookEntity>> getPageAsync(ContentPage.Key after, int pageSize) {
+        return Single.fromCallable(() -> getPage(after, pageSize)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getLikedPage(ContentPage.Key, int)}
+     */
+    public Single<ContentPage<BookEntity>> getLikedPageAsync(ContentPage.Key after, int pageSize) {
+        return Single.fromCallable(() -> getLikedPage(after, pageSize)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #updateLikedStatus(String, boolean)}
+     */
+    public Completable updateLikedStatusAsync(String id, boolean liked) {
+        return Completable.fromAction(() -> updateLikedStatus(id, liked)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #updateReadStatus(String, boolean)}
+     */
+    public Completable updateReadStatusAsync(String id, boolean read) {
+        return Completable.fromAction(() -> updateReadStatus(id, read)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #search(String)}
+     */
+    public Single<List<BookEntity>> searchAsync(String query) {
+        return Single.fromCallable(() -> search(query)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getCount()}
+     */
+    public Single<Integer> getCountAsync() {
+        return Single.fromCallable(this::getCount).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getLikedCount()}
+     */
+    public Single<Integer> getLikedCountAsync() {
+        return Single.fromCallable(this::getLikedCount).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Наблюдать за понравившимися элементами (Flowable).
+     * Room перезапускает запрос в пуле БД при каждом изменении таблицы
+     */
+    public Flowable<List<BookEntity>> flowLiked() {
+        return bookDao.flowLiked();
+    }
+
+    /**
+     * Наблюдать за количеством понравившихся элементов (Flowable)
+     */
+    public Flowable<Integer> flowLikedCount() {
+        return bookDao.flowLikedCount();
+    }
+}
@@ -0,0 +1,230 @@
+package com.draker.swipetime.repository;
+
+import android.app.Application;
+
+import com.draker.swipetime.database.AppDatabase;
+import com.draker.swipetime.database.CardProjection;
+import com.draker.swipetime.database.ContentFilterQueryBuilder;
+import com.draker.swipetime.database.DatabaseSchedulers;
+import com.draker.swipetime.database.FacetRow;
+import com.draker.swipetime.database.dao.CatalogDao;
+import com.draker.swipetime.database.entities.CatalogItemView;
+import com.draker.swipetime.database.entities.UserPreferencesEntity;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Репозиторий единого представления контента всех категорий.
+ * Выборка по одной или нескольким категориям выполняется одним SQL-запросом
+ * вместо обращения к репозиторию каждой категории
+ */
+public class CatalogRepository {
+
+    private final CatalogDao catalogDao;
+
+    public CatalogRepository(Application application) {
+        AppDatabase db = AppDatabase.getInstance(application);
+        catalogDao = db.catalogDao();
+    }
+
+    /**
+     * Получить все элементы категории
+     * @param category название категории
+     * @param preferences предпочтения пользователя или null, если фильтры не нужны
+     * @return элементы категории, подходящие под фильтры
+     */
+    public List<CatalogItemView> getAll(String category, UserPreferencesEntity preferences) {
+        return getAll(Collections.singletonList(category), preferences);
+    }
+
+    /**
+     * Получить все элементы нескольких категорий одним запросом
+     * @param categories категории; пустой список - все типизированные категории
+     * @param preferences предпочтения пользователя или null, если фильтры не нужны
+     * @return элементы категорий, подходящие под фильтры
+     */
+    public List<CatalogItemView> getAll(Collection<String> categories, UserPreferencesEntity preferences) {
+        return catalogDao.query(ContentFilterQueryBuilder.forCatalog(categories, preferences, 0, "", 0));
+    }
+
+    /**
+     * Получить страницу элементов категории в порядке добавления
+     * @param category название категории
+     * @param preferences предпочтения пользователя или null
+     * @param after ключ предыдущей страницы или ContentPage.Key.FIRST
+     * @param pageSize размер страницы
+     * @return страница элементов
+     */
+    public ContentPage<CatalogItemView> getPage(String category, UserPreferencesEntity preferences,
+                                                ContentPage.Key after, int pageSize) {
+        return getPage(Collections.singletonList(category), preferences, after, pageSize);
+    }
+
+    /**
+     * Получить страницу элементов нескольких категорий в порядке добавления
+     * @param categories категории; пустой список - все типизированные категории
+     * @param preferences предпочтения пользователя или null
+     * @param after ключ предыдущей страницы или ContentPage.Key.FIRST
+     * @param pageSize размер страницы
+     * @return страница элементов
+     */
+    public ContentPage<CatalogItemView> getPage(Collection<String> categories, UserPreferencesEntity preferences,
+                                                ContentPage.Key after, int pageSize) {
+        return ContentPage.of(catalogDao.query(ContentFilterQueryBuilder.forCatalog(
+                categories, preferences, after.getCreatedAt(), after.getId(), pageSize)), pageSize);
+    }
+
+    /**
+     * Постраничный обход категории
+     * @param category название категории
+     * @param preferences предпочтения пользователя или null
+     * @param pageSize размер окна
+     */
+    public ContentPager<CatalogItemView> page(String category, UserPreferencesEntity preferences, int pageSize) {
+        return page(Collections.singletonList(category), preferences, pageSize);
+    }
+
+    /**
+     * Постраничный обход нескольких категорий
+     * @param categories категории; пустой список - все типизированные категории
+     * @param preferences предпочтения пользователя или null
+     * @param pageSize размер окна
+     */
+    public ContentPager<CatalogItemView> page(Collection<String> categories, UserPreferencesEntity preferences,
+                                              int pageSize) {
+        return new ContentPager<>((after, size) -> getPage(categories, preferences, after, size), pageSize);
+    }
+
+    /**
+     * Получить облегченные карточки категории: без полного описания и деталей
+     * @param category название категории
+     * @param preferences предпочтения пользователя или null, если фильтры не нужны
+     * @return карточки, подходящие под фильтры
+     */
+    public List<CardProjection> getCards(String category, UserPreferencesEntity preferences) {
+        return catalogDao.queryCards(ContentFilterQueryBuilder.forCatalogCards(
+                Collections.singletonList(category), preferences, 0, "", 0));
+    }
+
+    /**
+     * Получить страницу облегченных карточек нескольких категорий в порядке добавления
+     * @param categories категории; пустой список - все типизированные категории
+     * @param preferences предпочтения пользователя или null
+     * @param after ключ предыдущей страницы или ContentPage.Key.FIRST
+     * @param pageSize размер страницы
+     * @return страница карточек
+     */
+    public ContentPage<CardProjection> getCardPage(Collection<String> categories, UserPreferencesEntity preferences,
+                                                   ContentPage.Key after, int pageSize) {
+        return ContentPage.ofCards(catalogDao.queryCards(ContentFilterQueryBuilder.forCatalogCards(
+                categories, preferences, after.getCreatedAt(), after.getId(), pageSize)), pageSize);
+    }
+
+    /**
+     * Постраничный обход облегченных карточек категории
+     * @param category название категории
+     * @param preferences предпочтения пользователя или null
+     * @param pageSize размер окна
+     */
+    public ContentPager<CardProjection> pageCards(String category, UserPreferencesEntity preferences, int pageSize) {
+        List<String> categories = Collections.singletonList(category);
+        return new ContentPager<>((after, size) -> getCardPage(categories, preferences, after, size), pageSize);
+    }
+
+    /**
+     * Получить следующие карточки категории в порядке shuffle_keys, пропуская уже показанные
+     * @param category название категории
+     * @param preferences предпочтения пользователя или null
+     * @param userId ID пользователя
+     * @param excludeSeen исключать ли элементы из истории взаимодействий
+     * @param afterKey shuffle_key последней полученной карточки или -1 для начала обхода
+     * @param afterId ID последней полученной карточки или пустая строка
+     * @param limit количество карточек
+     * @return карточки в случайном порядке текущей сессии
+     */
+    public List<CardProjection> getUnseenCards(String category, UserPreferencesEntity preferences, String userId,
+                                               boolean excludeSeen, long afterKey, String afterId, int limit) {
+        return catalogDao.queryCards(ContentFilterQueryBuilder.forUnseenCards(
+                category, preferences, userId, excludeSeen, afterKey, afterId, limit));
+    }
+
+    /**
+     * Получить карточки категории по номерам shuffle_keys.ordinal
+     * @param category название категории
+     * @param preferences предпочтения пользователя или null
+     * @param userId ID пользователя
+     * @param excludeSeen исключать ли элементы из истории взаимодействий
+     * @param ordinals номера элементов
+     * @return найденные карточки в произвольном порядке
+     */
+    public List<CardProjection> getCardsAtOrdinals(String category, UserPreferencesEntity preferences, String userId,
+                                                   boolean excludeSeen, int[] ordinals) {
+        return catalogDao.queryCards(ContentFilterQueryBuilder.forCardsAtOrdinals(
+                category, preferences, userId, excludeSeen, ordinals));
+    }
+
+    /**
+     * Количество номеров shuffle_keys.ordinal в категории: номера занимают [0, count)
+     * @param category название категории
+     */
+    public int getOrdinalCount(String category) {
+        return catalogDao.getOrdinalCount(CatalogItemView.sourceFor(category));
+    }
+
+    /**
+     * Получить поля фильтрации всех элементов типизированных категорий для индекса фасетов
+     */
+    public List<FacetRow> getFacetRows() {
+        return catalogDao.getFacetRows();
+    }
+
+    /**
+     * Перевыбрать случайные ключи порядка показа. Вызывается в начале сессии,
+     * чтобы каждая сессия показывала карточки в новом порядке
+     */
+    public void reseedShuffleKeys() {
+        catalogDao.reseedShuffleKeys();
+    }
+
+    /**
+     * Получить элемент со всеми полями по категории и ID (для экрана деталей)
+     * @param category название категории
+     * @param id ID элемента
+     * @return элемент или null
+     */
+    public CatalogItemView getById(String category, String id) {
+        return catalogDao.getById(CatalogItemView.sourceFor(category), id);
+    }
+
+    // ==================== Асинхронные варианты (RxJava) ====================
+
+    /**
+     * Асинхронный вариант {@link #getAll(Collection, UserPreferencesEntity)}
+     */
+    public Single<List<CatalogItemView>> getAllAsync(Collection<String> categories,
+                                                     UserPreferencesEntity preferences) {
+        return Single.fromCallable(() -> getAll(categories, preferences)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getById(String, String)}
+     */
+    public Maybe<CatalogItemView> getByIdAsync(String category, String id) {
+        return Maybe.fromCallable(() -> getById(category, id)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getPage(Collection, UserPreferencesEntity, ContentPage.Key, int)}
+     */
+    public Single<ContentPage<CatalogItemView>> getPageAsync(Collection<String> categories,
+                                                             UserPreferencesEntity preferences,
+                                                             ContentPage.Key after, int pageSize) {
+        return Single.fromCallable(() -> getPage(categories, preferences, after, pageSize))
+                .subscribeOn(DatabaseSchedulers.io());
+    }
+}
@@ -0,0 +1,85 @@
+package com.draker.swipetime.repository;
+
+import com.draker.swipetime.database.entities.CatalogItemView;
+import com.draker.swipetime.database.entities.ContentCounterEntity;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Неизменяемый снимок счетчиков контента по категориям
+ */
+public class ContentCounters {
+
+    // Таблица общего контента, не относящаяся к конкретной категории
+    public static final String GENERAL_TABLE = CatalogItemView.SOURCE_CONTENT;
+
+    private static final String[] CATEGORY_TABLES = {"movies", "tv_shows", "games", "books", "anime"};
+
+    private final Map<String, ContentCounterEntity> byTable = new HashMap<>();
+
+    public ContentCounters(List<ContentCounterEntity> rows) {
+        for (ContentCounterEntity row : rows) {
+            byTable.put(row.getTableName(), row);
+        }
+    }
+
+    /**
+     * Всего элементов в категории
+     * @param category название категории ("Фильмы", "Игры" и т.д.)
+     */
+    public int getTotal(String category) {
+        ContentCounterEntity row = byTable.get(tableFor(category));
+        return row != null ? row.getTotal() : 0;
+    }
+
+    /**
+     * Понравившихся элементов в категории
+     * @param category название категории
+     */
+    public int getLiked(String category) {
+        ContentCounterEntity row = byTable.get(tableFor(category));
+        return row != null ? row.getLiked() : 0;
+    }
+
+    /**
+     * Просмотренных, прочитанных или пройденных элементов в категории
+     * @param category название категории
+     */
+    public int getWatched(String category) {
+        ContentCounterEntity row = byTable.get(tableFor(category));
+        return row != null ? row.getWatched() : 0;
+    }
+
+    /**
+     * Понравившихся элементов во всех категориях (без таблицы общего контента)
+     */
+    public int getLikedTotal() {
+        int sum = 0;
+        for (String table : CATEGORY_TABLES) {
+            ContentCounterEntity row = byTable.get(table);
+            sum += row != null ? row.getLiked() : 0;
+        }
+        return sum;
+    }
+
+    /**
+     * Завершенных элементов во всех категориях (без таблицы общего контента)
+     */
+    public int getWatchedTotal() {
+        int sum = 0;
+        for (String table : CATEGORY_TABLES) {
+            ContentCounterEntity row = byTable.get(table);
+            sum += row != null ? row.getWatched() : 0;
+        }
+        return sum;
+    }
+
+    /**
+     * Имя таблицы для категории; для неизвестной категории - таблица общего контента
+     */
+    public static String tableFor(String category) {
+        return CatalogItemView.sourceFor(category);
+    }
+}
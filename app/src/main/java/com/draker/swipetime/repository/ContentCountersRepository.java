@@ -0,0 +1,42 @@
+package com.draker.swipetime.repository;
+
+import android.app.Application;
+
+import com.draker.swipetime.database.AppDatabase;
+import com.draker.swipetime.database.DatabaseSchedulers;
+import com.draker.swipetime.database.dao.ContentCounterDao;
+
+import io.reactivex.rxjava3.core.Flowable;
+
+/**
+ * Репозиторий счетчиков контента. Значения поддерживаются триггерами БД,
+ * поэтому чтение не требует подсчета строк в таблицах контента
+ */
+public class ContentCountersRepository {
+
+    private final ContentCounterDao counterDao;
+
+    public ContentCountersRepository(Application application) {
+        AppDatabase db = AppDatabase.getInstance(application);
+        counterDao = db.contentCounterDao();
+    }
+
+    /**
+     * Получить текущие значения счетчиков
+     * @return снимок счетчиков по категориям
+     */
+    public ContentCounters getCounters() {
+        return new ContentCounters(counterDao.getAll());
+    }
+
+    // ==================== Асинхронные варианты (RxJava) ====================
+
+    /**
+     * Наблюдать за счетчиками: новый снимок приходит после каждого изменения таблиц контента
+     */
+    public Flowable<ContentCounters> observeCounters() {
+        return counterDao.observeAll()
+                .map(ContentCounters::new)
+                .subscribeOn(DatabaseSchedulers.io());
+    }
+}
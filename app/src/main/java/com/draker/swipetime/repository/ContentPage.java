@@ -0,0 +1,85 @@
+package com.draker.swipetime.repository;
+
+import com.draker.swipetime.database.CardProjection;
+import com.draker.swipetime.database.entities.ContentEntity;
+
+import java.util.List;
+
+/**
+ * Окно фиксированного размера из таблицы контента, упорядоченной по (created_at, id),
+ * с ключом для запроса следующего окна. Элементы - сущности или облегченные карточки
+ */
+public class ContentPage<T> {
+
+    private final List<T> items;
+    private final Key nextKey;
+
+    public ContentPage(List<T> items, Key nextKey) {
+        this.items = items;
+        this.nextKey = nextKey;
+    }
+
+    /**
+     * Создает страницу по результату запроса с LIMIT pageSize.
+     * Неполная страница означает, что данных больше нет
+     */
+    public static <T extends ContentEntity> ContentPage<T> of(List<T> items, int pageSize) {
+        Key next = null;
+        if (!items.isEmpty() && items.size() >= pageSize) {
+            T last = items.get(items.size() - 1);
+            next = new Key(last.getCreatedAt(), last.getId());
+        }
+        return new ContentPage<>(items, next);
+    }
+
+    /**
+     * То же, что {@link #of(List, int)}, для облегченных карточек
+     */
+    public static ContentPage<CardProjection> ofCards(List<CardProjection> items, int pageSize) {
+        Key next = null;
+        if (!items.isEmpty() && items.size() >= pageSize) {
+            CardProjection last = items.get(items.size() - 1);
+            next = new Key(last.getCreatedAt(), last.getId());
+        }
+        return new ContentPage<>(items, next);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Ключ следующей страницы или null, если это последняя страница
+     */
+    public Key getNextKey() {
+        return nextKey;
+    }
+
+    public boolean hasMore() {
+        return nextKey != null;
+    }
+
+    /**
+     * Позиция последнего элемента страницы; следующая страница начинается строго после нее
+     */
+    public static final class Key {
+        // Ключ, с которого начинается первая страница
+        public static final Key FIRST = new Key(Long.MIN_VALUE, "");
+
+        private final long createdAt;
+        private final String id;
+
+        public Key(long createdAt, String id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        public String getId() {
+            return id;
+        }
+    }
+}
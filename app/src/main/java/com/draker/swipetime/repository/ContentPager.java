@@ -0,0 +1,58 @@
+package com.draker.swipetime.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Последовательно выбирает таблицу окнами фиксированного размера.
+ * В памяти одновременно находится только одно окно
+ */
+public class ContentPager<T> {
+
+    /**
+     * Источник страниц, обычно метод репозитория getPage/getLikedPage
+     */
+    public interface PageSource<T> {
+        ContentPage<T> load(ContentPage.Key after, int pageSize);
+    }
+
+    private final PageSource<T> source;
+    private final int pageSize;
+    private ContentPage.Key nextKey = ContentPage.Key.FIRST;
+
+    public ContentPager(PageSource<T> source, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize должен быть положительным");
+        }
+        this.source = source;
+        this.pageSize = pageSize;
+    }
+
+    public boolean hasNext() {
+        return nextKey != null;
+    }
+
+    /**
+     * Загружает следующее окно
+     * @return элементы окна или пустой список, если данные закончились
+     */
+    public List<T> next() {
+        if (nextKey == null) {
+            return new ArrayList<>();
+        }
+        ContentPage<T> page = source.load(nextKey, pageSize);
+        nextKey = page.getNextKey();
+        return page.getItems();
+    }
+
+    /**
+     * Начать обход с первой страницы
+     */
+    public void reset() {
+        nextKey = ContentPage.Key.FIRST;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+}
@@ -6,21 +6,34 @@ import android.util.Log;
 import androidx.lifecycle.LiveData;
 
 import com.draker.swipetime.database.AppDatabase;
+import com.draker.swipetime.database.DatabaseSchedulers;
+import com.draker.swipetime.database.FtsUtils;
 import com.draker.swipetime.database.dao.ContentDao;
 import com.draker.swipetime.database.entities.ContentEntity;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+
 /**
  * Репозиторий для работы с общим контентом
  */
 public class ContentRepository {
 
+    // Ограничение SQLite на количество параметров в одном запросе
+    private static final int MAX_QUERY_ARGS = 900;
+
     private ContentDao contentDao;
+    private UserInteractionRepository interactionRepository;
 
     public ContentRepository(Application application) {
         AppDatabase db = AppDatabase.getInstance(application);
         contentDao = db.contentDao();
+        interactionRepository = new UserInteractionRepository(application);
     }
     
     /**
@@ -30,6 +43,7 @@ public class ContentRepository {
     public ContentRepository(android.content.Context context) {
         AppDatabase db = AppDatabase.getInstance(context);
         contentDao = db.contentDao();
+        interactionRepository = new UserInteractionRepository(context);
     }
 
     /**
@@ -48,6 +62,19 @@ public class ContentRepository {
         contentDao.insertAll(contents);
     }
 
+    /**
+     * Добавить или обновить пачку контента одной транзакцией.
+     * У существующих строк обновляются только данные каталога,
+     * пользовательские поля (liked, watched, rating) сохраняются на стороне SQLite
+     * @param contents список контента
+     */
+    public void bulkUpsert(List<ContentEntity> contents) {
+        if (contents == null || contents.isEmpty()) {
+            return;
+        }
+        contentDao.upsertAll(contents);
+    }
+
     /**
      * Обновить контент
      * @param content контент
@@ -91,6 +118,42 @@ public class ContentRepository {
     public List<ContentEntity> getLiked() {
         return contentDao.getLiked();
     }
+
+    /**
+     * Получить страницу контента в порядке добавления
+     * @param after ключ предыдущей страницы или ContentPage.Key.FIRST
+     * @param pageSize размер страницы
+     * @return страница контента
+     */
+    public ContentPage<ContentEntity> getPage(ContentPage.Key after, int pageSize) {
+        return ContentPage.of(contentDao.getPage(after.getCreatedAt(), after.getId(), pageSize), pageSize);
+    }
+
+    /**
+     * Получить страницу понравившихся контента в порядке добавления
+     * @param after ключ предыдущей страницы или ContentPage.Key.FIRST
+     * @param pageSize размер страницы
+     * @return страница контента с отметкой liked=true
+     */
+    public ContentPage<ContentEntity> getLikedPage(ContentPage.Key after, int pageSize) {
+        return ContentPage.of(contentDao.getLikedPage(after.getCreatedAt(), after.getId(), pageSize), pageSize);
+    }
+
+    /**
+     * Постраничный обход всех контента
+     * @param pageSize размер окна
+     */
+    public ContentPager<ContentEntity> pageAll(int pageSize) {
+        return new ContentPager<>(this::getPage, pageSize);
+    }
+
+    /**
+     * Постраничный обход понравившихся контента
+     * @param pageSize размер окна
+     */
+    public ContentPager<ContentEntity> pageLiked(int pageSize) {
+        return new ContentPager<>(this::getLikedPage, pageSize);
+    }
     
     /**
      * Получить список понравившегося контента по категории
@@ -136,6 +199,16 @@ public class ContentRepository {
         return contentDao.getByCategory(category);
     }
 
+    /**
+     * Постраничный обход контента указанной категории
+     * @param category категория
+     * @param pageSize размер окна
+     */
+    public ContentPager<ContentEntity> pageByCategory(String category, int pageSize) {
+        return new ContentPager<>((after, size) -> ContentPage.of(
+                contentDao.getByCategoryPage(category, after.getCreatedAt(), after.getId(), size), size), pageSize);
+    }
+
     /**
      * Наблюдать за всем контентом (LiveData)
      * @return LiveData со списком всего контента
@@ -175,7 +248,11 @@ public class ContentRepository {
      * @return список контента, соответствующего запросу
      */
     public List<ContentEntity> search(String query) {
-        return contentDao.search(query);
+        String match = FtsUtils.toMatchQuery(query);
+        if (match == null) {
+            return new ArrayList<>();
+        }
+        return contentDao.search(match);
     }
     
     /**
@@ -208,26 +285,24 @@ public class ContentRepository {
      * @return список понравившегося контента
      */
     public List<ContentEntity> getLikedContentForUser(String userId) {
-        // В текущей реализации нет связи с пользователем, поэтому просто возвращаем все понравившиеся элементы
-        return contentDao.getLiked();
+        // Лайки пользователя берутся из журнала user_interactions: последнее из действий like/unlike.
+        // Журнал хранится в базе пользовательских данных, поэтому строки каталога выбираются по ID
+        List<String> likedIds = interactionRepository.getLikedIds(userId);
+        List<ContentEntity> result = new ArrayList<>(likedIds.size());
+        for (int from = 0; from < likedIds.size(); from += MAX_QUERY_ARGS) {
+            result.addAll(contentDao.getByIds(likedIds.subList(from, Math.min(from + MAX_QUERY_ARGS, likedIds.size()))));
+        }
+        return result;
     }
     
     /**
-     * Обновление или добавление контента
+     * Обновление или добавление контента вместе с пользовательскими полями
+     * (rating, completed, timestamp), например при восстановлении из облака
      * @param content контент для обновления/добавления
      */
     public void updateOrInsert(ContentEntity content) {
-        ContentEntity existingContent = contentDao.getById(content.getId());
-        if (existingContent != null) {
-            // Сохраняем значение liked из существующего контента,
-            // если оно было установлено в true
-            if (existingContent.isLiked()) {
-                content.setLiked(true);
-            }
-            update(content);
-        } else {
-            insert(content);
-        }
+        // Отметка liked существующей строки сохраняется в самом UPDATE, без чтения перед записью
+        contentDao.upsertWithUserFields(content);
     }
     
     /**
@@ -250,4 +325,153 @@ public class ContentRepository {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    // ==================== Асинхронные варианты (RxJava) ====================
+    /**
+     * Асинхронный вариант {@link #insert(ContentEntity)}
+     */
+    public Completable insertAsync(ContentEntity content) {
+        return Completable.fromAction(() -> insert(content)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #insertAll(List)}
+     */
+    public Completable insertAllAsync(List<ContentEntity> contents) {
+        return Completable.fromAction(() -> insertAll(contents)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #bulkUpsert(List)}
+     */
+    public Completable bulkUpsertAsync(List<ContentEntity> contents) {
+        return Completable.fromAction(() -> bulkUpsert(contents)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #update(ContentEntity)}
+     */
+    public Completable updateAsync(ContentEntity content) {
+        return Completable.fromAction(() -> update(content)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #deleteById(String)}
+     */
+    public Completable deleteByIdAsync(String id) {
+        return Completable.fromAction(() -> deleteById(id)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getById(String)}
+     */
+    public Maybe<ContentEntity> getByIdAsync(String id) {
+        return Maybe.fromCallable(() -> getById(id)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getAll()}
+     */
+    public Single<List<ContentEntity>> getAllAsync() {
+        return Single.fromCallable(this::getAll).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getLiked()}
+     */
+    public Single<List<ContentEntity>> getLikedAsync() {
+        return Single.fromCallable(this::getLiked).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getPage(ContentPage.Key, int)}
+     */
+    public Single<ContentPage<ContentEntity>> getPageAsync(ContentPage.Key after, int pageSize) {
+        return Single.fromCallable(() -> getPage(after, pageSize)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getLikedPage(ContentPage.Key, int)}
+     */
+    public Single<ContentPage<ContentEntity>> getLikedPageAsync(ContentPage.Key after, int pageSize) {
+        return Single.fromCallable(() -> getLikedPage(after, pageSize)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #updateLikedStatus(String, boolean)}
+     */
+    public Completable updateLikedStatusAsync(String id, boolean liked) {
+        return Completable.fromAction(() -> updateLikedStatus(id, liked)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #updateWatchedStatus(String, boolean)}
+     */
+    public Completable updateWatchedStatusAsync(String id, boolean watched) {
+        return Completable.fromAction(() -> updateWatchedStatus(id, watched)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #search(String)}
+     */
+    public Single<List<ContentEntity>> searchAsync(String query) {
+        return Single.fromCallable(() -> search(query)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getCount()}
+     */
+    public Single<Integer> getCountAsync() {
+        return Single.fromCallable(this::getCount).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getLikedCount()}
+     */
+    public Single<Integer> getLikedCountAsync() {
+        return Single.fromCallable(this::getLikedCount).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getByCategory(String)}
+     */
+    public Single<List<ContentEntity>> getByCategoryAsync(String category) {
+        return Single.fromCallable(() -> getByCategory(category)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getLikedContentForUser(String)}
+     */
+    public Single<List<ContentEntity>> getLikedContentForUserAsync(String userId) {
+        return Single.fromCallable(() -> getLikedContentForUser(userId)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #updateOrInsert(ContentEntity)}
+     */
+    public Completable updateOrInsertAsync(ContentEntity content) {
+        return Completable.fromAction(() -> updateOrInsert(content)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #updateAndPersistLikedStatus(String, boolean)}
+     */
+    public Single<Boolean> updateAndPersistLikedStatusAsync(String id, boolean liked) {
+        return Single.fromCallable(() -> updateAndPersistLikedStatus(id, liked)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Наблюдать за понравившимися элементами (Flowable).
+     * Room перезапускает запрос в пуле БД при каждом изменении таблицы
+     */
+    public Flowable<List<ContentEntity>> flowLiked() {
+        return contentDao.flowLiked();
+    }
+
+    /**
+     * Наблюдать за количеством понравившихся элементов (Flowable)
+     */
+    public Flowable<Integer> flowLikedCount() {
+        return contentDao.flowLikedCount();
+    }
+}
@@ -5,21 +5,34 @@ import android.app.Application;
 import androidx.lifecycle.LiveData;
 
 import com.draker.swipetime.database.AppDatabase;
+import com.draker.swipetime.database.ContentFilterQueryBuilder;
+import com.draker.swipetime.database.DatabaseSchedulers;
+import com.draker.swipetime.database.FtsUtils;
 import com.draker.swipetime.database.dao.GameDao;
 import com.draker.swipetime.database.entities.GameEntity;
+import com.draker.swipetime.database.entities.UserPreferencesEntity;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+
 /**
  * Репозиторий для работы с играми
  */
 public class GameRepository {
 
+    private AppDatabase db;
     private GameDao gameDao;
+    private GenreRepository genreRepository;
 
     public GameRepository(Application application) {
-        AppDatabase db = AppDatabase.getInstance(application);
+        db = AppDatabase.getInstance(application);
         gameDao = db.gameDao();
+        genreRepository = new GenreRepository(application);
     }
 
     /**
@@ -27,7 +40,10 @@ public class GameRepository {
      * @param game игра
      */
     public void insert(GameEntity game) {
-        gameDao.insert(game);
+        db.runInTransaction(() -> {
+            gameDao.insert(game);
+            genreRepository.index(game);
+        });
     }
 
     /**
@@ -35,7 +51,26 @@ public class GameRepository {
      * @param games список игр
      */
     public void insertAll(List<GameEntity> games) {
-        gameDao.insertAll(games);
+        db.runInTransaction(() -> {
+            gameDao.insertAll(games);
+            genreRepository.indexAll(games);
+        });
+    }
+
+    /**
+     * Добавить или обновить пачку игр одной транзакцией.
+     * У существующих строк обновляются только данные каталога,
+     * пользовательские поля (liked, watched, rating) сохраняются на стороне SQLite
+     * @param games список игр
+     */
+    public void bulkUpsert(List<GameEntity> games) {
+        if (games == null || games.isEmpty()) {
+            return;
+        }
+        db.runInTransaction(() -> {
+            gameDao.upsertAll(games);
+            genreRepository.indexAll(games);
+        });
     }
 
     /**
@@ -43,7 +78,10 @@ public class GameRepository {
      * @param game игра
      */
     public void update(GameEntity game) {
-        gameDao.update(game);
+        db.runInTransaction(() -> {
+            gameDao.update(game);
+            genreRepository.index(game);
+        });
     }
 
     /**
@@ -51,10 +89,13 @@ public class GameRepository {
      * @param id ID игры
      */
     public void deleteById(String id) {
-        GameEntity game = gameDao.getById(id);
-        if (game != null) {
-            gameDao.delete(game);
-        }
+        db.runInTransaction(() -> {
+            GameEntity game = gameDao.getById(id);
+            if (game != null) {
+                gameDao.delete(game);
+                genreRepository.removeLinks("games", id);
+            }
+        });
     }
 
     /**
@@ -74,6 +115,16 @@ public class GameRepository {
         return gameDao.getAll();
     }
 
+    /**
+     * Получить игры, подходящие под предпочтения пользователя.
+     * Фильтрация выполняется в SQLite, в память попадают только подходящие строки
+     * @param preferences предпочтения пользователя
+     * @return список отфильтрованных игр
+     */
+    public List<GameEntity> getFiltered(UserPreferencesEntity preferences) {
+        return gameDao.getFiltered(ContentFilterQueryBuilder.forGames(preferences));
+    }
+
     /**
      * Получить список понравившихся игр
      * @return список игр с отметкой liked=true
@@ -82,6 +133,42 @@ public class GameRepository {
         return gameDao.getLiked();
     }
 
+    /**
+     * Получить страницу игр в порядке добавления
+     * @param after ключ предыдущей страницы или ContentPage.Key.FIRST
+     * @param pageSize размер страницы
+     * @return страница игр
+     */
+    public ContentPage<GameEntity> getPage(ContentPage.Key after, int pageSize) {
+        return ContentPage.of(gameDao.getPage(after.getCreatedAt(), after.getId(), pageSize), pageSize);
+    }
+
+    /**
+     * Получить страницу понравившихся игр в порядке добавления
+     * @param after ключ предыдущей страницы или ContentPage.Key.FIRST
+     * @param pageSize размер страницы
+     * @return страница игр с отметкой liked=true
+     */
+    public ContentPage<GameEntity> getLikedPage(ContentPage.Key after, int pageSize) {
+        return ContentPage.of(gameDao.getLikedPage(after.getCreatedAt(), after.getId(), pageSize), pageSize);
+    }
+
+    /**
+     * Постраничный обход всех игр
+     * @param pageSize размер окна
+     */
+    public ContentPager<GameEntity> pageAll(int pageSize) {
+        return new ContentPager<>(this::getPage, pageSize);
+    }
+
+    /**
+     * Постраничный обход понравившихся игр
+     * @param pageSize размер окна
+     */
+    public ContentPager<GameEntity> pageLiked(int pageSize) {
+        return new ContentPager<>(this::getLikedPage, pageSize);
+    }
+
     /**
      * Обновить статус "понравилось" для игры
      * @param id ID игры
@@ -138,7 +225,11 @@ public class GameRepository {
      * @return список игр, соответствующих запросу
      */
     public List<GameEntity> search(String query) {
-        return gameDao.search(query);
+        String match = FtsUtils.toMatchQuery(query);
+        if (match == null) {
+            return new ArrayList<>();
+        }
+        return gameDao.search(match);
     }
     
     /**
@@ -164,4 +255,132 @@ public class GameRepository {
     public int getCompletedCount() {
         return gameDao.getCompletedCount();
     }
-}
\ No newline at end of file
+
+    // ==================== Асинхронные варианты (RxJava) ====================
+    /**
+     * Асинхронный вариант {@link #insert(GameEntity)}
+     */
+    public Completable insertAsync(GameEntity game) {
+        return Completable.fromAction(() -> insert(game)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #insertAll(List)}
+     */
+    public Completable insertAllAsync(List<GameEntity> games) {
+        return Completable.fromAction(() -> insertAll(games)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #bulkUpsert(List)}
+     */
+    public Completable bulkUpsertAsync(List<GameEntity> games) {
+        return Completable.fromAction(() -> bulkUpsert(games)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #update(GameEntity)}
+     */
+    public Completable updateAsync(GameEntity game) {
+        return Completable.fromAction(() -> update(game)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #deleteById(String)}
+     */
+    public Completable deleteByIdAsync(String id) {
+        return Completable.fromAction(() -> deleteById(id)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getById(String)}
+     */
+    public Maybe<GameEntity> getByIdAsync(String id) {
+        return Maybe.fromCallable(() -> getById(id)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getAll()}
+     */
+    public Single<List<GameEntity>> getAllAsync() {
+        return Single.fromCallable(this::getAll).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getFiltered(UserPreferencesEntity)}
+     */
+    public Single<List<GameEntity>> getFilteredAsync(UserPreferencesEntity preferences) {
+        return Single.fromCallable(() -> getFiltered(preferences)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getLiked()}
+     */
+    public Single<List<GameEntity>> getLikedAsync() {
+        return Single.fromCallable(this::getLiked).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getPage(ContentPage.Key, int)}
+     */
+    public Single<ContentPage<GameEntity>> getPageAsync(ContentPage.Key after, int pageSize) {
+        return Single.fromCallable(() -> getPage(after, pageSize)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getLikedPage(ContentPage.Key, int)}
+     */
+    public Single<ContentPage<GameEntity>> getLikedPageAsync(ContentPage.Key after, int pageSize) {
+        return Single.fromCallable(() -> getLikedPage(after, pageSize)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #updateLikedStatus(String, boolean)}
+     */
+    public Completable updateLikedStatusAsync(String id, boolean liked) {
+        return Completable.fromAction(() -> updateLikedStatus(id, liked)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #updateCompletedStatus(String, boolean)}
+     */
+    public Completable updateCompletedStatusAsync(String id, boolean completed) {
+        return Completable.fromAction(() -> updateCompletedStatus(id, completed)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #search(String)}
+     */
+    public Single<List<GameEntity>> searchAsync(String query) {
+        return Single.fromCallable(() -> search(query)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getCount()}
+     */
+    public Single<Integer> getCountAsync() {
+        return Single.fromCallable(this::getCount).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getLikedCount()}
+     */
+    public Single<Integer> getLikedCountAsync() {
+        return Single.fromCallable(this::getLikedCount).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Наблюдать за понравившимися элементами (Flowable).
+     * Room перезапускает запрос в пуле БД при каждом изменении таблицы
+     */
+    public Flowable<List<GameEntity>> flowLiked() {
+        return gameDao.flowLiked();
+    }
+
+    /**
+     * Наблюдать за количеством понравившихся элементов (Flowable)
+     */
+    public Flowable<Integer> flowLikedCount() {
+        return gameDao.flowLikedCount();
+    }
+}
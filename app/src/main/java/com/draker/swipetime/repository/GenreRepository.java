@@ -0,0 +1,240 @@
+package com.draker.swipetime.repository;
+
+import android.app.Application;
+import android.util.Log;
+
+import com.draker.swipetime.database.AppDatabase;
+import com.draker.swipetime.database.GenreUtils;
+import com.draker.swipetime.database.dao.GenreDao;
+import com.draker.swipetime.database.entities.AnimeEntity;
+import com.draker.swipetime.database.entities.BookEntity;
+import com.draker.swipetime.database.entities.CatalogItemView;
+import com.draker.swipetime.database.entities.ContentEntity;
+import com.draker.swipetime.database.entities.ContentGenreCrossRef;
+import com.draker.swipetime.database.entities.GameEntity;
+import com.draker.swipetime.database.entities.GenreEntity;
+import com.draker.swipetime.database.entities.MovieEntity;
+import com.draker.swipetime.database.entities.TVShowEntity;
+import com.draker.swipetime.utils.FacetIndex;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Репозиторий для работы со словарем жанров и связями контент-жанр
+ */
+public class GenreRepository {
+    private static final String TAG = "GenreRepository";
+
+    // Ограничение SQLite на количество параметров в одном запросе
+    private static final int MAX_QUERY_ARGS = 900;
+
+    private static final int[] NO_GENRES = new int[0];
+
+    private final AppDatabase db;
+    private final GenreDao genreDao;
+
+    public GenreRepository(Application application) {
+        db = AppDatabase.getInstance(application);
+        genreDao = db.genreDao();
+    }
+
+    /**
+     * Обновить связи жанров для одного элемента контента.
+     * Заодно обновляется индекс фасетов: через этот метод проходит любая запись контента
+     * @param content элемент контента любой категории
+     */
+    public void index(ContentEntity content) {
+        if (!hasGenreField(content)) {
+            return;
+        }
+        db.runInTransaction(() -> indexInternal(CatalogItemView.sourceOf(content), content.getId(), genresOf(content)));
+        FacetIndex.getInstance().index(content);
+    }
+
+    /**
+     * Обновить связи жанров для списка элементов одной транзакцией
+     * @param contents список элементов контента
+     */
+    public void indexAll(List<? extends ContentEntity> contents) {
+        if (contents == null || contents.isEmpty()) {
+            return;
+        }
+        db.runInTransaction(() -> {
+            for (ContentEntity content : contents) {
+                if (hasGenreField(content)) {
+                    indexInternal(CatalogItemView.sourceOf(content), content.getId(), genresOf(content));
+                }
+            }
+        });
+        FacetIndex.getInstance().indexAll(contents);
+    }
+
+    /**
+     * Удалить связи жанров для элемента контента
+     * @param source имя таблицы категории ("movies", "games" и т.д.)
+     * @param contentId ID контента
+     */
+    public void removeLinks(String source, String contentId) {
+        genreDao.deleteLinksForContent(source, contentId);
+        FacetIndex.getInstance().remove(source, contentId);
+    }
+
+    /**
+     * Удалить связи жанров всех элементов категории.
+     * Вызывается в транзакции удаления вместе с очисткой таблицы категории
+     * @param source имя таблицы категории ("movies", "games" и т.д.)
+     */
+    public void removeSource(String source) {
+        genreDao.deleteLinksForSource(source);
+        FacetIndex.getInstance().removeSource(source);
+    }
+
+    /**
+     * Получить отсортированные ID жанров для списка сущностей. Связи ищутся по таблице-источнику
+     * каждого элемента, поэтому фильм и сериал с одинаковым ID получают свои жанры
+     * @param contents элементы контента
+     * @return карта "элемент (по ссылке) -> отсортированный массив ID жанров"
+     */
+    public Map<ContentEntity, int[]> getGenreIdsFor(List<? extends ContentEntity> contents) {
+        Map<String, Map<String, List<ContentEntity>>> bySource = new HashMap<>();
+        for (ContentEntity content : contents) {
+            bySource.computeIfAbsent(CatalogItemView.sourceOf(content), key -> new LinkedHashMap<>())
+                    .computeIfAbsent(content.getId(), key -> new ArrayList<>(1))
+                    .add(content);
+        }
+
+        Map<ContentEntity, List<Integer>> grouped = new IdentityHashMap<>();
+        for (Map.Entry<String, Map<String, List<ContentEntity>>> source : bySource.entrySet()) {
+            List<String> ids = new ArrayList<>(source.getValue().keySet());
+            for (int from = 0; from < ids.size(); from += MAX_QUERY_ARGS) {
+                List<String> chunk = ids.subList(from, Math.min(from + MAX_QUERY_ARGS, ids.size()));
+                for (ContentGenreCrossRef link : genreDao.getLinksForContent(source.getKey(), chunk)) {
+                    for (ContentEntity content : source.getValue().get(link.getContentId())) {
+                        grouped.computeIfAbsent(content, key -> new ArrayList<>()).add(link.getGenreId());
+                    }
+                }
+            }
+        }
+
+        Map<ContentEntity, int[]> result = new IdentityHashMap<>();
+        for (Map.Entry<ContentEntity, List<Integer>> entry : grouped.entrySet()) {
+            result.put(entry.getKey(), toSortedArray(entry.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Получить отсортированные ID жанров по списку названий
+     * @param names названия жанров в любом регистре
+     * @return отсортированный массив ID известных жанров
+     */
+    public int[] getIdsByNames(List<String> names) {
+        List<String> normalized = GenreUtils.normalizeAll(names);
+        if (normalized.isEmpty()) {
+            return NO_GENRES;
+        }
+        return toSortedArray(genreDao.getIdsByNormalizedNames(normalized));
+    }
+
+    /**
+     * Получить отсортированные ID жанров из JSON-строки предпочтений
+     * @param preferredGenresJson JSON-массив названий жанров
+     * @return отсортированный массив ID известных жанров
+     */
+    public int[] getIdsForPreferences(String preferredGenresJson) {
+        List<String> names = new ArrayList<>();
+        if (preferredGenresJson == null || preferredGenresJson.isEmpty()) {
+            return NO_GENRES;
+        }
+
+        try {
+            JSONArray jsonArray = new JSONArray(preferredGenresJson);
+            for (int i = 0; i < jsonArray.length(); i++) {
+                names.add(jsonArray.getString(i));
+            }
+        } catch (JSONException e) {
+            Log.e(TAG, "Ошибка при парсинге JSON: " + e.getMessage());
+        }
+
+        return getIdsByNames(names);
+    }
+
+    /**
+     * Получить словарь жанров
+     * @return карта "ID жанра -> название"
+     */
+    public Map<Integer, String> getGenreNames() {
+        Map<Integer, String> names = new HashMap<>();
+        for (GenreEntity genre : genreDao.getAll()) {
+            names.put(genre.getId(), genre.getName() != null ? genre.getName() : genre.getNormalizedName());
+        }
+        return names;
+    }
+
+    private void indexInternal(String source, String contentId, String genres) {
+        genreDao.deleteLinksForContent(source, contentId);
+
+        Map<String, String> parsed = GenreUtils.split(genres);
+        if (parsed.isEmpty()) {
+            return;
+        }
+
+        List<ContentGenreCrossRef> links = new ArrayList<>();
+        for (Map.Entry<String, String> genre : parsed.entrySet()) {
+            Integer genreId = genreDao.getIdByNormalizedName(genre.getKey());
+            if (genreId == null) {
+                genreId = (int) genreDao.insert(new GenreEntity(genre.getValue(), genre.getKey()));
+            }
+            links.add(new ContentGenreCrossRef(source, contentId, genreId));
+        }
+        genreDao.insertLinks(links);
+    }
+
+    private static int[] toSortedArray(List<Integer> values) {
+        if (values == null || values.isEmpty()) {
+            return NO_GENRES;
+        }
+        int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Общий контент не хранит жанры, его запись не должна затирать связи типизированной сущности
+     */
+    private static boolean hasGenreField(ContentEntity content) {
+        return content instanceof MovieEntity || content instanceof TVShowEntity ||
+                content instanceof GameEntity || content instanceof BookEntity ||
+                content instanceof AnimeEntity;
+    }
+
+    /**
+     * Извлекает строку жанров из сущности в зависимости от ее типа
+     */
+    private static String genresOf(ContentEntity content) {
+        if (content instanceof MovieEntity) {
+            return ((MovieEntity) content).getGenres();
+        } else if (content instanceof TVShowEntity) {
+            return ((TVShowEntity) content).getGenres();
+        } else if (content instanceof GameEntity) {
+            return ((GameEntity) content).getGenres();
+        } else if (content instanceof BookEntity) {
+            return ((BookEntity) content).getGenres();
+        } else if (content instanceof AnimeEntity) {
+            return ((AnimeEntity) content).getGenres();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,499 @@
+package com.draker.swipetime.repository;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.draker.swipetime.database.UserDatabase;
+import com.draker.swipetime.database.dao.ContentOrdinalDao;
+import com.draker.swipetime.database.dao.UserInteractionDao;
+import com.draker.swipetime.database.entities.CatalogItemView;
+import com.draker.swipetime.database.entities.ContentOrdinalEntity;
+import com.draker.swipetime.database.entities.UserInteractionEntity;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Битовые множества истории пользователя: показанные, понравившиеся и непонравившиеся элементы.
+ * Каждому элементу контента - паре таблица-источник и ID - выдается плотный номер (content_ordinals), а состояние хранится
+ * по одному биту на номер в файлах, отображенных в память, отдельно для каждого пользователя,
+ * категории и вида действия. Проверка принадлежности - чтение одного байта, без запросов к БД.
+ * Изменения пишутся прямо в отображение и сбрасываются на диск порциями.
+ * Источник истины - журнал user_interactions. Рядом с файлами пользователя хранится отметка -
+ * ID последней записи журнала, учтенной в сброшенных на диск множествах. Отметка пишется
+ * после сброса отображений, поэтому после аварийного завершения записи до отметки
+ * гарантированно есть на диске, а более поздние могли не дойти или дойти частично.
+ * При открытии записи после отметки доигрываются, а если отметки нет или журнал
+ * короче нее, множества пересобираются целиком. Записи, вставленные в журнал параллельно, могут учитываться
+ * не по порядку ID: отметка берется по наибольшему ID
+ */
+public final class InteractionBitsets {
+    private static final String TAG = "InteractionBitsets";
+
+    // Виды множеств
+    public static final int VIEWED = 0;
+    public static final int LIKED = 1;
+    public static final int DISLIKED = 2;
+    private static final String[] KIND_SUFFIXES = {".viewed", ".liked", ".disliked"};
+
+    // Ключ множества показов по всем категориям (getIds без категории)
+    private static final String ALL_CATEGORIES = "all";
+
+    private static final String DIRECTORY = "history_bitsets";
+
+    // Каталоги прежних форматов, удаляются при первом открытии: с именами по hashCode
+    // и с номерами только по ID контента (до версии 6 базы пользователя)
+    private static final String[] LEGACY_DIRECTORIES = {"interaction_bits", "interaction_bitsets"};
+
+    // Таблицы-источники: отмена лайка без категории снимается со всех номеров ID
+    private static final String[] SOURCES = {"movies", "tv_shows", "games", "books", "anime", "content"};
+
+    // Файл отметки журнала в каталоге пользователя
+    private static final String MARK_FILE = "journal.mark";
+
+    // Шаг роста файла множества, байт
+    private static final int GROWTH_BYTES = 4096;
+
+    // Через сколько изменений отображения сбрасываются на диск
+    private static final int FLUSH_EVERY = 64;
+
+    private static InteractionBitsets instance;
+
+    private final File root;
+    private final ContentOrdinalDao ordinalDao;
+    private final UserInteractionDao interactionDao;
+
+    // Номера элементов: ordinalKey(source, ID) -> номер и номер -> ID
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<String> contentIds = new ArrayList<>();
+    private boolean ordinalsLoaded;
+
+    // Открытые множества по пути файла
+    private final Map<String, MappedBitset> bitsets = new HashMap<>();
+    private final Set<String> loadedUsers = new HashSet<>();
+    private int pendingWrites;
+
+    // Учтенные, но еще не записанные отметки журнала по пользователям
+    private final Map<String, Long> pendingMarks = new HashMap<>();
+    private final File filesDir;
+
+    private InteractionBitsets(Context context) {
+        Context appContext = context.getApplicationContext();
+        filesDir = appContext.getFilesDir();
+        root = new File(filesDir, DIRECTORY);
+        UserDatabase database = UserDatabase.getInstance(appContext);
+        ordinalDao = database.contentOrdinalDao();
+        interactionDao = database.userInteractionDao();
+    }
+
+    public static synchronized InteractionBitsets getInstance(Context context) {
+        if (instance == null) {
+            instance = new InteractionBitsets(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Учесть действие пользователя, уже записанное в журнал
+     * @param journalId ID записи журнала
+     * @param userId ID пользователя
+     * @param contentId ID контента
+     * @param category категория или null
+     * @param action действие (UserInteractionEntity.ACTION_*)
+     */
+    public synchronized void record(long journalId, String userId, String contentId, String category, String action) {
+        ensureUser(userId);
+        apply(userId, contentId, category, action);
+        Long mark = pendingMarks.get(userId);
+        if (mark == null || mark < journalId) {
+            pendingMarks.put(userId, journalId);
+        }
+        if (++pendingWrites >= FLUSH_EVERY) {
+            flush();
+        }
+    }
+
+    /**
+     * Проверить, входит ли элемент в множество
+     * @param userId ID пользователя
+     * @param category категория контента; по ней же выбирается номер элемента
+     * @param kind VIEWED, LIKED или DISLIKED
+     */
+    public synchronized boolean contains(String userId, String category, String contentId, int kind) {
+        ensureUser(userId);
+        Integer ordinal = ordinals.get(ordinalKey(CatalogItemView.sourceFor(category), contentId));
+        if (ordinal == null) {
+            return false;
+        }
+        MappedBitset bitset = getBitset(userId, categoryKey(category), kind, false);
+        return bitset != null && bitset.get(ordinal);
+    }
+
+    /**
+     * ID элементов множества
+     * @param userId ID пользователя
+     * @param category категория; null - по всем категориям (только для VIEWED)
+     * @param kind VIEWED, LIKED или DISLIKED
+     */
+    public synchronized Set<String> getIds(String userId, String category, int kind) {
+        ensureUser(userId);
+        Set<String> ids = new HashSet<>();
+        MappedBitset bitset = getBitset(userId, categoryKey(category), kind, false);
+        if (bitset != null) {
+            int limit = Math.min(contentIds.size(), bitset.capacity());
+            for (int ordinal = bitset.nextSetBit(0, limit); ordinal >= 0; ordinal = bitset.nextSetBit(ordinal + 1, limit)) {
+                String contentId = contentIds.get(ordinal);
+                if (contentId != null) {
+                    ids.add(contentId);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Пересобрать множества пользователя по журналу. Нужно после удаления записей из журнала
+     * @param userId ID пользователя
+     */
+    public synchronized void rebuild(String userId) {
+        ensureOrdinals();
+        File userDir = getUserDir(userId);
+        for (int kind = 0; kind < KIND_SUFFIXES.length; kind++) {
+            for (String path : listFiles(userId, kind)) {
+                getBitset(path).clear();
+            }
+        }
+        if (!userDir.exists() && !userDir.mkdirs()) {
+            Log.e(TAG, "Не удалось создать каталог множеств: " + userDir);
+        }
+        loadedUsers.add(userId);
+
+        List<UserInteractionEntity> journal = interactionDao.getAllForUser(userId);
+        replay(userId, journal);
+        // Отметка записывается и для пустого журнала, иначе каталог будет пересобираться при каждом открытии
+        pendingMarks.put(userId, journal.isEmpty() ? 0L : journal.get(journal.size() - 1).getId());
+        flush();
+        Log.d(TAG, "Множества пользователя " + userId + " восстановлены по " + journal.size() + " записям журнала");
+    }
+
+    /**
+     * Сбросить изменения отображений на диск, затем записать отметки журнала
+     */
+    public synchronized void flush() {
+        for (MappedBitset bitset : bitsets.values()) {
+            bitset.force();
+        }
+        for (Map.Entry<String, Long> mark : pendingMarks.entrySet()) {
+            writeMark(mark.getKey(), mark.getValue());
+        }
+        pendingMarks.clear();
+        pendingWrites = 0;
+    }
+
+    private void replay(String userId, List<UserInteractionEntity> journal) {
+        for (UserInteractionEntity interaction : journal) {
+            apply(userId, interaction.getContentId(), interaction.getCategory(), interaction.getAction());
+        }
+    }
+
+    private void apply(String userId, String contentId, String category, String action) {
+        String key = categoryKey(category);
+        switch (action) {
+            case UserInteractionEntity.ACTION_VIEW:
+                markViewed(userId, key, ordinalFor(category, contentId));
+                break;
+            case UserInteractionEntity.ACTION_LIKE: {
+                int ordinal = ordinalFor(category, contentId);
+                markViewed(userId, key, ordinal);
+                getBitset(userId, key, LIKED, true).set(ordinal, true);
+                break;
+            }
+            case UserInteractionEntity.ACTION_DISLIKE: {
+                int ordinal = ordinalFor(category, contentId);
+                markViewed(userId, key, ordinal);
+                getBitset(userId, key, DISLIKED, true).set(ordinal, true);
+                break;
+            }
+            case UserInteractionEntity.ACTION_UNLIKE:
+                // Категория отмены лайка может быть неизвестна - снимаем отметку со всех номеров ID
+                for (String source : category == null ? SOURCES : new String[]{CatalogItemView.sourceFor(category)}) {
+                    Integer ordinal = ordinals.get(ordinalKey(source, contentId));
+                    if (ordinal == null) {
+                        continue;
+                    }
+                    for (String liked : listFiles(userId, LIKED)) {
+                        getBitset(liked).set(ordinal, false);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void markViewed(String userId, String key, int ordinal) {
+        getBitset(userId, key, VIEWED, true).set(ordinal, true);
+        if (!ALL_CATEGORIES.equals(key)) {
+            getBitset(userId, ALL_CATEGORIES, VIEWED, true).set(ordinal, true);
+        }
+    }
+
+    private void ensureUser(String userId) {
+        ensureOrdinals();
+        if (loadedUsers.contains(userId)) {
+            return;
+        }
+        long mark = getUserDir(userId).exists() ? readMark(userId) : -1;
+        long last = interactionDao.getLastIdForUser(userId);
+        if (mark < 0 || mark > last) {
+            // Каталога или отметки нет, либо журнал очищен в обход rebuild
+            rebuild(userId);
+            return;
+        }
+        loadedUsers.add(userId);
+        if (mark < last) {
+            // Записи после отметки могли не дойти до диска: доигрываем их,
+            // повторное применение уже учтенных действий результат не меняет
+            List<UserInteractionEntity> tail = interactionDao.getForUserAfter(userId, mark);
+            replay(userId, tail);
+            pendingMarks.put(userId, last);
+            flush();
+            Log.d(TAG, "Множества пользователя " + userId + " дополнены " + tail.size() + " записями журнала");
+        }
+    }
+
+    private long readMark(String userId) {
+        File file = new File(getUserDir(userId), MARK_FILE);
+        if (!file.exists()) {
+            return -1;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readLong();
+        } catch (IOException e) {
+            Log.e(TAG, "Ошибка при чтении отметки журнала " + file + ": " + e.getMessage());
+            return -1;
+        }
+    }
+
+    private void writeMark(String userId, long mark) {
+        // Запись во временный файл и переименование: отметка либо старая, либо новая
+        File file = new File(getUserDir(userId), MARK_FILE);
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(stream)) {
+            out.writeLong(mark);
+            out.flush();
+            stream.getFD().sync();
+        } catch (IOException e) {
+            Log.e(TAG, "Ошибка при записи отметки журнала " + file + ": " + e.getMessage());
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            Log.e(TAG, "Не удалось заменить отметку журнала " + file);
+        }
+    }
+
+    private void ensureOrdinals() {
+        if (ordinalsLoaded) {
+            return;
+        }
+        for (String legacy : LEGACY_DIRECTORIES) {
+            File legacyRoot = new File(filesDir, legacy);
+            if (legacyRoot.exists()) {
+                deleteRecursively(legacyRoot);
+            }
+        }
+        for (ContentOrdinalEntity row : ordinalDao.getAll()) {
+            // Номера плотные, но строка могла не записаться при аварийном завершении
+            while (contentIds.size() < row.getOrdinal()) {
+                contentIds.add(null);
+            }
+            contentIds.add(row.getContentId());
+            ordinals.put(ordinalKey(row.getSource(), row.getContentId()), row.getOrdinal());
+        }
+        ordinalsLoaded = true;
+    }
+
+    private int ordinalFor(String category, String contentId) {
+        String source = CatalogItemView.sourceFor(category);
+        String key = ordinalKey(source, contentId);
+        Integer ordinal = ordinals.get(key);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        int next = contentIds.size();
+        ordinalDao.insert(new ContentOrdinalEntity(next, source, contentId));
+        contentIds.add(contentId);
+        ordinals.put(key, next);
+        return next;
+    }
+
+    private static String ordinalKey(String source, String contentId) {
+        return source + '\n' + contentId;
+    }
+
+    // Имена файлов - шестнадцатеричная запись UTF-8, разные строки не совпадают.
+    // Ключ ALL_CATEGORIES содержит не шестнадцатеричные символы и тоже не совпадает
+    private static String categoryKey(String category) {
+        return category == null ? ALL_CATEGORIES : toHex(category);
+    }
+
+    private File getUserDir(String userId) {
+        return new File(root, toHex(userId));
+    }
+
+    private static String toHex(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = Character.forDigit((bytes[i] >>> 4) & 0xF, 16);
+            hex[i * 2 + 1] = Character.forDigit(bytes[i] & 0xF, 16);
+        }
+        return new String(hex);
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        if (!file.delete()) {
+            Log.w(TAG, "Не удалось удалить " + file);
+        }
+    }
+
+    private List<String> listFiles(String userId, int kind) {
+        List<String> paths = new ArrayList<>();
+        File[] files = getUserDir(userId).listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(KIND_SUFFIXES[kind])) {
+                    paths.add(file.getPath());
+                }
+            }
+        }
+        return paths;
+    }
+
+    private MappedBitset getBitset(String userId, String key, int kind, boolean create) {
+        File file = new File(getUserDir(userId), key + KIND_SUFFIXES[kind]);
+        if (!create && !bitsets.containsKey(file.getPath()) && !file.exists()) {
+            return null;
+        }
+        return getBitset(file.getPath());
+    }
+
+    private MappedBitset getBitset(String path) {
+        MappedBitset bitset = bitsets.get(path);
+        if (bitset == null) {
+            bitset = new MappedBitset(path);
+            bitsets.put(path, bitset);
+        }
+        return bitset;
+    }
+
+    /**
+     * Битовое множество в файле, отображенном в память. Растет блоками GROWTH_BYTES
+     */
+    private static final class MappedBitset {
+        private final String path;
+        private MappedByteBuffer buffer;
+
+        MappedBitset(String path) {
+            this.path = path;
+            File file = new File(path);
+            remap(file.exists() ? (int) file.length() : 0);
+        }
+
+        int capacity() {
+            return buffer == null ? 0 : buffer.capacity() * 8;
+        }
+
+        boolean get(int ordinal) {
+            if (ordinal >= capacity()) {
+                return false;
+            }
+            return (buffer.get(ordinal >>> 3) & (1 << (ordinal & 7))) != 0;
+        }
+
+        void set(int ordinal, boolean value) {
+            if (ordinal >= capacity()) {
+                if (!value) {
+                    return;
+                }
+                int needed = (ordinal >>> 3) + 1;
+                remap((needed + GROWTH_BYTES - 1) / GROWTH_BYTES * GROWTH_BYTES);
+                if (buffer == null) {
+                    return;
+                }
+            }
+            int index = ordinal >>> 3;
+            int mask = 1 << (ordinal & 7);
+            byte current = buffer.get(index);
+            buffer.put(index, (byte) (value ? current | mask : current & ~mask));
+        }
+
+        int nextSetBit(int from, int limit) {
+            for (int ordinal = from; ordinal < limit; ordinal++) {
+                int index = ordinal >>> 3;
+                if ((ordinal & 7) == 0 && buffer.get(index) == 0) {
+                    ordinal += 7;
+                    continue;
+                }
+                if ((buffer.get(index) & (1 << (ordinal & 7))) != 0) {
+                    return ordinal;
+                }
+            }
+            return -1;
+        }
+
+        void clear() {
+            if (buffer == null) {
+                return;
+            }
+            for (int i = 0; i < buffer.capacity(); i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+
+        void force() {
+            if (buffer != null) {
+                buffer.force();
+            }
+        }
+
+        private void remap(int size) {
+            if (size == 0) {
+                return;
+            }
+            File file = new File(path);
+            File parent = file.getParentFile();
+            if (parent != null && !parent.exists()) {
+                parent.mkdirs();
+            }
+            // Отображение остается действительным после закрытия канала
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+                 FileChannel channel = raf.getChannel()) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            } catch (IOException e) {
+                Log.e(TAG, "Ошибка при отображении множества " + path + ": " + e.getMessage());
+            }
+        }
+    }
+}
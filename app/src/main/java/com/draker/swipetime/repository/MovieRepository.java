@@ -5,21 +5,34 @@ import android.app.Application;
 import androidx.lifecycle.LiveData;
 
 import com.draker.swipetime.database.AppDatabase;
+import com.draker.swipetime.database.ContentFilterQueryBuilder;
+import com.draker.swipetime.database.DatabaseSchedulers;
+import com.draker.swipetime.database.FtsUtils;
 import com.draker.swipetime.database.dao.MovieDao;
 import com.draker.swipetime.database.entities.MovieEntity;
+import com.draker.swipetime.database.entities.UserPreferencesEntity;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+
 /**
  * Репозиторий для работы с фильмами
  */
 public class MovieRepository {
 
+    private AppDatabase db;
     private MovieDao movieDao;
+    private GenreRepository genreRepository;
 
     public MovieRepository(Application application) {
-        AppDatabase db = AppDatabase.getInstance(application);
+        db = AppDatabase.getInstance(application);
         movieDao = db.movieDao();
+        genreRepository = new GenreRepository(application);
     }
 
     /**
@@ -27,7 +40,10 @@ public class MovieRepository {
      * @param movie фильм
      */
     public void insert(MovieEntity movie) {
-        movieDao.insert(movie);
+        db.runInTransaction(() -> {
+            movieDao.insert(movie);
+            genreRepository.index(movie);
+        });
     }
 
     /**
@@ -35,7 +51,26 @@ public class MovieRepository {
      * @param movies список фильмов
      */
     public void insertAll(List<MovieEntity> movies) {
-        movieDao.insertAll(movies);
+        db.runInTransaction(() -> {
+            movieDao.insertAll(movies);
+            genreRepository.indexAll(movies);
+        });
+    }
+
+    /**
+     * Добавить или обновить пачку фильмов одной транзакцией.
+     * У существующих строк обновляются только данные каталога,
+     * пользовательские поля (liked, watched, rating) сохраняются на стороне SQLite
+     * @param movies список фильмов
+     */
+    public void bulkUpsert(List<MovieEntity> movies) {
+        if (movies == null || movies.isEmpty()) {
+            return;
+        }
+        db.runInTransaction(() -> {
+            movieDao.upsertAll(movies);
+            genreRepository.indexAll(movies);
+        });
     }
 
     /**
@@ -43,7 +78,10 @@ public class MovieRepository {
      * @param movie фильм
      */
     public void update(MovieEntity movie) {
-        movieDao.update(movie);
+        db.runInTransaction(() -> {
+            movieDao.update(movie);
+            genreRepository.index(movie);
+        });
     }
 
     /**
@@ -51,10 +89,13 @@ public class MovieRepository {
      * @param id ID фильма
      */
     public void deleteById(String id) {
-        MovieEntity movie = movieDao.getById(id);
-        if (movie != null) {
-            movieDao.delete(movie);
-        }
+        db.runInTransaction(() -> {
+            MovieEntity movie = movieDao.getById(id);
+            if (movie != null) {
+                movieDao.delete(movie);
+                genreRepository.removeLinks("movies", id);
+            }
+        });
     }
 
     /**
@@ -74,6 +115,16 @@ public class MovieRepository {
         return movieDao.getAll();
     }
 
+    /**
+     * Получить фильмы, подходящие под предпочтения пользователя.
+     * Фильтрация выполняется в SQLite, в память попадают только подходящие строки
+     * @param preferences предпочтения пользователя
+     * @return список отфильтрованных фильмов
+     */
+    public List<MovieEntity> getFiltered(UserPreferencesEntity preferences) {
+        return movieDao.getFiltered(ContentFilterQueryBuilder.forMovies(preferences));
+    }
+
     /**
      * Получить список понравившихся фильмов
      * @return список фильмов с отметкой liked=true
@@ -82,6 +133,42 @@ public class MovieRepository {
         return movieDao.getLiked();
     }
 
+    /**
+     * Получить страницу фильмов в порядке добавления
+     * @param after ключ предыдущей страницы или ContentPage.Key.FIRST
+     * @param pageSize размер страницы
+     * @return страница фильмов
+     */
+    public ContentPage<MovieEntity> getPage(ContentPage.Key after, int pageSize) {
+        return ContentPage.of(movieDao.getPage(after.getCreatedAt(), after.getId(), pageSize), pageSize);
+    }
+
+    /**
+     * Получить страницу понравившихся фильмов в порядке добавления
+     * @param after ключ предыдущей страницы или ContentPage.Key.FIRST
+     * @param pageSize размер страницы
+     * @return страница фильмов с отметкой liked=true
+     */
+    public ContentPage<MovieEntity> getLikedPage(ContentPage.Key after, int pageSize) {
+        return ContentPage.of(movieDao.getLikedPage(after.getCreatedAt(), after.getId(), pageSize), pageSize);
+    }
+
+    /**
+     * Постраничный обход всех фильмов
+     * @param pageSize размер окна
+     */
+    public ContentPager<MovieEntity> pageAll(int pageSize) {
+        return new ContentPager<>(this::getPage, pageSize);
+    }
+
+    /**
+     * Постраничный обход понравившихся фильмов
+     * @param pageSize размер окна
+     */
+    public ContentPager<MovieEntity> pageLiked(int pageSize) {
+        return new ContentPager<>(this::getLikedPage, pageSize);
+    }
+
     /**
      * Обновить статус "понравилось" для фильма
      * @param id ID фильма
@@ -162,13 +249,148 @@ public class MovieRepository {
      * @return список фильмов, соответствующих запросу
      */
     public List<MovieEntity> search(String query) {
-        return movieDao.search(query);
+        String match = FtsUtils.toMatchQuery(query);
+        if (match == null) {
+            return new ArrayList<>();
+        }
+        return movieDao.search(match);
     }
     
     /**
      * Удалить все фильмы
      */
     public void deleteAll() {
-        movieDao.deleteAll();
+        db.runInTransaction(() -> {
+            movieDao.deleteAll();
+            genreRepository.removeSource("movies");
+        });
+    }
+
+    // ==================== Асинхронные варианты (RxJava) ====================
+    /**
+     * Асинхронный вариант {@link #insert(MovieEntity)}
+     */
+    public Completable insertAsync(MovieEntity movie) {
+        return Completable.fromAction(() -> insert(movie)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #insertAll(List)}
+     */
+    public Completable insertAllAsync(List<MovieEntity> movies) {
+        return Completable.fromAction(() -> insertAll(movies)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #bulkUpsert(List)}
+     */
+    public Completable bulkUpsertAsync(List<MovieEntity> movies) {
+        return Completable.fromAction(() -> bulkUpsert(movies)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #update(MovieEntity)}
+     */
+    public Completable updateAsync(MovieEntity movie) {
+        return Completable.fromAction(() -> update(movie)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #deleteById(String)}
+     */
+    public Completable deleteByIdAsync(String id) {
+        return Completable.fromAction(() -> deleteById(id)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getById(String)}
+     */
+    public Maybe<MovieEntity> getByIdAsync(String id) {
+        return Maybe.fromCallable(() -> getById(id)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getAll()}
+     */
+    public Single<List<MovieEntity>> getAllAsync() {
+        return Single.fromCallable(this::getAll).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getFiltered(UserPreferencesEntity)}
+     */
+    public Single<List<MovieEntity>> getFilteredAsync(UserPreferencesEntity preferences) {
+        return Single.fromCallable(() -> getFiltered(preferences)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getLiked()}
+     */
+    public Single<List<MovieEntity>> getLikedAsync() {
+        return Single.fromCallable(this::getLiked).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getPage(ContentPage.Key, int)}
+     */
+    public Single<ContentPage<MovieEntity>> getPageAsync(ContentPage.Key after, int pageSize) {
+        return Single.fromCallable(() -> getPage(after, pageSize)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getLikedPage(ContentPage.Key, int)}
+     */
+    public Single<ContentPage<MovieEntity>> getLikedPageAsync(ContentPage.Key after, int pageSize) {
+        return Single.fromCallable(() -> getLikedPage(after, pageSize)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #updateLikedStatus(String, boolean)}
+     */
+    public Completable updateLikedStatusAsync(String id, boolean liked) {
+        return Completable.fromAction(() -> updateLikedStatus(id, liked)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #updateWatchedStatus(String, boolean)}
+     */
+    public Completable updateWatchedStatusAsync(String id, boolean watched) {
+        return Completable.fromAction(() -> updateWatchedStatus(id, watched)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #search(String)}
+     */
+    public Single<List<MovieEntity>> searchAsync(String query) {
+        return Single.fromCallable(() -> search(query)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getCount()}
+     */
+    public Single<Integer> getCountAsync() {
+        return Single.fromCallable(this::getCount).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getLikedCount()}
+     */
+    public Single<Integer> getLikedCountAsync() {
+        return Single.fromCallable(this::getLikedCount).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Наблюдать за понравившимися элементами (Flowable).
+     * Room перезапускает запрос в пуле БД при каждом изменении таблицы
+     */
+    public Flowable<List<MovieEntity>> flowLiked() {
+        return movieDao.flowLiked();
+    }
+
+    /**
+     * Наблюдать за количеством понравившихся элементов (Flowable)
+     */
+    public Flowable<Integer> flowLikedCount() {
+        return movieDao.flowLikedCount();
     }
 }
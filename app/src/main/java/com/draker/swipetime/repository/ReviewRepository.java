@@ -4,12 +4,17 @@ import android.app.Application;
 
 import androidx.lifecycle.LiveData;
 
-import com.draker.swipetime.database.AppDatabase;
+import com.draker.swipetime.database.DatabaseSchedulers;
+import com.draker.swipetime.database.UserDatabase;
 import com.draker.swipetime.database.dao.ReviewDao;
 import com.draker.swipetime.database.entities.ReviewEntity;
 
 import java.util.List;
 
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+
 /**
  * Репозиторий для работы с отзывами пользователей
  */
@@ -18,7 +23,7 @@ public class ReviewRepository {
     private ReviewDao reviewDao;
 
     public ReviewRepository(Application application) {
-        AppDatabase db = AppDatabase.getInstance(application);
+        UserDatabase db = UserDatabase.getInstance(application);
         reviewDao = db.reviewDao();
     }
 
@@ -284,4 +289,68 @@ public class ReviewRepository {
             insert(review);
         }
     }
+
+    // ==================== Асинхронные варианты (RxJava) ====================
+    /**
+     * Асинхронный вариант {@link #insert(ReviewEntity)}
+     */
+    public Single<Long> insertAsync(ReviewEntity review) {
+        return Single.fromCallable(() -> insert(review)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #update(ReviewEntity)}
+     */
+    public Completable updateAsync(ReviewEntity review) {
+        return Completable.fromAction(() -> update(review)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #insertOrUpdate(ReviewEntity)}
+     */
+    public Completable insertOrUpdateAsync(ReviewEntity review) {
+        return Completable.fromAction(() -> insertOrUpdate(review)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #deleteById(long)}
+     */
+    public Completable deleteByIdAsync(long id) {
+        return Completable.fromAction(() -> deleteById(id)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getById(long)}
+     */
+    public Maybe<ReviewEntity> getByIdAsync(long id) {
+        return Maybe.fromCallable(() -> getById(id)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getByContentAndUserId(String, String)}
+     */
+    public Maybe<ReviewEntity> getByContentAndUserIdAsync(String contentId, String userId) {
+        return Maybe.fromCallable(() -> getByContentAndUserId(contentId, userId)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getByUserId(String)}
+     */
+    public Single<List<ReviewEntity>> getByUserIdAsync(String userId) {
+        return Single.fromCallable(() -> getByUserId(userId)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getByContentId(String)}
+     */
+    public Single<List<ReviewEntity>> getByContentIdAsync(String contentId) {
+        return Single.fromCallable(() -> getByContentId(contentId)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getCountByUserId(String)}
+     */
+    public Single<Integer> getCountByUserIdAsync(String userId) {
+        return Single.fromCallable(() -> getCountByUserId(userId)).subscribeOn(DatabaseSchedulers.io());
+    }
 }
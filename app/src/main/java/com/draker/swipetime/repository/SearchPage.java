@@ -0,0 +1,59 @@
+package com.draker.swipetime.repository;
+
+import com.draker.swipetime.database.entities.ContentEntity;
+
+import java.util.List;
+
+/**
+ * Страница результатов поиска с ключом для запроса следующей страницы
+ */
+public class SearchPage {
+
+    private final List<ContentEntity> items;
+    private final Cursor nextCursor;
+
+    public SearchPage(List<ContentEntity> items, Cursor nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Найденные элементы в порядке убывания релевантности
+     */
+    public List<ContentEntity> getItems() {
+        return items;
+    }
+
+    /**
+     * Ключ для следующей страницы или null, если результатов больше нет
+     */
+    public Cursor getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Позиция последнего элемента страницы: оценка релевантности и ID.
+     * Следующая страница начинается строго после этой позиции
+     */
+    public static final class Cursor {
+        private final double score;
+        private final String id;
+
+        public Cursor(double score, String id) {
+            this.score = score;
+            this.id = id;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public String getId() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.draker.swipetime.repository;
+
+import android.app.Application;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.draker.swipetime.database.AppDatabase;
+import com.draker.swipetime.database.DatabaseSchedulers;
+import com.draker.swipetime.database.FtsUtils;
+import com.draker.swipetime.database.SearchMatch;
+import com.draker.swipetime.database.dao.SearchDao;
+import com.draker.swipetime.database.entities.ContentEntity;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Репозиторий для полнотекстового поиска по всем категориям контента
+ */
+public class SearchRepository {
+
+    // Таблицы контента, для которых есть FTS-индекс
+    private static final String[] INDEXED_TABLES = {"movies", "tv_shows", "games", "books", "anime", "content"};
+
+    // Веса колонок FTS-таблиц: совпадение в названии важнее совпадения в описании
+    private static final double[] COLUMN_WEIGHTS = {3.0, 1.0};
+
+    // Сколько совпадений берется из каждой FTS-таблицы: ограничивает работу
+    // на каждой странице для коротких запросов, под которые подходит почти весь каталог
+    private static final int MAX_CANDIDATES_PER_TABLE = 500;
+
+    // Порядок выдачи: по убыванию оценки, при равенстве - по ID
+    private static final Comparator<ScoredMatch> RANK_ORDER = (a, b) -> {
+        int byScore = Double.compare(b.score, a.score);
+        return byScore != 0 ? byScore : a.id.compareTo(b.id);
+    };
+
+    private final AppDatabase db;
+    private final SearchDao searchDao;
+
+    public SearchRepository(Application application) {
+        db = AppDatabase.getInstance(application);
+        searchDao = db.searchDao();
+    }
+
+    /**
+     * Поиск по всем категориям, первая страница
+     * @param query поисковый запрос, каждое слово ищется по префиксу
+     * @param limit максимальное количество элементов на странице
+     * @return страница результатов
+     */
+    public SearchPage searchAll(String query, int limit) {
+        return searchAll(query, limit, null);
+    }
+
+    /**
+     * Поиск по всем категориям с постраничной выдачей
+     * @param query поисковый запрос, каждое слово ищется по префиксу
+     * @param limit максимальное количество элементов на странице
+     * @param after ключ из предыдущей страницы или null для первой страницы
+     * @return страница результатов
+     */
+    public SearchPage searchAll(String query, int limit, SearchPage.Cursor after) {
+        String match = FtsUtils.toMatchQuery(query);
+        if (match == null || limit <= 0) {
+            return new SearchPage(new ArrayList<>(), null);
+        }
+
+        // Оцениваем совпадения; элемент может быть и в типизированной таблице, и в content
+        Map<String, ScoredMatch> best = new HashMap<>();
+        for (SearchMatch searchMatch : searchDao.matchAll(match, MAX_CANDIDATES_PER_TABLE)) {
+            ScoredMatch scored = new ScoredMatch(searchMatch.getId(), searchMatch.getSource(),
+                    FtsUtils.bm25(searchMatch.getMatchInfo(), COLUMN_WEIGHTS));
+            ScoredMatch existing = best.get(scored.id);
+            if (existing == null || scored.score > existing.score ||
+                    (scored.score == existing.score && "content".equals(existing.source))) {
+                best.put(scored.id, scored);
+            }
+        }
+
+        // Оставляем limit + 1 лучших строго после курсора: лишний элемент показывает,
+        // есть ли следующая страница. Вершина кучи - худший из отобранных
+        PriorityQueue<ScoredMatch> top = new PriorityQueue<>(limit + 1, (a, b) -> RANK_ORDER.compare(b, a));
+        for (ScoredMatch scored : best.values()) {
+            if (after != null && !isAfter(scored, after)) {
+                continue;
+            }
+            if (top.size() <= limit) {
+                top.add(scored);
+            } else if (RANK_ORDER.compare(scored, top.peek()) < 0) {
+                top.poll();
+                top.add(scored);
+            }
+        }
+
+        List<ScoredMatch> page = new ArrayList<>(top);
+        page.sort(RANK_ORDER);
+
+        SearchPage.Cursor next = null;
+        if (page.size() > limit) {
+            page = page.subList(0, limit);
+            ScoredMatch last = page.get(limit - 1);
+            next = new SearchPage.Cursor(last.score, last.id);
+        }
+
+        return new SearchPage(hydrate(page), next);
+    }
+
+    /**
+     * Полностью перестроить FTS-индексы по текущему содержимому таблиц.
+     * Триггеры синхронизации поддерживают индексы сами, в том числе при REPLACE
+     * (соединение открывается с recursive_triggers = ON). Перестройка нужна для
+     * восстановления индекса, если таблицы менялись в обход триггеров
+     */
+    public void rebuildIndex() {
+        SupportSQLiteDatabase database = db.getOpenHelper().getWritableDatabase();
+        for (String table : INDEXED_TABLES) {
+            database.execSQL("INSERT INTO `" + table + "_fts`(`" + table + "_fts`) VALUES('rebuild')");
+        }
+    }
+
+    private static boolean isAfter(ScoredMatch match, SearchPage.Cursor cursor) {
+        if (match.score != cursor.getScore()) {
+            return match.score < cursor.getScore();
+        }
+        return match.id.compareTo(cursor.getId()) > 0;
+    }
+
+    /**
+     * Загружает сущности страницы, группируя запросы по таблицам-источникам
+     */
+    private List<ContentEntity> hydrate(List<ScoredMatch> page) {
+        Map<String, List<String>> idsBySource = new HashMap<>();
+        for (ScoredMatch match : page) {
+            List<String> ids = idsBySource.get(match.source);
+            if (ids == null) {
+                ids = new ArrayList<>();
+                idsBySource.put(match.source, ids);
+            }
+            ids.add(match.id);
+        }
+
+        Map<String, ContentEntity> loaded = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : idsBySource.entrySet()) {
+            for (ContentEntity entity : loadByIds(entry.getKey(), entry.getValue())) {
+                loaded.put(entity.getId(), entity);
+            }
+        }
+
+        List<ContentEntity> result = new ArrayList<>(page.size());
+        for (ScoredMatch match : page) {
+            ContentEntity entity = loaded.get(match.id);
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+
+    private List<? extends ContentEntity> loadByIds(String source, List<String> ids) {
+        switch (source) {
+            case "movies":
+                return db.movieDao().getByIds(ids);
+            case "tv_shows":
+                return db.tvShowDao().getByIds(ids);
+            case "games":
+                return db.gameDao().getByIds(ids);
+            case "books":
+                return db.bookDao().getByIds(ids);
+            case "anime":
+                return db.animeDao().getByIds(ids);
+            default:
+                return db.contentDao().getByIds(ids);
+        }
+    }
+
+    private static final class ScoredMatch {
+        final String id;
+        final String source;
+        final double score;
+
+        ScoredMatch(String id, String source, double score) {
+            this.id = id;
+            this.source = source;
+            this.score = score;
+        }
+    }
+
+    // ==================== Асинхронные варианты (RxJava) ====================
+    /**
+     * Асинхронный вариант {@link #searchAll(String, int)}
+     */
+    public Single<SearchPage> searchAllAsync(String query, int limit) {
+        return Single.fromCallable(() -> searchAll(query, limit)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #searchAll(String, int, SearchPage.Cursor)}
+     */
+    public Single<SearchPage> searchAllAsync(String query, int limit, SearchPage.Cursor after) {
+        return Single.fromCallable(() -> searchAll(query, limit, after)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #rebuildIndex()}
+     */
+    public Completable rebuildIndexAsync() {
+        return Completable.fromAction(this::rebuildIndex).subscribeOn(DatabaseSchedulers.backgroundIo());
+    }
+}
@@ -5,21 +5,34 @@ import android.app.Application;
 import androidx.lifecycle.LiveData;
 
 import com.draker.swipetime.database.AppDatabase;
+import com.draker.swipetime.database.ContentFilterQueryBuilder;
+import com.draker.swipetime.database.DatabaseSchedulers;
+import com.draker.swipetime.database.FtsUtils;
 import com.draker.swipetime.database.dao.TVShowDao;
 import com.draker.swipetime.database.entities.TVShowEntity;
+import com.draker.swipetime.database.entities.UserPreferencesEntity;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+
 /**
  * Репозиторий для работы с сериалами
  */
 public class TVShowRepository {
 
+    private AppDatabase db;
     private TVShowDao tvShowDao;
+    private GenreRepository genreRepository;
 
     public TVShowRepository(Application application) {
-        AppDatabase db = AppDatabase.getInstance(application);
+        db = AppDatabase.getInstance(application);
         tvShowDao = db.tvShowDao();
+        genreRepository = new GenreRepository(application);
     }
 
     /**
@@ -27,7 +40,10 @@ public class TVShowRepository {
      * @param tvShow сериал
      */
     public void insert(TVShowEntity tvShow) {
-        tvShowDao.insert(tvShow);
+        db.runInTransaction(() -> {
+            tvShowDao.insert(tvShow);
+            genreRepository.index(tvShow);
+        });
     }
 
     /**
@@ -35,7 +51,26 @@ public class TVShowRepository {
      * @param tvShows список сериалов
      */
     public void insertAll(List<TVShowEntity> tvShows) {
-        tvShowDao.insertAll(tvShows);
+        db.runInTransaction(() -> {
+            tvShowDao.insertAll(tvShows);
+            genreRepository.indexAll(tvShows);
+        });
+    }
+
+    /**
+     * Добавить или обновить пачку сериалов одной транзакцией.
+     * У существующих строк обновляются только данные каталога,
+     * пользовательские поля (liked, watched, rating) сохраняются на стороне SQLite
+     * @param tvShows список сериалов
+     */
+    public void bulkUpsert(List<TVShowEntity> tvShows) {
+        if (tvShows == null || tvShows.isEmpty()) {
+            return;
+        }
+        db.runInTransaction(() -> {
+            tvShowDao.upsertAll(tvShows);
+            genreRepository.indexAll(tvShows);
+        });
     }
 
     /**
@@ -43,7 +78,10 @@ public class TVShowRepository {
      * @param tvShow сериал
      */
     public void update(TVShowEntity tvShow) {
-        tvShowDao.update(tvShow);
+        db.runInTransaction(() -> {
+            tvShowDao.update(tvShow);
+            genreRepository.index(tvShow);
+        });
     }
 
     /**
@@ -51,10 +89,13 @@ public class TVShowRepository {
      * @param id ID сериала
      */
     public void deleteById(String id) {
-        TVShowEntity tvShow = tvShowDao.getById(id);
-        if (tvShow != null) {
-            tvShowDao.delete(tvShow);
-        }
+        db.runInTransaction(() -> {
+            TVShowEntity tvShow = tvShowDao.getById(id);
+            if (tvShow != null) {
+                tvShowDao.delete(tvShow);
+                genreRepository.removeLinks("tv_shows", id);
+            }
+        });
     }
 
     /**
@@ -74,6 +115,16 @@ public class TVShowRepository {
         return tvShowDao.getAll();
     }
 
+    /**
+     * Получить сериалы, подходящие под предпочтения пользователя.
+     * Фильтрация выполняется в SQLite, в память попадают только подходящие строки
+     * @param preferences предпочтения пользователя
+     * @return список отфильтрованных сериалов
+     */
+    public List<TVShowEntity> getFiltered(UserPreferencesEntity preferences) {
+        return tvShowDao.getFiltered(ContentFilterQueryBuilder.forTVShows(preferences));
+    }
+
     /**
      * Получить список понравившихся сериалов
      * @return список сериалов с отметкой liked=true
@@ -82,6 +133,42 @@ public class TVShowRepository {
         return tvShowDao.getLiked();
     }
 
+    /**
+     * Получить страницу сериалов в порядке добавления
+     * @param after ключ предыдущей страницы или ContentPage.Key.FIRST
+     * @param pageSize размер страницы
+     * @return страница сериалов
+     */
+    public ContentPage<TVShowEntity> getPage(ContentPage.Key after, int pageSize) {
+        return ContentPage.of(tvShowDao.getPage(after.getCreatedAt(), after.getId(), pageSize), pageSize);
+    }
+
+    /**
+     * Получить страницу понравившихся сериалов в порядке добавления
+     * @param after ключ предыдущей страницы или ContentPage.Key.FIRST
+     * @param pageSize размер страницы
+     * @return страница сериалов с отметкой liked=true
+     */
+    public ContentPage<TVShowEntity> getLikedPage(ContentPage.Key after, int pageSize) {
+        return ContentPage.of(tvShowDao.getLikedPage(after.getCreatedAt(), after.getId(), pageSize), pageSize);
+    }
+
+    /**
+     * Постраничный обход всех сериалов
+     * @param pageSize размер окна
+     */
+    public ContentPager<TVShowEntity> pageAll(int pageSize) {
+        return new ContentPager<>(this::getPage, pageSize);
+    }
+
+    /**
+     * Постраничный обход понравившихся сериалов
+     * @param pageSize размер окна
+     */
+    public ContentPager<TVShowEntity> pageLiked(int pageSize) {
+        return new ContentPager<>(this::getLikedPage, pageSize);
+    }
+
     /**
      * Обновить статус "понравилось" для сериала
      * @param id ID сериала
@@ -162,13 +249,148 @@ public class TVShowRepository {
      * @return список сериалов, соответствующих запросу
      */
     public List<TVShowEntity> search(String query) {
-        return tvShowDao.search(query);
+        String match = FtsUtils.toMatchQuery(query);
+        if (match == null) {
+            return new ArrayList<>();
+        }
+        return tvShowDao.search(match);
     }
     
     /**
      * Удалить все сериалы
      */
     public void deleteAll() {
-        tvShowDao.deleteAll();
+        db.runInTransaction(() -> {
+            tvShowDao.deleteAll();
+            genreRepository.removeSource("tv_shows");
+        });
+    }
+
+    // ==================== Асинхронные варианты (RxJava) ====================
+    /**
+     * Асинхронный вариант {@link #insert(TVShowEntity)}
+     */
+    public Completable insertAsync(TVShowEntity tvShow) {
+        return Completable.fromAction(() -> insert(tvShow)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #insertAll(List)}
+     */
+    public Completable insertAllAsync(List<TVShowEntity> tvShows) {
+        return Completable.fromAction(() -> insertAll(tvShows)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #bulkUpsert(List)}
+     */
+    public Completable bulkUpsertAsync(List<TVShowEntity> tvShows) {
+        return Completable.fromAction(() -> bulkUpsert(tvShows)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #update(TVShowEntity)}
+     */
+    public Completable updateAsync(TVShowEntity tvShow) {
+        return Completable.fromAction(() -> update(tvShow)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #deleteById(String)}
+     */
+    public Completable deleteByIdAsync(String id) {
+        return Completable.fromAction(() -> deleteById(id)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getById(String)}
+     */
+    public Maybe<TVShowEntity> getByIdAsync(String id) {
+        return Maybe.fromCallable(() -> getById(id)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getAll()}
+     */
+    public Single<List<TVShowEntity>> getAllAsync() {
+        return Single.fromCallable(this::getAll).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getFiltered(UserPreferencesEntity)}
+     */
+    public Single<List<TVShowEntity>> getFilteredAsync(UserPreferencesEntity preferences) {
+        return Single.fromCallable(() -> getFiltered(preferences)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getLiked()}
+     */
+    public Single<List<TVShowEntity>> getLikedAsync() {
+        return Single.fromCallable(this::getLiked).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getPage(ContentPage.Key, int)}
+     */
+    public Single<ContentPage<TVShowEntity>> getPageAsync(ContentPage.Key after, int pageSize) {
+        return Single.fromCallable(() -> getPage(after, pageSize)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getLikedPage(ContentPage.Key, int)}
+     */
+    public Single<ContentPage<TVShowEntity>> getLikedPageAsync(ContentPage.Key after, int pageSize) {
+        return Single.fromCallable(() -> getLikedPage(after, pageSize)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #updateLikedStatus(String, boolean)}
+     */
+    public Completable updateLikedStatusAsync(String id, boolean liked) {
+        return Completable.fromAction(() -> updateLikedStatus(id, liked)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #updateWatchedStatus(String, boolean)}
+     */
+    public Completable updateWatchedStatusAsync(String id, boolean watched) {
+        return Completable.fromAction(() -> updateWatchedStatus(id, watched)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #search(String)}
+     */
+    public Single<List<TVShowEntity>> searchAsync(String query) {
+        return Single.fromCallable(() -> search(query)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getCount()}
+     */
+    public Single<Integer> getCountAsync() {
+        return Single.fromCallable(this::getCount).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getLikedCount()}
+     */
+    public Single<Integer> getLikedCountAsync() {
+        return Single.fromCallable(this::getLikedCount).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Наблюдать за понравившимися элементами (Flowable).
+     * Room перезапускает запрос в пуле БД при каждом изменении таблицы
+     */
+    public Flowable<List<TVShowEntity>> flowLiked() {
+        return tvShowDao.flowLiked();
+    }
+
+    /**
+     * Наблюдать за количеством понравившихся элементов (Flowable)
+     */
+    public Flowable<Integer> flowLikedCount() {
+        return tvShowDao.flowLikedCount();
     }
 }
@@ -0,0 +1,293 @@
+package com.draker.swipetime.repository;
+
+import android.app.Application;
+import android.content.Context;
+
+import com.draker.swipetime.database.AppDatabase;
+import com.draker.swipetime.database.CategoryAffinity;
+import com.draker.swipetime.database.DatabaseSchedulers;
+import com.draker.swipetime.database.LikeEvent;
+import com.draker.swipetime.database.SeenItem;
+import com.draker.swipetime.database.UserDatabase;
+import com.draker.swipetime.database.dao.CatalogDao;
+import com.draker.swipetime.database.dao.UserInteractionDao;
+import com.draker.swipetime.database.entities.CatalogItemView;
+import com.draker.swipetime.database.entities.SeenContentEntity;
+import com.draker.swipetime.database.entities.UserInteractionEntity;
+import com.draker.swipetime.recommendations.LikeMatrix;
+import com.draker.swipetime.recommendations.MinHashIndex;
+import com.draker.swipetime.recommendations.NeighborIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Репозиторий журнала взаимодействий пользователя с контентом.
+ * Единый источник истории показов, лайков и дизлайков. Журнал хранится в базе
+ * пользовательских данных, а множество показанных элементов дублируется в каталог
+ * (seen_content) для выборки непоказанных карточек одним запросом и в битовые
+ * множества {@link InteractionBitsets} для проверок отдельных элементов
+ */
+public class UserInteractionRepository {
+
+    // Любое взаимодействие означает, что карточка уже была показана
+    private static final List<String> SEEN_ACTIONS = Arrays.asList(
+            UserInteractionEntity.ACTION_VIEW,
+            UserInteractionEntity.ACTION_LIKE,
+            UserInteractionEntity.ACTION_DISLIKE);
+
+    // Сброс истории показов не затрагивает лайки
+    private static final List<String> HISTORY_ACTIONS = Arrays.asList(
+            UserInteractionEntity.ACTION_VIEW,
+            UserInteractionEntity.ACTION_DISLIKE);
+
+    private final UserInteractionDao interactionDao;
+    private final CatalogDao catalogDao;
+    private final InteractionBitsets bitsets;
+    private final Application application;
+
+    public UserInteractionRepository(Context context) {
+        interactionDao = UserDatabase.getInstance(context).userInteractionDao();
+        catalogDao = AppDatabase.getInstance(context).catalogDao();
+        bitsets = InteractionBitsets.getInstance(context);
+        application = (Application) context.getApplicationContext();
+    }
+
+    /**
+     * Записать действие пользователя (одна вставка в конец журнала)
+     * @param userId ID пользователя
+     * @param contentId ID контента
+     * @param category категория контента
+     * @param action действие (UserInteractionEntity.ACTION_*)
+     */
+    public void record(String userId, String contentId, String category, String action) {
+        long id = interactionDao.insert(new UserInteractionEntity(userId, contentId, category, action, System.currentTimeMillis()));
+        bitsets.record(id, userId, contentId, category, action);
+        applyLike(userId, contentId, action);
+        if (SEEN_ACTIONS.contains(action)) {
+            markSeen(Collections.singletonList(seenEntity(userId, category, contentId)));
+        }
+    }
+
+    /**
+     * Добавить несколько записей одной транзакцией
+     * @param interactions записи журнала
+     */
+    public void recordAll(List<UserInteractionEntity> interactions) {
+        if (interactions == null || interactions.isEmpty()) {
+            return;
+        }
+        List<Long> ids = interactionDao.insertAll(interactions);
+
+        List<SeenContentEntity> seen = new ArrayList<>();
+        for (int i = 0; i < interactions.size(); i++) {
+            UserInteractionEntity interaction = interactions.get(i);
+            bitsets.record(ids.get(i), interaction.getUserId(), interaction.getContentId(),
+                    interaction.getCategory(), interaction.getAction());
+            applyLike(interaction.getUserId(), interaction.getContentId(), interaction.getAction());
+            if (SEEN_ACTIONS.contains(interaction.getAction())) {
+                seen.add(seenEntity(interaction.getUserId(), interaction.getCategory(), interaction.getContentId()));
+            }
+        }
+        if (!seen.isEmpty()) {
+            markSeen(seen);
+        }
+    }
+
+    /**
+     * Проверить, был ли элемент категории уже показан пользователю
+     * @param userId ID пользователя
+     * @param category категория контента
+     * @param contentId ID контента
+     * @return true, если есть хотя бы одно взаимодействие с элементом
+     */
+    public boolean hasSeen(String userId, String category, String contentId) {
+        return bitsets.contains(userId, category, contentId, InteractionBitsets.VIEWED);
+    }
+
+    /**
+     * Проверить, понравился ли элемент пользователю
+     * @param userId ID пользователя
+     * @param category категория контента
+     * @param contentId ID контента
+     * @return true, если элемент лайкнут и лайк не отменен
+     */
+    public boolean isLiked(String userId, String category, String contentId) {
+        return bitsets.contains(userId, category, contentId, InteractionBitsets.LIKED);
+    }
+
+    /**
+     * Получить ID показанных элементов категории
+     * @param userId ID пользователя
+     * @param category категория контента
+     * @return набор ID показанных элементов
+     */
+    public Set<String> getSeenIds(String userId, String category) {
+        return bitsets.getIds(userId, category, InteractionBitsets.VIEWED);
+    }
+
+    /**
+     * Получить ID понравившихся элементов категории (без учета отмененных лайков)
+     * @param userId ID пользователя
+     * @param category категория контента
+     * @return набор ID элементов
+     */
+    public Set<String> getLikedIds(String userId, String category) {
+        return bitsets.getIds(userId, category, InteractionBitsets.LIKED);
+    }
+
+    /**
+     * Получить ID непонравившихся элементов категории
+     * @param userId ID пользователя
+     * @param category категория контента
+     * @return набор ID элементов
+     */
+    public Set<String> getDislikedIds(String userId, String category) {
+        return bitsets.getIds(userId, category, InteractionBitsets.DISLIKED);
+    }
+
+    /**
+     * Получить ID понравившихся элементов пользователя (без учета отмененных лайков)
+     * @param userId ID пользователя
+     * @return список ID
+     */
+    public List<String> getLikedIds(String userId) {
+        return interactionDao.getLikedContentIds(userId);
+    }
+
+    /**
+     * Все лайки и отмены лайков журнала, по пользователям и в порядке записи
+     * @return записи журнала
+     */
+    public List<LikeEvent> getLikeEvents() {
+        return interactionDao.getLikeEvents();
+    }
+
+    /**
+     * Получить количество лайков и дизлайков пользователя по категориям
+     * @param userId ID пользователя
+     * @return сводка по каждой категории, где были реакции
+     */
+    public List<CategoryAffinity> getCategoryAffinity(String userId) {
+        return interactionDao.getCategoryAffinity(userId);
+    }
+
+    /**
+     * Количество записей журнала пользователя
+     * @param userId ID пользователя
+     * @return количество записей
+     */
+    public int getCountForUser(String userId) {
+        return interactionDao.getCountForUser(userId);
+    }
+
+    /**
+     * Сбросить историю показов и дизлайков в категории. Лайки сохраняются
+     * @param userId ID пользователя
+     * @param category категория контента
+     */
+    public void clearHistory(String userId, String category) {
+        interactionDao.deleteByActionsInCategory(userId, HISTORY_ACTIONS, category);
+        bitsets.rebuild(userId);
+        syncSeenContent(userId);
+    }
+
+    /**
+     * Сбросить историю показов и дизлайков во всех категориях. Лайки сохраняются
+     * @param userId ID пользователя
+     */
+    public void clearAllHistory(String userId) {
+        interactionDao.deleteByActions(userId, HISTORY_ACTIONS);
+        bitsets.rebuild(userId);
+        syncSeenContent(userId);
+    }
+
+    /**
+     * Привести seen_content в каталоге в соответствие с журналом. Нужно после сброса истории
+     * и после пересоздания каталога, когда копия пуста или устарела. Сравниваются сами
+     * множества пар источник-ID: при одинаковом размере копия тоже может отличаться от журнала
+     * @param userId ID пользователя
+     */
+    public void syncSeenContent(String userId) {
+        List<SeenContentEntity> seen = new ArrayList<>();
+        Set<String> journalKeys = new HashSet<>();
+        for (SeenItem item : interactionDao.getSeenItems(userId, SEEN_ACTIONS)) {
+            SeenContentEntity entity = seenEntity(userId, item.getCategory(), item.getContentId());
+            if (journalKeys.add(seenKey(entity))) {
+                seen.add(entity);
+            }
+        }
+
+        Set<String> catalogKeys = new HashSet<>();
+        for (SeenContentEntity entity : catalogDao.getSeen(userId)) {
+            catalogKeys.add(seenKey(entity));
+        }
+        if (journalKeys.equals(catalogKeys)) {
+            return;
+        }
+        catalogDao.replaceSeen(userId, seen);
+    }
+
+    /**
+     * Строка seen_content для записи журнала: категория переводится в таблицу-источник,
+     * по которой выбираются карточки
+     */
+    private static SeenContentEntity seenEntity(String userId, String category, String contentId) {
+        return new SeenContentEntity(userId, CatalogItemView.sourceFor(category), contentId);
+    }
+
+    private static String seenKey(SeenContentEntity entity) {
+        return entity.getSource() + '\n' + entity.getContentId();
+    }
+
+    /**
+     * Лайк и отмена лайка обновляют матрицу лайков и списки ближайших соседей
+     */
+    private void applyLike(String userId, String contentId, String action) {
+        if (!UserInteractionEntity.ACTION_LIKE.equals(action) && !UserInteractionEntity.ACTION_UNLIKE.equals(action)) {
+            return;
+        }
+        LikeMatrix.getInstance(application).apply(userId, contentId, action);
+        NeighborIndex.getInstance(application).onLikeChanged(userId, contentId);
+        MinHashIndex.onLikeChanged(userId, contentId);
+    }
+
+    /**
+     * Запись в каталог идет отдельной задачей, чтобы запись в журнал
+     * не ждала блокировку записи каталога во время его обновления
+     */
+    private void markSeen(List<SeenContentEntity> seen) {
+        DatabaseSchedulers.executor().execute(() -> catalogDao.insertSeen(seen));
+    }
+
+    // ==================== Асинхронные варианты (RxJava) ====================
+
+    /**
+     * Асинхронный вариант {@link #record(String, String, String, String)}
+     */
+    public Completable recordAsync(String userId, String contentId, String category, String action) {
+        return Completable.fromAction(() -> record(userId, contentId, category, action))
+                .subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getSeenIds(String, String)}
+     */
+    public Single<Set<String>> getSeenIdsAsync(String userId, String category) {
+        return Single.fromCallable(() -> getSeenIds(userId, category)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getLikedIds(String)}
+     */
+    public Single<List<String>> getLikedIdsAsync(String userId) {
+        return Single.fromCallable(() -> getLikedIds(userId)).subscribeOn(DatabaseSchedulers.io());
+    }
+}
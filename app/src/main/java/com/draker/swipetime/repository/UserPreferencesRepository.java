@@ -4,7 +4,8 @@ import android.app.Application;
 
 import androidx.lifecycle.LiveData;
 
-import com.draker.swipetime.database.AppDatabase;
+import com.draker.swipetime.database.DatabaseSchedulers;
+import com.draker.swipetime.database.UserDatabase;
 import com.draker.swipetime.database.dao.UserPreferencesDao;
 import com.draker.swipetime.database.entities.UserPreferencesEntity;
 
@@ -14,6 +15,9 @@ import org.json.JSONException;
 import java.util.ArrayList;
 import java.util.List;
 
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+
 /**
  * Репозиторий для работы с пользовательскими настройками и предпочтениями
  */
@@ -22,7 +26,7 @@ public class UserPreferencesRepository {
     private UserPreferencesDao userPreferencesDao;
 
     public UserPreferencesRepository(Application application) {
-        AppDatabase db = AppDatabase.getInstance(application);
+        UserDatabase db = UserDatabase.getInstance(application);
         userPreferencesDao = db.userPreferencesDao();
     }
 
@@ -247,4 +251,47 @@ public class UserPreferencesRepository {
     public void updateAdultContentEnabled(String userId, boolean enabled) {
         userPreferencesDao.updateAdultContentEnabled(userId, enabled);
     }
-}
\ No newline at end of file
+
+    // ==================== Асинхронные варианты (RxJava) ====================
+    /**
+     * Асинхронный вариант {@link #getByUserId(String)}
+     */
+    public Single<UserPreferencesEntity> getByUserIdAsync(String userId) {
+        return Single.fromCallable(() -> getByUserId(userId)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #update(UserPreferencesEntity)}
+     */
+    public Completable updateAsync(UserPreferencesEntity preferences) {
+        return Completable.fromAction(() -> update(preferences)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #updateGenres(String, List)}
+     */
+    public Completable updateGenresAsync(String userId, List<String> genres) {
+        return Completable.fromAction(() -> updateGenres(userId, genres)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #updateYearRange(String, int, int)}
+     */
+    public Completable updateYearRangeAsync(String userId, int minYear, int maxYear) {
+        return Completable.fromAction(() -> updateYearRange(userId, minYear, maxYear)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #updateDurationRange(String, int, int)}
+     */
+    public Completable updateDurationRangeAsync(String userId, int minDuration, int maxDuration) {
+        return Completable.fromAction(() -> updateDurationRange(userId, minDuration, maxDuration)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #updateAdultContentEnabled(String, boolean)}
+     */
+    public Completable updateAdultContentEnabledAsync(String userId, boolean enabled) {
+        return Completable.fromAction(() -> updateAdultContentEnabled(userId, enabled)).subscribeOn(DatabaseSchedulers.io());
+    }
+}
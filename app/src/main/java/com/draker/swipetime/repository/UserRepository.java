@@ -4,12 +4,17 @@ import android.app.Application;
 
 import androidx.lifecycle.LiveData;
 
-import com.draker.swipetime.database.AppDatabase;
+import com.draker.swipetime.database.DatabaseSchedulers;
+import com.draker.swipetime.database.UserDatabase;
 import com.draker.swipetime.database.dao.UserDao;
 import com.draker.swipetime.database.entities.UserEntity;
 
 import java.util.List;
 
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+
 /**
  * Репозиторий для работы с пользователями
  */
@@ -18,7 +23,7 @@ public class UserRepository {
     private UserDao userDao;
 
     public UserRepository(Application application) {
-        AppDatabase db = AppDatabase.getInstance(application);
+        UserDatabase db = UserDatabase.getInstance(application);
         userDao = db.userDao();
     }
 
@@ -206,4 +211,68 @@ public class UserRepository {
     public void updatePreferredCategories(String userId, String categories) {
         userDao.updatePreferredCategories(userId, categories);
     }
+
+    // ==================== Асинхронные варианты (RxJava) ====================
+    /**
+     * Асинхронный вариант {@link #insert(UserEntity)}
+     */
+    public Completable insertAsync(UserEntity user) {
+        return Completable.fromAction(() -> insert(user)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #update(UserEntity)}
+     */
+    public Completable updateAsync(UserEntity user) {
+        return Completable.fromAction(() -> update(user)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #deleteById(String)}
+     */
+    public Completable deleteByIdAsync(String id) {
+        return Completable.fromAction(() -> deleteById(id)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getUserById(String)}
+     */
+    public Maybe<UserEntity> getUserByIdAsync(String id) {
+        return Maybe.fromCallable(() -> getUserById(id)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getUserByEmail(String)}
+     */
+    public Maybe<UserEntity> getUserByEmailAsync(String email) {
+        return Maybe.fromCallable(() -> getUserByEmail(email)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getAll()}
+     */
+    public Single<List<UserEntity>> getAllAsync() {
+        return Single.fromCallable(this::getAll).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getCount()}
+     */
+    public Single<Integer> getCountAsync() {
+        return Single.fromCallable(this::getCount).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #addExperience(String, int)}
+     */
+    public Single<Boolean> addExperienceAsync(String userId, int amount) {
+        return Single.fromCallable(() -> addExperience(userId, amount)).subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #updatePreferredCategories(String, String)}
+     */
+    public Completable updatePreferredCategoriesAsync(String userId, String categories) {
+        return Completable.fromAction(() -> updatePreferredCategories(userId, categories)).subscribeOn(DatabaseSchedulers.io());
+    }
 }
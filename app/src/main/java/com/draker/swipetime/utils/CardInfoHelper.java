@@ -2,6 +2,7 @@ package com.draker.swipetime.utils;
 
 import android.util.Log;
 
+import com.draker.swipetime.database.DatabaseSchedulers;
 import com.draker.swipetime.database.entities.AnimeEntity;
 import com.draker.swipetime.database.entities.BookEntity;
 import com.draker.swipetime.database.entities.ContentEntity;
@@ -105,13 +106,16 @@ public class CardInfoHelper {
     }
     
     /**
-     * Логирует подробную информацию о карточке
+     * Логирует подробную информацию о карточке.
+     * Сущность читается в пуле БД, поэтому метод можно вызывать из главного потока
      * 
      * @param item элемент контента
      * @param contentRepository репозиторий для доступа к сущностям
      */
     public static void logDetailedInfo(ContentItem item, ContentRepository contentRepository) {
-        String info = getDetailedInfo(item, contentRepository);
-        Log.d(TAG, "Подробная информация о " + item.getTitle() + ":\n" + info);
+        DatabaseSchedulers.executor().execute(() -> {
+            String info = getDetailedInfo(item, contentRepository);
+            Log.d(TAG, "Подробная информация о " + item.getTitle() + ":\n" + info);
+        });
     }
 }
\ No newline at end of file
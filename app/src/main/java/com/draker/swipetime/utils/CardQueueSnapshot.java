@@ -0,0 +1,167 @@
+package com.draker.swipetime.utils;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.draker.swipetime.models.ContentItem;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Снимок очередей карточек в компактном бинарном файле.
+ * Сохраняется, когда приложение уходит в фон, и отображается в память при следующем запуске,
+ * чтобы первая карточка показывалась до инициализации базы данных и загрузки из API.
+ * Снимок одноразовый: после чтения файл удаляется, чтобы не показать те же карточки повторно
+ */
+public final class CardQueueSnapshot {
+    private static final String TAG = "CardQueueSnapshot";
+
+    private static final String FILE_NAME = "card_queue.snapshot";
+
+    // Сигнатура и версия формата
+    private static final int MAGIC = 0x53574351;
+    private static final int VERSION = 1;
+
+    // Снимки старше этого срока не восстанавливаются
+    private static final long MAX_AGE_MS = 3L * 24 * 60 * 60 * 1000;
+
+    private CardQueueSnapshot() {
+    }
+
+    /**
+     * Записать снимок очередей. Файл заменяется атомарно через временный
+     * @param context контекст
+     * @param queues карточки по категориям в порядке выдачи
+     */
+    public static void save(Context context, Map<String, List<ContentItem>> queues) {
+        File file = getFile(context);
+        File temp = new File(file.getPath() + ".tmp");
+        int total = 0;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(queues.size());
+            for (Map.Entry<String, List<ContentItem>> entry : queues.entrySet()) {
+                writeString(out, entry.getKey());
+                out.writeInt(entry.getValue().size());
+                for (ContentItem item : entry.getValue()) {
+                    writeString(out, item.getId());
+                    writeString(out, item.getTitle());
+                    writeString(out, item.getDescription());
+                    writeString(out, item.getImageUrl());
+                    writeString(out, item.getCategory());
+                    out.writeInt(item.getYear());
+                    out.writeBoolean(item.isLiked());
+                    total++;
+                }
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Ошибка при сохранении снимка очередей: " + e.getMessage());
+            temp.delete();
+            return;
+        }
+
+        if (!temp.renameTo(file)) {
+            Log.e(TAG, "Не удалось заменить файл снимка очередей");
+            temp.delete();
+            return;
+        }
+        Log.d(TAG, "Снимок очередей сохранен: " + total + " карточек, " + file.length() + " байт");
+    }
+
+    /**
+     * Прочитать и удалить снимок очередей
+     * @param context контекст
+     * @return карточки по категориям; пустая карта, если снимка нет, он устарел или поврежден
+     */
+    public static Map<String, List<ContentItem>> restore(Context context) {
+        Map<String, List<ContentItem>> queues = new LinkedHashMap<>();
+        File file = getFile(context);
+        if (!file.exists()) {
+            return queues;
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                Log.w(TAG, "Неизвестный формат снимка очередей");
+                return queues;
+            }
+            long savedAt = buffer.getLong();
+            if (System.currentTimeMillis() - savedAt > MAX_AGE_MS) {
+                Log.d(TAG, "Снимок очередей устарел");
+                return queues;
+            }
+
+            int categoryCount = buffer.getInt();
+            for (int i = 0; i < categoryCount; i++) {
+                String category = readString(buffer);
+                int count = buffer.getInt();
+                List<ContentItem> items = new ArrayList<>(count);
+                for (int j = 0; j < count; j++) {
+                    ContentItem item = new ContentItem(readString(buffer), readString(buffer),
+                            readString(buffer), readString(buffer), readString(buffer));
+                    item.setYear(buffer.getInt());
+                    item.setLiked(buffer.get() != 0);
+                    items.add(item);
+                }
+                queues.put(category, items);
+            }
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            Log.e(TAG, "Ошибка при чтении снимка очередей: " + e.getMessage());
+            queues.clear();
+        } finally {
+            file.delete();
+        }
+        return queues;
+    }
+
+    /**
+     * Удалить снимок очередей
+     */
+    public static void delete(Context context) {
+        getFile(context).delete();
+    }
+
+    private static File getFile(Context context) {
+        return new File(context.getFilesDir(), FILE_NAME);
+    }
+
+    // Строка: длина в байтах UTF-8 (-1 для null) и сами байты
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
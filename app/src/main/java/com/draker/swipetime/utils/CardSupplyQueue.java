@@ -0,0 +1,178 @@
+package com.draker.swipetime.utils;
+
+import com.draker.swipetime.models.ContentItem;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Очередь карточек одной категории: кольцевой буфер без блокировок.
+ * Пополнять очередь могут несколько потоков-загрузчиков, а забирает карточки
+ * только главный поток, поэтому выдача следующей карточки никогда не ждет загрузчик.
+ * Заодно очередь хранит счетчики глубины и задержки пополнения
+ */
+public final class CardSupplyQueue {
+
+    private final AtomicReferenceArray<ContentItem> buffer;
+    private final int mask;
+
+    // Следующая позиция для записи: ее захватывают загрузчики через CAS
+    private final AtomicLong tail = new AtomicLong();
+
+    // Следующая позиция для чтения: меняет только главный поток
+    private final AtomicLong head = new AtomicLong();
+
+    // Счетчики пополнений
+    private final AtomicLong refillCount = new AtomicLong();
+    private final AtomicLong totalRefillNanos = new AtomicLong();
+    private final AtomicLong lastRefillNanos = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /**
+     * @param capacity емкость; округляется вверх до степени двойки
+     */
+    public CardSupplyQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        buffer = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+    }
+
+    /**
+     * Добавить карточку в конец очереди. Вызывается из любого потока
+     * @return false, если очередь заполнена
+     */
+    public boolean offer(ContentItem item) {
+        while (true) {
+            long position = tail.get();
+            if (position - head.get() >= buffer.length()) {
+                droppedCount.incrementAndGet();
+                return false;
+            }
+            if (tail.compareAndSet(position, position + 1)) {
+                buffer.lazySet((int) position & mask, item);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Добавить карточки в конец очереди; не поместившиеся отбрасываются
+     * @return количество добавленных карточек
+     */
+    public int offerAll(List<ContentItem> items) {
+        int added = 0;
+        for (ContentItem item : items) {
+            if (!offer(item)) {
+                break;
+            }
+            added++;
+        }
+        return added;
+    }
+
+    /**
+     * Забрать карточку из начала очереди. Вызывается только главным потоком
+     * @return карточка или null, если очередь пуста
+     */
+    public ContentItem poll() {
+        long position = head.get();
+        int index = (int) position & mask;
+        // Позиция уже захвачена загрузчиком, но карточка еще не записана - считаем очередь пустой
+        ContentItem item = buffer.get(index);
+        if (item == null) {
+            return null;
+        }
+        buffer.lazySet(index, null);
+        head.lazySet(position + 1);
+        return item;
+    }
+
+    /**
+     * Очистить очередь. Вызывается только главным потоком
+     */
+    public void clear() {
+        while (poll() != null) {
+            // Выбираем все опубликованные карточки
+        }
+    }
+
+    /**
+     * Текущая глубина очереди
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, buffer.length()));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * ID карточек в очереди на момент вызова. Читается без блокировок, поэтому
+     * при одновременном пополнении набор может быть неполным - подходит для отсечения дублей
+     */
+    public Set<String> snapshotIds() {
+        Set<String> ids = new HashSet<>();
+        long end = tail.get();
+        for (long position = head.get(); position < end; position++) {
+            ContentItem item = buffer.get((int) position & mask);
+            if (item != null) {
+                ids.add(item.getId());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Карточки в очереди в порядке выдачи на момент вызова. Читается без блокировок,
+     * как и {@link #snapshotIds()}
+     */
+    public List<ContentItem> snapshotItems() {
+        List<ContentItem> items = new ArrayList<>(size());
+        long end = tail.get();
+        for (long position = head.get(); position < end; position++) {
+            ContentItem item = buffer.get((int) position & mask);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Учесть завершенное пополнение очереди
+     * @param startNanos момент запроса пополнения (System.nanoTime())
+     */
+    public void recordRefill(long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        lastRefillNanos.set(elapsed);
+        totalRefillNanos.addAndGet(elapsed);
+        refillCount.incrementAndGet();
+    }
+
+    public long getRefillCount() {
+        return refillCount.get();
+    }
+
+    public long getLastRefillLatencyMs() {
+        return TimeUnit.NANOSECONDS.toMillis(lastRefillNanos.get());
+    }
+
+    public long getAverageRefillLatencyMs() {
+        long count = refillCount.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalRefillNanos.get() / count);
+    }
+
+    /**
+     * Количество карточек, не поместившихся в заполненную очередь
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+}
@@ -0,0 +1,418 @@
+package com.draker.swipetime.utils;
+
+import android.util.Log;
+
+import com.draker.swipetime.database.entities.AnimeEntity;
+import com.draker.swipetime.database.entities.BookEntity;
+import com.draker.swipetime.database.entities.ContentEntity;
+import com.draker.swipetime.database.entities.GameEntity;
+import com.draker.swipetime.database.entities.MovieEntity;
+import com.draker.swipetime.database.entities.TVShowEntity;
+import com.draker.swipetime.database.entities.UserPreferencesEntity;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Скомпилированный фильтр контента по предпочтениям пользователя.
+ * JSON-массивы предпочтений разбираются один раз при компиляции: жанры приводятся
+ * к нижнему регистру и хешируются, границы года и длительности сохраняются как int,
+ * для каждого типа контента заводится свой предикат. Фильтр кешируется, пока
+ * не изменятся предпочтения, поэтому проход по списку не создает объектов
+ */
+public final class CompiledContentFilter {
+
+    private static final String TAG = "CompiledContentFilter";
+
+    // Границы, при которых фильтр по году и длительности не действует
+    private static final int DEFAULT_MIN_YEAR = 1900;
+    private static final int DEFAULT_MAX_YEAR = 2100;
+
+    // Верхняя граница года, начиная с которой фильтр не считается активным
+    private static final int ACTIVE_MAX_YEAR = 2025;
+
+    private static final Set<String> ADULT_RATINGS = new HashSet<>(
+            Arrays.asList("M", "AO", "18+", "NC-17", "R18+"));
+
+    private static volatile CompiledContentFilter cached;
+    private static volatile ParsedJson lastParsedJson;
+
+    // Исходные значения предпочтений - по ним проверяется актуальность кеша
+    private final String userId;
+    private final long updatedAt;
+    private final String genresJson;
+    private final String countriesJson;
+    private final String languagesJson;
+    private final String tagsJson;
+    private final int minDuration;
+    private final int maxDuration;
+    private final int minYear;
+    private final int maxYear;
+    private final boolean adultContentEnabled;
+
+    // Скомпилированное состояние
+    private final String[] genres;
+    private final int[] genreHashes;
+    private final Set<String> countries;
+    private final Set<String> languages;
+    private final Set<String> tags;
+    private final boolean passAll;
+    private final boolean active;
+
+    private final ContentPredicate<MovieEntity> moviePredicate;
+    private final ContentPredicate<TVShowEntity> tvShowPredicate;
+    private final ContentPredicate<GameEntity> gamePredicate;
+    private final ContentPredicate<BookEntity> bookPredicate;
+    private final ContentPredicate<AnimeEntity> animePredicate;
+
+    /**
+     * Предикат для одного типа контента
+     */
+    public interface ContentPredicate<T extends ContentEntity> {
+        boolean test(T content);
+    }
+
+    private CompiledContentFilter(UserPreferencesEntity preferences) {
+        userId = preferences.getUserId();
+        updatedAt = preferences.getUpdatedAt();
+        genresJson = preferences.getPreferredGenres();
+        countriesJson = preferences.getPreferredCountries();
+        languagesJson = preferences.getPreferredLanguages();
+        tagsJson = preferences.getInterestsTags();
+        minDuration = preferences.getMinDuration();
+        maxDuration = preferences.getMaxDuration();
+        minYear = preferences.getMinYear();
+        maxYear = preferences.getMaxYear();
+        adultContentEnabled = preferences.isAdultContentEnabled();
+
+        List<String> genreList = new ArrayList<>(parseLowercase(genresJson));
+        int[][] order = new int[genreList.size()][];
+        for (int i = 0; i < order.length; i++) {
+            String genre = genreList.get(i);
+            order[i] = new int[]{lowercaseHash(genre, 0, genre.length()), i};
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(a[0], b[0]));
+        genres = new String[order.length];
+        genreHashes = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            genreHashes[i] = order[i][0];
+            genres[i] = genreList.get(order[i][1]);
+        }
+
+        countries = parseLowercase(countriesJson);
+        languages = parseLowercase(languagesJson);
+        tags = parseLowercase(tagsJson);
+
+        boolean hasLists = genres.length > 0 || !countries.isEmpty() || !languages.isEmpty() || !tags.isEmpty();
+        passAll = !hasLists &&
+                minYear <= DEFAULT_MIN_YEAR && maxYear >= DEFAULT_MAX_YEAR &&
+                minDuration <= 0 && maxDuration >= Integer.MAX_VALUE;
+        active = hasLists ||
+                minDuration > 0 || maxDuration < Integer.MAX_VALUE ||
+                minYear > DEFAULT_MIN_YEAR || maxYear < ACTIVE_MAX_YEAR ||
+                adultContentEnabled;
+
+        moviePredicate = movie -> matchesGenres(movie.getGenres())
+                && inYearRange(movie.getReleaseYear())
+                && movie.getDuration() >= minDuration && movie.getDuration() <= maxDuration;
+        tvShowPredicate = tvShow -> matchesGenres(tvShow.getGenres())
+                && inYearRange(tvShow.getStartYear());
+        gamePredicate = game -> matchesGenres(game.getGenres())
+                && inYearRange(game.getReleaseYear())
+                && (adultContentEnabled || !isAdultRated(game.getEsrbRating()));
+        bookPredicate = book -> matchesGenres(book.getGenres())
+                && inYearRange(book.getPublishYear());
+        animePredicate = anime -> matchesGenres(anime.getGenres())
+                && inYearRange(anime.getReleaseYear());
+    }
+
+    /**
+     * Получить скомпилированный фильтр для предпочтений. Фильтр компилируется заново
+     * только если предпочтения изменились с прошлого вызова
+     * @param preferences предпочтения пользователя
+     * @return фильтр или null, если предпочтений нет
+     */
+    public static CompiledContentFilter forPreferences(UserPreferencesEntity preferences) {
+        if (preferences == null) {
+            return null;
+        }
+        CompiledContentFilter filter = cached;
+        if (filter == null || !filter.isCompiledFrom(preferences)) {
+            filter = new CompiledContentFilter(preferences);
+            cached = filter;
+        }
+        return filter;
+    }
+
+    /**
+     * Скомпилировать фильтр без кеширования, например для предпросмотра еще не сохраненных настроек
+     * @param preferences предпочтения пользователя
+     */
+    public static CompiledContentFilter compile(UserPreferencesEntity preferences) {
+        return new CompiledContentFilter(preferences);
+    }
+
+    /**
+     * Проверить, содержит ли JSON-массив значение без учета регистра.
+     * Последний разобранный массив запоминается, поэтому повторные проверки
+     * одной и той же строки не разбирают JSON заново
+     */
+    public static boolean jsonContains(String jsonString, String valueToCheck) {
+        if (jsonString == null || jsonString.isEmpty() || valueToCheck == null) {
+            return false;
+        }
+        ParsedJson parsed = lastParsedJson;
+        if (parsed == null || !parsed.json.equals(jsonString)) {
+            parsed = new ParsedJson(jsonString, parseLowercase(jsonString));
+            lastParsedJson = parsed;
+        }
+        return parsed.values.contains(valueToCheck.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Есть ли у пользователя активные фильтры
+     */
+    public boolean hasActiveFilters() {
+        return active;
+    }
+
+    /**
+     * Пропускает ли фильтр любой контент
+     */
+    public boolean isPassAll() {
+        return passAll;
+    }
+
+    /**
+     * Применить фильтр к списку контента
+     * @return новый список с подходящими элементами или исходный список, если фильтр пропускает все
+     */
+    public List<ContentEntity> filter(List<ContentEntity> contentList) {
+        if (passAll || contentList.isEmpty()) {
+            return contentList;
+        }
+        List<ContentEntity> result = new ArrayList<>(contentList.size());
+        // Списки почти всегда однородны: предикат выбирается заново только при смене класса
+        Class<?> currentClass = null;
+        ContentPredicate<ContentEntity> predicate = null;
+        for (int i = 0, size = contentList.size(); i < size; i++) {
+            ContentEntity content = contentList.get(i);
+            if (content.getClass() != currentClass) {
+                currentClass = content.getClass();
+                predicate = predicateFor(content);
+            }
+            if (predicate == null || predicate.test(content)) {
+                result.add(content);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Проверить один элемент контента
+     */
+    public boolean test(ContentEntity content) {
+        ContentPredicate<ContentEntity> predicate = predicateFor(content);
+        return passAll || predicate == null || predicate.test(content);
+    }
+
+    public ContentPredicate<MovieEntity> movies() {
+        return moviePredicate;
+    }
+
+    public ContentPredicate<TVShowEntity> tvShows() {
+        return tvShowPredicate;
+    }
+
+    public ContentPredicate<GameEntity> games() {
+        return gamePredicate;
+    }
+
+    public ContentPredicate<BookEntity> books() {
+        return bookPredicate;
+    }
+
+    public ContentPredicate<AnimeEntity> anime() {
+        return animePredicate;
+    }
+
+    /**
+     * Предпочитаемые жанры в нижнем регистре
+     */
+    public List<String> getPreferredGenres() {
+        return Collections.unmodifiableList(Arrays.asList(genres));
+    }
+
+    public int getMinYear() {
+        return minYear;
+    }
+
+    public int getMaxYear() {
+        return maxYear;
+    }
+
+    public int getMinDuration() {
+        return minDuration;
+    }
+
+    public int getMaxDuration() {
+        return maxDuration;
+    }
+
+    public boolean isAdultContentEnabled() {
+        return adultContentEnabled;
+    }
+
+    public Set<String> getPreferredCountries() {
+        return countries;
+    }
+
+    public Set<String> getPreferredLanguages() {
+        return languages;
+    }
+
+    public Set<String> getInterestsTags() {
+        return tags;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ContentPredicate<ContentEntity> predicateFor(ContentEntity content) {
+        ContentPredicate<?> predicate;
+        if (content instanceof MovieEntity) {
+            predicate = moviePredicate;
+        } else if (content instanceof TVShowEntity) {
+            predicate = tvShowPredicate;
+        } else if (content instanceof GameEntity) {
+            predicate = gamePredicate;
+        } else if (content instanceof BookEntity) {
+            predicate = bookPredicate;
+        } else if (content instanceof AnimeEntity) {
+            predicate = animePredicate;
+        } else {
+            predicate = null;
+        }
+        return (ContentPredicate<ContentEntity>) predicate;
+    }
+
+    private boolean isCompiledFrom(UserPreferencesEntity preferences) {
+        return updatedAt == preferences.getUpdatedAt()
+                && minDuration == preferences.getMinDuration()
+                && maxDuration == preferences.getMaxDuration()
+                && minYear == preferences.getMinYear()
+                && maxYear == preferences.getMaxYear()
+                && adultContentEnabled == preferences.isAdultContentEnabled()
+                && Objects.equals(userId, preferences.getUserId())
+                && Objects.equals(genresJson, preferences.getPreferredGenres())
+                && Objects.equals(countriesJson, preferences.getPreferredCountries())
+                && Objects.equals(languagesJson, preferences.getPreferredLanguages())
+                && Objects.equals(tagsJson, preferences.getInterestsTags());
+    }
+
+    private boolean inYearRange(int year) {
+        return year >= minYear && year <= maxYear;
+    }
+
+    /**
+     * Есть ли среди жанров элемента (строка через запятую) хотя бы один предпочитаемый.
+     * Строка просматривается по индексам, без split и trim
+     */
+    private boolean matchesGenres(String commaString) {
+        if (genres.length == 0) {
+            return true;
+        }
+        if (commaString == null) {
+            return false;
+        }
+        int length = commaString.length();
+        int start = 0;
+        while (start < length) {
+            int end = commaString.indexOf(',', start);
+            if (end < 0) {
+                end = length;
+            }
+            int from = start;
+            int to = end;
+            while (from < to && commaString.charAt(from) <= ' ') {
+                from++;
+            }
+            while (to > from && commaString.charAt(to - 1) <= ' ') {
+                to--;
+            }
+            if (to > from && containsGenre(commaString, from, to)) {
+                return true;
+            }
+            start = end + 1;
+        }
+        return false;
+    }
+
+    private boolean containsGenre(String source, int from, int to) {
+        int hash = lowercaseHash(source, from, to);
+        int index = Arrays.binarySearch(genreHashes, hash);
+        if (index < 0) {
+            return false;
+        }
+        // Одинаковый хеш могут иметь несколько жанров
+        while (index > 0 && genreHashes[index - 1] == hash) {
+            index--;
+        }
+        int length = to - from;
+        for (; index < genreHashes.length && genreHashes[index] == hash; index++) {
+            String genre = genres[index];
+            if (genre.length() == length && genre.regionMatches(true, 0, source, from, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int lowercaseHash(String value, int from, int to) {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(value.charAt(i)));
+        }
+        return hash;
+    }
+
+    static boolean isAdultRated(String rating) {
+        return rating != null && ADULT_RATINGS.contains(rating);
+    }
+
+    private static Set<String> parseLowercase(String jsonString) {
+        if (jsonString == null || jsonString.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> result = new HashSet<>();
+        try {
+            JSONArray jsonArray = new JSONArray(jsonString);
+            for (int i = 0; i < jsonArray.length(); i++) {
+                String value = jsonArray.getString(i).trim();
+                if (!value.isEmpty()) {
+                    result.add(value.toLowerCase(Locale.ROOT));
+                }
+            }
+        } catch (JSONException e) {
+            Log.e(TAG, "Ошибка при парсинге JSON: " + e.getMessage());
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    private static final class ParsedJson {
+        final String json;
+        final Set<String> values;
+
+        ParsedJson(String json, Set<String> values) {
+            this.json = json;
+            this.values = values;
+        }
+    }
+}
@@ -6,6 +6,8 @@ import android.util.Log;
 
 import com.draker.swipetime.R;
 import com.draker.swipetime.api.ApiIntegrationManager;
+import com.draker.swipetime.database.CardProjection;
+import com.draker.swipetime.database.DatabaseSchedulers;
 import com.draker.swipetime.database.entities.AnimeEntity;
 import com.draker.swipetime.database.entities.BookEntity;
 import com.draker.swipetime.database.entities.ContentEntity;
@@ -17,25 +19,30 @@ import com.draker.swipetime.models.ContentItem;
 import com.draker.swipetime.recommendations.RecommendationService;
 import com.draker.swipetime.repository.AnimeRepository;
 import com.draker.swipetime.repository.BookRepository;
+import com.draker.swipetime.repository.CatalogRepository;
 import com.draker.swipetime.repository.ContentRepository;
 import com.draker.swipetime.repository.GameRepository;
 import com.draker.swipetime.repository.MovieRepository;
 import com.draker.swipetime.repository.TVShowRepository;
+import com.draker.swipetime.repository.UserInteractionRepository;
 import com.draker.swipetime.repository.UserPreferencesRepository;
 
-import org.json.JSONArray;
-import org.json.JSONException;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
 
 /**
  * Объединенный класс для управления контентом, включая:
@@ -51,33 +58,44 @@ public class ContentManager {
     // Singleton instance
     private static ContentManager instance;
 
-    // Кэш для хранения доступного контента по категориям
-    private final Map<String, List<ContentItem>> contentCache = new ConcurrentHashMap<>();
-
-    // Флаги для отслеживания загрузки для каждой категории
-    private final Map<String, AtomicBoolean> isLoadingMap = new ConcurrentHashMap<>();
+    // Очереди карточек по категориям: пополняются загрузчиками, разбираются главным потоком
+    private final Map<String, CardSupplyQueue> supplyQueues = new ConcurrentHashMap<>();
 
-    // Постоянное хранилище уже показанных ID элементов для каждой категории
-    private static final Map<String, Set<String>> shownContentIds = new HashMap<>();
+    // Зерна перестановок, задающих порядок перемешивания по категориям
+    private final Map<String, Long> shuffleSeeds = new ConcurrentHashMap<>();
 
-    // Транзакционное хранилище (для текущей сессии) показанных ID
-    private static final Map<String, Set<String>> sessionShownIds = new HashMap<>();
+    // Курсоры перемешивания по номерам каталога: зерно и позиция в перестановке
+    private final Map<String, ShuffleCursor> ordinalCursors = new ConcurrentHashMap<>();
 
-    // Хранилище последних использованных порядков элементов
-    private static final Map<String, List<String>> lastShuffleOrders = new HashMap<>();
+    // Последняя карточка, выбранная при пополнении кэша, для продолжения обхода shuffle_keys
+    private final Map<String, CardProjection> shuffleCursors = new ConcurrentHashMap<>();
 
     // Константы
-    private static final int MIN_CACHE_THRESHOLD = 10;
+    private static final int MAX_REFILL_ITEMS = 100;
+    // Сколько номеров запрашивается у курсора за один запрос к каталогу
+    private static final int ORDINAL_BATCH = 64;
+    private static final int SUPPLY_QUEUE_CAPACITY = 256;
     private final Random random = new Random();
 
     // Менеджер для постоянного хранения истории просмотров
     private DatabaseHelper databaseHelper;
 
+    // Единое представление контента всех категорий
+    private CatalogRepository catalogRepository;
+
+    // Решает, когда и сколько подгружать, по темпу свайпов и длительности загрузки
+    private final PrefetchScheduler prefetchScheduler = PrefetchScheduler.getInstance();
+
+    // Веса категорий и порядок чередования смешанной ленты
+    private final MixedFeed mixedFeed = new MixedFeed();
+
+    // Журнал реакций, по которому считаются веса смешанной ленты
+    private UserInteractionRepository interactionRepository;
+
     private ContentManager() {
         // Инициализация кэшей и истории
         for (String category : new String[]{"Фильмы", "Сериалы", "Игры", "Книги", "Аниме"}) {
-            contentCache.put(category, Collections.synchronizedList(new ArrayList<>()));
-            isLoadingMap.put(category, new AtomicBoolean(false));
+            supplyQueues.put(category, new CardSupplyQueue(SUPPLY_QUEUE_CAPACITY));
         }
     }
 
@@ -90,6 +108,12 @@ public class ContentManager {
 
     public void initialize(Context context) {
         this.databaseHelper = DatabaseHelper.getInstance(context);
+        if (catalogRepository == null) {
+            catalogRepository = new CatalogRepository((Application) context.getApplicationContext());
+        }
+        if (interactionRepository == null) {
+            interactionRepository = new UserInteractionRepository(context.getApplicationContext());
+        }
     }
 
     // ==================== CARD FILTER INTEGRATION SECTION ====================
@@ -100,73 +124,31 @@ public class ContentManager {
     public List<ContentItem> getFilteredContentItems(
             String category,
             String userId,
-            MovieRepository movieRepository,
-            TVShowRepository tvShowRepository,
-            GameRepository gameRepository,
-            BookRepository bookRepository,
-            AnimeRepository animeRepository,
-            ContentRepository contentRepository,
             UserPreferencesRepository preferencesRepository) {
 
         // Получаем предпочтения пользователя
         UserPreferencesEntity preferences = preferencesRepository.getByUserId(userId);
 
-        // Получаем исходный список элементов в зависимости от категории
-        List<ContentEntity> contentEntities = new ArrayList<>();
+        // Фильтры по предпочтениям применяются на стороне SQLite
+        boolean applyFilters = preferences != null && hasActiveFilters(preferences);
 
-        switch (category) {
-            case "Фильмы":
-                List<MovieEntity> movies = movieRepository.getAll();
-                contentEntities.addAll(movies);
-                break;
-            case "Сериалы":
-                List<TVShowEntity> tvShows = tvShowRepository.getAll();
-                contentEntities.addAll(tvShows);
-                break;
-            case "Игры":
-                List<GameEntity> games = gameRepository.getAll();
-                contentEntities.addAll(games);
-                break;
-            case "Книги":
-                List<BookEntity> books = bookRepository.getAll();
-                contentEntities.addAll(books);
-                break;
-            case "Аниме":
-                List<AnimeEntity> animes = animeRepository.getAll();
-                contentEntities.addAll(animes);
-                break;
-            default:
-                contentEntities = contentRepository.getByCategory(category);
-                break;
+        // Порядок задают ключи shuffle_keys текущей сессии, показанные элементы
+        // отсекаются в SQLite по журналу взаимодействий
+        UserPreferencesEntity filter = applyFilters ? preferences : null;
+        List<CardProjection> cards = catalogRepository.getUnseenCards(category, filter, userId, true, -1, "", 0);
+        if (cards.isEmpty()) {
+            Log.d(TAG, "Все элементы категории " + category + " уже были показаны, начинаем новый круг");
+            cards = catalogRepository.getUnseenCards(category, filter, userId, false, -1, "", 0);
         }
 
-        Log.d(TAG, "Загружено элементов категории " + category + ": " + contentEntities.size());
+        Log.d(TAG, "Загружено элементов категории " + category + ": " + cards.size() +
+                (applyFilters ? " (с учетом фильтров)" : ""));
 
-        // Если есть предпочтения, применяем фильтрацию
-        List<ContentEntity> filteredEntities;
-        if (preferences != null && hasActiveFilters(preferences)) {
-            filteredEntities = filterContent(contentEntities, preferences);
-            Log.d(TAG, "После фильтрации осталось: " + filteredEntities.size());
-        } else {
-            filteredEntities = contentEntities;
+        List<ContentItem> resultItems = new ArrayList<>(cards.size());
+        for (CardProjection card : cards) {
+            resultItems.add(DatabaseHelper.mapToContentItem(card));
         }
 
-        // Преобразуем отфильтрованные сущности в ContentItem
-        List<ContentItem> resultItems = new ArrayList<>();
-        for (ContentEntity entity : filteredEntities) {
-            resultItems.add(new ContentItem(
-                    entity.getId(),
-                    entity.getTitle(),
-                    entity.getDescription(),
-                    entity.getImageUrl(),
-                    entity.getCategory()
-            ));
-        }
-
-        // Перемешиваем элементы для разнообразия отображения
-        resultItems = shuffleContent(resultItems, category);
-        Log.d(TAG, "Контент перемешан для предотвращения повторяющегося порядка");
-
         return resultItems;
     }
 
@@ -177,26 +159,10 @@ public class ContentManager {
             Application application,
             String category,
             String userId,
-            MovieRepository movieRepository,
-            TVShowRepository tvShowRepository,
-            GameRepository gameRepository,
-            BookRepository bookRepository,
-            AnimeRepository animeRepository,
-            ContentRepository contentRepository,
             UserPreferencesRepository preferencesRepository) {
 
         // Сначала получаем отфильтрованный список элементов
-        List<ContentItem> filteredItems = getFilteredContentItems(
-                category,
-                userId,
-                movieRepository,
-                tvShowRepository,
-                gameRepository,
-                bookRepository,
-                animeRepository,
-                contentRepository,
-                preferencesRepository
-        );
+        List<ContentItem> filteredItems = getFilteredContentItems(category, userId, preferencesRepository);
 
         Log.d(TAG, "После фильтрации получено элементов: " + filteredItems.size());
 
@@ -228,152 +194,71 @@ public class ContentManager {
         return recommendedItems;
     }
 
+    /**
+     * Асинхронный вариант {@link #getFilteredContentItems}: чтение из БД выполняется в пуле БД
+     */
+    public Single<List<ContentItem>> getFilteredContentItemsAsync(
+            String category,
+            String userId,
+            UserPreferencesRepository preferencesRepository) {
+        return Single.fromCallable(() -> getFilteredContentItems(category, userId, preferencesRepository))
+                .subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getFilteredAndRecommendedContentItems}
+     */
+    public Single<List<ContentItem>> getFilteredAndRecommendedContentItemsAsync(
+            Application application,
+            String category,
+            String userId,
+            UserPreferencesRepository preferencesRepository) {
+        return Single.fromCallable(() -> getFilteredAndRecommendedContentItems(application, category, userId,
+                        preferencesRepository))
+                .subscribeOn(DatabaseSchedulers.io());
+    }
+
+    /**
+     * Асинхронный вариант {@link #getRecommendedContentItems}
+     */
+    public Single<List<ContentItem>> getRecommendedContentItemsAsync(
+            Application application,
+            String category,
+            String userId,
+            int limit) {
+        return Single.fromCallable(() -> getRecommendedContentItems(application, category, userId, limit))
+                .subscribeOn(DatabaseSchedulers.io());
+    }
+
     // ==================== CONTENT FILTER HELPER SECTION ====================
 
     /**
      * Проверяет, есть ли активные фильтры у пользователя
      */
     public boolean hasActiveFilters(UserPreferencesEntity preferences) {
-        if (preferences == null) {
-            return false;
-        }
-
-        return (preferences.getPreferredGenres() != null && !preferences.getPreferredGenres().isEmpty()) ||
-                (preferences.getPreferredCountries() != null && !preferences.getPreferredCountries().isEmpty()) ||
-                (preferences.getPreferredLanguages() != null && !preferences.getPreferredLanguages().isEmpty()) ||
-                (preferences.getInterestsTags() != null && !preferences.getInterestsTags().isEmpty()) ||
-                preferences.getMinDuration() > 0 ||
-                preferences.getMaxDuration() < Integer.MAX_VALUE ||
-                preferences.getMinYear() > 1900 ||
-                preferences.getMaxYear() < 2025 ||
-                preferences.isAdultContentEnabled();
+        CompiledContentFilter filter = CompiledContentFilter.forPreferences(preferences);
+        return filter != null && filter.hasActiveFilters();
     }
 
     /**
      * Проверяет, содержит ли JSON-строка указанное значение
      */
     public boolean jsonContains(String jsonString, String valueToCheck) {
-        if (jsonString == null || jsonString.isEmpty() || valueToCheck == null) {
-            return false;
-        }
-
-        try {
-            JSONArray jsonArray = new JSONArray(jsonString);
-            for (int i = 0; i < jsonArray.length(); i++) {
-                if (valueToCheck.equalsIgnoreCase(jsonArray.getString(i))) {
-                    return true;
-                }
-            }
-        } catch (JSONException e) {
-            return false;
-        }
-
-        return false;
+        return CompiledContentFilter.jsonContains(jsonString, valueToCheck);
     }
 
     /**
-     * Применяет фильтры пользователя к списку контента
+     * Применяет фильтры пользователя к списку контента.
+     * Фильтр компилируется один раз на версию предпочтений, см. {@link CompiledContentFilter};
+     * когда индекс фасетов построен, проверка сводится к пересечению его множеств
      */
     public List<ContentEntity> filterContent(List<ContentEntity> contentList, UserPreferencesEntity preferences) {
         if (contentList == null || contentList.isEmpty() || preferences == null) {
             return contentList;
         }
 
-        List<ContentEntity> filteredList = new ArrayList<>();
-
         try {
-            List<String> preferredGenres = parseJsonArray(preferences.getPreferredGenres());
-            List<String> preferredCountries = parseJsonArray(preferences.getPreferredCountries());
-            List<String> preferredLanguages = parseJsonArray(preferences.getPreferredLanguages());
-            List<String> interestsTags = parseJsonArray(preferences.getInterestsTags());
-
-            if (preferredGenres.isEmpty() && preferredCountries.isEmpty() &&
-                    preferredLanguages.isEmpty() && interestsTags.isEmpty() &&
-                    preferences.getMinYear() <= 1900 && preferences.getMaxYear() >= 2100 &&
-                    preferences.getMinDuration() <= 0 && preferences.getMaxDuration() >= Integer.MAX_VALUE) {
-                return contentList;
-            }
-
-            for (ContentEntity content : contentList) {
-                boolean include = true;
-
-                if (content instanceof MovieEntity) {
-                    MovieEntity movie = (MovieEntity) content;
-
-                    if (!preferredGenres.isEmpty() && !containsAny(movie.getGenres(), preferredGenres)) {
-                        include = false;
-                    }
-
-                    if (movie.getReleaseYear() < preferences.getMinYear() ||
-                            movie.getReleaseYear() > preferences.getMaxYear()) {
-                        include = false;
-                    }
-
-                    if (movie.getDuration() < preferences.getMinDuration() ||
-                            movie.getDuration() > preferences.getMaxDuration()) {
-                        include = false;
-                    }
-                }
-                else if (content instanceof TVShowEntity) {
-                    TVShowEntity tvShow = (TVShowEntity) content;
-
-                    if (!preferredGenres.isEmpty() && !containsAny(tvShow.getGenres(), preferredGenres)) {
-                        include = false;
-                    }
-
-                    if (tvShow.getStartYear() < preferences.getMinYear() ||
-                            tvShow.getStartYear() > preferences.getMaxYear()) {
-                        include = false;
-                    }
-                }
-                else if (content instanceof GameEntity) {
-                    GameEntity game = (GameEntity) content;
-
-                    if (!preferredGenres.isEmpty() && !containsAny(game.getGenres(), preferredGenres)) {
-                        include = false;
-                    }
-
-                    if (game.getReleaseYear() < preferences.getMinYear() ||
-                            game.getReleaseYear() > preferences.getMaxYear()) {
-                        include = false;
-                    }
-
-                    if (!preferences.isAdultContentEnabled() && isAdultRated(game.getEsrbRating())) {
-                        include = false;
-                    }
-                }
-                else if (content instanceof BookEntity) {
-                    BookEntity book = (BookEntity) content;
-
-                    if (!preferredGenres.isEmpty() && !containsAny(book.getGenres(), preferredGenres)) {
-                        include = false;
-                    }
-
-                    if (book.getPublishYear() < preferences.getMinYear() ||
-                            book.getPublishYear() > preferences.getMaxYear()) {
-                        include = false;
-                    }
-                }
-                else if (content instanceof AnimeEntity) {
-                    AnimeEntity anime = (AnimeEntity) content;
-
-                    if (!preferredGenres.isEmpty() && !containsAny(anime.getGenres(), preferredGenres)) {
-                        include = false;
-                    }
-
-                    if (anime.getReleaseYear() < preferences.getMinYear() ||
-                            anime.getReleaseYear() > preferences.getMaxYear()) {
-                        include = false;
-                    }
-                }
-
-                if (include) {
-                    filteredList.add(content);
-                }
-            }
-
-            return filteredList;
-
+            return FacetIndex.getInstance().filter(contentList, CompiledContentFilter.forPreferences(preferences));
         } catch (Exception e) {
             Log.e(TAG, "Error filtering content: " + e.getMessage());
             e.printStackTrace();
@@ -384,87 +269,113 @@ public class ContentManager {
     // ==================== CONTENT SHUFFLER SECTION ====================
 
     /**
-     * Перемешать список элементов контента, избегая повторения последнего порядка
+     * Следующие карточки категории в перемешанном порядке.
+     * Порядок задает {@link ShuffleCursor} по номерам shuffle_keys.ordinal с зерном категории:
+     * курсор выдает номера партиями, карточки по ним выбираются из каталога с учетом фильтров
+     * и истории, так что за круг ни одна карточка не повторяется и список каталога не строится.
+     * Когда непоказанных элементов не осталось, начинается повторный круг с новым зерном:
+     * он проходится до конца без проверки истории, после чего начинается следующий повторный круг.
+     * Выполняется в пуле БД
+     *
+     * @param category категория контента
+     * @param userId ID пользователя
+     * @param preferencesRepository репозиторий предпочтений для фильтров
+     * @param count сколько карточек нужно
+     * @param excludedIds ID, которые не нужно выдавать (например, уже лежащие в стопке)
      */
-    public List<ContentItem> shuffleContent(List<ContentItem> items, String categoryName) {
-        if (items == null || items.isEmpty()) {
-            return items;
-        }
-
-        Set<String> permanentShownIds = shownContentIds.computeIfAbsent(categoryName, k -> new HashSet<>());
-        Set<String> currentShownIds = sessionShownIds.computeIfAbsent(categoryName, k -> new HashSet<>());
-
-        Set<String> allShownIds = new HashSet<>(permanentShownIds);
-        allShownIds.addAll(currentShownIds);
-
-        List<ContentItem> uniqueItems = new ArrayList<>();
-        List<ContentItem> previouslyShownItems = new ArrayList<>();
+    public List<ContentItem> nextShuffledItems(String category, String userId,
+                                               UserPreferencesRepository preferencesRepository,
+                                               int count, Set<String> excludedIds) {
+        UserPreferencesEntity preferences = preferencesRepository.getByUserId(userId);
+        UserPreferencesEntity filter = preferences != null && hasActiveFilters(preferences) ? preferences : null;
 
-        for (ContentItem item : items) {
-            if (allShownIds.contains(item.getId())) {
-                previouslyShownItems.add(item);
-            } else {
-                uniqueItems.add(item);
+        ShuffleCursor cursor = ordinalCursors.computeIfAbsent(category,
+                k -> new ShuffleCursor(getShuffleSeed(category)));
+        List<ContentItem> result = new ArrayList<>();
+        synchronized (cursor) {
+            // В повторном круге все элементы уже показаны, история только замедлила бы выборку
+            collectByOrdinals(cursor, category, userId, filter, !cursor.isRepeatRound(), count, excludedIds, result);
+            if (result.isEmpty()) {
+                Log.d(TAG, "Все элементы категории " + category + " уже были показаны, начинаем новый круг");
+                cursor.restart(SeededPermutation.nextSeed(cursor.getSeed()), true);
+                shuffleSeeds.put(category, cursor.getSeed());
+                collectByOrdinals(cursor, category, userId, filter, false, count, excludedIds, result);
             }
+            Log.d(TAG, "Перемешивание для категории " + category + " (зерно " + cursor.getSeed() +
+                    ", позиция " + cursor.getPosition() + "): выдано " + result.size());
         }
+        return result;
+    }
 
-        Log.d(TAG, "Категория " + categoryName + ": элементов всего " + items.size() +
-                ", новых " + uniqueItems.size() + ", показанных " + previouslyShownItems.size());
-
-        if (uniqueItems.isEmpty()) {
-            Log.d(TAG, "Все элементы категории " + categoryName + " уже были показаны. Сбрасываем историю.");
-            sessionShownIds.get(categoryName).clear();
-            uniqueItems = new ArrayList<>(items);
-            previouslyShownItems.clear();
-        }
-
-        Collections.shuffle(uniqueItems);
-
-        if (uniqueItems.size() <= 10) {
-            intensiveShuffle(uniqueItems);
-        }
+    /**
+     * Набирает карточки по номерам курсора до count штук или до конца круга.
+     * Номера, оставшиеся в последней партии после набора нужного числа, возвращаются в курсор
+     */
+    private void collectByOrdinals(ShuffleCursor cursor, String category, String userId,
+                                   UserPreferencesEntity filter, boolean excludeSeen, int count,
+                                   Set<String> excludedIds, List<ContentItem> target) {
+        int catalogSize = catalogRepository.getOrdinalCount(category);
+        while (target.size() < count) {
+            int[] ordinals = cursor.next(ORDINAL_BATCH, catalogSize);
+            if (ordinals.length == 0) {
+                return;
+            }
 
-        List<String> newOrder = extractIds(uniqueItems);
-        if (lastShuffleOrders.containsKey(categoryName) &&
-                isSimilarOrder(lastShuffleOrders.get(categoryName), newOrder)) {
-            Log.d(TAG, "Обнаружен похожий порядок элементов, применяем интенсивное перемешивание");
-            intensiveShuffle(uniqueItems);
-            newOrder = extractIds(uniqueItems);
-        }
+            Map<Integer, CardProjection> cards = new HashMap<>();
+            for (CardProjection card : catalogRepository.getCardsAtOrdinals(category, filter, userId,
+                    excludeSeen, ordinals)) {
+                cards.put(card.getOrdinal(), card);
+            }
 
-        Set<String> sessionIds = sessionShownIds.get(categoryName);
-        for (ContentItem item : uniqueItems) {
-            sessionIds.add(item.getId());
+            for (int i = 0; i < ordinals.length; i++) {
+                if (target.size() == count) {
+                    cursor.unread(ordinals.length - i);
+                    return;
+                }
+                CardProjection card = cards.get(ordinals[i]);
+                if (card != null && !excludedIds.contains(card.getId())) {
+                    target.add(DatabaseHelper.mapToContentItem(card));
+                }
+            }
         }
-        lastShuffleOrders.put(categoryName, newOrder);
+    }
 
-        List<ContentItem> result = new ArrayList<>(uniqueItems);
-        Log.d(TAG, "Перемешивание завершено для категории " + categoryName +
-                ", элементов в результате: " + result.size());
+    /**
+     * Зерно перемешивания категории; создается случайным при первом обращении в сессии
+     */
+    public long getShuffleSeed(String categoryName) {
+        return shuffleSeeds.computeIfAbsent(categoryName, k -> random.nextLong());
+    }
 
-        return result;
+    /**
+     * Задать зерно перемешивания категории, чтобы воспроизвести порядок карточек при отладке
+     */
+    public void setShuffleSeed(String categoryName, long seed) {
+        shuffleSeeds.put(categoryName, seed);
+        ordinalCursors.remove(categoryName);
     }
 
     // ==================== INFINITE CONTENT MANAGER SECTION ====================
 
     /**
-     * Получить следующую партию элементов для отображения
+     * Получить следующую партию элементов для отображения.
+     * Если в очереди достаточно карточек, партия выдается сразу без ожидания загрузчиков
      */
     public void getNextBatch(String category, String userId, int count, Context context,
                              ContentCallback callback) {
 
-        List<ContentItem> categoryCache = contentCache.get(category);
+        CardSupplyQueue queue = getSupplyQueue(category);
 
-        if (categoryCache != null && categoryCache.size() >= count) {
-            List<ContentItem> batch = extractBatch(category, count, context);
+        if (queue.size() >= count) {
+            List<ContentItem> batch = extractBatch(queue, category, count);
             callback.onContentLoaded(batch);
 
-            if (categoryCache.size() < MIN_CACHE_THRESHOLD) {
+            if (prefetchScheduler.shouldPrefetch(category, queue.size())) {
                 loadMoreContent(category, context);
             }
         } else {
             loadMoreContent(category, context, () -> {
-                List<ContentItem> batch = extractBatch(category, count, context);
+                List<ContentItem> batch = extractBatch(queue, category, count);
 
                 if (batch.isEmpty()) {
                     batch = createDiverseSyntheticItems(category, count);
@@ -475,6 +386,130 @@ public class ContentManager {
         }
     }
 
+    /**
+     * Получить следующую партию смешанной ленты.
+     * Карточки берутся из очередей всех категорий в пропорции весов {@link MixedFeed}.
+     * Очереди пополняются параллельно, и партия выдается, как только карточки появились
+     * хотя бы в одной категории, не дожидаясь остальных загрузок
+     */
+    public void getNextMixedBatch(String userId, int count, Context context, ContentCallback callback) {
+        refreshMixedWeights(userId);
+
+        List<ContentItem> batch = extractMixedBatch(count);
+        if (!batch.isEmpty()) {
+            callback.onContentLoaded(batch);
+
+            // Каждая категория пополняется в своем темпе: свайпы учитываются по категории карточки
+            for (String category : MixedFeed.CATEGORIES) {
+                if (prefetchScheduler.shouldPrefetch(category, getSupplyQueue(category).size())) {
+                    loadMoreContent(category, context);
+                }
+            }
+            return;
+        }
+
+        // Очереди пусты: загружаем все категории и отдаем партию по первой завершившейся загрузке
+        AtomicBoolean delivered = new AtomicBoolean();
+        AtomicInteger pending = new AtomicInteger(MixedFeed.CATEGORIES.length);
+        for (String category : MixedFeed.CATEGORIES) {
+            loadMoreContent(category, context, () -> {
+                synchronized (delivered) {
+                    boolean last = pending.decrementAndGet() == 0;
+                    if (delivered.get()) {
+                        return;
+                    }
+                    List<ContentItem> loaded = extractMixedBatch(count);
+                    if (loaded.isEmpty()) {
+                        if (!last) {
+                            return;
+                        }
+                        loaded = createDiverseSyntheticItems(mixedFeed.getTopCategory(), count);
+                    }
+                    delivered.set(true);
+                    callback.onContentLoaded(loaded);
+                }
+            });
+        }
+    }
+
+    /**
+     * Сколько карточек смешанной ленты держать в запасе: сумма целевых буферов категорий
+     */
+    public int getMixedTargetBuffer() {
+        int target = 0;
+        for (String category : MixedFeed.CATEGORIES) {
+            target += prefetchScheduler.getTargetBuffer(category);
+        }
+        return target;
+    }
+
+    /**
+     * Текущая глубина очереди карточек категории
+     */
+    public int getQueueDepth(String category) {
+        return getSupplyQueue(category).size();
+    }
+
+    /**
+     * Длительность последнего пополнения очереди категории, мс
+     */
+    public long getLastRefillLatencyMs(String category) {
+        return getSupplyQueue(category).getLastRefillLatencyMs();
+    }
+
+    /**
+     * Средняя длительность пополнения очереди категории, мс
+     */
+    public long getAverageRefillLatencyMs(String category) {
+        return getSupplyQueue(category).getAverageRefillLatencyMs();
+    }
+
+    /**
+     * Сохранить очереди карточек в снимок, чтобы после перезапуска процесса
+     * первая карточка показывалась сразу. Выполняется в пуле БД
+     */
+    public void saveQueueSnapshot(Context context) {
+        Context appContext = context.getApplicationContext();
+        Completable.fromAction(() -> {
+                    Map<String, List<ContentItem>> queues = new LinkedHashMap<>();
+                    for (Map.Entry<String, CardSupplyQueue> entry : supplyQueues.entrySet()) {
+                        List<ContentItem> items = entry.getValue().snapshotItems();
+                        if (!items.isEmpty()) {
+                            queues.put(entry.getKey(), items);
+                        }
+                    }
+                    CardQueueSnapshot.save(appContext, queues);
+                })
+                .subscribeOn(DatabaseSchedulers.io())
+                .subscribe(() -> { },
+                        error -> Log.e(TAG, "Ошибка при сохранении снимка очередей: " + error.getMessage()));
+    }
+
+    /**
+     * Восстановить очереди карточек из снимка предыдущего запуска.
+     * Вызывается при старте приложения до любой работы с БД и сетью. Чтение и разбор файла
+     * идут в пуле БД, чтобы не задерживать главный поток; очереди принимают карточки из любого потока
+     */
+    public void restoreQueueSnapshot(Context context) {
+        Context appContext = context.getApplicationContext();
+        Completable.fromAction(() -> {
+                    int restored = 0;
+                    for (Map.Entry<String, List<ContentItem>> entry : CardQueueSnapshot.restore(appContext).entrySet()) {
+                        restored += getSupplyQueue(entry.getKey()).offerAll(entry.getValue());
+                    }
+                    if (restored > 0) {
+                        Log.d(TAG, "Из снимка восстановлено карточек: " + restored);
+                    }
+                })
+                .subscribeOn(DatabaseSchedulers.io())
+                .subscribe(() -> { },
+                        error -> Log.e(TAG, "Ошибка при восстановлении снимка очередей: " + error.getMessage()));
+    }
+
+    private CardSupplyQueue getSupplyQueue(String category) {
+        return supplyQueues.computeIfAbsent(category, k -> new CardSupplyQueue(SUPPLY_QUEUE_CAPACITY));
+    }
+
     // ==================== LIKED ITEMS HELPER SECTION ====================
 
     /**
@@ -568,6 +603,22 @@ public class ContentManager {
         }
     }
 
+    /**
+     * Асинхронный вариант {@link #addToLiked}: запись в БД выполняется в пуле БД
+     */
+    public Completable addToLikedAsync(ContentItem item, String categoryName,
+                                       MovieRepository movieRepository,
+                                       TVShowRepository tvShowRepository,
+                                       GameRepository gameRepository,
+                                       BookRepository bookRepository,
+                                       AnimeRepository animeRepository,
+                                       ContentRepository contentRepository) {
+        return Completable.fromAction(() -> addToLiked(item, categoryName,
+                        movieRepository, tvShowRepository, gameRepository,
+                        bookRepository, animeRepository, contentRepository))
+                .subscribeOn(DatabaseSchedulers.io());
+    }
+
     /**
      * Обновляет статус "нравится" в базе данных для элемента
      */
@@ -711,273 +762,190 @@ public class ContentManager {
     /**
      * Обрабатывает событие свайпа для обновления рекомендательной системы
      */
-    public void handleSwipeEvent(Application application, String contentId, boolean liked) {
+    public void handleSwipeEvent(Application application, String category, String contentId, boolean liked) {
         RecommendationService recommendationService = RecommendationService.getInstance(application);
-        recommendationService.handleSwipeEvent(application, contentId, liked);
+        recommendationService.handleSwipeEvent(application, category, contentId, liked);
     }
 
     // ==================== PRIVATE HELPER METHODS ====================
 
-    private boolean containsAny(String commaString, List<String> values) {
-        if (commaString == null || commaString.isEmpty() || values == null || values.isEmpty()) {
-            return false;
-        }
-
-        String[] items = commaString.split(",");
-        for (String item : items) {
-            String trimmed = item.trim();
-            if (values.contains(trimmed)) {
-                return true;
-            }
-        }
-
-        return false;
-    }
-
-    private boolean isAdultRated(String rating) {
-        if (rating == null) {
-            return false;
-        }
-
-        return rating.equals("M") || rating.equals("AO") ||
-                rating.equals("18+") || rating.equals("NC-17") ||
-                rating.equals("R18+");
-    }
-
-    private List<String> parseJsonArray(String jsonString) {
-        List<String> result = new ArrayList<>();
+    private List<ContentItem> extractBatch(CardSupplyQueue queue, String category, int count) {
+        List<ContentItem> result = new ArrayList<>(count);
 
-        if (jsonString == null || jsonString.isEmpty()) {
-            return result;
-        }
+        ContentItem item;
+        while (result.size() < count && (item = queue.poll()) != null) {
+            result.add(item);
 
-        try {
-            JSONArray jsonArray = new JSONArray(jsonString);
-            for (int i = 0; i < jsonArray.length(); i++) {
-                result.add(jsonArray.getString(i).toLowerCase());
+            if (databaseHelper != null) {
+                databaseHelper.addToViewedHistory(category, item.getId());
             }
-        } catch (JSONException e) {
-            Log.e(TAG, "Ошибка при парсинге JSON: " + e.getMessage());
         }
 
         return result;
     }
 
-    private void intensiveShuffle(List<ContentItem> items) {
-        if (items.size() <= 1) return;
+    private List<ContentItem> extractMixedBatch(int count) {
+        List<ContentItem> result = new ArrayList<>(count);
+        // Категории, в очереди которых карточка занята загрузчиком, но еще не записана
+        Set<String> drained = new HashSet<>();
 
-        int size = items.size();
-
-        for (int i = size - 1; i > 0; i--) {
-            int j = random.nextInt(i + 1);
-            Collections.swap(items, i, j);
-        }
-
-        int halfSize = size / 2;
-        for (int i = halfSize - 1; i > 0; i--) {
-            int j = random.nextInt(i + 1);
-            Collections.swap(items, i, j);
-        }
-
-        for (int i = size - 1; i >= halfSize; i--) {
-            int j = halfSize + random.nextInt(size - halfSize);
-            Collections.swap(items, i, j);
-        }
-
-        int blockSize = Math.max(3, size / 5);
-        for (int block = 0; block < size / blockSize; block++) {
-            int startIndex = block * blockSize;
-            int endIndex = Math.min(startIndex + blockSize, size);
-            for (int i = endIndex - 1; i > startIndex; i--) {
-                int j = startIndex + random.nextInt(i - startIndex + 1);
-                Collections.swap(items, i, j);
+        while (result.size() < count) {
+            String category = mixedFeed.next(c -> !drained.contains(c) && !getSupplyQueue(c).isEmpty());
+            if (category == null) {
+                break;
             }
-        }
-    }
-
-    private List<String> extractIds(List<ContentItem> items) {
-        List<String> ids = new ArrayList<>();
-        for (ContentItem item : items) {
-            ids.add(item.getId());
-        }
-        return ids;
-    }
-
-    private boolean isSimilarOrder(List<String> order1, List<String> order2) {
-        if (order1 == null || order2 == null || order1.isEmpty() || order2.isEmpty()) {
-            return false;
-        }
-
-        int matchCount = 0;
-        int checkSize = Math.min(order1.size(), order2.size());
-        checkSize = Math.min(checkSize, 20);
-
-        for (int i = 0; i < checkSize; i++) {
-            if (i < order1.size() && i < order2.size() && order1.get(i).equals(order2.get(i))) {
-                matchCount += (checkSize - i) / (i + 1);
+            ContentItem item = getSupplyQueue(category).poll();
+            if (item == null) {
+                drained.add(category);
+                continue;
             }
-        }
-
-        int threshold = checkSize * 2 / 5;
-        return matchCount >= threshold;
-    }
-
-    private synchronized List<ContentItem> extractBatch(String category, int count, Context context) {
-        List<ContentItem> categoryCache = contentCache.get(category);
-        if (categoryCache == null || categoryCache.isEmpty()) {
-            return new ArrayList<>();
-        }
-
-        List<ContentItem> result = new ArrayList<>();
-        int extractCount = Math.min(count, categoryCache.size());
-
-        for (int i = 0; i < extractCount; i++) {
-            ContentItem item = categoryCache.remove(0);
             result.add(item);
 
             if (databaseHelper != null) {
-                databaseHelper.addToViewedHistory(category, item.getId(), false);
+                databaseHelper.addToViewedHistory(category, item.getId());
             }
         }
 
         return result;
     }
 
+    private void refreshMixedWeights(String userId) {
+        if (interactionRepository == null) {
+            return;
+        }
+        Completable.fromAction(() -> mixedFeed.updateWeights(interactionRepository.getCategoryAffinity(userId)))
+                .subscribeOn(DatabaseSchedulers.io())
+                .subscribe(() -> { },
+                        error -> Log.e(TAG, "Ошибка при расчете весов смешанной ленты: " + error.getMessage()));
+    }
+
     private void loadMoreContent(String category, Context context) {
         loadMoreContent(category, context, null);
     }
 
     private void loadMoreContent(String category, Context context, Runnable onComplete) {
-        AtomicBoolean isLoading = isLoadingMap.get(category);
-        if (isLoading != null && isLoading.get()) {
+        long fetchToken = prefetchScheduler.beginFetch(category);
+        if (fetchToken == PrefetchScheduler.NO_FETCH) {
             if (onComplete != null) {
                 onComplete.run();
             }
             return;
         }
 
-        if (isLoading != null) {
-            isLoading.set(true);
-        }
-
         Log.d(TAG, "Загрузка дополнительного контента для категории: " + category);
+        CardSupplyQueue queue = getSupplyQueue(category);
+        long refillStart = System.nanoTime();
 
         Application app = (Application) context.getApplicationContext();
         ApiIntegrationManager apiManager = ApiIntegrationManager.getInstance(app);
 
-        apiManager.refreshCategoryContent(category, 30, new ApiIntegrationManager.ApiInitCallback() {
+        int fetchSize = prefetchScheduler.getFetchSize(category, 30);
+        apiManager.refreshCategoryContent(category, fetchSize, new ApiIntegrationManager.ApiInitCallback() {
             @Override
             public void onComplete(boolean success) {
-                if (success) {
-                    Log.d(TAG, "Успешно загружен дополнительный контент для категории: " + category);
-                    refreshCacheFromDatabase(category, context);
-                } else {
-                    Log.e(TAG, "Ошибка при загрузке дополнительного контента для категории: " + category);
+                // Пользователь ушел из категории - упреждающая загрузка отменена
+                if (!prefetchScheduler.finishFetch(category, fetchToken, refillStart)) {
+                    Log.d(TAG, "Подгрузка категории " + category + " отменена");
+                    finishLoading(onComplete);
+                    return;
                 }
 
-                if (isLoading != null) {
-                    isLoading.set(false);
+                if (!success) {
+                    Log.e(TAG, "Ошибка при загрузке дополнительного контента для категории: " + category);
+                    finishLoading(onComplete);
+                    return;
                 }
 
-                if (onComplete != null) {
-                    onComplete.run();
-                }
+                Log.d(TAG, "Успешно загружен дополнительный контент для категории: " + category);
+
+                // Кэш пополняется чтением из БД, поэтому уходим в пул БД
+                Completable.fromAction(() -> {
+                            refreshCacheFromDatabase(category, queue);
+                            queue.recordRefill(refillStart);
+                            Log.d(TAG, "Очередь " + category + ": глубина " + queue.size() +
+                                    ", пополнение " + queue.getLastRefillLatencyMs() + " мс" +
+                                    " (в среднем " + queue.getAverageRefillLatencyMs() + " мс)");
+                        })
+                        .subscribeOn(DatabaseSchedulers.io())
+                        .observeOn(AndroidSchedulers.mainThread())
+                        .subscribe(() -> finishLoading(onComplete), error -> {
+                            Log.e(TAG, "Ошибка при пополнении кэша категории " + category + ": " + error.getMessage());
+                            finishLoading(onComplete);
+                        });
             }
 
             @Override
             public void onError(String errorMessage) {
                 Log.e(TAG, "Ошибка при загрузке контента для категории " + category + ": " + errorMessage);
-
-                if (isLoading != null) {
-                    isLoading.set(false);
-                }
-
-                if (onComplete != null) {
-                    onComplete.run();
-                }
+                prefetchScheduler.finishFetch(category, fetchToken, refillStart);
+                finishLoading(onComplete);
             }
         });
     }
 
-    private void refreshCacheFromDatabase(String category, Context context) {
-        Application app = (Application) context.getApplicationContext();
-        MovieRepository movieRepository = new MovieRepository(app);
-        TVShowRepository tvShowRepository = new TVShowRepository(app);
-        GameRepository gameRepository = new GameRepository(app);
-        BookRepository bookRepository = new BookRepository(app);
-        AnimeRepository animeRepository = new AnimeRepository(app);
-        ContentRepository contentRepository = new ContentRepository(app);
-
-        List<ContentItem> newItems = new ArrayList<>();
-        List<ContentEntity> entities = new ArrayList<>();
-
-        switch (category) {
-            case "Фильмы":
-                for (MovieEntity entity : movieRepository.getAll()) {
-                    entities.add(entity);
-                }
-                break;
-            case "Сериалы":
-                for (TVShowEntity entity : tvShowRepository.getAll()) {
-                    entities.add(entity);
-                }
-                break;
-            case "Игры":
-                for (GameEntity entity : gameRepository.getAll()) {
-                    entities.add(entity);
-                }
-                break;
-            case "Книги":
-                for (BookEntity entity : bookRepository.getAll()) {
-                    entities.add(entity);
-                }
-                break;
-            case "Аниме":
-                for (AnimeEntity entity : animeRepository.getAll()) {
-                    entities.add(entity);
-                }
-                break;
-            default:
-                entities = contentRepository.getByCategory(category);
-                break;
+    private void finishLoading(Runnable onComplete) {
+        if (onComplete != null) {
+            onComplete.run();
         }
+    }
 
-        Set<String> viewedItems = new HashSet<>();
-        if (databaseHelper != null) {
-            viewedItems = databaseHelper.getAllViewedItems(category);
-        }
+    private void refreshCacheFromDatabase(String category, CardSupplyQueue queue) {
+        Set<String> cachedIds = queue.snapshotIds();
 
-        for (ContentEntity entity : entities) {
-            if (!viewedItems.contains(entity.getId())) {
-                ContentItem item = DatabaseHelper.mapToContentItem(entity);
-                newItems.add(item);
-            }
+        List<ContentItem> newItems = new ArrayList<>();
+        CardProjection cursor = shuffleCursors.get(category);
+        collectShuffledItems(category, true, cursor, cachedIds, newItems);
+
+        // Дошли до конца порядка сессии - продолжаем с начала
+        if (cursor != null && newItems.size() < MAX_REFILL_ITEMS) {
+            shuffleCursors.remove(category);
+            collectShuffledItems(category, true, null, cachedIds, newItems);
         }
 
-        if (newItems.isEmpty() && !entities.isEmpty()) {
+        if (newItems.isEmpty()) {
             Log.d(TAG, "Все элементы категории " + category + " уже были показаны. Сбрасываем историю.");
 
-            Set<String> likedItems = new HashSet<>();
             if (databaseHelper != null) {
-                likedItems = databaseHelper.getLikedItems(category);
                 databaseHelper.clearHistory(category);
             }
 
-            for (ContentEntity entity : entities) {
-                if (!likedItems.contains(entity.getId())) {
-                    ContentItem item = DatabaseHelper.mapToContentItem(entity);
-                    newItems.add(item);
-                }
-            }
+            shuffleCursors.remove(category);
+            collectShuffledItems(category, false, null, cachedIds, newItems);
         }
 
-        Collections.shuffle(newItems, random);
+        int added = queue.offerAll(newItems);
+        Log.d(TAG, "Добавлено " + added + " новых элементов в кэш для категории " + category);
+    }
 
-        Log.d(TAG, "Добавлено " + newItems.size() + " новых элементов в кэш для категории " + category);
+    /**
+     * Набирает элементы для пополнения кэша в порядке shuffle_keys, начиная после курсора.
+     * Запоминает последнюю выбранную карточку, чтобы следующее пополнение продолжило обход
+     *
+     * @param category категория контента
+     * @param excludeSeen пропускать ли показанные пользователю элементы; в новом круге
+     *                    пропускаются только понравившиеся
+     * @param cursor последняя карточка предыдущего пополнения или null
+     * @param excludedIds ID, которые не нужно добавлять
+     * @param target список для найденных элементов
+     */
+    private void collectShuffledItems(String category, boolean excludeSeen, CardProjection cursor,
+                                      Set<String> excludedIds, List<ContentItem> target) {
+        List<CardProjection> cards = catalogRepository.getUnseenCards(category, null,
+                DatabaseHelper.DEFAULT_USER_ID, excludeSeen,
+                cursor != null ? cursor.getShuffleKey() : -1, cursor != null ? cursor.getId() : "",
+                MAX_REFILL_ITEMS - target.size());
+
+        for (CardProjection card : cards) {
+            if (!excludeSeen && databaseHelper != null && databaseHelper.isLiked(category, card.getId())) {
+                continue;
+            }
+            if (excludedIds.add(card.getId())) {
+                target.add(DatabaseHelper.mapToContentItem(card));
+            }
+        }
 
-        List<ContentItem> cache = contentCache.get(category);
-        if (cache != null) {
-            cache.addAll(newItems);
+        if (!cards.isEmpty()) {
+            shuffleCursors.put(category, cards.get(cards.size() - 1));
         }
     }
 
@@ -1109,13 +1077,22 @@ public class ContentManager {
         }
     }
 
+    /**
+     * Отмечает элемент как показанный без оценки
+     */
+    public void markContentViewed(String category, String itemId) {
+        if (databaseHelper != null) {
+            databaseHelper.addToViewedHistory(category, itemId);
+        }
+    }
+
     /**
      * Сбрасывает кэш для указанной категории
      */
     public void resetCache(String category) {
-        List<ContentItem> cache = contentCache.get(category);
-        if (cache != null) {
-            cache.clear();
+        CardSupplyQueue queue = supplyQueues.get(category);
+        if (queue != null) {
+            queue.clear();
         }
         Log.d(TAG, "Кэш сброшен для категории: " + category);
     }
@@ -1124,7 +1101,7 @@ public class ContentManager {
      * Сбрасывает весь кэш
      */
     public void resetAllCaches() {
-        for (String category : contentCache.keySet()) {
+        for (String category : supplyQueues.keySet()) {
             resetCache(category);
         }
         Log.d(TAG, "Все кэши сброшены");
@@ -1137,6 +1114,9 @@ public class ContentManager {
         if (databaseHelper != null) {
             databaseHelper.clearHistory(category);
         }
+        // После сброса истории обход начинается заново со следующим зерном
+        ordinalCursors.remove(category);
+        shuffleSeeds.computeIfPresent(category, (k, seed) -> SeededPermutation.nextSeed(seed));
         Log.d(TAG, "История просмотров сброшена для категории: " + category);
     }
 
@@ -1147,23 +1127,8 @@ public class ContentManager {
         if (databaseHelper != null) {
             databaseHelper.clearAllHistory();
         }
+        ordinalCursors.clear();
+        shuffleSeeds.replaceAll((k, seed) -> SeededPermutation.nextSeed(seed));
         Log.d(TAG, "Вся история просмотров сброшена");
     }
-
-    /**
-     * Получить количество уже показанных элементов для категории
-     */
-    public int getShownCount(String category) {
-        int count = 0;
-
-        if (shownContentIds.containsKey(category)) {
-            count += shownContentIds.get(category).size();
-        }
-
-        if (sessionShownIds.containsKey(category)) {
-            count += sessionShownIds.get(category).size();
-        }
-
-        return count;
-    }
-}
\ No newline at end of file
+}
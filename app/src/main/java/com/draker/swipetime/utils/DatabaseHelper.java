@@ -1,5 +1,6 @@
 package com.draker.swipetime.utils;
 
+import android.app.Application;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.util.Log;
@@ -7,20 +8,27 @@ import android.util.Log;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import com.draker.swipetime.database.AppDatabase;
+import com.draker.swipetime.database.CardProjection;
+import com.draker.swipetime.database.UserDatabase;
 import com.draker.swipetime.database.entities.AnimeEntity;
 import com.draker.swipetime.database.entities.BookEntity;
+import com.draker.swipetime.database.entities.CatalogItemView;
 import com.draker.swipetime.database.entities.ContentEntity;
 import com.draker.swipetime.database.entities.GameEntity;
 import com.draker.swipetime.database.entities.MovieEntity;
 import com.draker.swipetime.database.entities.TVShowEntity;
 import com.draker.swipetime.database.entities.UserEntity;
+import com.draker.swipetime.database.entities.UserInteractionEntity;
 import com.draker.swipetime.database.entities.UserStatsEntity;
 import com.draker.swipetime.models.ContentItem;
 import com.draker.swipetime.repository.ContentRepository;
+import com.draker.swipetime.repository.UserInteractionRepository;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
@@ -31,20 +39,25 @@ import java.util.concurrent.Executors;
  * - Генерацию начальных данных
  * - Маппинг сущностей
  * - Управление избранным
- * - Управление историей просмотров
+ * - Управление историей просмотров (журнал user_interactions)
  */
 public class DatabaseHelper {
     private static final String TAG = "DatabaseHelper";
     private static final Executor executor = Executors.newSingleThreadExecutor();
 
-    // Константы для SharedPreferences
+    // Пользователь, от имени которого ведется журнал взаимодействий
+    static final String DEFAULT_USER_ID = "user_1";
+
+    // Константы старого хранилища в SharedPreferences (только для однократного переноса)
     private static final String FAVORITES_PREFS = "favorites_prefs";
     private static final String VIEWED_HISTORY_PREFS = "viewed_history_prefs";
     private static final String KEY_FAVORITE_IDS = "favorite_content_ids";
     private static final String PREF_KEY_PREFIX = "viewed_items_";
     private static final String PREF_KEY_DISLIKED_PREFIX = "disliked_items_";
     private static final String PREF_KEY_LIKED_PREFIX = "liked_items_";
-    private static final int MAX_HISTORY_ITEMS = 1000;
+    private static final String MIGRATION_PREFS = "interactions_migration_prefs";
+    private static final String KEY_INTERACTIONS_IMPORTED = "interactions_imported";
+    private static final String[] KNOWN_CATEGORIES = {"Фильмы", "Сериалы", "Игры", "Книги", "Аниме"};
 
     private static DatabaseHelper instance;
     private final Context context;
@@ -93,16 +106,18 @@ public class DatabaseHelper {
     }
 
     /**
-     * Полностью удаляет базу данных приложения
+     * Полностью удаляет базу каталога. Пользовательские данные хранятся
+     * в отдельном файле и не затрагиваются
      * @return true, если база была успешно удалена
      */
     public boolean deleteDatabaseCompletely() {
         try {
             // Сначала закрываем и уничтожаем экземпляр базы данных
             AppDatabase.destroyInstance();
+            FacetIndex.getInstance().invalidate();
 
             // Получаем путь к базе данных и удаляем файл
-            File dbFile = context.getDatabasePath("swipetime-db");
+            File dbFile = context.getDatabasePath(AppDatabase.DATABASE_NAME);
             if (dbFile.exists()) {
                 boolean deleted = dbFile.delete();
                 Log.i(TAG, "База данных удалена: " + deleted);
@@ -124,43 +139,6 @@ public class DatabaseHelper {
         }
     }
 
-    /**
-     * Радикально удаляет все данные из базы данных, кроме пользовательских настроек
-     */
-    public void clearAllData() {
-        Log.d(TAG, "Запуск полной очистки данных");
-
-        executor.execute(() -> {
-            try {
-                AppDatabase db = AppDatabase.getInstance(context);
-                SupportSQLiteDatabase sqliteDb = db.getOpenHelper().getWritableDatabase();
-
-                // Отключаем проверку внешних ключей для безопасного удаления
-                sqliteDb.execSQL("PRAGMA foreign_keys = OFF");
-
-                // Удаляем все данные из всех таблиц
-                sqliteDb.execSQL("DELETE FROM movies");
-                sqliteDb.execSQL("DELETE FROM tv_shows");
-                sqliteDb.execSQL("DELETE FROM games");
-                sqliteDb.execSQL("DELETE FROM books");
-                sqliteDb.execSQL("DELETE FROM anime");
-                sqliteDb.execSQL("DELETE FROM content");
-                sqliteDb.execSQL("DELETE FROM reviews");
-
-                // Сбрасываем автоинкрементные идентификаторы
-                sqliteDb.execSQL("DELETE FROM sqlite_sequence");
-
-                // Включаем обратно проверку внешних ключей
-                sqliteDb.execSQL("PRAGMA foreign_keys = ON");
-
-                Log.d(TAG, "Полная очистка данных успешно завершена");
-            } catch (Exception e) {
-                Log.e(TAG, "Ошибка при полной очистке данных: " + e.getMessage());
-                e.printStackTrace();
-            }
-        });
-    }
-
     /**
      * Удаляет тестовые данные из всех категорий, но сохраняет пользовательские данные
      */
@@ -183,9 +161,18 @@ public class DatabaseHelper {
                 sqliteDb.execSQL("DELETE FROM anime WHERE liked = 0");
                 sqliteDb.execSQL("DELETE FROM content WHERE liked = 0");
 
+                // Удаляем связи жанров, оставшиеся без контента
+                for (String table : new String[]{"movies", "tv_shows", "games", "books", "anime"}) {
+                    sqliteDb.execSQL("DELETE FROM content_genres WHERE source = ? AND content_id NOT IN " +
+                            "(SELECT id FROM " + table + ")", new Object[]{table});
+                }
+
                 // Включаем обратно проверку внешних ключей
                 sqliteDb.execSQL("PRAGMA foreign_keys = ON");
 
+                // Индекс фасетов не видит массовых удалений, перестраиваем его
+                rebuildFacetIndex();
+
                 Log.d(TAG, "Очистка тестовых данных успешно завершена");
             } catch (Exception e) {
                 Log.e(TAG, "Ошибка при очистке тестовых данных: " + e.getMessage());
@@ -194,6 +181,12 @@ public class DatabaseHelper {
         });
     }
 
+    private void rebuildFacetIndex() {
+        FacetIndex facetIndex = FacetIndex.getInstance();
+        facetIndex.invalidate();
+        facetIndex.ensureBuilt((Application) context);
+    }
+
     // ==================== DATA GENERATION SECTION ====================
 
     /**
@@ -204,7 +197,7 @@ public class DatabaseHelper {
 
         executor.execute(() -> {
             try {
-                AppDatabase db = AppDatabase.getInstance(context);
+                UserDatabase db = UserDatabase.getInstance(context);
 
                 // Проверяем, есть ли пользователи в базе
                 int userCount = db.userDao().getCount();
@@ -257,6 +250,31 @@ public class DatabaseHelper {
 
     // ==================== ENTITY MAPPING SECTION ====================
 
+    /**
+     * Преобразует облегченную карточку в ContentItem.
+     * Вместо описания используется его начало, детали подгружаются на экране деталей
+     * @param card карточка из catalog_items
+     * @return ContentItem
+     */
+    public static ContentItem mapToContentItem(CardProjection card) {
+        if (card == null) {
+            return null;
+        }
+
+        ContentItem item = new ContentItem(
+                card.getId(),
+                card.getTitle(),
+                card.getBlurb(),
+                card.getImageUrl(),
+                card.getCategory()
+        );
+        item.setLiked(card.isLiked());
+        if (card.getYear() > 0) {
+            item.setYear(card.getYear());
+        }
+        return item;
+    }
+
     /**
      * Преобразует сущность ContentEntity в объект ContentItem
      * @param entity сущность ContentEntity
@@ -291,6 +309,8 @@ public class DatabaseHelper {
                 applyBookFields((BookEntity) entity, item);
             } else if (entity instanceof AnimeEntity) {
                 applyAnimeFields((AnimeEntity) entity, item);
+            } else if (entity instanceof CatalogItemView) {
+                applyCatalogFields((CatalogItemView) entity, item);
             }
         } catch (Exception e) {
             Log.e(TAG, "Ошибка при преобразовании сущности: " + e.getMessage());
@@ -299,6 +319,18 @@ public class DatabaseHelper {
         return item;
     }
 
+    private static void applyCatalogFields(CatalogItemView catalogItem, ContentItem item) {
+        if (catalogItem.getGenres() != null && !catalogItem.getGenres().isEmpty()) {
+            item.setGenre(catalogItem.getGenres());
+        }
+
+        if (catalogItem.getYear() > 0) {
+            item.setYear(catalogItem.getYear());
+        }
+
+        item.setWatched(catalogItem.isWatched());
+    }
+
     private static void applyMovieFields(MovieEntity movie, ContentItem item) {
         if (movie.getGenres() != null && !movie.getGenres().isEmpty()) {
             item.setGenre(movie.getGenres());
@@ -470,7 +502,7 @@ public class DatabaseHelper {
     // ==================== FAVORITES MANAGEMENT SECTION ====================
 
     /**
-     * Добавить элемент в избранное и сохранить состояние
+     * Добавить элемент в избранное и записать лайк в журнал взаимодействий
      * @param contentId ID контента
      * @return true, если операция успешна
      */
@@ -478,7 +510,7 @@ public class DatabaseHelper {
         ContentRepository contentRepository = new ContentRepository(context);
         boolean result = contentRepository.updateAndPersistLikedStatus(contentId, true);
         if (result) {
-            saveFavoriteIdToPrefs(contentId);
+            recordInteraction(null, contentId, UserInteractionEntity.ACTION_LIKE);
         }
         return result;
     }
@@ -492,64 +524,26 @@ public class DatabaseHelper {
         ContentRepository contentRepository = new ContentRepository(context);
         boolean result = contentRepository.updateAndPersistLikedStatus(contentId, false);
         if (result) {
-            removeFavoriteIdFromPrefs(contentId);
+            recordInteraction(null, contentId, UserInteractionEntity.ACTION_UNLIKE);
         }
         return result;
     }
 
-    private void saveFavoriteIdToPrefs(String contentId) {
-        try {
-            SharedPreferences preferences = context.getSharedPreferences(FAVORITES_PREFS, Context.MODE_PRIVATE);
-            Set<String> favoriteIds = getFavoriteIdsFromPrefs();
-            favoriteIds.add(contentId);
-
-            SharedPreferences.Editor editor = preferences.edit();
-            editor.putStringSet(KEY_FAVORITE_IDS, favoriteIds);
-            editor.apply();
-
-            Log.d(TAG, "ID избранного контента сохранен: " + contentId);
-        } catch (Exception e) {
-            Log.e(TAG, "Ошибка при сохранении ID избранного контента: " + e.getMessage());
-        }
-    }
-
-    private void removeFavoriteIdFromPrefs(String contentId) {
-        try {
-            SharedPreferences preferences = context.getSharedPreferences(FAVORITES_PREFS, Context.MODE_PRIVATE);
-            Set<String> favoriteIds = getFavoriteIdsFromPrefs();
-            favoriteIds.remove(contentId);
-
-            SharedPreferences.Editor editor = preferences.edit();
-            editor.putStringSet(KEY_FAVORITE_IDS, favoriteIds);
-            editor.apply();
-
-            Log.d(TAG, "ID избранного контента удален: " + contentId);
-        } catch (Exception e) {
-            Log.e(TAG, "Ошибка при удалении ID избранного контента: " + e.getMessage());
-        }
-    }
-
-    private Set<String> getFavoriteIdsFromPrefs() {
-        SharedPreferences preferences = context.getSharedPreferences(FAVORITES_PREFS, Context.MODE_PRIVATE);
-        return new HashSet<>(preferences.getStringSet(KEY_FAVORITE_IDS, new HashSet<>()));
-    }
-
     /**
-     * Восстановить состояние всех избранных элементов из SharedPreferences
+     * Восстановить состояние всех избранных элементов из журнала взаимодействий
      * @return количество восстановленных элементов
      */
     public int restoreFavoritesState() {
         int restoredCount = 0;
         try {
             ContentRepository contentRepository = new ContentRepository(context);
-            Set<String> favoriteIds = getFavoriteIdsFromPrefs();
+            List<String> favoriteIds = new UserInteractionRepository(context).getLikedIds(DEFAULT_USER_ID);
             Log.d(TAG, "Восстановление избранного, найдено ID: " + favoriteIds.size());
 
             for (String contentId : favoriteIds) {
                 ContentEntity content = contentRepository.getById(contentId);
-                if (content != null) {
-                    content.setLiked(true);
-                    contentRepository.update(content);
+                if (content != null && !content.isLiked()) {
+                    contentRepository.updateLikedStatus(contentId, true);
                     restoredCount++;
                     Log.d(TAG, "Восстановлено избранное: " + content.getTitle());
                 }
@@ -562,53 +556,38 @@ public class DatabaseHelper {
         return restoredCount;
     }
 
+    /**
+     * Восстановить в каталоге множество показанных элементов из журнала взаимодействий.
+     * Нужно после пересоздания каталога, иначе показанные карточки вернутся в выдачу
+     */
+    public void restoreSeenContent() {
+        try {
+            new UserInteractionRepository(context).syncSeenContent(DEFAULT_USER_ID);
+        } catch (Exception e) {
+            Log.e(TAG, "Ошибка при восстановлении истории показов: " + e.getMessage());
+        }
+    }
+
     // ==================== VIEWED HISTORY MANAGEMENT SECTION ====================
 
     /**
-     * Добавляет элемент в историю просмотренных
+     * Записывает свайп в журнал взаимодействий
      * @param category категория контента
      * @param itemId ID элемента
      * @param isLiked true если элемент понравился, false если нет
      */
     public void addToViewedHistory(String category, String itemId, boolean isLiked) {
-        try {
-            SharedPreferences prefs = context.getSharedPreferences(VIEWED_HISTORY_PREFS, Context.MODE_PRIVATE);
-            String key = PREF_KEY_PREFIX + normalizeKey(category);
-            Set<String> viewedItems = getStringSet(prefs, key);
-
-            // Добавляем новый ID в историю
-            viewedItems.add(itemId);
-
-            // Ограничиваем размер истории
-            if (viewedItems.size() > MAX_HISTORY_ITEMS) {
-                Set<String> newSet = new HashSet<>();
-                String[] itemsArray = viewedItems.toArray(new String[0]);
-                for (int i = itemsArray.length - MAX_HISTORY_ITEMS; i < itemsArray.length; i++) {
-                    newSet.add(itemsArray[i]);
-                }
-                viewedItems = newSet;
-            }
-
-            // Сохраняем обновленный набор
-            prefs.edit().putStringSet(key, viewedItems).apply();
-
-            // Сохраняем также в историю лайков/дизлайков
-            if (isLiked) {
-                String likedKey = PREF_KEY_LIKED_PREFIX + normalizeKey(category);
-                Set<String> likedItems = getStringSet(prefs, likedKey);
-                likedItems.add(itemId);
-                prefs.edit().putStringSet(likedKey, likedItems).apply();
-            } else {
-                String dislikedKey = PREF_KEY_DISLIKED_PREFIX + normalizeKey(category);
-                Set<String> dislikedItems = getStringSet(prefs, dislikedKey);
-                dislikedItems.add(itemId);
-                prefs.edit().putStringSet(dislikedKey, dislikedItems).apply();
-            }
+        recordInteraction(category, itemId,
+                isLiked ? UserInteractionEntity.ACTION_LIKE : UserInteractionEntity.ACTION_DISLIKE);
+    }
 
-            Log.d(TAG, "Добавлен элемент " + itemId + " категории " + category + " в историю просмотров");
-        } catch (Exception e) {
-            Log.e(TAG, "Ошибка при сохранении истории просмотров: " + e.getMessage());
-        }
+    /**
+     * Записывает показ карточки в журнал взаимодействий
+     * @param category категория контента
+     * @param itemId ID элемента
+     */
+    public void addToViewedHistory(String category, String itemId) {
+        recordInteraction(category, itemId, UserInteractionEntity.ACTION_VIEW);
     }
 
     /**
@@ -622,16 +601,31 @@ public class DatabaseHelper {
             return false;
         }
         try {
-            SharedPreferences prefs = context.getSharedPreferences(VIEWED_HISTORY_PREFS, Context.MODE_PRIVATE);
-            String key = PREF_KEY_PREFIX + normalizeKey(category);
-            Set<String> viewedItems = getStringSet(prefs, key);
-            return viewedItems.contains(itemId);
+            return new UserInteractionRepository(context).hasSeen(DEFAULT_USER_ID, category, itemId);
         } catch (Exception e) {
             Log.e(TAG, "Ошибка при проверке истории просмотров: " + e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Проверяет, понравился ли элемент пользователю
+     * @param category категория контента
+     * @param itemId ID элемента
+     * @return true если элемент лайкнут
+     */
+    public boolean isLiked(String category, String itemId) {
+        if (itemId == null || itemId.isEmpty()) {
+            return false;
+        }
+        try {
+            return new UserInteractionRepository(context).isLiked(DEFAULT_USER_ID, category, itemId);
+        } catch (Exception e) {
+            Log.e(TAG, "Ошибка при проверке истории лайков: " + e.getMessage());
+            return false;
+        }
+    }
+
     /**
      * Получает все просмотренные элементы для указанной категории
      * @param category категория контента
@@ -639,9 +633,7 @@ public class DatabaseHelper {
      */
     public Set<String> getAllViewedItems(String category) {
         try {
-            SharedPreferences prefs = context.getSharedPreferences(VIEWED_HISTORY_PREFS, Context.MODE_PRIVATE);
-            String key = PREF_KEY_PREFIX + normalizeKey(category);
-            return getStringSet(prefs, key);
+            return new UserInteractionRepository(context).getSeenIds(DEFAULT_USER_ID, category);
         } catch (Exception e) {
             Log.e(TAG, "Ошибка при получении истории просмотров: " + e.getMessage());
             return new HashSet<>();
@@ -655,9 +647,7 @@ public class DatabaseHelper {
      */
     public Set<String> getLikedItems(String category) {
         try {
-            SharedPreferences prefs = context.getSharedPreferences(VIEWED_HISTORY_PREFS, Context.MODE_PRIVATE);
-            String key = PREF_KEY_LIKED_PREFIX + normalizeKey(category);
-            return getStringSet(prefs, key);
+            return new UserInteractionRepository(context).getLikedIds(DEFAULT_USER_ID, category);
         } catch (Exception e) {
             Log.e(TAG, "Ошибка при получении истории лайков: " + e.getMessage());
             return new HashSet<>();
@@ -671,9 +661,7 @@ public class DatabaseHelper {
      */
     public Set<String> getDislikedItems(String category) {
         try {
-            SharedPreferences prefs = context.getSharedPreferences(VIEWED_HISTORY_PREFS, Context.MODE_PRIVATE);
-            String key = PREF_KEY_DISLIKED_PREFIX + normalizeKey(category);
-            return getStringSet(prefs, key);
+            return new UserInteractionRepository(context).getDislikedIds(DEFAULT_USER_ID, category);
         } catch (Exception e) {
             Log.e(TAG, "Ошибка при получении истории дизлайков: " + e.getMessage());
             return new HashSet<>();
@@ -681,41 +669,141 @@ public class DatabaseHelper {
     }
 
     /**
-     * Сбрасывает историю просмотров для указанной категории
+     * Сбрасывает историю просмотров для указанной категории (лайки сохраняются)
      * @param category категория контента
      */
     public void clearHistory(String category) {
-        try {
-            SharedPreferences prefs = context.getSharedPreferences(VIEWED_HISTORY_PREFS, Context.MODE_PRIVATE);
-            String viewedKey = PREF_KEY_PREFIX + normalizeKey(category);
-            String likedKey = PREF_KEY_LIKED_PREFIX + normalizeKey(category);
-            String dislikedKey = PREF_KEY_DISLIKED_PREFIX + normalizeKey(category);
-
-            prefs.edit()
-                    .remove(viewedKey)
-                    .remove(likedKey)
-                    .remove(dislikedKey)
-                    .apply();
-
-            Log.d(TAG, "История просмотров для категории " + category + " очищена");
-        } catch (Exception e) {
-            Log.e(TAG, "Ошибка при очистке истории просмотров: " + e.getMessage());
-        }
+        executor.execute(() -> {
+            try {
+                new UserInteractionRepository(context).clearHistory(DEFAULT_USER_ID, category);
+                Log.d(TAG, "История просмотров для категории " + category + " очищена");
+            } catch (Exception e) {
+                Log.e(TAG, "Ошибка при очистке истории просмотров: " + e.getMessage());
+            }
+        });
     }
 
     /**
-     * Сбрасывает всю историю просмотров
+     * Сбрасывает всю историю просмотров (лайки сохраняются)
      */
     public void clearAllHistory() {
+        executor.execute(() -> {
+            try {
+                new UserInteractionRepository(context).clearAllHistory(DEFAULT_USER_ID);
+                Log.d(TAG, "Вся история просмотров очищена");
+            } catch (Exception e) {
+                Log.e(TAG, "Ошибка при очистке всей истории просмотров: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Дописывает действие в журнал. Запись выполняется в порядке вызовов
+     * в отдельном потоке, чтобы свайпы не ждали диска
+     */
+    private void recordInteraction(String category, String itemId, String action) {
+        if (itemId == null || itemId.isEmpty()) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                new UserInteractionRepository(context).record(DEFAULT_USER_ID, itemId, category, action);
+                Log.d(TAG, "Записано действие " + action + " для элемента " + itemId + " категории " + category);
+            } catch (Exception e) {
+                Log.e(TAG, "Ошибка при сохранении истории просмотров: " + e.getMessage());
+            }
+        });
+    }
+
+    // ==================== LEGACY PREFERENCES IMPORT SECTION ====================
+
+    /**
+     * Однократно переносит историю и избранное из SharedPreferences в журнал user_interactions.
+     * Существующие отметки liked в таблице content также переносятся как лайки.
+     * Вызывается в пуле потоков БД при запуске приложения
+     */
+    public void importLegacyInteractions() {
+        SharedPreferences migrationPrefs = context.getSharedPreferences(MIGRATION_PREFS, Context.MODE_PRIVATE);
+        if (migrationPrefs.getBoolean(KEY_INTERACTIONS_IMPORTED, false)) {
+            return;
+        }
+
         try {
-            SharedPreferences prefs = context.getSharedPreferences(VIEWED_HISTORY_PREFS, Context.MODE_PRIVATE);
-            prefs.edit().clear().apply();
-            Log.d(TAG, "Вся история просмотров очищена");
+            long now = System.currentTimeMillis();
+            List<UserInteractionEntity> interactions = new ArrayList<>();
+            Set<String> likedIds = new HashSet<>();
+
+            SharedPreferences historyPrefs = context.getSharedPreferences(VIEWED_HISTORY_PREFS, Context.MODE_PRIVATE);
+            for (Map.Entry<String, ?> entry : historyPrefs.getAll().entrySet()) {
+                if (!(entry.getValue() instanceof Set)) {
+                    continue;
+                }
+                String key = entry.getKey();
+                String action;
+                String category;
+                if (key.startsWith(PREF_KEY_LIKED_PREFIX)) {
+                    action = UserInteractionEntity.ACTION_LIKE;
+                    category = categoryForKey(key.substring(PREF_KEY_LIKED_PREFIX.length()));
+                } else if (key.startsWith(PREF_KEY_DISLIKED_PREFIX)) {
+                    action = UserInteractionEntity.ACTION_DISLIKE;
+                    category = categoryForKey(key.substring(PREF_KEY_DISLIKED_PREFIX.length()));
+                } else if (key.startsWith(PREF_KEY_PREFIX)) {
+                    action = UserInteractionEntity.ACTION_VIEW;
+                    category = categoryForKey(key.substring(PREF_KEY_PREFIX.length()));
+                } else {
+                    continue;
+                }
+
+                for (Object id : (Set<?>) entry.getValue()) {
+                    String contentId = String.valueOf(id);
+                    if (UserInteractionEntity.ACTION_LIKE.equals(action) && !likedIds.add(contentId)) {
+                        continue;
+                    }
+                    interactions.add(new UserInteractionEntity(DEFAULT_USER_ID, contentId, category, action, now));
+                }
+            }
+
+            SharedPreferences favoritesPrefs = context.getSharedPreferences(FAVORITES_PREFS, Context.MODE_PRIVATE);
+            for (String contentId : favoritesPrefs.getStringSet(KEY_FAVORITE_IDS, new HashSet<>())) {
+                if (likedIds.add(contentId)) {
+                    interactions.add(new UserInteractionEntity(DEFAULT_USER_ID, contentId, null,
+                            UserInteractionEntity.ACTION_LIKE, now));
+                }
+            }
+
+            for (ContentEntity content : new ContentRepository(context).getLiked()) {
+                if (likedIds.add(content.getId())) {
+                    interactions.add(new UserInteractionEntity(DEFAULT_USER_ID, content.getId(), content.getCategory(),
+                            UserInteractionEntity.ACTION_LIKE, now));
+                }
+            }
+
+            new UserInteractionRepository(context).recordAll(interactions);
+
+            historyPrefs.edit().clear().apply();
+            favoritesPrefs.edit().clear().apply();
+            migrationPrefs.edit().putBoolean(KEY_INTERACTIONS_IMPORTED, true).apply();
+
+            Log.d(TAG, "Перенесено записей истории в user_interactions: " + interactions.size());
         } catch (Exception e) {
-            Log.e(TAG, "Ошибка при очистке всей истории просмотров: " + e.getMessage());
+            Log.e(TAG, "Ошибка при переносе истории из SharedPreferences: " + e.getMessage());
         }
     }
 
+    /**
+     * Восстанавливает название категории по нормализованному ключу SharedPreferences
+     * @param normalizedKey нормализованный ключ категории
+     * @return название категории
+     */
+    private String categoryForKey(String normalizedKey) {
+        for (String category : KNOWN_CATEGORIES) {
+            if (normalizeKey(category).equals(normalizedKey)) {
+                return category;
+            }
+        }
+        return normalizedKey;
+    }
+
     /**
      * Преобразует ключ категории для использования в SharedPreferences
      * @param category категория контента
@@ -732,22 +820,4 @@ public class DatabaseHelper {
                 .replace(",", "_")
                 .replace("-", "_");
     }
-
-    /**
-     * Получает Set<String> из SharedPreferences с обработкой по умолчанию
-     * @param prefs SharedPreferences
-     * @param key ключ
-     * @return набор строк
-     */
-    private Set<String> getStringSet(SharedPreferences prefs, String key) {
-        Set<String> defaultSet = new HashSet<>();
-        Set<String> result = prefs.getStringSet(key, defaultSet);
-
-        // Создаем новую копию для изменяемого набора
-        if (result == defaultSet || result.isEmpty()) {
-            return new HashSet<>();
-        } else {
-            return new HashSet<>(result);
-        }
-    }
-}
\ No newline at end of file
+}
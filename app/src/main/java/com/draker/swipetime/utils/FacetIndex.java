@@ -0,0 +1,556 @@
+package com.draker.swipetime.utils;
+
+import android.app.Application;
+import android.util.Log;
+
+import com.draker.swipetime.database.DatabaseSchedulers;
+import com.draker.swipetime.database.FacetRow;
+import com.draker.swipetime.database.GenreUtils;
+import com.draker.swipetime.database.entities.AnimeEntity;
+import com.draker.swipetime.database.entities.BookEntity;
+import com.draker.swipetime.database.entities.CatalogItemView;
+import com.draker.swipetime.database.entities.ContentEntity;
+import com.draker.swipetime.database.entities.GameEntity;
+import com.draker.swipetime.database.entities.MovieEntity;
+import com.draker.swipetime.database.entities.TVShowEntity;
+import com.draker.swipetime.repository.CatalogRepository;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Индекс фасетов каталога в памяти.
+ * Каждому элементу типизированных категорий назначается плотный порядковый номер,
+ * а для каждого жанра, года, длительности фильма, категории и признака "18+"
+ * хранится сжатое множество номеров ({@link FacetBitmap}). Фильтр предпочтений
+ * превращается в пересечения множеств, поэтому экран фильтров может показывать
+ * число подходящих карточек сразу при переключении чипов.
+ * Индекс строится из catalog_items при запуске и дальше обновляется при записи контента
+ */
+public final class FacetIndex {
+
+    private static final String TAG = "FacetIndex";
+
+    private static final String SOURCE_MOVIES = "movies";
+    private static final String SOURCE_TV_SHOWS = "tv_shows";
+    private static final String SOURCE_GAMES = "games";
+    private static final String SOURCE_BOOKS = "books";
+    private static final String SOURCE_ANIME = "anime";
+
+    // Сколько раз перечитывать каталог, если во время чтения индекс сбрасывали
+    private static final int MAX_BUILD_ATTEMPTS = 3;
+
+    private static FacetIndex instance;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean building = new AtomicBoolean();
+
+    // Состояние индекса, отложенные изменения и поколение защищены lock
+    private State state = new State();
+    private boolean ready;
+    // Изменения, пришедшие во время чтения каталога; null, если индекс не строится
+    private List<Consumer<State>> pending;
+    // Растет при каждом сбросе: построение, начатое до сброса, свой результат не публикует
+    private long generation;
+
+    // Множество подходящих элементов для последнего фильтра filterContent
+    private volatile MatchCache matchCache;
+
+    /**
+     * Количество подходящих элементов по фильтру и по каждому жанру
+     */
+    public static final class Counts {
+        private final int total;
+        private final Map<String, Integer> genres;
+
+        Counts(int total, Map<String, Integer> genres) {
+            this.total = total;
+            this.genres = genres;
+        }
+
+        /**
+         * Сколько элементов проходит фильтр целиком
+         */
+        public int getTotal() {
+            return total;
+        }
+
+        /**
+         * Сколько элементов жанра проходит остальные условия фильтра
+         * @param genre название жанра в том виде, в каком его запрашивали
+         */
+        public int getGenreCount(String genre) {
+            Integer count = genres.get(genre);
+            return count != null ? count : 0;
+        }
+    }
+
+    private FacetIndex() {
+    }
+
+    public static synchronized FacetIndex getInstance() {
+        if (instance == null) {
+            instance = new FacetIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * Построить индекс в фоне, если он еще не построен
+     */
+    public void ensureBuilt(Application application) {
+        if (isReady() || !building.compareAndSet(false, true)) {
+            return;
+        }
+        DatabaseSchedulers.background().execute(() -> {
+            try {
+                build(new CatalogRepository(application));
+            } catch (Exception e) {
+                Log.e(TAG, "Ошибка при построении индекса фасетов: " + e.getMessage());
+            } finally {
+                building.set(false);
+            }
+        });
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Сбросить индекс после массового удаления контента; следующий ensureBuilt построит его заново
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            state = new State();
+            ready = false;
+            pending = null;
+            generation++;
+            matchCache = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==================== Обновление при записи контента ====================
+
+    /**
+     * Учесть добавленный или измененный элемент контента
+     */
+    public void index(ContentEntity content) {
+        Entry entry = entryOf(content);
+        if (entry == null) {
+            return;
+        }
+        String key = key(entry.source, content.getId());
+        apply(target -> target.put(key, entry));
+    }
+
+    /**
+     * Учесть пачку добавленных или измененных элементов
+     */
+    public void indexAll(List<? extends ContentEntity> contents) {
+        if (contents == null || contents.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(contents.size());
+        List<Entry> entries = new ArrayList<>(contents.size());
+        for (ContentEntity content : contents) {
+            Entry entry = entryOf(content);
+            if (entry != null) {
+                keys.add(key(entry.source, content.getId()));
+                entries.add(entry);
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        apply(target -> {
+            for (int i = 0, size = keys.size(); i < size; i++) {
+                target.put(keys.get(i), entries.get(i));
+            }
+        });
+    }
+
+    /**
+     * Убрать удаленный элемент из индекса
+     * @param source имя таблицы категории ("movies", "games" и т.д.)
+     * @param contentId ID контента
+     */
+    public void remove(String source, String contentId) {
+        String key = key(source, contentId);
+        apply(target -> target.remove(key));
+    }
+
+    /**
+     * Убрать из индекса все элементы категории
+     * @param source имя таблицы категории ("movies", "games" и т.д.)
+     */
+    public void removeSource(String source) {
+        apply(target -> target.removeSource(source));
+    }
+
+    /**
+     * Применить изменение к построенному индексу или отложить его до конца построения
+     */
+    private void apply(Consumer<State> change) {
+        lock.writeLock().lock();
+        try {
+            if (ready) {
+                change.accept(state);
+            } else if (pending != null) {
+                pending.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==================== Запросы ====================
+
+    /**
+     * Посчитать подходящие элементы для фильтра и для каждого жанра из списка
+     * @param filter скомпилированный фильтр
+     * @param genres жанры, для которых нужны отдельные счетчики
+     * @return счетчики или null, если индекс еще не построен
+     */
+    public Counts count(CompiledContentFilter filter, Collection<String> genres) {
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                return null;
+            }
+            FacetBitmap base = state.matchExceptGenres(filter);
+            List<String> preferred = filter.getPreferredGenres();
+            int total = preferred.isEmpty()
+                    ? base.cardinality()
+                    : base.andCardinality(state.genreUnion(preferred));
+
+            Map<String, Integer> genreCounts = new LinkedHashMap<>();
+            for (String genre : genres) {
+                FacetBitmap bitmap = state.byGenre.get(GenreUtils.normalize(genre));
+                genreCounts.put(genre, bitmap != null ? base.andCardinality(bitmap) : 0);
+            }
+            return new Counts(total, genreCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Применить фильтр к списку контента через пересечение множеств индекса.
+     * Элементы, которых еще нет в индексе, проверяются предикатами фильтра
+     */
+    public List<ContentEntity> filter(List<ContentEntity> contentList, CompiledContentFilter filter) {
+        if (filter.isPassAll() || contentList.isEmpty()) {
+            return contentList;
+        }
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                return filter.filter(contentList);
+            }
+            FacetBitmap matched = matchedFor(filter);
+            List<ContentEntity> result = new ArrayList<>(contentList.size());
+            for (int i = 0, size = contentList.size(); i < size; i++) {
+                ContentEntity content = contentList.get(i);
+                Integer ordinal = state.ordinals.get(key(CatalogItemView.sourceOf(content), content.getId()));
+                if (ordinal != null ? matched.contains(ordinal) : filter.test(content)) {
+                    result.add(content);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private FacetBitmap matchedFor(CompiledContentFilter filter) {
+        MatchCache cache = matchCache;
+        if (cache != null && cache.filter == filter && cache.state == state && cache.version == state.version) {
+            return cache.matched;
+        }
+        FacetBitmap matched = state.matchExceptGenres(filter);
+        List<String> preferred = filter.getPreferredGenres();
+        if (!preferred.isEmpty()) {
+            matched = matched.and(state.genreUnion(preferred));
+        }
+        matchCache = new MatchCache(filter, state, state.version, matched);
+        return matched;
+    }
+
+    private void build(CatalogRepository catalogRepository) {
+        try {
+            for (int attempt = 0; attempt < MAX_BUILD_ATTEMPTS; attempt++) {
+                // Изменения копятся с этого момента, поэтому ни одно не потеряется,
+                // даже если запись в каталог уже прошла, а index еще не вызван
+                long startGeneration;
+                lock.writeLock().lock();
+                try {
+                    startGeneration = generation;
+                    pending = new ArrayList<>();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+
+                long start = System.currentTimeMillis();
+                State built = new State();
+                for (FacetRow row : catalogRepository.getFacetRows()) {
+                    built.put(key(row.getSource(), row.getId()), new Entry(row.getSource(), row.getGenres(), row.getYear(),
+                            row.getDuration(), CompiledContentFilter.isAdultRated(row.getAgeRating())));
+                }
+
+                lock.writeLock().lock();
+                try {
+                    if (generation != startGeneration) {
+                        continue;
+                    }
+                    // Повторное применение изменения, уже попавшего в прочитанные строки, ничего не портит:
+                    // put и remove приводят элемент к последнему записанному значению
+                    for (Consumer<State> change : pending) {
+                        change.accept(built);
+                    }
+                    state = built;
+                    ready = true;
+                    matchCache = null;
+                    Log.d(TAG, "Индекс фасетов построен: " + built.ordinals.size() + " элементов, "
+                            + pending.size() + " отложенных изменений за "
+                            + (System.currentTimeMillis() - start) + " мс");
+                    return;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            Log.w(TAG, "Индекс фасетов не построен: каталог сбрасывался во время чтения");
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Ключ элемента в индексе: ID уникален только внутри своей таблицы
+     */
+    private static String key(String source, String contentId) {
+        return source + '\n' + contentId;
+    }
+
+    private static Entry entryOf(ContentEntity content) {
+        if (content instanceof MovieEntity) {
+            MovieEntity movie = (MovieEntity) content;
+            return new Entry(SOURCE_MOVIES, movie.getGenres(), movie.getReleaseYear(), movie.getDuration(), false);
+        } else if (content instanceof TVShowEntity) {
+            TVShowEntity tvShow = (TVShowEntity) content;
+            return new Entry(SOURCE_TV_SHOWS, tvShow.getGenres(), tvShow.getStartYear(), 0, false);
+        } else if (content instanceof GameEntity) {
+            GameEntity game = (GameEntity) content;
+            return new Entry(SOURCE_GAMES, game.getGenres(), game.getReleaseYear(), 0,
+                    CompiledContentFilter.isAdultRated(game.getEsrbRating()));
+        } else if (content instanceof BookEntity) {
+            BookEntity book = (BookEntity) content;
+            return new Entry(SOURCE_BOOKS, book.getGenres(), book.getPublishYear(), 0, false);
+        } else if (content instanceof AnimeEntity) {
+            AnimeEntity anime = (AnimeEntity) content;
+            return new Entry(SOURCE_ANIME, anime.getGenres(), anime.getReleaseYear(), 0, false);
+        }
+        return null;
+    }
+
+    /**
+     * Значения фасетов одного элемента
+     */
+    private static final class Entry {
+        final String source;
+        final Collection<String> genres;
+        final int year;
+        final int duration;
+        final boolean adult;
+
+        Entry(String source, String genres, int year, int duration, boolean adult) {
+            this.source = source;
+            this.genres = GenreUtils.split(genres).keySet();
+            this.year = year;
+            this.duration = duration;
+            this.adult = adult;
+        }
+    }
+
+    /**
+     * Номера элементов и множества по значениям фасетов
+     */
+    private static final class State {
+        // Ключ - key(source, id)
+        final Map<String, Integer> ordinals = new HashMap<>();
+        final List<Entry> entries = new ArrayList<>();
+        final ArrayDeque<Integer> freeOrdinals = new ArrayDeque<>();
+
+        final FacetBitmap all = new FacetBitmap();
+        final FacetBitmap adult = new FacetBitmap();
+        final Map<String, FacetBitmap> bySource = new HashMap<>();
+        final Map<String, FacetBitmap> byGenre = new HashMap<>();
+        final TreeMap<Integer, FacetBitmap> byYear = new TreeMap<>();
+        final TreeMap<Integer, FacetBitmap> byDuration = new TreeMap<>();
+
+        // Меняется при каждом изменении, по нему сбрасывается кеш совпадений
+        long version;
+
+        void put(String key, Entry entry) {
+            Integer ordinal = ordinals.get(key);
+            if (ordinal != null) {
+                clear(ordinal, entries.get(ordinal));
+            } else {
+                ordinal = freeOrdinals.isEmpty() ? entries.size() : freeOrdinals.poll();
+                ordinals.put(key, ordinal);
+                if (ordinal == entries.size()) {
+                    entries.add(null);
+                }
+            }
+            entries.set(ordinal, entry);
+
+            all.add(ordinal);
+            bitmapFor(bySource, entry.source).add(ordinal);
+            for (String genre : entry.genres) {
+                bitmapFor(byGenre, genre).add(ordinal);
+            }
+            bitmapFor(byYear, entry.year).add(ordinal);
+            if (SOURCE_MOVIES.equals(entry.source)) {
+                bitmapFor(byDuration, entry.duration).add(ordinal);
+            }
+            if (entry.adult) {
+                adult.add(ordinal);
+            }
+            version++;
+        }
+
+        void remove(String key) {
+            Integer ordinal = ordinals.remove(key);
+            if (ordinal == null) {
+                return;
+            }
+            clear(ordinal, entries.get(ordinal));
+            entries.set(ordinal, null);
+            freeOrdinals.add(ordinal);
+            version++;
+        }
+
+        void removeSource(String source) {
+            List<String> keys = new ArrayList<>();
+            for (Map.Entry<String, Integer> ordinal : ordinals.entrySet()) {
+                if (source.equals(entries.get(ordinal.getValue()).source)) {
+                    keys.add(ordinal.getKey());
+                }
+            }
+            for (String key : keys) {
+                remove(key);
+            }
+        }
+
+        /**
+         * Элементы, проходящие все условия фильтра, кроме жанров
+         */
+        FacetBitmap matchExceptGenres(CompiledContentFilter filter) {
+            if (filter.isPassAll()) {
+                return all.copy();
+            }
+            FacetBitmap result = rangeUnion(byYear, filter.getMinYear(), filter.getMaxYear());
+
+            // Длительность задана только у фильмов: отсекаем фильмы вне диапазона
+            FacetBitmap movies = bySource.get(SOURCE_MOVIES);
+            if (movies != null) {
+                FacetBitmap inDuration = rangeUnion(byDuration, filter.getMinDuration(), filter.getMaxDuration());
+                result = result.andNot(movies.andNot(inDuration));
+            }
+            if (!filter.isAdultContentEnabled()) {
+                result = result.andNot(adult);
+            }
+            return result;
+        }
+
+        /**
+         * Элементы, у которых есть хотя бы один из жанров
+         */
+        FacetBitmap genreUnion(Collection<String> genres) {
+            List<FacetBitmap> bitmaps = new ArrayList<>(genres.size());
+            for (String genre : genres) {
+                FacetBitmap bitmap = byGenre.get(genre);
+                if (bitmap != null) {
+                    bitmaps.add(bitmap);
+                }
+            }
+            return FacetBitmap.orAll(bitmaps);
+        }
+
+        private void clear(int ordinal, Entry entry) {
+            all.remove(ordinal);
+            removeFrom(bySource, entry.source, ordinal);
+            for (String genre : entry.genres) {
+                removeFrom(byGenre, genre, ordinal);
+            }
+            removeFrom(byYear, entry.year, ordinal);
+            if (SOURCE_MOVIES.equals(entry.source)) {
+                removeFrom(byDuration, entry.duration, ordinal);
+            }
+            adult.remove(ordinal);
+        }
+
+        private static FacetBitmap rangeUnion(NavigableMap<Integer, FacetBitmap> buckets, int from, int to) {
+            if (from > to) {
+                return new FacetBitmap();
+            }
+            return FacetBitmap.orAll(buckets.subMap(from, true, to, true).values());
+        }
+
+        private static <K> FacetBitmap bitmapFor(Map<K, FacetBitmap> bitmaps, K key) {
+            FacetBitmap bitmap = bitmaps.get(key);
+            if (bitmap == null) {
+                bitmap = new FacetBitmap();
+                bitmaps.put(key, bitmap);
+            }
+            return bitmap;
+        }
+
+        private static <K> void removeFrom(Map<K, FacetBitmap> bitmaps, K key, int ordinal) {
+            FacetBitmap bitmap = bitmaps.get(key);
+            if (bitmap != null) {
+                bitmap.remove(ordinal);
+                if (bitmap.isEmpty()) {
+                    bitmaps.remove(key);
+                }
+            }
+        }
+    }
+
+    private static final class MatchCache {
+        final CompiledContentFilter filter;
+        final State state;
+        final long version;
+        final FacetBitmap matched;
+
+        MatchCache(CompiledContentFilter filter, State state, long version, FacetBitmap matched) {
+            this.filter = filter;
+            this.state = state;
+            this.version = version;
+            this.matched = matched;
+        }
+    }
+}
@@ -2,7 +2,8 @@ package com.draker.swipetime.utils;
 
 import android.content.Context;
 
-import com.draker.swipetime.database.AppDatabase;
+import com.draker.swipetime.database.DatabaseSchedulers;
+import com.draker.swipetime.database.UserDatabase;
 import com.draker.swipetime.database.dao.AchievementDao;
 import com.draker.swipetime.database.dao.UserAchievementDao;
 import com.draker.swipetime.database.dao.UserDao;
@@ -25,7 +26,7 @@ import android.util.Log;
 public class GamificationManager {
 
     private final Context context;
-    private final AppDatabase database;
+    private final UserDatabase database;
     private final UserDao userDao;
     private final AchievementDao achievementDao;
     private final UserAchievementDao userAchievementDao;
@@ -60,16 +61,18 @@ public class GamificationManager {
     // Приватный конструктор (Singleton)
     private GamificationManager(Context context) {
         this.context = context.getApplicationContext();
-        this.database = AppDatabase.getInstance(context);
+        this.database = UserDatabase.getInstance(context);
         this.userDao = database.userDao();
         this.achievementDao = database.achievementDao();
         this.userAchievementDao = database.userAchievementDao();
         this.userStatsDao = database.userStatsDao();
         
-        // Если достижений нет, создаем базовый набор
-        if (achievementDao.getCount() == 0) {
-            initializeAchievements();
-        }
+        // Если достижений нет, создаем базовый набор (вне главного потока)
+        DatabaseSchedulers.executor().execute(() -> {
+            if (achievementDao.getCount() == 0) {
+                initializeAchievements();
+            }
+        });
     }
     
     // Получение экземпляра (Singleton)
@@ -823,7 +826,7 @@ public class GamificationManager {
      */
     public static void initUserStats(String userId) {
         try {
-            AppDatabase db = AppDatabase.getInstance(null);
+            UserDatabase db = UserDatabase.getInstance(null);
             if (db != null) {
                 UserStatsEntity stats = new UserStatsEntity(userId);
                 stats.setSwipesCount(0);
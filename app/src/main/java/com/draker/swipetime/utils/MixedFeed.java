@@ -0,0 +1,101 @@
+package com.draker.swipetime.utils;
+
+import com.draker.swipetime.database.CategoryAffinity;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Смешанная лента: чередует карточки всех категорий пропорционально интересу пользователя.
+ * Вес категории - сглаженная доля лайков среди ее реакций, порядок выдачи строится
+ * плавным взвешенным round-robin, поэтому категории перемешаны равномерно, а не блоками.
+ * Категория без готовых карточек пропускается и не копит очередь, так что медленный
+ * источник не задерживает ленту и не выдает пачку своих карточек после восстановления
+ */
+public final class MixedFeed {
+
+    // Название ленты в списке категорий
+    public static final String CATEGORY = "Смешанная лента";
+
+    // Категории, из которых собирается лента
+    public static final String[] CATEGORIES = {"Фильмы", "Сериалы", "Игры", "Книги", "Аниме"};
+
+    // Нижняя граница веса, чтобы ни одна категория не пропадала из ленты совсем
+    private static final double MIN_WEIGHT = 0.1;
+
+    private final Map<String, Double> weights = new HashMap<>();
+    private final Map<String, Double> credits = new HashMap<>();
+
+    public MixedFeed() {
+        for (String category : CATEGORIES) {
+            weights.put(category, 0.5);
+            credits.put(category, 0.0);
+        }
+    }
+
+    public static boolean isMixed(String category) {
+        return CATEGORY.equals(category);
+    }
+
+    /**
+     * Пересчитать веса категорий по реакциям пользователя.
+     * Вес - апостериорное среднее доли лайков при равномерном априорном распределении
+     */
+    public synchronized void updateWeights(List<CategoryAffinity> affinities) {
+        for (String category : CATEGORIES) {
+            weights.put(category, 0.5);
+        }
+        for (CategoryAffinity affinity : affinities) {
+            if (weights.containsKey(affinity.getCategory())) {
+                double weight = (affinity.getLikes() + 1.0) / (affinity.getLikes() + affinity.getDislikes() + 2.0);
+                weights.put(affinity.getCategory(), Math.max(MIN_WEIGHT, weight));
+            }
+        }
+    }
+
+    public synchronized double getWeight(String category) {
+        Double weight = weights.get(category);
+        return weight != null ? weight : 0;
+    }
+
+    /**
+     * Категория с наибольшим весом
+     */
+    public synchronized String getTopCategory() {
+        String top = CATEGORIES[0];
+        for (String category : CATEGORIES) {
+            if (weights.get(category) > weights.get(top)) {
+                top = category;
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Выбрать категорию следующей карточки среди доступных
+     * @param available проверка, есть ли у категории готовые карточки
+     * @return категория или null, если карточек нет ни в одной
+     */
+    public synchronized String next(Predicate<String> available) {
+        String best = null;
+        double total = 0;
+        for (String category : CATEGORIES) {
+            if (!available.test(category)) {
+                continue;
+            }
+            double weight = weights.get(category);
+            double credit = credits.get(category) + weight;
+            credits.put(category, credit);
+            total += weight;
+            if (best == null || credit > credits.get(best)) {
+                best = category;
+            }
+        }
+        if (best != null) {
+            credits.put(best, credits.get(best) - total);
+        }
+        return best;
+    }
+}
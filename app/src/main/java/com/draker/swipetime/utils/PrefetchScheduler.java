@@ -0,0 +1,157 @@
+package com.draker.swipetime.utils;
+
+import android.os.SystemClock;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Планировщик упреждающей подгрузки карточек.
+ * Для каждой категории измеряет темп свайпов пользователя и фактическую длительность
+ * пополнения из API, и держит в буфере столько карточек, чтобы их хватило
+ * на ближайшие HORIZON_MS плюс время одной загрузки. Упреждающие загрузки
+ * отменяются, когда пользователь уходит из категории
+ */
+public final class PrefetchScheduler {
+
+    // Значение beginFetch, когда загрузка уже идет
+    public static final long NO_FETCH = -1;
+
+    // Сколько времени свайпов должен покрывать буфер
+    private static final long HORIZON_MS = 20_000;
+
+    // Границы целевого размера буфера
+    private static final int MIN_BUFFER = 3;
+    private static final int MAX_BUFFER = 60;
+
+    // Начальные оценки, пока нет измерений
+    private static final double DEFAULT_SWIPE_INTERVAL_MS = 4_000;
+    private static final double DEFAULT_REFILL_LATENCY_MS = 3_000;
+
+    // Паузы длиннее этой не учитываются в темпе свайпов (пользователь отвлекся)
+    private static final long MAX_SWIPE_INTERVAL_MS = 30_000;
+
+    // Вес нового измерения в скользящем среднем
+    private static final double SMOOTHING = 0.3;
+
+    private static PrefetchScheduler instance;
+
+    private final Map<String, CategoryState> states = new ConcurrentHashMap<>();
+
+    private PrefetchScheduler() {
+    }
+
+    public static synchronized PrefetchScheduler getInstance() {
+        if (instance == null) {
+            instance = new PrefetchScheduler();
+        }
+        return instance;
+    }
+
+    /**
+     * Учесть свайп карточки в категории
+     */
+    public void recordSwipe(String category) {
+        getState(category).recordSwipe(SystemClock.elapsedRealtime());
+    }
+
+    /**
+     * Сколько карточек должно быть в буфере категории при текущем темпе свайпов
+     */
+    public int getTargetBuffer(String category) {
+        return getState(category).targetBuffer();
+    }
+
+    /**
+     * Нужно ли начать упреждающую загрузку
+     * @param category категория
+     * @param buffered сколько карточек еще не показано
+     */
+    public boolean shouldPrefetch(String category, int buffered) {
+        CategoryState state = getState(category);
+        return !state.inFlight.get() && buffered < state.targetBuffer();
+    }
+
+    /**
+     * Сколько элементов запрашивать у API за одну загрузку
+     * @param category категория
+     * @param minimum нижняя граница
+     */
+    public int getFetchSize(String category, int minimum) {
+        return Math.max(minimum, getState(category).targetBuffer());
+    }
+
+    /**
+     * Отметить начало загрузки
+     * @return метка загрузки для finishFetch или NO_FETCH, если загрузка категории уже идет
+     */
+    public long beginFetch(String category) {
+        CategoryState state = getState(category);
+        if (!state.inFlight.compareAndSet(false, true)) {
+            return NO_FETCH;
+        }
+        return state.generation.get();
+    }
+
+    /**
+     * Отметить завершение загрузки и учесть ее длительность
+     * @param category категория
+     * @param token метка из beginFetch
+     * @param startNanos момент начала загрузки (System.nanoTime())
+     * @return false, если загрузка была отменена и ее результат не нужен
+     */
+    public boolean finishFetch(String category, long token, long startNanos) {
+        CategoryState state = getState(category);
+        state.recordRefillLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        if (token != state.generation.get()) {
+            return false;
+        }
+        state.inFlight.set(false);
+        return true;
+    }
+
+    /**
+     * Отменить упреждающую загрузку категории: ее результат будет проигнорирован
+     */
+    public void cancel(String category) {
+        CategoryState state = states.get(category);
+        if (state != null) {
+            state.generation.incrementAndGet();
+            state.inFlight.set(false);
+            state.lastSwipeAt = 0;
+        }
+    }
+
+    private CategoryState getState(String category) {
+        return states.computeIfAbsent(category, k -> new CategoryState());
+    }
+
+    private static final class CategoryState {
+        final AtomicBoolean inFlight = new AtomicBoolean();
+        final AtomicLong generation = new AtomicLong();
+
+        private double swipeIntervalMs = DEFAULT_SWIPE_INTERVAL_MS;
+        private double refillLatencyMs = DEFAULT_REFILL_LATENCY_MS;
+        volatile long lastSwipeAt;
+
+        synchronized void recordSwipe(long now) {
+            long interval = lastSwipeAt == 0 ? -1 : now - lastSwipeAt;
+            lastSwipeAt = now;
+            if (interval > 0 && interval <= MAX_SWIPE_INTERVAL_MS) {
+                swipeIntervalMs += SMOOTHING * (interval - swipeIntervalMs);
+            }
+        }
+
+        synchronized void recordRefillLatency(long latencyMs) {
+            refillLatencyMs += SMOOTHING * (latencyMs - refillLatencyMs);
+        }
+
+        synchronized int targetBuffer() {
+            int target = (int) Math.ceil((HORIZON_MS + refillLatencyMs) / swipeIntervalMs);
+            return Math.max(MIN_BUFFER, Math.min(MAX_BUFFER, target));
+        }
+    }
+}
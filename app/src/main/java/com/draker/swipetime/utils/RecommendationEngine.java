@@ -1,7 +1,6 @@
 package com.draker.swipetime.utils;
 
-import android.util.Log;
-
+import com.draker.swipetime.database.GenreUtils;
 import com.draker.swipetime.database.entities.AnimeEntity;
 import com.draker.swipetime.database.entities.BookEntity;
 import com.draker.swipetime.database.entities.ContentEntity;
@@ -11,9 +10,6 @@ import com.draker.swipetime.database.entities.TVShowEntity;
 import com.draker.swipetime.database.entities.UserPreferencesEntity;
 import com.draker.swipetime.models.ContentItem;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -35,12 +31,16 @@ public class RecommendationEngine {
      * 
      * @param contentItems список элементов контента
      * @param preferences предпочтения пользователя
+     * @param contentGenreIds отсортированные ID жанров для каждого элемента контента
+     * @param preferredGenreIds отсортированные ID предпочитаемых жанров
      * @return отсортированный список с самыми релевантными элементами в начале
      */
     public static List<ContentItem> generateRecommendations(
             List<ContentItem> contentItems,
             UserPreferencesEntity preferences,
-            List<ContentEntity> contentEntities) {
+            List<ContentEntity> contentEntities,
+            Map<ContentEntity, int[]> contentGenreIds,
+            int[] preferredGenreIds) {
         
         if (contentItems == null || contentItems.isEmpty() || preferences == null) {
             return contentItems;
@@ -53,10 +53,10 @@ public class RecommendationEngine {
         }
         
         // Извлекаем предпочтения пользователя
-        List<String> preferredGenres = parseJsonArray(preferences.getPreferredGenres());
-        List<String> preferredCountries = parseJsonArray(preferences.getPreferredCountries());
-        List<String> preferredLanguages = parseJsonArray(preferences.getPreferredLanguages());
-        List<String> interestsTags = parseJsonArray(preferences.getInterestsTags());
+        CompiledContentFilter filter = CompiledContentFilter.forPreferences(preferences);
+        Set<String> preferredCountries = filter.getPreferredCountries();
+        Set<String> preferredLanguages = filter.getPreferredLanguages();
+        Set<String> interestsTags = filter.getInterestsTags();
         
         // Карта для хранения рейтинга релевантности
         Map<String, Double> relevanceScores = new HashMap<>();
@@ -75,11 +75,11 @@ public class RecommendationEngine {
             // Увеличиваем релевантность в зависимости от совпадения с предпочтениями
             
             // Оценка по жанрам
-            if (!preferredGenres.isEmpty()) {
-                String genres = getGenresForEntity(entity);
-                if (genres != null && !genres.isEmpty()) {
+            if (preferredGenreIds.length > 0) {
+                int[] genres = contentGenreIds.get(entity);
+                if (genres != null && genres.length > 0) {
                     // Считаем количество совпадений жанров
-                    int matches = countMatches(genres, preferredGenres);
+                    int matches = GenreUtils.countCommon(genres, preferredGenreIds);
                     // Увеличиваем релевантность за каждое совпадение
                     relevance += matches * 0.5;
                 }
@@ -137,28 +137,6 @@ public class RecommendationEngine {
         return sortedItems;
     }
     
-    /**
-     * Извлекает жанры из сущности в зависимости от ее типа
-     * 
-     * @param entity сущность контента
-     * @return строка с жанрами или null
-     */
-    private static String getGenresForEntity(ContentEntity entity) {
-        if (entity instanceof MovieEntity) {
-            return ((MovieEntity) entity).getGenres();
-        } else if (entity instanceof TVShowEntity) {
-            return ((TVShowEntity) entity).getGenres();
-        } else if (entity instanceof GameEntity) {
-            return ((GameEntity) entity).getGenres();
-        } else if (entity instanceof BookEntity) {
-            return ((BookEntity) entity).getGenres();
-        } else if (entity instanceof AnimeEntity) {
-            return ((AnimeEntity) entity).getGenres();
-        }
-        
-        return null;
-    }
-    
     /**
      * Извлекает год выпуска из сущности в зависимости от ее типа
      * 
@@ -180,54 +158,4 @@ public class RecommendationEngine {
         
         return 0;
     }
-    
-    /**
-     * Считает количество совпадений между списком жанров и предпочтениями
-     * 
-     * @param genresString строка с жанрами, разделенными запятыми
-     * @param preferredGenres список предпочитаемых жанров
-     * @return количество совпадений
-     */
-    private static int countMatches(String genresString, List<String> preferredGenres) {
-        if (genresString == null || genresString.isEmpty() || preferredGenres.isEmpty()) {
-            return 0;
-        }
-        
-        int count = 0;
-        String[] genres = genresString.split(",");
-        
-        for (String genre : genres) {
-            String trimmed = genre.trim();
-            if (preferredGenres.contains(trimmed)) {
-                count++;
-            }
-        }
-        
-        return count;
-    }
-    
-    /**
-     * Парсит JSON строку в список строк
-     * 
-     * @param jsonString JSON строка
-     * @return список строк или пустой список в случае ошибки
-     */
-    private static List<String> parseJsonArray(String jsonString) {
-        List<String> result = new ArrayList<>();
-        
-        if (jsonString == null || jsonString.isEmpty()) {
-            return result;
-        }
-        
-        try {
-            JSONArray jsonArray = new JSONArray(jsonString);
-            for (int i = 0; i < jsonArray.length(); i++) {
-                result.add(jsonArray.getString(i));
-            }
-        } catch (JSONException e) {
-            Log.e(TAG, "Error parsing JSON array: " + e.getMessage());
-        }
-        
-        return result;
-    }
-}
\ No newline at end of file
+}
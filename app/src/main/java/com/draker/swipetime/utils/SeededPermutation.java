@@ -0,0 +1,81 @@
+package com.draker.swipetime.utils;
+
+/**
+ * Псевдослучайная перестановка индексов [0, size), заданная зерном.
+ * Строится сетью Фейстеля на ближайшей сверху степени двойки с отбрасыванием
+ * значений за пределами диапазона (cycle walking), поэтому не хранит ни массива
+ * индексов, ни состояния: i-й элемент порядка вычисляется за O(1) памяти,
+ * каждый индекс встречается ровно один раз, а одинаковое зерно дает одинаковый порядок
+ */
+public final class SeededPermutation {
+
+    private static final int ROUNDS = 4;
+
+    private final int size;
+    private final long seed;
+    private final int halfBits;
+    private final long halfMask;
+
+    /**
+     * @param size количество элементов
+     * @param seed зерно перестановки
+     */
+    public SeededPermutation(int size, long seed) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size < 0: " + size);
+        }
+        this.size = size;
+        this.seed = seed;
+
+        int bits = Math.max(2, 64 - Long.numberOfLeadingZeros(Math.max(1, size - 1)));
+        this.halfBits = (bits + 1) / 2;
+        this.halfMask = (1L << halfBits) - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Индекс элемента, стоящего на позиции position в перестановке
+     */
+    public int indexAt(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("position " + position + ", size " + size);
+        }
+        long value = position;
+        do {
+            value = encrypt(value);
+        } while (value >= size);
+        return (int) value;
+    }
+
+    /**
+     * Зерно для следующего круга по тому же набору элементов
+     */
+    public static long nextSeed(long seed) {
+        return mix(seed + 0x9E3779B97F4A7C15L);
+    }
+
+    private long encrypt(long value) {
+        long left = value >>> halfBits;
+        long right = value & halfMask;
+        for (int round = 0; round < ROUNDS; round++) {
+            long next = left ^ (mix(right ^ seed ^ ((long) round << 56)) & halfMask);
+            left = right;
+            right = next;
+        }
+        return (left << halfBits) | right;
+    }
+
+    // Финализатор SplitMix64: хорошо перемешивает биты
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
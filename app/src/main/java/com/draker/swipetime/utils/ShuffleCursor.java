@@ -0,0 +1,104 @@
+package com.draker.swipetime.utils;
+
+/**
+ * Курсор обхода номеров каталога [0, size) в порядке {@link SeededPermutation}.
+ * Состояние - зерно и позиция в перестановке, поэтому за круг каждый номер выдается
+ * ровно один раз без списка уже выданных. Если за время круга каталог вырос,
+ * новые номера обходятся отдельным отрезком после текущего.
+ * Круг может быть помечен как повторный: вызывающий код по этой отметке понимает,
+ * что все элементы уже были показаны, и не проверяет историю до конца круга.
+ * Не потокобезопасен: вызывающий код синхронизирует доступ сам
+ */
+public final class ShuffleCursor {
+
+    private long seed;
+    // Начало текущего отрезка номеров
+    private int start;
+    private SeededPermutation permutation;
+    private int position;
+    // Сколько номеров выдал последний вызов next
+    private int lastCount;
+    // Круг начат после того, как все элементы каталога были показаны
+    private boolean repeatRound;
+
+    /**
+     * @param seed зерно перестановки первого круга
+     */
+    public ShuffleCursor(long seed) {
+        restart(seed);
+    }
+
+    /**
+     * Следующие номера круга, не больше count
+     * @param count сколько номеров нужно
+     * @param catalogSize текущее количество номеров в каталоге
+     * @return номера; пустой массив, если круг окончен
+     */
+    public int[] next(int count, int catalogSize) {
+        int end = start + permutation.size();
+        if (position == permutation.size() && catalogSize > end) {
+            start = end;
+            permutation = new SeededPermutation(catalogSize - end, seed);
+            position = 0;
+        }
+
+        int[] ordinals = new int[Math.min(count, permutation.size() - position)];
+        for (int i = 0; i < ordinals.length; i++) {
+            ordinals[i] = start + permutation.indexAt(position++);
+        }
+        lastCount = ordinals.length;
+        return ordinals;
+    }
+
+    /**
+     * Вернуть в круг последние count номеров из результата предыдущего next,
+     * чтобы следующий вызов выдал их снова
+     */
+    public void unread(int count) {
+        if (count < 0 || count > lastCount) {
+            throw new IllegalArgumentException("count " + count + ", last " + lastCount);
+        }
+        position -= count;
+        lastCount -= count;
+    }
+
+    /**
+     * Начать новый круг по всем номерам
+     * @param seed зерно перестановки нового круга
+     */
+    public void restart(long seed) {
+        restart(seed, false);
+    }
+
+    /**
+     * Начать новый круг по всем номерам
+     * @param seed зерно перестановки нового круга
+     * @param repeatRound круг начат после того, как все элементы были показаны
+     */
+    public void restart(long seed, boolean repeatRound) {
+        this.seed = seed;
+        this.repeatRound = repeatRound;
+        start = 0;
+        permutation = new SeededPermutation(0, seed);
+        position = 0;
+        lastCount = 0;
+    }
+
+    /**
+     * Идет ли повторный круг (см. {@link #restart(long, boolean)})
+     */
+    public boolean isRepeatRound() {
+        return repeatRound;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Сколько номеров выдано с начала круга
+     */
+    public int getPosition() {
+        return start + position;
+    }
+}
@@ -8,16 +8,26 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.draker.swipetime.database.DatabaseSchedulers;
 import com.draker.swipetime.database.entities.UserPreferencesEntity;
 import com.draker.swipetime.repository.UserPreferencesRepository;
+import com.draker.swipetime.utils.CompiledContentFilter;
+import com.draker.swipetime.utils.FacetIndex;
 // import com.draker.swipetime.utils.GamificationIntegrator; // Класс удален в рамках рефакторинга
 
 import org.json.JSONArray;
 import org.json.JSONException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.disposables.SerialDisposable;
+
 /**
  * ViewModel для управления настройками пользователя и фильтрации контента
  */
@@ -34,6 +44,9 @@ public class FilterViewModel extends AndroidViewModel {
     private MutableLiveData<Integer> minYear = new MutableLiveData<>(1900);
     private MutableLiveData<Integer> maxYear = new MutableLiveData<>(2025);
     private MutableLiveData<Boolean> adultContentEnabled = new MutableLiveData<>(false);
+
+    // Сколько карточек подходит под фильтры, которые сейчас выбраны на экране
+    private final MutableLiveData<FacetIndex.Counts> facetCounts = new MutableLiveData<>();
     
     // Константы для представления в UI
     public static final String[] AVAILABLE_GENRES = {
@@ -65,9 +78,16 @@ public class FilterViewModel extends AndroidViewModel {
     // ID текущего пользователя
     private String currentUserId;
 
+    private final CompositeDisposable disposables = new CompositeDisposable();
+
+    // Новый подсчет отменяет предыдущий, если тот еще не завершился
+    private final SerialDisposable facetCountsRequest = new SerialDisposable();
+
     public FilterViewModel(@NonNull Application application) {
         super(application);
         preferencesRepository = new UserPreferencesRepository(application);
+        disposables.add(facetCountsRequest);
+        FacetIndex.getInstance().ensureBuilt(application);
         
         // Получаем ID текущего пользователя (заглушка вместо удаленного GamificationIntegrator)
         currentUserId = "user_1";
@@ -78,47 +98,51 @@ public class FilterViewModel extends AndroidViewModel {
     }
 
     /**
-     * Загрузка настроек пользователя из репозитория
+     * Загрузка настроек пользователя из репозитория.
+     * Чтение выполняется в пуле БД, значения публикуются через postValue
      */
     private void loadUserPreferences() {
-        UserPreferencesEntity preferences = preferencesRepository.getByUserId(currentUserId);
-        
-        // Загружаем жанры
-        List<String> genres = preferencesRepository.getGenres(currentUserId);
-        if (!genres.isEmpty()) {
-            selectedGenres.setValue(genres);
-        }
-        
-        // Загружаем страны
-        List<String> countries = preferencesRepository.getCountries(currentUserId);
-        if (!countries.isEmpty()) {
-            selectedCountries.setValue(countries);
-        }
-        
-        // Загружаем языки
-        List<String> languages = preferencesRepository.getLanguages(currentUserId);
-        if (!languages.isEmpty()) {
-            selectedLanguages.setValue(languages);
-        }
-        
-        // Загружаем теги интересов
-        List<String> tags = preferencesRepository.getInterestsTags(currentUserId);
-        if (!tags.isEmpty()) {
-            selectedTags.setValue(tags);
-        }
-        
-        // Загружаем диапазон длительности
-        if (preferences != null) {
-            minDuration.setValue(preferences.getMinDuration());
-            maxDuration.setValue(preferences.getMaxDuration());
+        final String userId = currentUserId;
+        DatabaseSchedulers.executor().execute(() -> {
+            UserPreferencesEntity preferences = preferencesRepository.getByUserId(userId);
             
-            // Загружаем диапазон годов
-            minYear.setValue(preferences.getMinYear());
-            maxYear.setValue(preferences.getMaxYear());
+            // Загружаем жанры
+            List<String> genres = preferencesRepository.getGenres(userId);
+            if (!genres.isEmpty()) {
+                selectedGenres.postValue(genres);
+            }
             
-            // Загружаем настройку контента 18+
-            adultContentEnabled.setValue(preferences.isAdultContentEnabled());
-        }
+            // Загружаем страны
+            List<String> countries = preferencesRepository.getCountries(userId);
+            if (!countries.isEmpty()) {
+                selectedCountries.postValue(countries);
+            }
+            
+            // Загружаем языки
+            List<String> languages = preferencesRepository.getLanguages(userId);
+            if (!languages.isEmpty()) {
+                selectedLanguages.postValue(languages);
+            }
+            
+            // Загружаем теги интересов
+            List<String> tags = preferencesRepository.getInterestsTags(userId);
+            if (!tags.isEmpty()) {
+                selectedTags.postValue(tags);
+            }
+            
+            // Загружаем диапазон длительности
+            if (preferences != null) {
+                minDuration.postValue(preferences.getMinDuration());
+                maxDuration.postValue(preferences.getMaxDuration());
+                
+                // Загружаем диапазон годов
+                minYear.postValue(preferences.getMinYear());
+                maxYear.postValue(preferences.getMaxYear());
+                
+                // Загружаем настройку контента 18+
+                adultContentEnabled.postValue(preferences.isAdultContentEnabled());
+            }
+        });
     }
 
     /**
@@ -142,9 +166,11 @@ public class FilterViewModel extends AndroidViewModel {
     }
 
     /**
-     * Сохранение настроек пользователя в репозиторий
+     * Сохранение настроек пользователя в репозиторий.
+     * Значения фиксируются в момент вызова, запись выполняется в пуле БД
+     * @return Completable, завершающийся в главном потоке после записи
      */
-    public void saveUserPreferences() {
+    public Completable saveUserPreferences() {
         // Проверяем, что ID пользователя актуальный (заглушка вместо удаленного GamificationIntegrator)
         String userId = "user_1";
         if (!userId.equals(currentUserId)) {
@@ -152,39 +178,80 @@ public class FilterViewModel extends AndroidViewModel {
             Log.d(TAG, "ID пользователя обновлен перед сохранением настроек: " + userId);
         }
         
-        // Сохраняем жанры
-        preferencesRepository.updateGenres(currentUserId, selectedGenres.getValue());
+        final List<String> genres = copyOf(selectedGenres.getValue());
+        final List<String> countries = copyOf(selectedCountries.getValue());
+        final List<String> languages = copyOf(selectedLanguages.getValue());
+        final List<String> tags = copyOf(selectedTags.getValue());
+        final int minDurationValue = minDuration.getValue() != null ? minDuration.getValue() : 0;
+        final int maxDurationValue = maxDuration.getValue() != null ? maxDuration.getValue() : 300;
+        final int minYearValue = minYear.getValue() != null ? minYear.getValue() : 1900;
+        final int maxYearValue = maxYear.getValue() != null ? maxYear.getValue() : 2025;
+        final boolean adultEnabled = adultContentEnabled.getValue() != null && adultContentEnabled.getValue();
         
-        // Сохраняем страны
-        preferencesRepository.updateCountries(currentUserId, selectedCountries.getValue());
-        
-        // Сохраняем языки
-        preferencesRepository.updateLanguages(currentUserId, selectedLanguages.getValue());
-        
-        // Сохраняем теги интересов
-        preferencesRepository.updateInterestsTags(currentUserId, selectedTags.getValue());
-        
-        // Сохраняем диапазон длительности
-        preferencesRepository.updateDurationRange(
-            currentUserId, 
-            minDuration.getValue() != null ? minDuration.getValue() : 0,
-            maxDuration.getValue() != null ? maxDuration.getValue() : 300
-        );
-        
-        // Сохраняем диапазон годов
-        preferencesRepository.updateYearRange(
-            currentUserId,
-            minYear.getValue() != null ? minYear.getValue() : 1900,
-            maxYear.getValue() != null ? maxYear.getValue() : 2025
-        );
-        
-        // Сохраняем настройку контента 18+
-        preferencesRepository.updateAdultContentEnabled(
-            currentUserId,
-            adultContentEnabled.getValue() != null && adultContentEnabled.getValue()
-        );
-        
-        Log.d(TAG, "Настройки успешно сохранены для пользователя: " + currentUserId);
+        return Completable.fromAction(() -> {
+                    // Сохраняем жанры
+                    preferencesRepository.updateGenres(userId, genres);
+                    
+                    // Сохраняем страны
+                    preferencesRepository.updateCountries(userId, countries);
+                    
+                    // Сохраняем языки
+                    preferencesRepository.updateLanguages(userId, languages);
+                    
+                    // Сохраняем теги интересов
+                    preferencesRepository.updateInterestsTags(userId, tags);
+                    
+                    // Сохраняем диапазон длительности
+                    preferencesRepository.updateDurationRange(userId, minDurationValue, maxDurationValue);
+                    
+                    // Сохраняем диапазон годов
+                    preferencesRepository.updateYearRange(userId, minYearValue, maxYearValue);
+                    
+                    // Сохраняем настройку контента 18+
+                    preferencesRepository.updateAdultContentEnabled(userId, adultEnabled);
+                })
+                .subscribeOn(DatabaseSchedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .doOnComplete(() -> Log.d(TAG, "Настройки успешно сохранены для пользователя: " + userId));
+    }
+
+    /**
+     * Пересчитать количество подходящих карточек для выбранных чипов и значений полей ввода.
+     * Подсчет идет по индексу фасетов, результат публикуется в {@link #getFacetCounts()}
+     * @param minYearValue минимальный год из поля ввода
+     * @param maxYearValue максимальный год из поля ввода
+     * @param minDurationValue минимальная длительность из поля ввода
+     * @param maxDurationValue максимальная длительность из поля ввода
+     * @param adultEnabled состояние переключателя 18+
+     */
+    public void refreshFacetCounts(int minYearValue, int maxYearValue,
+                                   int minDurationValue, int maxDurationValue, boolean adultEnabled) {
+        UserPreferencesEntity draft = new UserPreferencesEntity();
+        draft.setUserId(currentUserId);
+        draft.setPreferredGenres(new JSONArray(copyOf(selectedGenres.getValue())).toString());
+        draft.setPreferredCountries(new JSONArray(copyOf(selectedCountries.getValue())).toString());
+        draft.setPreferredLanguages(new JSONArray(copyOf(selectedLanguages.getValue())).toString());
+        draft.setInterestsTags(new JSONArray(copyOf(selectedTags.getValue())).toString());
+        draft.setMinYear(minYearValue);
+        draft.setMaxYear(maxYearValue);
+        draft.setMinDuration(minDurationValue);
+        draft.setMaxDuration(maxDurationValue);
+        draft.setAdultContentEnabled(adultEnabled);
+
+        facetCountsRequest.set(Maybe.fromCallable(() -> FacetIndex.getInstance().count(
+                        CompiledContentFilter.compile(draft), Arrays.asList(AVAILABLE_GENRES)))
+                .subscribeOn(DatabaseSchedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(facetCounts::setValue,
+                        error -> Log.e(TAG, "Ошибка при подсчете карточек: " + error.getMessage())));
+    }
+
+    public LiveData<FacetIndex.Counts> getFacetCounts() {
+        return facetCounts;
+    }
+
+    private static List<String> copyOf(List<String> values) {
+        return values != null ? new ArrayList<>(values) : new ArrayList<>();
     }
 
     /**
@@ -202,7 +269,14 @@ public class FilterViewModel extends AndroidViewModel {
         adultContentEnabled.setValue(false);
         
         // Сохраняем сброшенные настройки
-        saveUserPreferences();
+        disposables.add(saveUserPreferences().subscribe(() -> { },
+                error -> Log.e(TAG, "Ошибка при сбросе настроек: " + error.getMessage())));
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        disposables.clear();
     }
 
     // Геттеры и сеттеры для LiveData
@@ -8,7 +8,8 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
-import com.draker.swipetime.database.AppDatabase;
+import com.draker.swipetime.database.DatabaseSchedulers;
+import com.draker.swipetime.database.UserDatabase;
 import com.draker.swipetime.database.entities.AchievementEntity;
 import com.draker.swipetime.database.entities.UserEntity;
 import com.draker.swipetime.database.entities.UserStatsEntity;
@@ -21,6 +22,9 @@ import com.google.firebase.auth.FirebaseUser;
 
 import java.util.List;
 
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
+
 /**
  * ViewModel для управления геймификацией в приложении
  */
@@ -29,7 +33,7 @@ public class GamificationViewModel extends AndroidViewModel {
     private static final String TAG = "GamificationViewModel";
     private static final String DEFAULT_USER_ID = "user_1";
 
-    private final AppDatabase database;
+    private final UserDatabase database;
     private final GamificationManager gamificationManager;
     private final FirebaseManager firebaseManager;
     
@@ -45,7 +49,7 @@ public class GamificationViewModel extends AndroidViewModel {
 
     public GamificationViewModel(@NonNull Application application) {
         super(application);
-        database = AppDatabase.getInstance(application);
+        database = UserDatabase.getInstance(application);
         gamificationManager = GamificationManager.getInstance(application);
         firebaseManager = FirebaseManager.getInstance(application);
         
@@ -76,10 +80,17 @@ public class GamificationViewModel extends AndroidViewModel {
      * @param userId ID пользователя
      */
     public void loadUserData(String userId) {
+        // Обновляем currentUserId, если он изменился
+        currentUserId = userId;
+        DatabaseSchedulers.executor().execute(() -> readUserData(userId));
+    }
+
+    /**
+     * Чтение данных пользователя и публикация их в LiveData.
+     * Выполняется в пуле потоков базы данных
+     */
+    private void readUserData(String userId) {
         try {
-            // Обновляем currentUserId, если он изменился
-            currentUserId = userId;
-            
             // Загружаем данные пользователя
             UserEntity user = database.userDao().getById(userId);
             if (user == null) {
@@ -128,15 +139,20 @@ public class GamificationViewModel extends AndroidViewModel {
      * 
      * @param action тип действия (swipe, rate, review, complete)
      * @param data дополнительные данные (зависит от действия)
-     * @return true если произошло повышение уровня
+     * @return Single с true, если произошло повышение уровня
      */
-    public boolean processUserAction(String action, String data) {
-        boolean levelUp = gamificationManager.processUserAction(currentUserId, action, data);
-        
-        // Обновляем LiveData
-        loadUserData();
-        
-        return levelUp;
+    public Single<Boolean> processUserAction(String action, String data) {
+        String userId = currentUserId;
+        return Single.fromCallable(() -> {
+                    boolean levelUp = gamificationManager.processUserAction(userId, action, data);
+
+                    // Обновляем LiveData
+                    readUserData(userId);
+
+                    return levelUp;
+                })
+                .subscribeOn(DatabaseSchedulers.io())
+                .observeOn(AndroidSchedulers.mainThread());
     }
     
     /**
@@ -145,9 +161,9 @@ public class GamificationViewModel extends AndroidViewModel {
      * @param direction направление свайпа (true - вправо, false - влево)
      * @param contentId ID контента
      * @param contentTitle название контента
-     * @return true если произошло повышение уровня
+     * @return Single с true, если произошло повышение уровня
      */
-    public boolean registerSwipe(boolean direction, String contentId, String contentTitle) {
+    public Single<Boolean> registerSwipe(boolean direction, String contentId, String contentTitle) {
         // Логируем действие
         ActionLogger.logSwipe(direction, contentId, contentTitle);
         
@@ -161,9 +177,9 @@ public class GamificationViewModel extends AndroidViewModel {
      * @param contentId ID контента
      * @param contentTitle название контента
      * @param rating оценка (от 1 до 5)
-     * @return true если произошло повышение уровня
+     * @return Single с true, если произошло повышение уровня
      */
-    public boolean registerRating(String contentId, String contentTitle, float rating) {
+    public Single<Boolean> registerRating(String contentId, String contentTitle, float rating) {
         // Логируем действие
         ActionLogger.logRating(contentId, contentTitle, rating);
         
@@ -176,9 +192,9 @@ public class GamificationViewModel extends AndroidViewModel {
      * 
      * @param contentId ID контента
      * @param contentTitle название контента
-     * @return true если произошло повышение уровня
+     * @return Single с true, если произошло повышение уровня
      */
-    public boolean registerReview(String contentId, String contentTitle) {
+    public Single<Boolean> registerReview(String contentId, String contentTitle) {
         // Логируем действие
         ActionLogger.logReview(contentId, contentTitle);
         
@@ -192,9 +208,9 @@ public class GamificationViewModel extends AndroidViewModel {
      * @param contentId ID контента
      * @param contentTitle название контента
      * @param contentType тип контента
-     * @return true если произошло повышение уровня
+     * @return Single с true, если произошло повышение уровня
      */
-    public boolean registerCompletion(String contentId, String contentTitle, String contentType) {
+    public Single<Boolean> registerCompletion(String contentId, String contentTitle, String contentType) {
         // Логируем действие
         ActionLogger.logCompleted(contentId, contentTitle, contentType);
         
@@ -7,7 +7,8 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
-import com.draker.swipetime.database.AppDatabase;
+import com.draker.swipetime.database.DatabaseSchedulers;
+import com.draker.swipetime.database.UserDatabase;
 import com.draker.swipetime.database.dao.UserDao;
 import com.draker.swipetime.database.dao.UserStatsDao;
 import com.draker.swipetime.database.entities.UserEntity;
@@ -15,6 +16,9 @@ import com.draker.swipetime.database.entities.UserStatsEntity;
 import com.draker.swipetime.utils.GamificationManager;
 import com.draker.swipetime.utils.XpLevelCalculator;
 
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
+
 /**
  * ViewModel для работы с профилем пользователя и его достижениями
  */
@@ -33,7 +37,7 @@ public class ProfileViewModel extends AndroidViewModel {
     
     public ProfileViewModel(@NonNull Application application) {
         super(application);
-        AppDatabase database = AppDatabase.getInstance(application);
+        UserDatabase database = UserDatabase.getInstance(application);
         userDao = database.userDao();
         userStatsDao = database.userStatsDao();
         gamificationManager = GamificationManager.getInstance(application);
@@ -45,6 +49,14 @@ public class ProfileViewModel extends AndroidViewModel {
      * @param userId ID пользователя
      */
     public void loadUserData(String userId) {
+        DatabaseSchedulers.executor().execute(() -> readUserData(userId));
+    }
+
+    /**
+     * Чтение данных пользователя и публикация их в LiveData.
+     * Выполняется в пуле потоков базы данных
+     */
+    private void readUserData(String userId) {
         // Загружаем данные о пользователе
         UserEntity user = userDao.getById(userId);
         currentUser.postValue(user);
@@ -134,7 +146,7 @@ public class ProfileViewModel extends AndroidViewModel {
      * @param userStats обновленная статистика
      */
     public void updateUserStats(UserStatsEntity userStats) {
-        userStatsDao.update(userStats);
+        DatabaseSchedulers.executor().execute(() -> userStatsDao.update(userStats));
         currentUserStats.postValue(userStats);
     }
     
@@ -144,7 +156,7 @@ public class ProfileViewModel extends AndroidViewModel {
      * @param user обновленный пользователь
      */
     public void updateUser(UserEntity user) {
-        userDao.update(user);
+        DatabaseSchedulers.executor().execute(() -> userDao.update(user));
         currentUser.postValue(user);
         
         // Обновляем прогресс уровня и ранг
@@ -159,14 +171,18 @@ public class ProfileViewModel extends AndroidViewModel {
      * @param userId ID пользователя
      * @param action тип действия
      * @param data дополнительные данные
-     * @return true если повышен уровень
+     * @return Single с true, если повышен уровень
      */
-    public boolean processUserAction(String userId, String action, String data) {
-        boolean levelUp = gamificationManager.processUserAction(userId, action, data);
-        
-        // Обновляем данные пользователя
-        loadUserData(userId);
-        
-        return levelUp;
+    public Single<Boolean> processUserAction(String userId, String action, String data) {
+        return Single.fromCallable(() -> {
+                    boolean levelUp = gamificationManager.processUserAction(userId, action, data);
+
+                    // Обновляем данные пользователя
+                    readUserData(userId);
+
+                    return levelUp;
+                })
+                .subscribeOn(DatabaseSchedulers.io())
+                .observeOn(AndroidSchedulers.mainThread());
     }
 }
\ No newline at end of file
@@ -0,0 +1,189 @@
+package com.draker.swipetime.database;
+
+import androidx.sqlite.db.SupportSQLiteProgram;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+import com.draker.swipetime.database.entities.UserPreferencesEntity;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * SQL и аргументы запросов, которые строит ContentFilterQueryBuilder по предпочтениям пользователя
+ */
+public class ContentFilterQueryBuilderTest {
+
+    @Test
+    public void forMovies_withoutFiltersSelectsWholeTable() {
+        SupportSQLiteQuery query = ContentFilterQueryBuilder.forMovies(new UserPreferencesEntity());
+
+        assertEquals("SELECT * FROM movies", query.getSql());
+        assertEquals(0, query.getArgCount());
+        assertFalse(ContentFilterQueryBuilder.hasSqlFilters(null));
+    }
+
+    @Test
+    public void forMovies_yearDurationAndGenres() {
+        UserPreferencesEntity preferences = new UserPreferencesEntity();
+        preferences.setMinYear(2000);
+        preferences.setMaxYear(2010);
+        preferences.setMinDuration(90);
+        preferences.setPreferredGenres("[\" Драма \", \"Комедия\"]");
+
+        SupportSQLiteQuery query = ContentFilterQueryBuilder.forMovies(preferences);
+
+        assertEquals("SELECT * FROM movies WHERE release_year BETWEEN ? AND ? AND duration BETWEEN ? AND ? " +
+                "AND id IN (SELECT cg.content_id FROM content_genres cg INNER JOIN genres g ON g.id = cg.genre_id " +
+                "WHERE cg.source = ? AND g.normalized_name IN (?, ?))", query.getSql());
+        assertEquals(Arrays.<Object>asList(2000L, 2010L, 90L, (long) Integer.MAX_VALUE, "movies", "драма", "комедия"),
+                args(query));
+    }
+
+    @Test
+    public void forGames_excludesAdultRatingsUnlessEnabled() {
+        UserPreferencesEntity preferences = new UserPreferencesEntity();
+        preferences.setMinYear(1990);
+
+        String sql = ContentFilterQueryBuilder.forGames(preferences).getSql();
+        assertTrue(sql, sql.endsWith("AND (esrb_rating IS NULL OR esrb_rating NOT IN (?, ?, ?, ?, ?))"));
+        assertFalse(sql.contains("duration"));
+
+        preferences.setAdultContentEnabled(true);
+        assertFalse(ContentFilterQueryBuilder.forGames(preferences).getSql().contains("esrb_rating"));
+    }
+
+    @Test
+    public void forTVShowsAndBooks_useTheirYearColumns() {
+        UserPreferencesEntity preferences = new UserPreferencesEntity();
+        preferences.setMaxYear(2020);
+
+        assertEquals("SELECT * FROM tv_shows WHERE start_year BETWEEN ? AND ?",
+                ContentFilterQueryBuilder.forTVShows(preferences).getSql());
+        assertEquals("SELECT * FROM books WHERE publish_year BETWEEN ? AND ?",
+                ContentFilterQueryBuilder.forBooks(preferences).getSql());
+    }
+
+    @Test
+    public void forCatalog_allCategoriesWithKeysetPage() {
+        SupportSQLiteQuery query = ContentFilterQueryBuilder.forCatalog(Collections.emptyList(), null,
+                100L, "m1", 20);
+
+        assertEquals("SELECT * FROM catalog_items WHERE source != ? " +
+                "AND created_at >= ? AND (created_at > ? OR id > ?) ORDER BY created_at, id LIMIT ?", query.getSql());
+        assertEquals(Arrays.<Object>asList("content", 100L, 100L, "m1", 20L), args(query));
+    }
+
+    @Test
+    public void forCatalog_mixesTypedAndGeneralCategories() {
+        SupportSQLiteQuery query = ContentFilterQueryBuilder.forCatalogCards(Arrays.asList("Фильмы", "Музыка"),
+                null, 0L, "", 0);
+
+        assertEquals("SELECT " + CardProjection.COLUMNS + " FROM catalog_items " +
+                "WHERE (source = ? OR (source = ? AND category = ?))", query.getSql());
+        assertEquals(Arrays.<Object>asList("movies", "content", "Музыка"), args(query));
+    }
+
+    @Test
+    public void forCatalog_preferencesKeepRowsWithoutYearOrDuration() {
+        UserPreferencesEntity preferences = new UserPreferencesEntity();
+        preferences.setMaxDuration(120);
+
+        String sql = ContentFilterQueryBuilder.forCatalog(Collections.singletonList("Фильмы"), preferences,
+                0L, "", 0).getSql();
+
+        assertTrue(sql, sql.contains("(year IS NULL OR year BETWEEN ? AND ?)"));
+        assertTrue(sql, sql.contains("(duration IS NULL OR duration BETWEEN ? AND ?)"));
+        assertTrue(sql, sql.contains("(age_rating IS NULL OR age_rating NOT IN ("));
+    }
+
+    @Test
+    public void forUnseenCards_typedCategoryExcludesSeen() {
+        SupportSQLiteQuery query = ContentFilterQueryBuilder.forUnseenCards("Книги", null, "u1", true,
+                5L, "b7", 10);
+
+        String sql = query.getSql();
+        assertTrue(sql, sql.startsWith("SELECT books.id AS id, title, image_url, ? AS category, ? AS source, " +
+                "publish_year AS year, liked, created_at, sk.shuffle_key, "));
+        assertTrue(sql, sql.contains(" FROM shuffle_keys sk CROSS JOIN books ON books.id = sk.content_id WHERE "));
+        assertTrue(sql, sql.endsWith("AND NOT EXISTS (SELECT 1 FROM seen_content sc " +
+                "WHERE sc.user_id = ? AND sc.source = sk.source AND sc.content_id = sk.content_id) ORDER BY sk.shuffle_key, sk.content_id LIMIT ?"));
+        assertEquals(Arrays.<Object>asList("Книги", "books", "books", 5L, 5L, "b7", "u1", 10L), args(query));
+    }
+
+    @Test
+    public void forUnseenCards_generalCategoryFiltersByCategoryColumn() {
+        SupportSQLiteQuery query = ContentFilterQueryBuilder.forUnseenCards("Музыка", null, "u1", false,
+                Long.MIN_VALUE, null, 0);
+
+        String sql = query.getSql();
+        assertTrue(sql, sql.startsWith("SELECT content.id AS id, title, image_url, category, ? AS source, 0 AS year"));
+        assertTrue(sql, sql.contains("AND category = ?"));
+        assertFalse(sql.contains("seen_content"));
+        assertFalse(sql.contains("LIMIT"));
+        assertEquals(Arrays.<Object>asList("content", "content", Long.MIN_VALUE, Long.MIN_VALUE, "", "Музыка"),
+                args(query));
+    }
+
+    @Test
+    public void forCardsAtOrdinals_selectsByOrdinalIndex() {
+        SupportSQLiteQuery query = ContentFilterQueryBuilder.forCardsAtOrdinals("Игры", null, "u1", true,
+                new int[]{7, 0, 3});
+
+        String sql = query.getSql();
+        assertTrue(sql, sql.contains(", sk.shuffle_key, sk.ordinal, "));
+        assertTrue(sql, sql.contains(" FROM shuffle_keys sk CROSS JOIN games ON games.id = sk.content_id " +
+                "WHERE sk.source = ? AND sk.ordinal IN (?, ?, ?) AND NOT EXISTS ("));
+        assertFalse(sql.contains("ORDER BY"));
+        assertFalse(sql.contains("LIMIT"));
+        assertEquals(Arrays.<Object>asList("Игры", "games", "games", 7L, 0L, 3L, "u1"), args(query));
+    }
+
+    /**
+     * Аргументы запроса в порядке привязки; целые числа SQLite привязывает как long
+     */
+    private static List<Object> args(SupportSQLiteQuery query) {
+        List<Object> args = new ArrayList<>();
+        query.bindTo(new SupportSQLiteProgram() {
+            @Override
+            public void bindNull(int index) {
+                args.add(null);
+            }
+
+            @Override
+            public void bindLong(int index, long value) {
+                args.add(value);
+            }
+
+            @Override
+            public void bindDouble(int index, double value) {
+                args.add(value);
+            }
+
+            @Override
+            public void bindString(int index, String value) {
+                args.add(value);
+            }
+
+            @Override
+            public void bindBlob(int index, byte[] value) {
+                args.add(value);
+            }
+
+            @Override
+            public void clearBindings() {
+                args.clear();
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        return args;
+    }
+}
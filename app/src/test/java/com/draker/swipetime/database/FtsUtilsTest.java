@@ -0,0 +1,105 @@
+package com.draker.swipetime.database;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Построение выражения MATCH и BM25-оценка по данным matchinfo(table, 'pcnalx')
+ */
+public class FtsUtilsTest {
+
+    private static final double[] WEIGHTS = {3.0, 1.0};
+
+    @Test
+    public void toMatchQuery_prefixesWordsAndDropsOperators() {
+        assertEquals("star* wars*", FtsUtils.toMatchQuery("Star Wars"));
+        assertEquals("a* or* b*", FtsUtils.toMatchQuery("\"a\" OR -b"));
+        assertNull(FtsUtils.toMatchQuery("  *\"- "));
+        assertNull(FtsUtils.toMatchQuery(null));
+    }
+
+    @Test
+    public void toMatchQuery_limitsTermCount() {
+        assertEquals("a* b* c* d* e* f* g* h*", FtsUtils.toMatchQuery("a b c d e f g h i j"));
+    }
+
+    @Test
+    public void bm25_noHitsGivesZero() {
+        byte[] info = matchInfo(100, new int[]{5, 50}, new int[]{5, 50}, new int[][]{{0, 0, 10, 0, 0, 10}});
+        assertEquals(0.0, FtsUtils.bm25(info, WEIGHTS), 0.0);
+        assertEquals(0.0, FtsUtils.bm25(null, WEIGHTS), 0.0);
+        assertEquals(0.0, FtsUtils.bm25(new byte[4], WEIGHTS), 0.0);
+    }
+
+    @Test
+    public void bm25_matchesFormula() {
+        // Одно слово, одно вхождение в названии средней длины
+        byte[] info = matchInfo(100, new int[]{5, 50}, new int[]{5, 50}, new int[][]{{1, 1, 10, 0, 0, 10}});
+        double idf = Math.log((100 - 10 + 0.5) / (10 + 0.5));
+        double expected = 3.0 * idf * 1 * 2.2 / (1 + 1.2);
+        assertEquals(expected, FtsUtils.bm25(info, WEIGHTS), 1e-9);
+    }
+
+    @Test
+    public void bm25_titleHitOutweighsDescriptionHit() {
+        byte[] title = matchInfo(100, new int[]{5, 50}, new int[]{5, 50}, new int[][]{{1, 1, 10, 0, 10, 10}});
+        byte[] description = matchInfo(100, new int[]{5, 50}, new int[]{5, 50}, new int[][]{{0, 1, 10, 1, 10, 10}});
+        assertTrue(FtsUtils.bm25(title, WEIGHTS) > FtsUtils.bm25(description, WEIGHTS));
+    }
+
+    @Test
+    public void bm25_rewardsFrequencyShortDocumentsAndRareTerms() {
+        double base = FtsUtils.bm25(matchInfo(100, new int[]{5, 50}, new int[]{5, 50},
+                new int[][]{{1, 1, 10, 0, 0, 10}}), WEIGHTS);
+        double frequent = FtsUtils.bm25(matchInfo(100, new int[]{5, 50}, new int[]{5, 50},
+                new int[][]{{2, 2, 10, 0, 0, 10}}), WEIGHTS);
+        double longer = FtsUtils.bm25(matchInfo(100, new int[]{5, 50}, new int[]{20, 50},
+                new int[][]{{1, 1, 10, 0, 0, 10}}), WEIGHTS);
+        double common = FtsUtils.bm25(matchInfo(100, new int[]{5, 50}, new int[]{5, 50},
+                new int[][]{{1, 1, 40, 0, 0, 10}}), WEIGHTS);
+
+        assertTrue(frequent > base);
+        assertTrue(longer < base);
+        assertTrue(common < base);
+    }
+
+    @Test
+    public void bm25_veryCommonTermKeepsPositiveScore() {
+        byte[] info = matchInfo(100, new int[]{5, 50}, new int[]{5, 50}, new int[][]{{1, 1, 90, 0, 0, 10}});
+        assertTrue(FtsUtils.bm25(info, WEIGHTS) > 0.0);
+    }
+
+    @Test
+    public void bm25_sumsOverPhrases() {
+        int[] hit = {1, 1, 10, 0, 0, 10};
+        double one = FtsUtils.bm25(matchInfo(100, new int[]{5, 50}, new int[]{5, 50}, new int[][]{hit}), WEIGHTS);
+        double two = FtsUtils.bm25(matchInfo(100, new int[]{5, 50}, new int[]{5, 50}, new int[][]{hit, hit}), WEIGHTS);
+        assertEquals(2 * one, two, 1e-9);
+    }
+
+    /**
+     * Данные в формате 'pcnalx': p, c, n, a[c], l[c], затем по три числа x на фразу и колонку
+     */
+    private static byte[] matchInfo(int totalDocs, int[] avgLengths, int[] docLengths, int[][] hits) {
+        int columns = avgLengths.length;
+        ByteBuffer buffer = ByteBuffer.allocate(4 * (3 + 2 * columns + 3 * columns * hits.length))
+                .order(ByteOrder.nativeOrder());
+        buffer.putInt(hits.length).putInt(columns).putInt(totalDocs);
+        for (int length : avgLengths) {
+            buffer.putInt(length);
+        }
+        for (int length : docLengths) {
+            buffer.putInt(length);
+        }
+        for (int[] phrase : hits) {
+            for (int value : phrase) {
+                buffer.putInt(value);
+            }
+        }
+        return buffer.array();
+    }
+}
@@ -0,0 +1,191 @@
+package com.draker.swipetime.recommendations;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Вычислительное ядро ALS: решение системы разложением Холецкого, упаковка векторов
+ * в BLOB и попеременная оптимизация на данных с явной кластерной структурой
+ */
+public class AlsRecommenderTest {
+
+    private static final int F = AlsRecommender.FACTORS;
+
+    @Test
+    public void choleskySolve_solvesSymmetricPositiveDefiniteSystem() {
+        Random random = new Random(3);
+        for (int round = 0; round < 10; round++) {
+            // A = MᵀM + I положительно определена
+            double[] m = new double[F * F];
+            for (int i = 0; i < m.length; i++) {
+                m[i] = random.nextGaussian();
+            }
+            double[] a = new double[F * F];
+            for (int i = 0; i < F; i++) {
+                for (int j = 0; j < F; j++) {
+                    double sum = i == j ? 1.0 : 0.0;
+                    for (int k = 0; k < F; k++) {
+                        sum += m[k * F + i] * m[k * F + j];
+                    }
+                    a[i * F + j] = sum;
+                }
+            }
+            double[] expected = new double[F];
+            for (int i = 0; i < F; i++) {
+                expected[i] = random.nextGaussian();
+            }
+            double[] b = multiply(a, expected);
+
+            AlsRecommender.choleskySolve(a.clone(), b);
+
+            assertArrayEquals(expected, b, 1e-8);
+        }
+    }
+
+    @Test
+    public void choleskySolve_diagonalSystem() {
+        double[] a = new double[F * F];
+        double[] b = new double[F];
+        for (int i = 0; i < F; i++) {
+            a[i * F + i] = i + 1;
+            b[i] = 2.0 * (i + 1);
+        }
+        AlsRecommender.choleskySolve(a, b);
+
+        double[] expected = new double[F];
+        Arrays.fill(expected, 2.0);
+        assertArrayEquals(expected, b, 1e-12);
+    }
+
+    @Test
+    public void packUnpack_roundTripsLittleEndianFloats() {
+        float[] factors = new float[3 * F];
+        Random random = new Random(4);
+        for (int i = 0; i < factors.length; i++) {
+            factors[i] = (float) random.nextGaussian();
+        }
+        factors[F] = Float.MIN_VALUE;
+        factors[F + 1] = -0.0f;
+
+        byte[][] blobs = new byte[3][];
+        for (int owner = 0; owner < 3; owner++) {
+            blobs[owner] = AlsRecommender.pack(factors, owner);
+            assertEquals(F * 4, blobs[owner].length);
+        }
+        assertEquals(factors[F + 2],
+                ByteBuffer.wrap(blobs[1]).order(ByteOrder.LITTLE_ENDIAN).getFloat(8), 0.0f);
+
+        float[] unpacked = AlsRecommender.unpack(Arrays.asList(blobs));
+        assertEquals(factors.length, unpacked.length);
+        for (int i = 0; i < factors.length; i++) {
+            assertEquals(Float.floatToIntBits(factors[i]), Float.floatToIntBits(unpacked[i]));
+        }
+    }
+
+    @Test
+    public void packMark_roundTripsAndRejectsDamagedBlob() {
+        for (long mark : new long[]{0L, 1L, 123456789012L, Long.MAX_VALUE}) {
+            assertEquals(mark, AlsRecommender.unpackMark(AlsRecommender.packMark(mark)));
+        }
+        assertEquals(-1L, AlsRecommender.unpackMark(new byte[F * 4]));
+    }
+
+    @Test
+    public void solve_emptyRowGivesZeroVector() {
+        double[] fixed = randomFactors(new Random(5), 4);
+        double[] target = new double[2 * F];
+        Arrays.fill(target, 1.0);
+
+        AlsRecommender.solve(target, fixed, new int[][]{{}, {0, 2}}, 4);
+
+        for (int p = 0; p < F; p++) {
+            assertEquals(0.0, target[p], 0.0);
+        }
+        assertNotEquals(0.0, target[F], 0.0);
+    }
+
+    @Test
+    public void solve_alternatingRanksOwnClusterFirst() {
+        // Две группы пользователей, каждый лайкает примерно 40% элементов своей группы
+        int users = 40;
+        int items = 40;
+        Random random = new Random(6);
+        int[][] userItems = new int[users][];
+        boolean[][] liked = new boolean[users][items];
+        for (int user = 0; user < users; user++) {
+            int[] row = new int[items];
+            int size = 0;
+            for (int item = user % 2; item < items; item += 2) {
+                if (random.nextInt(5) < 2) {
+                    row[size++] = item;
+                    liked[user][item] = true;
+                }
+            }
+            userItems[user] = Arrays.copyOf(row, size);
+        }
+        int[][] itemUsers = new int[items][];
+        for (int item = 0; item < items; item++) {
+            int[] column = new int[users];
+            int size = 0;
+            for (int user = 0; user < users; user++) {
+                if (liked[user][item]) {
+                    column[size++] = user;
+                }
+            }
+            itemUsers[item] = Arrays.copyOf(column, size);
+        }
+
+        double[] userFactors = new double[users * F];
+        double[] itemFactors = randomFactors(random, items);
+        for (int iteration = 0; iteration < 10; iteration++) {
+            AlsRecommender.solve(userFactors, itemFactors, userItems, items);
+            AlsRecommender.solve(itemFactors, userFactors, itemUsers, users);
+        }
+
+        // Не лайкнутые элементы своей группы в среднем оцениваются выше элементов чужой
+        for (int user = 0; user < users; user++) {
+            double own = 0;
+            int ownCount = 0;
+            double other = 0;
+            int otherCount = 0;
+            for (int item = 0; item < items; item++) {
+                double score = 0;
+                for (int p = 0; p < F; p++) {
+                    score += userFactors[user * F + p] * itemFactors[item * F + p];
+                }
+                if (item % 2 != user % 2) {
+                    other += score;
+                    otherCount++;
+                } else if (!liked[user][item]) {
+                    own += score;
+                    ownCount++;
+                }
+            }
+            assertTrue("Пользователь " + user, own / ownCount > other / otherCount);
+        }
+    }
+
+    private static double[] randomFactors(Random random, int owners) {
+        double[] factors = new double[owners * F];
+        for (int i = 0; i < factors.length; i++) {
+            factors[i] = random.nextGaussian() * 0.01;
+        }
+        return factors;
+    }
+
+    private static double[] multiply(double[] a, double[] x) {
+        double[] result = new double[F];
+        for (int i = 0; i < F; i++) {
+            for (int j = 0; j < F; j++) {
+                result[i] += a[i * F + j] * x[j];
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,216 @@
+package com.draker.swipetime.recommendations;
+
+import com.draker.swipetime.database.LikeEvent;
+import com.draker.swipetime.database.entities.UserInteractionEntity;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Матрица лайков: загрузка из журнала, операции над строками CSR и столбцами,
+ * обновления после загрузки и пересборка CSR
+ */
+public class LikeMatrixTest {
+
+    private static final String LIKE = UserInteractionEntity.ACTION_LIKE;
+    private static final String UNLIKE = UserInteractionEntity.ACTION_UNLIKE;
+
+    @Test
+    public void ensureLoaded_lastActionPerItemWins() {
+        LikeMatrix matrix = new LikeMatrix(() -> Arrays.asList(
+                new LikeEvent("u1", "a", LIKE),
+                new LikeEvent("u1", "b", LIKE),
+                new LikeEvent("u1", "a", UNLIKE),
+                new LikeEvent("u1", "c", UNLIKE),
+                new LikeEvent("u1", "c", LIKE),
+                new LikeEvent("u2", "d", LIKE),
+                new LikeEvent("u2", "d", UNLIKE)));
+        matrix.ensureLoaded();
+
+        int u1 = matrix.getUserOrdinal("u1");
+        assertEquals(setOf("b", "c"), itemsOf(matrix, u1));
+        assertEquals(0, matrix.getRowSize(matrix.getUserOrdinal("u2")));
+        assertEquals(-1, matrix.getItemOrdinal("a"));
+        assertEquals(-1, matrix.getItemOrdinal("d"));
+        assertEquals(-1, matrix.getUserOrdinal("u3"));
+        assertEquals(0, matrix.getVersion());
+    }
+
+    @Test
+    public void rowsAndColumns() {
+        LikeMatrix matrix = new LikeMatrix(() -> Arrays.asList(
+                new LikeEvent("u1", "a", LIKE),
+                new LikeEvent("u1", "b", LIKE),
+                new LikeEvent("u1", "c", LIKE),
+                new LikeEvent("u2", "b", LIKE),
+                new LikeEvent("u2", "c", LIKE),
+                new LikeEvent("u2", "d", LIKE),
+                new LikeEvent("u3", "d", LIKE)));
+        matrix.ensureLoaded();
+        int u1 = matrix.getUserOrdinal("u1");
+        int u2 = matrix.getUserOrdinal("u2");
+        int u3 = matrix.getUserOrdinal("u3");
+        int b = matrix.getItemOrdinal("b");
+        int d = matrix.getItemOrdinal("d");
+
+        assertEquals(3, matrix.getUserCount());
+        assertEquals(4, matrix.getItemCount());
+        assertEquals(3, matrix.getRowSize(u1));
+        assertTrue(matrix.contains(u1, b));
+        assertFalse(matrix.contains(u1, d));
+        assertFalse(matrix.contains(-1, b));
+        assertEquals(2, matrix.intersectionSize(u1, u2));
+        assertEquals(0, matrix.intersectionSize(u1, u3));
+        assertEquals(2, matrix.getColumnSize(d));
+        assertEquals(setOf("u2", "u3"), usersOf(matrix, d));
+        assertEquals("b", matrix.getItemId(b));
+        assertEquals("u2", matrix.getUserId(u2));
+        assertSorted(matrix, u1);
+    }
+
+    @Test
+    public void apply_updatesRowColumnAndVersion() {
+        LikeMatrix matrix = new LikeMatrix(() -> Arrays.asList(
+                new LikeEvent("u1", "a", LIKE),
+                new LikeEvent("u2", "a", LIKE)));
+        matrix.ensureLoaded();
+
+        matrix.apply("u1", "b", LIKE);
+        matrix.apply("u3", "a", LIKE);
+        matrix.apply("u2", "a", UNLIKE);
+        assertEquals(3, matrix.getVersion());
+
+        int a = matrix.getItemOrdinal("a");
+        assertEquals(setOf("a", "b"), itemsOf(matrix, matrix.getUserOrdinal("u1")));
+        assertEquals(setOf("u1", "u3"), usersOf(matrix, a));
+        assertEquals(0, matrix.getRowSize(matrix.getUserOrdinal("u2")));
+        assertEquals(1, matrix.intersectionSize(matrix.getUserOrdinal("u1"), matrix.getUserOrdinal("u3")));
+
+        // Повторный лайк, отмена чужого лайка и прочие действия матрицу не меняют
+        matrix.apply("u1", "b", LIKE);
+        matrix.apply("u2", "b", UNLIKE);
+        matrix.apply("u2", "zzz", UNLIKE);
+        matrix.apply("u1", "c", UserInteractionEntity.ACTION_VIEW);
+        assertEquals(3, matrix.getVersion());
+        assertEquals(-1, matrix.getItemOrdinal("zzz"));
+    }
+
+    @Test
+    public void apply_beforeLoadIsIgnored() {
+        List<LikeEvent> journal = new ArrayList<>();
+        LikeMatrix matrix = new LikeMatrix(() -> journal);
+        matrix.apply("u1", "a", LIKE);
+        journal.add(new LikeEvent("u1", "a", LIKE));
+
+        matrix.ensureLoaded();
+        assertEquals(0, matrix.getVersion());
+        assertEquals(setOf("a"), itemsOf(matrix, matrix.getUserOrdinal("u1")));
+    }
+
+    @Test
+    public void invalidate_reloadsFromJournal() {
+        List<LikeEvent> journal = new ArrayList<>();
+        journal.add(new LikeEvent("u1", "a", LIKE));
+        LikeMatrix matrix = new LikeMatrix(() -> journal);
+        matrix.ensureLoaded();
+
+        journal.add(new LikeEvent("u1", "b", LIKE));
+        matrix.ensureLoaded();
+        assertEquals(1, matrix.getItemCount());
+
+        matrix.invalidate();
+        matrix.ensureLoaded();
+        assertEquals(setOf("a", "b"), itemsOf(matrix, matrix.getUserOrdinal("u1")));
+    }
+
+    @Test
+    public void randomUpdates_matchReferenceAcrossCompactions() {
+        Random random = new Random(11);
+        Map<String, Set<String>> expected = new HashMap<>();
+        List<LikeEvent> journal = new ArrayList<>();
+        for (int user = 0; user < 50; user++) {
+            for (int like = 0; like < 10; like++) {
+                String item = "i" + random.nextInt(200);
+                journal.add(new LikeEvent("u" + user, item, LIKE));
+                expected.computeIfAbsent("u" + user, key -> new TreeSet<>()).add(item);
+            }
+        }
+        LikeMatrix matrix = new LikeMatrix(() -> journal);
+        matrix.ensureLoaded();
+
+        // Больше 64 измененных строк: CSR пересобирается несколько раз
+        for (int step = 0; step < 2000; step++) {
+            String user = "u" + random.nextInt(120);
+            String item = "i" + random.nextInt(250);
+            Set<String> row = expected.computeIfAbsent(user, key -> new TreeSet<>());
+            if (random.nextBoolean()) {
+                matrix.apply(user, item, LIKE);
+                row.add(item);
+            } else {
+                matrix.apply(user, item, UNLIKE);
+                row.remove(item);
+            }
+        }
+
+        Map<String, Integer> columnSizes = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : expected.entrySet()) {
+            int user = matrix.getUserOrdinal(entry.getKey());
+            if (entry.getValue().isEmpty()) {
+                assertTrue(user < 0 || matrix.getRowSize(user) == 0);
+                continue;
+            }
+            assertEquals(entry.getValue(), itemsOf(matrix, user));
+            assertEquals(entry.getValue().size(), matrix.getRowSize(user));
+            assertSorted(matrix, user);
+            for (String item : entry.getValue()) {
+                columnSizes.merge(item, 1, Integer::sum);
+            }
+        }
+        for (Map.Entry<String, Integer> entry : columnSizes.entrySet()) {
+            int item = matrix.getItemOrdinal(entry.getKey());
+            assertEquals((int) entry.getValue(), matrix.getColumnSize(item));
+            for (String user : usersOf(matrix, item)) {
+                assertTrue(expected.get(user).contains(entry.getKey()));
+            }
+        }
+    }
+
+    private static Set<String> itemsOf(LikeMatrix matrix, int user) {
+        Set<String> items = new TreeSet<>();
+        matrix.forEachItem(user, item -> items.add(matrix.getItemId(item)));
+        return items;
+    }
+
+    private static Set<String> usersOf(LikeMatrix matrix, int item) {
+        Set<String> users = new TreeSet<>();
+        int[] previous = {-1};
+        matrix.forEachUser(item, user -> {
+            assertTrue(user > previous[0]);
+            previous[0] = user;
+            users.add(matrix.getUserId(user));
+        });
+        return users;
+    }
+
+    private static void assertSorted(LikeMatrix matrix, int user) {
+        int[] previous = {-1};
+        matrix.forEachItem(user, item -> {
+            assertTrue(item > previous[0]);
+            previous[0] = item;
+        });
+    }
+
+    private static Set<String> setOf(String... values) {
+        return new TreeSet<>(Arrays.asList(values));
+    }
+}
@@ -0,0 +1,163 @@
+package com.draker.swipetime.recommendations;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Оценка схожести по MinHash-сигнатурам и полнота поиска соседей в LSH-корзинах
+ * в сравнении с точным коэффициентом Жаккара
+ */
+public class MinHashSignaturesTest {
+
+    private static final int NEIGHBORS = 10;
+
+    @Test
+    public void estimate_isCloseToExactJaccard() {
+        MinHashSignatures signatures = new MinHashSignatures(256);
+        // |A ∩ B| = 50, |A ∪ B| = 150
+        signatures.rebuild(0, action -> range(0, 100).forEach(action::accept));
+        signatures.rebuild(1, action -> range(50, 150).forEach(action::accept));
+
+        assertEquals(1.0 / 3, signatures.estimate(0, 1), 0.1);
+    }
+
+    @Test
+    public void estimate_identicalAndDisjointSets() {
+        MinHashSignatures signatures = new MinHashSignatures(64);
+        signatures.rebuild(0, action -> range(0, 30).forEach(action::accept));
+        signatures.rebuild(1, action -> range(0, 30).forEach(action::accept));
+        signatures.rebuild(2, action -> range(1000, 1030).forEach(action::accept));
+
+        assertEquals(1.0, signatures.estimate(0, 1), 0.0);
+        assertTrue(signatures.estimate(0, 2) < 0.1);
+    }
+
+    @Test
+    public void add_matchesFullRebuild() {
+        MinHashSignatures incremental = new MinHashSignatures(64);
+        MinHashSignatures rebuilt = new MinHashSignatures(64);
+        List<Integer> members = range(0, 40);
+        for (int member : members) {
+            incremental.add(0, member);
+        }
+        incremental.add(1, 5);
+        rebuilt.rebuild(0, action -> members.forEach(action::accept));
+        rebuilt.rebuild(1, action -> action.accept(5));
+
+        assertEquals(rebuilt.estimate(0, 1), incremental.estimate(0, 1), 0.0);
+    }
+
+    @Test
+    public void rebuild_emptySetLeavesBuckets() {
+        MinHashSignatures signatures = new MinHashSignatures(64);
+        signatures.rebuild(0, action -> range(0, 10).forEach(action::accept));
+        signatures.rebuild(1, action -> range(0, 10).forEach(action::accept));
+        assertEquals(1, signatures.nearest(1, NEIGHBORS).size());
+
+        signatures.rebuild(0, action -> { });
+
+        assertEquals(0, signatures.nearest(0, NEIGHBORS).size());
+        assertEquals(0, signatures.nearest(1, NEIGHBORS).size());
+        assertEquals(0.0, signatures.estimate(0, 1), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_rejectsSizeNotMultipleOfBand() {
+        new MinHashSignatures(MinHashSignatures.ROWS_PER_BAND * 8 + 1);
+    }
+
+    @Test
+    public void nearest_findsWellSeparatedGroups() {
+        // Группы по 11 владельцев: 15 общих элементов группы и 5 случайных
+        List<Set<Integer>> sets = new ArrayList<>();
+        Random random = new Random(1);
+        for (int owner = 0; owner < 550; owner++) {
+            Set<Integer> set = new HashSet<>(range(owner / 11 * 100, owner / 11 * 100 + 15));
+            while (set.size() < 20) {
+                set.add(10_000 + random.nextInt(100_000));
+            }
+            sets.add(set);
+        }
+
+        assertTrue(recall(sets, 64) >= 0.95);
+    }
+
+    @Test
+    public void nearest_recallOnOverlappingClusters() {
+        // 10 пересекающихся кластеров: 20 случайных лайков из 50 элементов кластера
+        List<Set<Integer>> sets = new ArrayList<>();
+        Random random = new Random(5);
+        for (int owner = 0; owner < 500; owner++) {
+            Set<Integer> set = new HashSet<>();
+            for (int i = 0; i < 20; i++) {
+                set.add(owner % 10 * 40 + random.nextInt(50));
+            }
+            sets.add(set);
+        }
+
+        double recall64 = recall(sets, 64);
+        double recall128 = recall(sets, 128);
+        assertTrue("Полнота при 64: " + recall64, recall64 >= 0.55);
+        assertTrue("Полнота при 128: " + recall128, recall128 >= 0.65);
+    }
+
+    // Доля точных K ближайших (по Жаккару), найденных в LSH-корзинах
+    private static double recall(List<Set<Integer>> sets, int signatureSize) {
+        MinHashSignatures signatures = new MinHashSignatures(signatureSize);
+        for (int owner = 0; owner < sets.size(); owner++) {
+            Set<Integer> set = sets.get(owner);
+            signatures.rebuild(owner, action -> set.forEach(action::accept));
+        }
+
+        int found = 0;
+        int expected = 0;
+        for (int owner = 0; owner < sets.size(); owner++) {
+            List<Integer> exact = exactNearest(sets, owner);
+            MinHashSignatures.Nearest approximate = signatures.nearest(owner, NEIGHBORS);
+            for (int i = 0; i < approximate.size(); i++) {
+                if (exact.contains(approximate.getOrdinal(i))) {
+                    found++;
+                }
+            }
+            expected += exact.size();
+        }
+        return (double) found / expected;
+    }
+
+    private static List<Integer> exactNearest(List<Set<Integer>> sets, int owner) {
+        double[] similarities = new double[sets.size()];
+        List<Integer> candidates = new ArrayList<>();
+        for (int other = 0; other < sets.size(); other++) {
+            if (other == owner) {
+                continue;
+            }
+            Set<Integer> intersection = new HashSet<>(sets.get(owner));
+            intersection.retainAll(sets.get(other));
+            if (intersection.isEmpty()) {
+                continue;
+            }
+            Set<Integer> union = new HashSet<>(sets.get(owner));
+            union.addAll(sets.get(other));
+            similarities[other] = (double) intersection.size() / union.size();
+            candidates.add(other);
+        }
+        Collections.sort(candidates, (a, b) -> Double.compare(similarities[b], similarities[a]));
+        return candidates.size() > NEIGHBORS ? candidates.subList(0, NEIGHBORS) : candidates;
+    }
+
+    private static List<Integer> range(int from, int to) {
+        List<Integer> values = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            values.add(i);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,140 @@
+package com.draker.swipetime.recommendations;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Список соседей NeighborIndex.Neighbors: порядок по убыванию схожести,
+ * вытеснение последнего при заполнении, обновление и удаление
+ */
+public class NeighborIndexNeighborsTest {
+
+    @Test
+    public void put_keepsDescendingOrder() {
+        NeighborIndex.Neighbors neighbors = new NeighborIndex.Neighbors();
+        assertTrue(neighbors.put(1, 0.3));
+        assertTrue(neighbors.put(2, 0.9));
+        assertTrue(neighbors.put(3, 0.5));
+
+        assertUsers(neighbors, 2, 3, 1);
+        assertEquals(0.9, neighbors.getSimilarity(0), 0.0);
+    }
+
+    @Test
+    public void put_fullListEvictsWeakest() {
+        NeighborIndex.Neighbors neighbors = full();
+
+        // Не лучше последнего, в том числе равный ему, - список не меняется
+        assertFalse(neighbors.put(100, 0.01));
+        assertFalse(neighbors.put(101, 0.1));
+        assertEquals(NeighborIndex.K, neighbors.size());
+
+        assertTrue(neighbors.put(102, 0.55));
+        assertEquals(NeighborIndex.K, neighbors.size());
+        assertEquals(102, neighbors.getUser(5));
+        // Вытеснен пользователь с наименьшей схожестью 0.1
+        assertEquals(0.2, neighbors.getSimilarity(NeighborIndex.K - 1), 1e-9);
+        for (int i = 0; i < neighbors.size(); i++) {
+            assertNotEquals(1, neighbors.getUser(i));
+        }
+    }
+
+    @Test
+    public void put_updatesExistingNeighbor() {
+        NeighborIndex.Neighbors neighbors = full();
+
+        assertFalse(neighbors.put(5, 0.5));
+        assertTrue(neighbors.put(5, 2.0));
+        assertEquals(5, neighbors.getUser(0));
+        assertEquals(NeighborIndex.K, neighbors.size());
+
+        // Схожесть упала ниже всех: пользователь остается последним, а не выпадает
+        assertTrue(neighbors.put(5, 0.05));
+        assertEquals(5, neighbors.getUser(NeighborIndex.K - 1));
+        assertEquals(NeighborIndex.K, neighbors.size());
+    }
+
+    @Test
+    public void put_zeroSimilarityRemoves() {
+        NeighborIndex.Neighbors neighbors = new NeighborIndex.Neighbors();
+        neighbors.put(1, 0.3);
+        neighbors.put(2, 0.6);
+
+        assertFalse(neighbors.put(3, 0.0));
+        assertTrue(neighbors.put(1, 0.0));
+        assertUsers(neighbors, 2);
+        assertFalse(neighbors.put(1, 0.0));
+    }
+
+    @Test
+    public void copy_isIndependent() {
+        NeighborIndex.Neighbors neighbors = new NeighborIndex.Neighbors();
+        neighbors.put(1, 0.3);
+        NeighborIndex.Neighbors copy = neighbors.copy();
+        copy.put(2, 0.5);
+        copy.put(1, 0.0);
+
+        assertUsers(neighbors, 1);
+        assertUsers(copy, 2);
+        assertArrayEquals(new int[]{2}, copy.users());
+    }
+
+    @Test
+    public void randomPuts_matchTopKOfLatestValues() {
+        Random random = new Random(5);
+        NeighborIndex.Neighbors neighbors = new NeighborIndex.Neighbors();
+        Map<Integer, Double> latest = new HashMap<>();
+        for (int step = 0; step < 500; step++) {
+            int user = random.nextInt(30);
+            // Значения не повторяются (шагов меньше 1000), поэтому состав списка однозначен
+            double similarity = random.nextInt(5) == 0 ? 0.0 : step + 1 + 1000.0 * random.nextInt(1000);
+            neighbors.put(user, similarity);
+            latest.put(user, similarity);
+
+            // Список содержит только актуальные значения и упорядочен
+            for (int i = 0; i < neighbors.size(); i++) {
+                assertEquals(latest.get(neighbors.getUser(i)), neighbors.getSimilarity(i), 0.0);
+                if (i > 0) {
+                    assertTrue(neighbors.getSimilarity(i - 1) >= neighbors.getSimilarity(i));
+                }
+            }
+        }
+
+        // Список, заново собранный из последних значений, совпадает с K лучшими из них
+        NeighborIndex.Neighbors rebuilt = new NeighborIndex.Neighbors();
+        List<Map.Entry<Integer, Double>> entries = new ArrayList<>(latest.entrySet());
+        for (Map.Entry<Integer, Double> entry : entries) {
+            rebuilt.put(entry.getKey(), entry.getValue());
+        }
+        entries.removeIf(entry -> entry.getValue() <= 0);
+        entries.sort(Map.Entry.<Integer, Double>comparingByValue(Comparator.reverseOrder()));
+        assertEquals(Math.min(NeighborIndex.K, entries.size()), rebuilt.size());
+        for (int i = 0; i < rebuilt.size(); i++) {
+            assertEquals((int) entries.get(i).getKey(), rebuilt.getUser(i));
+        }
+    }
+
+    // Список из K соседей со схожестью 0.1 (пользователь 1) ... 1.0 (пользователь 10)
+    private static NeighborIndex.Neighbors full() {
+        NeighborIndex.Neighbors neighbors = new NeighborIndex.Neighbors();
+        for (int user = 1; user <= NeighborIndex.K; user++) {
+            neighbors.put(user, user / 10.0);
+        }
+        return neighbors;
+    }
+
+    private static void assertUsers(NeighborIndex.Neighbors neighbors, int... users) {
+        assertEquals(users.length, neighbors.size());
+        for (int i = 0; i < users.length; i++) {
+            assertEquals(users[i], neighbors.getUser(i));
+        }
+    }
+}
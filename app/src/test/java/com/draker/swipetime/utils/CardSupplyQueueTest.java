@@ -0,0 +1,151 @@
+package com.draker.swipetime.utils;
+
+import com.draker.swipetime.models.ContentItem;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * Кольцевой буфер карточек: порядок выдачи, переполнение, переход через границу массива
+ * и пополнение из нескольких потоков
+ */
+public class CardSupplyQueueTest {
+
+    @Test
+    public void capacity_roundsUpToPowerOfTwo() {
+        CardSupplyQueue queue = new CardSupplyQueue(5);
+        for (int i = 0; i < 8; i++) {
+            assertTrue(queue.offer(item(i)));
+        }
+        assertFalse(queue.offer(item(8)));
+        assertEquals(8, queue.size());
+        assertEquals(1, queue.getDroppedCount());
+    }
+
+    @Test
+    public void poll_returnsItemsInOfferOrder() {
+        CardSupplyQueue queue = new CardSupplyQueue(4);
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+
+        queue.offerAll(Arrays.asList(item(1), item(2), item(3)));
+
+        assertEquals("1", queue.poll().getId());
+        assertEquals("2", queue.poll().getId());
+        assertEquals("3", queue.poll().getId());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void offerAll_stopsWhenFull() {
+        CardSupplyQueue queue = new CardSupplyQueue(4);
+        List<ContentItem> items = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            items.add(item(i));
+        }
+
+        assertEquals(4, queue.offerAll(items));
+        assertEquals(4, queue.size());
+    }
+
+    @Test
+    public void wrapsAroundBufferEnd() {
+        CardSupplyQueue queue = new CardSupplyQueue(4);
+        int next = 0;
+        for (int round = 0; round < 10; round++) {
+            queue.offer(item(next++));
+            queue.offer(item(next++));
+            queue.offer(item(next++));
+            assertEquals(String.valueOf(next - 3), queue.poll().getId());
+            assertEquals(String.valueOf(next - 2), queue.poll().getId());
+            assertEquals(String.valueOf(next - 1), queue.poll().getId());
+        }
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.getDroppedCount());
+    }
+
+    @Test
+    public void snapshots_followOrderWithoutConsuming() {
+        CardSupplyQueue queue = new CardSupplyQueue(4);
+        queue.offerAll(Arrays.asList(item(1), item(2), item(3)));
+        queue.poll();
+        queue.offer(item(4));
+        queue.offer(item(5));
+
+        List<String> ids = new ArrayList<>();
+        for (ContentItem item : queue.snapshotItems()) {
+            ids.add(item.getId());
+        }
+        assertEquals(Arrays.asList("2", "3", "4", "5"), ids);
+        assertEquals(new HashSet<>(ids), queue.snapshotIds());
+        assertEquals(4, queue.size());
+    }
+
+    @Test
+    public void clear_emptiesQueue() {
+        CardSupplyQueue queue = new CardSupplyQueue(4);
+        queue.offerAll(Arrays.asList(item(1), item(2)));
+        queue.clear();
+
+        assertTrue(queue.isEmpty());
+        assertTrue(queue.offer(item(3)));
+        assertEquals("3", queue.poll().getId());
+    }
+
+    @Test
+    public void concurrentProducers_everyItemDeliveredOnce() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 5000;
+        CardSupplyQueue queue = new CardSupplyQueue(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    while (!queue.offer(item(base + i))) {
+                        Thread.yield();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        Set<String> received = new HashSet<>();
+        int total = producers * perProducer;
+        while (received.size() < total) {
+            ContentItem item = queue.poll();
+            if (item == null) {
+                Thread.yield();
+                continue;
+            }
+            assertTrue("Повторная выдача " + item.getId(), received.add(item.getId()));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertNull(queue.poll());
+        assertEquals(total, received.size());
+    }
+
+    private static ContentItem item(int id) {
+        return new ContentItem(String.valueOf(id), "Карточка " + id, null, null, "Фильмы");
+    }
+}
@@ -0,0 +1,174 @@
+package com.draker.swipetime.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Операции над FacetBitmap в сравнении с java.util.BitSet на разреженных и плотных блоках
+ */
+public class FacetBitmapTest {
+
+    // Значения захватывают четыре блока по 65536; плотность выбирается так,
+    // чтобы в одних блоках был массив, а в других битовая карта
+    private static final int RANGE = 4 << 16;
+
+    @Test
+    public void addRemoveContains() {
+        FacetBitmap bitmap = new FacetBitmap();
+        bitmap.add(5);
+        bitmap.add(70000);
+        bitmap.add(5);
+
+        assertTrue(bitmap.contains(5));
+        assertTrue(bitmap.contains(70000));
+        assertFalse(bitmap.contains(6));
+        assertEquals(2, bitmap.cardinality());
+
+        bitmap.remove(5);
+        bitmap.remove(12345);
+        assertFalse(bitmap.contains(5));
+        assertEquals(1, bitmap.cardinality());
+
+        bitmap.remove(70000);
+        assertTrue(bitmap.isEmpty());
+    }
+
+    @Test
+    public void denseBlockSwitchesToBitmapAndBack() {
+        FacetBitmap bitmap = new FacetBitmap();
+        BitSet expected = new BitSet();
+        for (int value = 0; value < 10000; value++) {
+            bitmap.add(value * 3);
+            expected.set(value * 3);
+        }
+        assertSameValues(expected, bitmap);
+
+        for (int value = 0; value < 9000; value++) {
+            bitmap.remove(value * 3);
+            expected.clear(value * 3);
+        }
+        assertSameValues(expected, bitmap);
+    }
+
+    @Test
+    public void and_matchesBitSet() {
+        Random random = new Random(1);
+        for (int round = 0; round < 20; round++) {
+            BitSet a = randomSet(random);
+            BitSet b = randomSet(random);
+            BitSet expected = (BitSet) a.clone();
+            expected.and(b);
+
+            FacetBitmap result = toBitmap(a).and(toBitmap(b));
+            assertSameValues(expected, result);
+            assertEquals(expected.cardinality(), toBitmap(a).andCardinality(toBitmap(b)));
+        }
+    }
+
+    @Test
+    public void or_matchesBitSet() {
+        Random random = new Random(2);
+        for (int round = 0; round < 20; round++) {
+            BitSet a = randomSet(random);
+            BitSet b = randomSet(random);
+            BitSet expected = (BitSet) a.clone();
+            expected.or(b);
+
+            assertSameValues(expected, toBitmap(a).or(toBitmap(b)));
+        }
+    }
+
+    @Test
+    public void andNot_matchesBitSet() {
+        Random random = new Random(3);
+        for (int round = 0; round < 20; round++) {
+            BitSet a = randomSet(random);
+            BitSet b = randomSet(random);
+            BitSet expected = (BitSet) a.clone();
+            expected.andNot(b);
+
+            assertSameValues(expected, toBitmap(a).andNot(toBitmap(b)));
+        }
+    }
+
+    @Test
+    public void orAll_andCopyAreIndependent() {
+        Random random = new Random(4);
+        List<FacetBitmap> bitmaps = new ArrayList<>();
+        BitSet expected = new BitSet();
+        for (int i = 0; i < 5; i++) {
+            BitSet set = randomSet(random);
+            expected.or(set);
+            bitmaps.add(toBitmap(set));
+        }
+
+        FacetBitmap union = FacetBitmap.orAll(bitmaps);
+        assertSameValues(expected, union);
+
+        FacetBitmap copy = union.copy();
+        copy.add(RANGE + 1);
+        assertFalse(union.contains(RANGE + 1));
+        assertSameValues(expected, FacetBitmap.orAll(Arrays.asList(new FacetBitmap(), union)));
+        assertTrue(FacetBitmap.orAll(new ArrayList<>()).isEmpty());
+    }
+
+    @Test
+    public void operationsDoNotModifyOperands() {
+        Random random = new Random(5);
+        BitSet a = randomSet(random);
+        BitSet b = randomSet(random);
+        FacetBitmap left = toBitmap(a);
+        FacetBitmap right = toBitmap(b);
+
+        left.and(right);
+        left.or(right);
+        left.andNot(right);
+
+        assertSameValues(a, left);
+        assertSameValues(b, right);
+    }
+
+    /**
+     * Случайное множество: в каждом блоке своя плотность от пустого до почти полного
+     */
+    private static BitSet randomSet(Random random) {
+        BitSet set = new BitSet(RANGE);
+        for (int block = 0; block < RANGE >>> 16; block++) {
+            double density = new double[]{0.0, 0.001, 0.03, 0.2, 0.9}[random.nextInt(5)];
+            for (int low = 0; low < 1 << 16; low++) {
+                if (random.nextDouble() < density) {
+                    set.set((block << 16) | low);
+                }
+            }
+        }
+        return set;
+    }
+
+    private static FacetBitmap toBitmap(BitSet set) {
+        FacetBitmap bitmap = new FacetBitmap();
+        set.stream().forEach(bitmap::add);
+        return bitmap;
+    }
+
+    private static void assertSameValues(BitSet expected, FacetBitmap actual) {
+        assertEquals(expected.cardinality(), actual.cardinality());
+        BitSet values = new BitSet();
+        int[] previous = {-1};
+        actual.forEach(value -> {
+            assertTrue("Значения должны идти по возрастанию", value > previous[0]);
+            previous[0] = value;
+            values.set(value);
+        });
+        assertEquals(expected, values);
+        for (int value = expected.nextSetBit(0); value >= 0; value = expected.nextSetBit(value + 1)) {
+            assertTrue(actual.contains(value));
+        }
+    }
+}
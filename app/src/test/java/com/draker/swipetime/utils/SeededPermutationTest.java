@@ -0,0 +1,94 @@
+package com.draker.swipetime.utils;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Перестановка по зерну: биективность на разных размерах, отбрасывание значений
+ * за пределами диапазона и воспроизводимость порядка
+ */
+public class SeededPermutationTest {
+
+    @Test
+    public void indexAt_isBijectionForAnySize() {
+        int[] sizes = {1, 2, 3, 4, 5, 7, 17, 100, 1000, 1 << 12, (1 << 12) + 1, 65537};
+        for (int size : sizes) {
+            for (long seed : new long[]{0L, 42L, -1L}) {
+                SeededPermutation permutation = new SeededPermutation(size, seed);
+                BitSet seen = new BitSet(size);
+                for (int position = 0; position < size; position++) {
+                    int index = permutation.indexAt(position);
+                    assertTrue("size " + size + ": " + index, index >= 0 && index < size);
+                    assertFalse("size " + size + ": повтор " + index, seen.get(index));
+                    seen.set(index);
+                }
+                assertEquals(size, seen.cardinality());
+            }
+        }
+    }
+
+    @Test
+    public void cycleWalking_followsOrbitOfFullDomainPermutation() {
+        // 1000 лежит между 512 и 1024: перестановка строится на 1024 значениях,
+        // а значения >= 1000 шифруются повторно, пока не попадут в диапазон
+        long seed = 7L;
+        SeededPermutation permutation = new SeededPermutation(1000, seed);
+        SeededPermutation domain = new SeededPermutation(1024, seed);
+
+        int walked = 0;
+        for (int position = 0; position < 1000; position++) {
+            int value = domain.indexAt(position);
+            while (value >= 1000) {
+                value = domain.indexAt(value);
+                walked++;
+            }
+            assertEquals(value, permutation.indexAt(position));
+        }
+        assertTrue("На этих данных должны быть повторные шифрования", walked > 0);
+    }
+
+    @Test
+    public void sameSeedGivesSameOrder_differentSeedsDiffer() {
+        SeededPermutation first = new SeededPermutation(500, 123L);
+        SeededPermutation again = new SeededPermutation(500, 123L);
+        SeededPermutation other = new SeededPermutation(500, SeededPermutation.nextSeed(123L));
+
+        int differences = 0;
+        for (int position = 0; position < 500; position++) {
+            assertEquals(first.indexAt(position), again.indexAt(position));
+            if (first.indexAt(position) != other.indexAt(position)) {
+                differences++;
+            }
+        }
+        assertTrue(differences > 400);
+        assertNotEquals(123L, SeededPermutation.nextSeed(123L));
+    }
+
+    @Test
+    public void order_isNotIdentity() {
+        SeededPermutation permutation = new SeededPermutation(1000, 99L);
+        int fixedPoints = 0;
+        for (int position = 0; position < 1000; position++) {
+            if (permutation.indexAt(position) == position) {
+                fixedPoints++;
+            }
+        }
+        assertTrue(fixedPoints < 20);
+    }
+
+    @Test
+    public void emptyPermutationAndBounds() {
+        SeededPermutation empty = new SeededPermutation(0, 1L);
+        assertEquals(0, empty.size());
+        assertEquals(1L, empty.getSeed());
+        assertThrows(IndexOutOfBoundsException.class, () -> empty.indexAt(0));
+
+        SeededPermutation permutation = new SeededPermutation(10, 1L);
+        assertThrows(IndexOutOfBoundsException.class, () -> permutation.indexAt(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> permutation.indexAt(10));
+        assertThrows(IllegalArgumentException.class, () -> new SeededPermutation(-1, 1L));
+    }
+}
@@ -0,0 +1,135 @@
+package com.draker.swipetime.utils;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Курсор по номерам каталога: каждый номер круга выдается один раз, возврат номеров,
+ * отдельный отрезок для номеров, появившихся за время круга, новый и повторный круги
+ */
+public class ShuffleCursorTest {
+
+    @Test
+    public void next_coversEveryOrdinalOncePerRound() {
+        ShuffleCursor cursor = new ShuffleCursor(17L);
+        BitSet seen = new BitSet();
+        int[] batch;
+        while ((batch = cursor.next(7, 100)).length > 0) {
+            for (int ordinal : batch) {
+                assertTrue(ordinal >= 0 && ordinal < 100);
+                assertFalse("повтор " + ordinal, seen.get(ordinal));
+                seen.set(ordinal);
+            }
+        }
+        assertEquals(100, seen.cardinality());
+        assertEquals(100, cursor.getPosition());
+        assertEquals(0, cursor.next(7, 100).length);
+    }
+
+    @Test
+    public void next_followsSeededPermutation() {
+        ShuffleCursor cursor = new ShuffleCursor(5L);
+        SeededPermutation permutation = new SeededPermutation(50, 5L);
+        int position = 0;
+        int[] batch;
+        while ((batch = cursor.next(8, 50)).length > 0) {
+            for (int ordinal : batch) {
+                assertEquals(permutation.indexAt(position++), ordinal);
+            }
+        }
+        assertEquals(50, position);
+    }
+
+    @Test
+    public void unread_returnsTailOfLastBatch() {
+        ShuffleCursor cursor = new ShuffleCursor(3L);
+        int[] first = cursor.next(10, 40);
+        cursor.unread(4);
+        assertEquals(6, cursor.getPosition());
+
+        int[] again = cursor.next(4, 40);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(first[6 + i], again[i]);
+        }
+        assertThrows(IllegalArgumentException.class, () -> cursor.unread(5));
+        assertThrows(IllegalArgumentException.class, () -> cursor.unread(-1));
+    }
+
+    @Test
+    public void grownCatalog_isWalkedAsNextSegment() {
+        ShuffleCursor cursor = new ShuffleCursor(9L);
+        BitSet seen = new BitSet();
+        for (int ordinal : cursor.next(30, 30)) {
+            seen.set(ordinal);
+        }
+        assertEquals(30, seen.cardinality());
+
+        // За время круга в каталог добавили 20 элементов
+        int[] batch;
+        while ((batch = cursor.next(6, 50)).length > 0) {
+            for (int ordinal : batch) {
+                assertTrue(ordinal >= 30 && ordinal < 50);
+                assertFalse(seen.get(ordinal));
+                seen.set(ordinal);
+            }
+        }
+        assertEquals(50, seen.cardinality());
+    }
+
+    @Test
+    public void restart_beginsNewRoundWithNewSeed() {
+        ShuffleCursor cursor = new ShuffleCursor(1L);
+        while (cursor.next(16, 20).length > 0) {
+            // дочитываем круг
+        }
+
+        long seed = SeededPermutation.nextSeed(1L);
+        cursor.restart(seed);
+        assertEquals(seed, cursor.getSeed());
+        assertEquals(0, cursor.getPosition());
+        int[] batch = cursor.next(20, 20);
+        assertEquals(20, batch.length);
+        assertEquals(new SeededPermutation(20, seed).indexAt(0), batch[0]);
+    }
+
+    @Test
+    public void repeatRounds_inARow_keepFlagAndCoverEveryOrdinalOnce() {
+        ShuffleCursor cursor = new ShuffleCursor(4L);
+        assertFalse(cursor.isRepeatRound());
+        while (cursor.next(16, 30).length > 0) {
+            // первый круг: все элементы показаны
+        }
+
+        long seed = 4L;
+        for (int round = 0; round < 2; round++) {
+            seed = SeededPermutation.nextSeed(seed);
+            cursor.restart(seed, true);
+            BitSet seen = new BitSet();
+            int[] batch;
+            while ((batch = cursor.next(7, 30)).length > 0) {
+                // Отметка держится весь круг, а не только на первой партии
+                assertTrue(cursor.isRepeatRound());
+                for (int ordinal : batch) {
+                    assertFalse("повтор " + ordinal + " в круге " + round, seen.get(ordinal));
+                    seen.set(ordinal);
+                }
+            }
+            assertEquals(30, seen.cardinality());
+            assertTrue(cursor.isRepeatRound());
+        }
+
+        // После сброса истории обход начинается обычным кругом
+        cursor.restart(SeededPermutation.nextSeed(seed));
+        assertFalse(cursor.isRepeatRound());
+    }
+
+    @Test
+    public void emptyCatalog_endsRoundImmediately() {
+        ShuffleCursor cursor = new ShuffleCursor(2L);
+        assertEquals(0, cursor.next(10, 0).length);
+        assertEquals(3, cursor.next(3, 5).length);
+    }
+}